@@ -0,0 +1,15 @@
+package com.alike.customexceptions;
+
+/**
+ * Thrown when a set of edges that is expected to form a single tour through every node of a graph does not.
+ * @author alike
+ */
+public class InvalidTourException extends Exception {
+    /**
+     * Constructs a new @code{InvalidTourException} object.
+     * @param msg The message to be displayed when the stack trace is printed.
+     */
+    public InvalidTourException(String msg) {
+        super(msg);
+    }
+}
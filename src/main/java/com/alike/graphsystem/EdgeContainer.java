@@ -1,8 +1,11 @@
 package com.alike.graphsystem;
 
 import com.alike.customexceptions.EdgeSuperimpositionException;
+import com.alike.customexceptions.EdgeToSelfException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -28,6 +31,45 @@ public class EdgeContainer {
         editCount = 0;
     }
 
+    /**
+     * Constructs a new @code{EdgeContainer} holding the closed tour that visits the given nodes in order. Consecutive
+     * nodes of a tour can never share an edge, so the O(n) superimposition check of @code{add} is skipped and the
+     * container is built in O(n).
+     * @param tour The nodes of the tour, in the order they are visited (each node exactly once).
+     * @return edgeContainer The new @code{EdgeContainer}.
+     * @throws EdgeToSelfException Thrown if the tour has fewer than 2 nodes or visits a node twice in a row.
+     */
+    public static EdgeContainer fromCycle(Node[] tour) throws EdgeToSelfException {
+        ArrayList<Edge> edges = new ArrayList<>(tour.length);
+        for (int i = 0; i < tour.length; i++) {
+            edges.add(new Edge(tour[i], tour[(i + 1) % tour.length]));
+        }
+        EdgeContainer edgeContainer = new EdgeContainer();
+        edgeContainer.edgeSet = new CopyOnWriteArrayList<>(edges); // Copies the array once, rather than per edge.
+        edgeContainer.editCount = edges.size();
+        return edgeContainer;
+    }
+
+    /**
+     * Replaces the edges at some positions of the edge set in a single copy of the set, rather than the copy per edge
+     * that @code{remove} and @code{add} would make. The caller is responsible for the new edges not being superimposed
+     * on any edges left in the set.
+     * @param indices The positions in the edge set of the edges to replace.
+     * @param edges The new edges, where @code{edges[i]} replaces the edge at @code{indices[i]}.
+     * @param count The number of edges to replace.
+     */
+    public void patch(int[] indices, Edge[] edges, int count) {
+        if (count == 0) {
+            return;
+        }
+        Edge[] patched = edgeSet.toArray(new Edge[0]);
+        for (int i = 0; i < count; i++) {
+            patched[indices[i]] = edges[i];
+        }
+        edgeSet = new CopyOnWriteArrayList<>(patched);
+        editCount += count;
+    }
+
     /**
      * Used to add to the edge set in this edge container object.
      * @param e A new Edge object to add to this container.
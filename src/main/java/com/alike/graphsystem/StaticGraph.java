@@ -153,6 +153,18 @@ public class StaticGraph implements Graph {
         return graphCopy;
     }
 
+    /**
+     * Returns a graph that shares this graph's node container and edge length matrix, which must then not be changed,
+     * but has an empty edge container of its own, so that several solvers can work on the same nodes at once. Unlike
+     * @code{copy} it does not re-check the nodes or copy the edges.
+     * @return graphCopy The new graph.
+     */
+    public StaticGraph sharedCopy() {
+        StaticGraph graphCopy = new StaticGraph(getNodeContainer());
+        graphCopy.setEdgeLengthMatrix(getEdgeLengthMatrix());
+        return graphCopy;
+    }
+
     /**
      * Call to construct a matrix containing all the edge lengths between each node in the graph. Method is not called
      * automatically, so for a graph to have an edge length matrix value, this MUST be called.
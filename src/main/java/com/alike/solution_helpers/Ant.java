@@ -8,10 +8,10 @@ import com.alike.graphsystem.Edge;
 import com.alike.graphsystem.EdgeContainer;
 import com.alike.graphsystem.Node;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.SplittableRandom;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * The class represent an Ant for use by the @code{AntColonyOptimisationSolver} class.
@@ -24,10 +24,26 @@ public class Ant implements Callable<Ant> {
     private AntColonyOptimisationSolver acos;
 
     /**
-     * The edge container this ant will output.
+     * The edge container this ant will output (built from the @code{tour} the first time it is requested).
      */
     private EdgeContainer route;
 
+    /**
+     * The IDs of the nodes in the order this ant visited them.
+     */
+    private int[] tour;
+
+    /**
+     * The length of this ant's closed tour.
+     */
+    private double tourLength;
+
+    /**
+     * The random number generator this ant makes its choices with, or null to use the calling thread's
+     * @code{ThreadLocalRandom} (seeded ants always make the same choices given the same pheromone levels).
+     */
+    private final SplittableRandom random;
+
     /**
      * The unique ID of this ant.
      */
@@ -44,10 +60,9 @@ public class Ant implements Callable<Ant> {
     private static final int INVALID_NODE_IDX = -1;
 
     /**
-     * Storing the number of nodes statically to more efficiently use this value (before we had each ant checking it
-     * multiple times).
+     * The number of nodes in the graph this ant is traversing (stored to avoid checking it on every step).
      */
-    private static int numNodes;
+    private int numNodes;
 
     /**
      * Constructor initialises a new ant.
@@ -57,6 +72,19 @@ public class Ant implements Callable<Ant> {
         setAcos(acos); // Set the sovler reference
         assignAntID(); // Give the ant a unique id
         setNumNodes(getAcos().getGraph().getNumNodes());
+        this.random = null;
+    }
+
+    /**
+     * Constructor initialises a new ant that makes its choices using its own seeded random number generator.
+     * @param acos A reference to the @code{AntColonyOptimisationSolver} object this ant is working for.
+     * @param seed The seed of the ant's random number generator.
+     */
+    public Ant(AntColonyOptimisationSolver acos, long seed) {
+        setAcos(acos);
+        assignAntID();
+        setNumNodes(getAcos().getGraph().getNumNodes());
+        this.random = new SplittableRandom(seed);
     }
 
     /**
@@ -65,54 +93,32 @@ public class Ant implements Callable<Ant> {
      */
     @Override
     public Ant call() {
+        RandomGenerator rng = random != null ? random : ThreadLocalRandom.current();
+        // Only ants of the asynchronous ant system lay pheromone as they go; others leave it to the solver.
+        boolean layPheromone = acos.getUpdateStrategy() == AntColonyOptimisationSolver.UpdateStrategy.ASYNCHRONOUS;
         // Ant chooses a random node to start at.
-        int startNodeID = ThreadLocalRandom.current().nextInt(numNodes);
-        // Create space to store the nodes that the ant chooses to traverse as its route.
-        ArrayList<Node> orderedNodes = new ArrayList<>(numNodes);
-        // We need to have a unique hashmap for every ant to know which nodes it has and hasn't visited.
-        HashMap<Integer, Boolean> nodesVisitationLog = new HashMap<>(numNodes);
-        // Initialise all nodes as false
-        for (Node nd : acos.getGraph().getNodeContainer().getNodeSet()) {
-            nodesVisitationLog.put(nd.getNodeID(), false);
-        }
-        // Set initial node to visited
-        nodesVisitationLog.put(startNodeID, true);
+        int startNodeID = rng.nextInt(numNodes);
+        tour = new int[numNodes];
+        tour[0] = startNodeID;
+        // Every ant needs to know which nodes it has and hasn't visited (all false to begin with).
+        boolean[] visited = new boolean[numNodes];
+        visited[startNodeID] = true;
         double routeLength = 0.0; // Need to actively record the route length to adjust pheromone levels.
-        int numVisitedNodes = 0; // Record the number of nodes the ant has visited.
         int currentNodeId = startNodeID; // Copy start node ID as an index for use in matrices.
-        int destinationNodeId = INVALID_NODE_IDX; // Define the current destination node as invalid (we haven't found it yet).
-        // Get the new destination node
-        if (numVisitedNodes != numNodes) {
-            try {
-                destinationNodeId = getDestinationNode(currentNodeId, nodesVisitationLog);
-            } catch (NonExistentNodeException e) {
-                e.printStackTrace();
-            }
-        }
-        // While destination node is not invalid we can add the next destination node to our route.
-        while (destinationNodeId != INVALID_NODE_IDX) {
-            try {
-                orderedNodes.add(acos.getGraph().getNodeContainer().getNodeByID(currentNodeId)); // Add destination node to route.
-                numVisitedNodes++;
-                routeLength += acos.getDistanceMatrix()[currentNodeId][destinationNodeId];
+        // Visit every other node once.
+        for (int numVisitedNodes = 1; numVisitedNodes < numNodes; numVisitedNodes++) {
+            int destinationNodeId = getDestinationNode(currentNodeId, visited, rng);
+            routeLength += acos.distance(currentNodeId, destinationNodeId);
+            if (layPheromone) {
                 adjustPheremoneLevel(currentNodeId, destinationNodeId, routeLength); // Adjust pheromone levels of the edge we just traversed.
-                nodesVisitationLog.put(destinationNodeId, true); // Set to visited in hashmap
-                currentNodeId = destinationNodeId; // Destination node is now the current node.
-                if (numVisitedNodes != numNodes) { // If we haven't visited all nodes
-                    destinationNodeId = getDestinationNode(currentNodeId, nodesVisitationLog); // Get the next destination node
-                } else {
-                    destinationNodeId = INVALID_NODE_IDX; // Otherwise reset destination to be INVALID_NODE_IDX
-                }
-            } catch (NonExistentNodeException e) {
-                e.printStackTrace();
             }
+            visited[destinationNodeId] = true;
+            tour[numVisitedNodes] = destinationNodeId;
+            currentNodeId = destinationNodeId; // Destination node is now the current node.
             RepeatedFunctions.sleep(acos.getDelayPerStep());
         }
-        try {
-            orderedNodes.add(acos.getGraph().getNodeContainer().getNodeByID(currentNodeId)); // Add the final node to our route
-        } catch (NonExistentNodeException ignored) {}
-        // Add our startNode again here?
-        route = createRouteFromNodeSet(orderedNodes); // Construct an edge container using the routeNodes array.
+        tourLength = routeLength + acos.distance(currentNodeId, startNodeID); // Close the tour.
+        route = null; // Built on request.
         return this;
     }
 
@@ -123,47 +129,41 @@ public class Ant implements Callable<Ant> {
      * @param distance The distance between these two nodes.
      */
     private void adjustPheremoneLevel(int currentNodeId, int destinationNodeId, double distance) {
-        boolean done = false;
-        while (!done) {
-            double currentPheromoneLevel = acos.getPheromoneLevelMatrix()[currentNodeId][destinationNodeId].doubleValue();
-            double updatedPheromoneLevel = (1 - acos.getRh0()) * currentPheromoneLevel + (acos.getQ()/distance);
-            if (updatedPheromoneLevel < 0.0) { // If all the pheromone has evaporated between nodes x and y.
-                done = acos.getPheromoneLevelMatrix()[currentNodeId][destinationNodeId].compareAndSet(0); // Reset to 0
-            } else { // Otherwise set the pheromone level to the newly updated level.
-                done = acos.getPheromoneLevelMatrix()[currentNodeId][destinationNodeId].compareAndSet(updatedPheromoneLevel);
-            }
-        }
+        acos.getPheromoneLevelMatrix().evaporateAndDeposit(currentNodeId, destinationNodeId, acos.getRh0(),
+                acos.getQ()/distance);
     }
 
     /**
-     * Chooses the next destination node.
+     * Chooses the next destination node. If the solver keeps candidate lists, only the unvisited candidates of the
+     * current node are considered (see @code{getCandidateDestinationNode}).
      * @param currNode The current node.
-     * @param visitedNodes A hashmap containing whether we have or haven't visited nodes.
+     * @param visitedNodes An array recording whether we have or haven't visited each node.
+     * @param rng The random number generator used to make the choice.
      * @return @code{destinationNode} The node that has been chosen to visit next.
-     * @throws NonExistentNodeException Thrown if a node ID is referenced but does not exist.
      */
-    private int getDestinationNode(int currNode, HashMap<Integer, Boolean> visitedNodes) throws NonExistentNodeException {
-        int destinationNode = INVALID_NODE_IDX;
-        // A list containing probabilities of moving to other nodes from the current node.
-        ArrayList<Double> transitionProbabilities = getTransitionProbabilities(currNode, visitedNodes);
-        /* Try to find a next node by choosing a random number and selecting a node with a transitional probability
-           higher than it. If we didnt find one, lower the random number by some amount (note this is unpredictable and
-           will not always return the highest probability node.
-         */
-        double random = ThreadLocalRandom.current().nextDouble();
+    private int getDestinationNode(int currNode, boolean[] visitedNodes, RandomGenerator rng) {
+        CandidateLists candidateLists = acos.getCandidateLists();
+        if (candidateLists != null) {
+            return getCandidateDestinationNode(currNode, visitedNodes, candidateLists, rng);
+        }
+        double[] choiceInfo = acos.getChoiceInfo();
+        int row = currNode * numNodes;
+        // The denominator of the transitional probability function.
+        double denominator = 0.0;
         for (int y = 0; y < numNodes; y++) {
-            if (transitionProbabilities.get(y) > random && !visitedNodes.get(y)) {
-                destinationNode = y;
-                break;
-            } else {
-                random -= transitionProbabilities.get(y);
+            if (!visitedNodes[y]) {
+                denominator += choiceInfo[row + y];
             }
         }
-        // If we didnt select one, but still havent visited all, visit the first one we can.
-        if (!allVisited(visitedNodes) && destinationNode == INVALID_NODE_IDX) {
-            for (int y = 0; y < numNodes; y++) {
-                if (!visitedNodes.get(y)) {
-                    destinationNode = y;
+        // Spin a roulette wheel where each unvisited node has a slice the size of its numerator.
+        double random = rng.nextDouble() * denominator;
+        int destinationNode = INVALID_NODE_IDX;
+        for (int y = 0; y < numNodes; y++) {
+            if (!visitedNodes[y]) {
+                destinationNode = y; // Also means we fall back on the last unvisited node if rounding leaves us short.
+                random -= choiceInfo[row + y];
+                if (random < 0.0) {
+                    break;
                 }
             }
         }
@@ -171,92 +171,102 @@ public class Ant implements Callable<Ant> {
     }
 
     /**
-     * Gets the transition probabilities to each node from the current node.
-     * @param currentNodeID The index of the current node.
-     * @param visitedNodes The hashmap containing whether we have visited each node.
-     * @return @code{transitionProbabilities} An ArrayList containing transitional probabilities for each node.
-     * @throws NonExistentNodeException Thrown when a node ID is referenced but does not exist.
-     */
-    private ArrayList<Double> getTransitionProbabilities(int currentNodeID, HashMap<Integer, Boolean> visitedNodes) {
-        // Create space for output
-        ArrayList<Double> transitionProbabilities = new ArrayList<>(acos.getGraph().getNumNodes());
-        // Populate with 0s
-        for (int i = 0; i < acos.getGraph().getNumNodes(); i++) {
-            transitionProbabilities.add(0.0);
-        }
-        // Get the denominator of the function
-        double denominator = getTPDenominator(transitionProbabilities, currentNodeID, visitedNodes);
-        // Set the transition probability values to new values using the denominator.
-        for (int y = 0; y < numNodes; y++) {
-            transitionProbabilities.set(y, transitionProbabilities.get(y)/denominator);
-        }
-        return transitionProbabilities;
-    }
-
-    /**
-     * Returns the value of the denominator of the transitional probability function.
-     * @param transitionProbabilities The array list from which we are calculating the denominator.
-     * @param x The ID of the current node.
-     * @param visitedCities The hashmap containing information on the nodes whether they've been visited or not.
-     * @return @code{denominator} The denominator given these parameters.
+     * Chooses the next destination node from the unvisited candidates of the current node, with a probability
+     * proportional to their choice info. If every candidate has been visited, the unvisited node with the highest
+     * choice info is chosen instead; the solver only stores the choice info of candidate edges, so the choice info of
+     * the other nodes is calculated on demand.
+     * @param currNode The current node.
+     * @param visitedNodes An array recording whether we have or haven't visited each node.
+     * @param candidateLists The candidate lists of the solver.
+     * @param rng The random number generator used to make the choice.
+     * @return @code{destinationNode} The node that has been chosen to visit next.
      */
-    private double getTPDenominator(ArrayList<Double> transitionProbabilities, int x, HashMap<Integer, Boolean> visitedCities) {
+    private int getCandidateDestinationNode(int currNode, boolean[] visitedNodes, CandidateLists candidateLists,
+                                            RandomGenerator rng) {
+        double[] choiceInfo = acos.getCandidateChoiceInfo();
+        int[] candidates = candidateLists.getCandidates();
+        int k = candidateLists.getK();
+        int offset = currNode * k;
         double denominator = 0.0;
-        for (int y = 0; y < numNodes; y++) { // Loop through the nodes
-            if (!visitedCities.get(y)) { // If the node is not visited
-                if (x == y) { // If it's the node we are currently on, set the probability to 0 (or get stuck).
-                    transitionProbabilities.set(y, 0.0);
-                } else { // If not, then set the probability to the output of getTPNumerator().
-                    transitionProbabilities.set(y, getTPNumerator(x, y));
+        for (int c = offset; c < offset + k; c++) {
+            if (!visitedNodes[candidates[c]]) {
+                denominator += choiceInfo[c];
+            }
+        }
+        if (denominator > 0.0) { // Spin the roulette wheel over the unvisited candidates only.
+            double random = rng.nextDouble() * denominator;
+            int destinationNode = INVALID_NODE_IDX;
+            for (int c = offset; c < offset + k; c++) {
+                if (!visitedNodes[candidates[c]]) {
+                    destinationNode = candidates[c];
+                    random -= choiceInfo[c];
+                    if (random < 0.0) {
+                        break;
+                    }
                 }
-                denominator += transitionProbabilities.get(y); // Add the value of the whatever we just did.
             }
+            return destinationNode;
         }
-        return denominator;
-    }
-
-    /**
-     * Gets the value of the transitional probabilty function numerator.
-     * @param x The position in the x direction of this edge in the pheromone and distance matrices.
-     * @param y The position in the y direction of the current edge in the pheromone and distance matrices.
-     * @return numerator The value of the transitional probability function numerator.
-     */
-    private double getTPNumerator(int x, int y) {
-        double numerator = 0.0;
-        double pheromoneLevel = acos.getPheromoneLevelMatrix()[x][y].doubleValue();
-        if (pheromoneLevel != 0.0) { // If pheromone level not 0
-            numerator = Math.pow(pheromoneLevel, acos.getAlpha()) * Math.pow(1/acos.getDistanceMatrix()[x][y], acos.getBeta());
+        // Every candidate has been visited - fall back on the best remaining node.
+        int destinationNode = INVALID_NODE_IDX;
+        double best = -1.0;
+        for (int y = 0; y < numNodes; y++) {
+            if (!visitedNodes[y]) {
+                double info = acos.choiceInfo(currNode, y);
+                if (info > best) {
+                    best = info;
+                    destinationNode = y;
+                }
+            }
         }
-        return numerator;
+        return destinationNode;
     }
 
     /**
-     * Creates a @code{EdgeContainer} object containing a complete route given an arraylist of nodes.
-     * @param routeNodes The ArrayList of nodes from which to construct a @code{EdgeContainer}.
+     * Creates a @code{EdgeContainer} object containing the complete route described by the @code{tour}.
      * @return @code{edgeContainer} The new @code{EdgeContainer}.
      */
-    private EdgeContainer createRouteFromNodeSet(ArrayList<Node> routeNodes) {
+    private EdgeContainer createRouteFromTour() {
         EdgeContainer edgeContainer = new EdgeContainer();
         try {
-            for (int idx = 0; idx < routeNodes.size(); idx++) {
-                Node startNode = routeNodes.get(idx);
-                Node endNode = routeNodes.get((idx + 1) % routeNodes.size());
+            for (int idx = 0; idx < tour.length; idx++) {
+                Node startNode = acos.getGraph().getNodeContainer().getNodeByID(tour[idx]);
+                Node endNode = acos.getGraph().getNodeContainer().getNodeByID(tour[(idx + 1) % tour.length]);
                 edgeContainer.add(new Edge(startNode, endNode));
             }
-        } catch (EdgeToSelfException | EdgeSuperimpositionException e) {
+        } catch (EdgeToSelfException | EdgeSuperimpositionException | NonExistentNodeException e) {
             e.printStackTrace();
         }
         return edgeContainer;
     }
 
     /**
-     * Returns the route the Ant took.
+     * Returns the route the Ant took, constructing it from the ant's tour the first time it is requested.
      * @return route The value of the @code{route} attribute.
      */
     public EdgeContainer getRoute() {
+        if (route == null && tour != null) {
+            route = createRouteFromTour();
+        }
         return route;
     }
 
+    /**
+     * Returns the value of the @code{tour} attribute.
+     * @return tour The IDs of the nodes in the order the ant visited them.
+     */
+    public int[] getTour() {
+        return tour;
+    }
+
+    /**
+     * Returns the value of the @code{tourLength} attribute.
+     * @return tourLength The length of the ant's closed tour.
+     */
+    public double getTourLength() {
+        return tourLength;
+    }
+
     /**
      * Assigns the ant a new ID during the constructor.
      */
@@ -298,24 +308,18 @@ public class Ant implements Callable<Ant> {
     }
 
     /**
-     * Sets the static variable @code{numNodes} to a new value.
-     * @param numNodes The new value to become the @code{numNodes} attribute.
+     * Returns the value of the @code{numNodes} attribute.
+     * @return numNodes The value of the @code{numNodes} attribute.
      */
-    public static void setNumNodes(int numNodes) {
-        Ant.numNodes = numNodes;
+    public int getNumNodes() {
+        return numNodes;
     }
 
     /**
-     * Checks if all the nodes have been visited.
-     * @param visitationLog The hashmap containing whether nodes have been visited.
-     * @return boolean true if all nodes have been visited, false if not.
+     * Sets the @code{numNodes} attribute to a new value.
+     * @param numNodes The new value to become the @code{numNodes} attribute.
      */
-    private boolean allVisited(HashMap<Integer, Boolean> visitationLog) {
-        for (int i = 0; i <= numNodes-1; i++) {
-            if (!visitationLog.get(i)) {
-                return false;
-            }
-        }
-        return true;
+    public void setNumNodes(int numNodes) {
+        this.numNodes = numNodes;
     }
 }
@@ -0,0 +1,177 @@
+package com.alike.solution_helpers;
+
+/**
+ * An array based tour for use by local search solvers. The order of the nodes and the position of each node are both
+ * stored, so @code{next}, @code{prev} and @code{between} are O(1). Reversing a path is O(n) in the worst case, but
+ * only the shorter of the path and the rest of the tour is ever reversed; a direction flag keeps the tour's logical
+ * orientation the same whichever side was reversed.
+ * @author alike
+ */
+public class ArrayTour implements Tour {
+    /**
+     * The nodes of the tour in (raw) order.
+     */
+    private final int[] order;
+
+    /**
+     * The position of each node in the @code{order} array.
+     */
+    private final int[] pos;
+
+    /**
+     * Whether the logical orientation of the tour is the reverse of the order of the @code{order} array.
+     */
+    private boolean reversed = false;
+
+    /**
+     * Constructs a new @code{ArrayTour}.
+     * @param tour The nodes of the tour, in order (each node from 0 to n - 1 exactly once).
+     */
+    public ArrayTour(int[] tour) {
+        this.order = tour.clone();
+        this.pos = new int[tour.length];
+        for (int i = 0; i < order.length; i++) {
+            pos[order[i]] = i;
+        }
+    }
+
+    /**
+     * Replaces the tour with another of the same nodes, reusing this tour's arrays so that nothing is allocated.
+     * @param tour The nodes of the new tour, in order (each node from 0 to n - 1 exactly once).
+     */
+    public void load(int[] tour) {
+        System.arraycopy(tour, 0, order, 0, order.length);
+        for (int i = 0; i < order.length; i++) {
+            pos[order[i]] = i;
+        }
+        reversed = false;
+    }
+
+    /**
+     * Copies the nodes of the tour in order into an array, starting from the first node of the raw order, without
+     * allocating.
+     * @param tour The array to fill (of length n).
+     */
+    public void copyInto(int[] tour) {
+        int node = order[0];
+        for (int i = 0; i < order.length; i++) {
+            tour[i] = node;
+            node = next(node);
+        }
+    }
+
+    /**
+     * Returns the node after a node in the tour.
+     * @param node The node.
+     * @return next The node after it.
+     */
+    @Override
+    public int next(int node) {
+        return reversed ? rawPrev(node) : rawNext(node);
+    }
+
+    /**
+     * Returns the node before a node in the tour.
+     * @param node The node.
+     * @return prev The node before it.
+     */
+    @Override
+    public int prev(int node) {
+        return reversed ? rawNext(node) : rawPrev(node);
+    }
+
+    /**
+     * Returns whether b lies on the path that travels forwards from a to c (inclusive of a and c).
+     * @param a The start of the path.
+     * @param b The node to check for.
+     * @param c The end of the path.
+     * @return between True if b is on the path.
+     */
+    @Override
+    public boolean between(int a, int b, int c) {
+        int n = order.length;
+        if (reversed) {
+            return Math.floorMod(pos[a] - pos[b], n) <= Math.floorMod(pos[a] - pos[c], n);
+        }
+        return Math.floorMod(pos[b] - pos[a], n) <= Math.floorMod(pos[c] - pos[a], n);
+    }
+
+    /**
+     * Reverses the path that travels forwards from a to b, i.e. turns ... p a ... b n ... into ... p b ... a n ...
+     * (the 2-opt move that removes the edges (p, a) and (b, n) and adds (p, b) and (a, n)).
+     * @param a The first node of the path.
+     * @param b The last node of the path.
+     */
+    @Override
+    public void flip(int a, int b) {
+        int n = order.length;
+        int i = reversed ? pos[b] : pos[a]; // The raw start and end of the path.
+        int j = reversed ? pos[a] : pos[b];
+        int length = Math.floorMod(j - i, n) + 1;
+        if (length * 2 > n) { // Cheaper to reverse the rest of the tour and flip our orientation.
+            int start = (j + 1) % n;
+            j = Math.floorMod(i - 1, n);
+            i = start;
+            length = n - length;
+            reversed = !reversed;
+        }
+        for (int swaps = length / 2; swaps > 0; swaps--) {
+            int x = order[i];
+            int y = order[j];
+            order[i] = y;
+            pos[y] = i;
+            order[j] = x;
+            pos[x] = j;
+            i = i + 1 == n ? 0 : i + 1;
+            j = j == 0 ? n - 1 : j - 1;
+        }
+    }
+
+    /**
+     * Reverses the orientation of the whole tour in O(1), so that @code{next} and @code{prev} swap.
+     */
+    @Override
+    public void reverse() {
+        reversed = !reversed;
+    }
+
+    /**
+     * Returns the nodes of the tour in order, starting from the first node of the raw order.
+     * @return tour The nodes of the tour, in order.
+     */
+    @Override
+    public int[] toArray() {
+        int[] tour = new int[order.length];
+        copyInto(tour);
+        return tour;
+    }
+
+    /**
+     * Returns the number of nodes in the tour.
+     * @return numNodes The number of nodes in the tour.
+     */
+    @Override
+    public int getNumNodes() {
+        return order.length;
+    }
+
+    /**
+     * Returns the node after a node in the raw order.
+     * @param node The node.
+     * @return next The node after it in the @code{order} array.
+     */
+    private int rawNext(int node) {
+        int i = pos[node] + 1;
+        return order[i == order.length ? 0 : i];
+    }
+
+    /**
+     * Returns the node before a node in the raw order.
+     * @param node The node.
+     * @return prev The node before it in the @code{order} array.
+     */
+    private int rawPrev(int node) {
+        int i = pos[node];
+        return order[i == 0 ? order.length - 1 : i - 1];
+    }
+}
@@ -0,0 +1,213 @@
+package com.alike.solution_helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Holds the k nearest neighbours (candidates) of every node in a graph, nearest first. Solvers use these lists to
+ * restrict the nodes they consider at each step to the few that are likely to be part of a good route.
+ * @author alike
+ */
+public class CandidateLists {
+    /**
+     * A flat array holding the candidates of each node; the candidates of node x are stored (nearest first) from index
+     * x * k to x * k + k - 1.
+     */
+    private final int[] candidates;
+
+    /**
+     * The number of candidates held for each node.
+     */
+    private final int k;
+
+    /**
+     * The number of nodes candidates are held for.
+     */
+    private final int numNodes;
+
+    /**
+     * Constructs a new @code{CandidateLists} object from an already populated flat candidate array.
+     * @param candidates The flat array of candidates (see the @code{candidates} attribute).
+     * @param k The number of candidates held for each node.
+     */
+    public CandidateLists(int[] candidates, int k) {
+        this.candidates = candidates;
+        this.k = k;
+        this.numNodes = k == 0 ? 0 : candidates.length / k;
+    }
+
+    /**
+     * Builds the candidate lists of every node from a distance matrix such as the one constructed by
+     * @code{StaticGraph.constructEdgeLengthMatrix}.
+     * @param distanceMatrix The matrix of distances between each pair of nodes.
+     * @param k The number of candidates to find for each node (capped at the number of nodes - 1).
+     * @return candidateLists The new @code{CandidateLists} object.
+     */
+    public static CandidateLists fromDistanceMatrix(Double[][] distanceMatrix, int k) {
+        return build(distanceMatrix.length, k, (x, y) -> distanceMatrix[x][y]);
+    }
+
+    /**
+     * Builds the candidate lists of every node of a @code{NodeGeometry}. The nearest nodes are found with a
+     * @code{KdTree}, so this takes O(n log n) time rather than the O(n^2) of a distance matrix.
+     * @param geometry The positions of the nodes.
+     * @param k The number of candidates to find for each node (capped at the number of nodes - 1).
+     * @return candidateLists The new @code{CandidateLists} object.
+     */
+    public static CandidateLists fromGeometry(NodeGeometry geometry, int k) {
+        int numNodes = geometry.getNumNodes();
+        k = Math.max(0, Math.min(k, numNodes - 1));
+        KdTree tree = new KdTree(geometry);
+        int[] candidates = new int[numNodes * k];
+        findNearest(tree, tree.getTreeOrder(), 0, numNodes, k, candidates);
+        return new CandidateLists(candidates, k);
+    }
+
+    /**
+     * Builds the candidate lists of every node of a @code{NodeGeometry}, splitting the searches between the threads
+     * of an executor service (the tree can be searched by any number of threads at once).
+     * @param geometry The positions of the nodes.
+     * @param k The number of candidates to find for each node (capped at the number of nodes - 1).
+     * @param executorService The executor service the searches are run on.
+     * @return candidateLists The new @code{CandidateLists} object.
+     */
+    public static CandidateLists fromGeometry(NodeGeometry geometry, int k, ExecutorService executorService) {
+        int numNodes = geometry.getNumNodes();
+        int numChunks = 4 * Runtime.getRuntime().availableProcessors();
+        if (numNodes < numChunks * 1000) {
+            return fromGeometry(geometry, k);
+        }
+        int kUsed = Math.max(0, Math.min(k, numNodes - 1));
+        KdTree tree = new KdTree(geometry);
+        int[] order = tree.getTreeOrder();
+        int[] candidates = new int[numNodes * kUsed];
+        List<Callable<Void>> tasks = new ArrayList<>(numChunks);
+        for (int i = 0; i < numChunks; i++) {
+            int from = (int) ((long) i * numNodes / numChunks);
+            int to = (int) ((long) (i + 1) * numNodes / numChunks);
+            tasks.add(() -> {
+                findNearest(tree, order, from, to, kUsed, candidates);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executorService.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building candidate lists.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A candidate list search failed.", e.getCause());
+        }
+        return new CandidateLists(candidates, kUsed);
+    }
+
+    /**
+     * Finds the candidates of a range of nodes. The nodes are searched from in tree order, so that consecutive
+     * searches touch the same parts of the tree.
+     * @param tree The tree holding every node.
+     * @param order The nodes in tree order.
+     * @param from The first position in the order to search from.
+     * @param to The position after the last.
+     * @param k The number of candidates to find for each node.
+     * @param candidates The flat array the candidates are written to.
+     */
+    private static void findNearest(KdTree tree, int[] order, int from, int to, int k, int[] candidates) {
+        int[] nearest = new int[k];
+        double[] distances = new double[k];
+        for (int i = from; i < to; i++) {
+            int x = order[i];
+            tree.kNearest(x, k, nearest, distances);
+            System.arraycopy(nearest, 0, candidates, x * k, k);
+        }
+    }
+
+    /**
+     * Builds the candidate lists of every node by comparing the distance of each node to every other node.
+     * @param numNodes The number of nodes.
+     * @param k The number of candidates to find for each node (capped at the number of nodes - 1).
+     * @param distances The distance between each pair of nodes.
+     * @return candidateLists The new @code{CandidateLists} object.
+     */
+    private static CandidateLists build(int numNodes, int k, DistanceFunction distances) {
+        k = Math.max(0, Math.min(k, numNodes - 1));
+        int[] candidates = new int[numNodes * k];
+        double[] candidateDistances = new double[k];
+        for (int x = 0; x < numNodes; x++) {
+            int found = 0;
+            int offset = x * k;
+            for (int y = 0; y < numNodes; y++) {
+                if (x == y) {
+                    continue;
+                }
+                double distance = distances.distance(x, y);
+                if (found == k && distance >= candidateDistances[k - 1]) {
+                    continue; // Not closer than the furthest candidate we already have.
+                }
+                // Insertion sort the new candidate into place, dropping the furthest one if the list is full.
+                int i = found == k ? k - 1 : found++;
+                while (i > 0 && candidateDistances[i - 1] > distance) {
+                    candidateDistances[i] = candidateDistances[i - 1];
+                    candidates[offset + i] = candidates[offset + i - 1];
+                    i--;
+                }
+                candidateDistances[i] = distance;
+                candidates[offset + i] = y;
+            }
+        }
+        return new CandidateLists(candidates, k);
+    }
+
+    /**
+     * The distance between two nodes, given their indices.
+     */
+    private interface DistanceFunction {
+        /**
+         * Returns the distance between two nodes.
+         * @param x The index of the first node.
+         * @param y The index of the second node.
+         * @return distance The distance between the nodes.
+         */
+        double distance(int x, int y);
+    }
+
+    /**
+     * Returns the candidate of a node with a given rank.
+     * @param node The node whose candidate we want.
+     * @param rank The rank of the candidate (0 is the nearest).
+     * @return candidate The candidate of the node with the given rank.
+     */
+    public int get(int node, int rank) {
+        return candidates[node * k + rank];
+    }
+
+    /**
+     * Returns the flat array of candidates (see the @code{candidates} attribute). Intended for tight loops; do not
+     * modify it.
+     * @return candidates The value of the @code{candidates} attribute.
+     */
+    public int[] getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Returns the value of the @code{k} attribute.
+     * @return k The value of the @code{k} attribute.
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Returns the value of the @code{numNodes} attribute.
+     * @return numNodes The value of the @code{numNodes} attribute.
+     */
+    public int getNumNodes() {
+        return numNodes;
+    }
+}
@@ -0,0 +1,102 @@
+package com.alike.solution_helpers;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A disjoint set (union-find) structure over the elements 0 to n - 1 that any number of threads can use at once
+ * without locking. Roots are linked with a compare-and-set, so a union that races with another union on the same
+ * root simply retries. Roots are linked by a fixed pseudo-random priority of their elements rather than by size (a
+ * size would have to be updated atomically with the link), which keeps the trees shallow in expectation, and paths
+ * are halved as they are followed.
+ * Algorithm found: R. J. Anderson and H. Woll, "Wait-free parallel algorithms for the union-find problem" (1991).
+ * @author alike
+ */
+public class ConcurrentUnionFind {
+    /**
+     * The parent of each element; the root of each set is its own parent.
+     */
+    private final AtomicIntegerArray parent;
+
+    /**
+     * Constructs a new @code{ConcurrentUnionFind} with each element in a set of its own.
+     * @param numElements The number of elements.
+     */
+    public ConcurrentUnionFind(int numElements) {
+        this.parent = new AtomicIntegerArray(numElements);
+        for (int i = 0; i < numElements; i++) {
+            parent.set(i, i);
+        }
+    }
+
+    /**
+     * Returns the root of the set an element is in. If another thread is merging sets at the same time, the root
+     * returned may stop being a root straight away.
+     * @param element The element.
+     * @return root The root of its set.
+     */
+    public int find(int element) {
+        while (true) {
+            int up = parent.get(element);
+            if (up == element) {
+                return element;
+            }
+            int upUp = parent.get(up);
+            if (upUp != up) {
+                parent.compareAndSet(element, up, upUp); // Halve the path; losing the race does no harm.
+            }
+            element = up;
+        }
+    }
+
+    /**
+     * Merges the sets two elements are in.
+     * @param a The first element.
+     * @param b The second element.
+     * @return merged True if this call merged the sets, false if they were already the same set.
+     */
+    public boolean union(int a, int b) {
+        while (true) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) {
+                return false;
+            }
+            if (priority(rootA) > priority(rootB)) { // Hang the root of lower priority under the other.
+                int swap = rootA;
+                rootA = rootB;
+                rootB = swap;
+            }
+            if (parent.compareAndSet(rootA, rootA, rootB)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns whether two elements are in the same set (at the time of the call).
+     * @param a The first element.
+     * @param b The second element.
+     * @return connected True if the elements are in the same set.
+     */
+    public boolean connected(int a, int b) {
+        while (true) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) {
+                return true;
+            }
+            if (parent.get(rootA) == rootA) { // rootA was still a root, so the sets really were different.
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns the linking priority of an element, a fixed pseudo-random permutation of the elements.
+     * @param element The element.
+     * @return priority The priority of the element.
+     */
+    private static int priority(int element) {
+        return element * 0x9E3779B9; // Multiplying by an odd constant is a bijection on the ints.
+    }
+}
@@ -0,0 +1,86 @@
+package com.alike.solution_helpers;
+
+/**
+ * The "don't-look bits" of a local search: a first-in first-out queue of the nodes that still need to be looked at.
+ * A node whose neighbourhood gave no improvement is dropped from the queue and only returns when a move changes one
+ * of its tour edges, so the search quickly focusses on the parts of the tour that are still changing.
+ * @author alike
+ */
+public class DontLookBits {
+    /**
+     * The (circular) queue of nodes.
+     */
+    private final int[] queue;
+
+    /**
+     * Whether each node is currently in the @code{queue}.
+     */
+    private final boolean[] queued;
+
+    /**
+     * The index of the first node of the @code{queue}.
+     */
+    private int head = 0;
+
+    /**
+     * The number of nodes in the @code{queue}.
+     */
+    private int size = 0;
+
+    /**
+     * Constructs a new, empty, @code{DontLookBits} object.
+     * @param numNodes The number of nodes in the tour.
+     */
+    public DontLookBits(int numNodes) {
+        this.queue = new int[numNodes];
+        this.queued = new boolean[numNodes];
+    }
+
+    /**
+     * Constructs a new @code{DontLookBits} object with every node of a tour queued, in tour order.
+     * @param tour The nodes of the tour.
+     * @return dontLookBits The new @code{DontLookBits} object.
+     */
+    public static DontLookBits allOf(int[] tour) {
+        DontLookBits dontLookBits = new DontLookBits(tour.length);
+        for (int node : tour) {
+            dontLookBits.push(node);
+        }
+        return dontLookBits;
+    }
+
+    /**
+     * Adds a node to the back of the queue, unless it is queued already.
+     * @param node The node to add.
+     */
+    public void push(int node) {
+        if (!queued[node]) {
+            queued[node] = true;
+            queue[(head + size) % queue.length] = node;
+            size++;
+        }
+    }
+
+    /**
+     * Removes the node at the front of the queue.
+     * @return node The node, or -1 if the queue is empty.
+     */
+    public int poll() {
+        if (size == 0) {
+            return -1;
+        }
+        int node = queue[head];
+        head = head + 1 == queue.length ? 0 : head + 1;
+        size--;
+        queued[node] = false;
+        return node;
+    }
+
+    /**
+     * Returns whether the queue is empty.
+     * @return empty True if no nodes are queued.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
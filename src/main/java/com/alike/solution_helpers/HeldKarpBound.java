@@ -0,0 +1,316 @@
+package com.alike.solution_helpers;
+
+import com.alike.solvers.GreedyEdgeSolver;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Computes Held-Karp lower bounds on the length of the optimal tour through the nodes of a @code{NodeGeometry}.
+ * A 1-tree (a spanning tree plus one more edge at a leaf) is never longer than the optimal tour, and adding a penalty
+ * to every edge at a node and taking twice the penalty back off changes the length of every tour by the same amount
+ * but not the length of every 1-tree, so the penalties are raised at nodes of degree above 2 and lowered at leaves
+ * (subgradient optimisation) to push the 1-tree towards a tour and the bound upwards. The step size is taken from the
+ * gap to the length of a greedy edge tour and halved whenever the bound stops improving.
+ * Graphs of up to @code{DENSE_LIMIT} nodes use exact dense spanning trees, so the bound is a true lower bound. Larger
+ * graphs use a @code{MinimumSpanningTree} over the nodes' candidates, which is much faster but only exact when the
+ * candidates contain the tree (they almost always do).
+ * Algorithm found: M. Held and R. M. Karp, "The traveling-salesman problem and minimum spanning trees: Part II"
+ * (1971).
+ * @author alike
+ */
+public class HeldKarpBound {
+    /**
+     * The default number of subgradient iterations.
+     */
+    public static final int DEFAULT_ITERATIONS = 200;
+
+    /**
+     * The most nodes for which exact dense spanning trees are built.
+     */
+    public static final int DENSE_LIMIT = 2000;
+
+    /**
+     * The number of iterations without improvement after which the step size is halved.
+     */
+    private static final int PATIENCE = 10;
+
+    /**
+     * The step size scale below which the ascent stops.
+     */
+    private static final double MIN_STEP_SCALE = 1e-3;
+
+    /**
+     * The pool the spanning trees of large graphs are built on by default. It is kept apart from the common fork/join
+     * pool so that bounds computed in the background never queue up with the solvers being timed there.
+     */
+    private static final ExecutorService DEFAULT_EXECUTOR =
+            new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The largest number of subgradient iterations to run.
+     */
+    private int maxIterations;
+
+    /**
+     * The executor service the spanning trees of large graphs are built on.
+     */
+    private ExecutorService executorService;
+
+    /**
+     * Constructs a new @code{HeldKarpBound} that runs @code{DEFAULT_ITERATIONS} iterations on a fork/join pool of its
+     * own (shared by every bound made this way).
+     */
+    public HeldKarpBound() {
+        this(DEFAULT_ITERATIONS, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Constructs a new @code{HeldKarpBound}.
+     * @param maxIterations The largest number of subgradient iterations to run.
+     * @param executorService The executor service the spanning trees of large graphs are built on.
+     */
+    public HeldKarpBound(int maxIterations, ExecutorService executorService) {
+        setMaxIterations(maxIterations);
+        setExecutorService(executorService);
+    }
+
+    /**
+     * Returns the percentage by which a tour is longer than a lower bound.
+     * @param length The length of the tour.
+     * @param lowerBound The lower bound.
+     * @return gap The optimality gap as a percentage (0 if the bound is not positive).
+     */
+    public static double gapPercentage(double length, double lowerBound) {
+        if (lowerBound <= 0) {
+            return 0;
+        }
+        return 100 * (length - lowerBound) / lowerBound;
+    }
+
+    /**
+     * Returns whether the bound computed for a graph is a true lower bound, i.e. whether the graph is small enough to
+     * use exact dense spanning trees. Gaps measured against larger graphs' bounds are estimates that may be too low.
+     * @param numNodes The number of nodes in the graph.
+     * @return exact True if the bound is guaranteed never to exceed the optimal tour length.
+     */
+    public static boolean isExact(int numNodes) {
+        return numNodes <= DENSE_LIMIT;
+    }
+
+    /**
+     * Waits for a lower bound computed in the background and returns a tour's optimality gap against it.
+     * @param lowerBound The lower bound being computed.
+     * @param length The length of the tour.
+     * @return gap The optimality gap as a percentage, or null if the bound could not be computed.
+     */
+    public static Double gapPercentage(Future<Double> lowerBound, double length) {
+        try {
+            return gapPercentage(length, lowerBound.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Computes a lower bound on the length of the optimal tour through the nodes of a geometry.
+     * @param geometry The positions of the nodes.
+     * @return bound The best Held-Karp bound found.
+     */
+    public double compute(NodeGeometry geometry) {
+        int numNodes = geometry.getNumNodes();
+        if (numNodes < 3) { // The only tour is exact.
+            return numNodes == 2 ? 2 * geometry.distance(0, 1) : 0;
+        }
+        CandidateLists candidateLists = numNodes <= DENSE_LIMIT ? null
+                : CandidateLists.fromGeometry(geometry, MinimumSpanningTree.DEFAULT_CANDIDATES, executorService);
+        MinimumSpanningTree spanningTree = new MinimumSpanningTree(executorService);
+        double upperBound = geometry.tourLength(new GreedyEdgeSolver().construct(geometry));
+        double[] penalties = new double[numNodes];
+        int[] degree = new int[numNodes];
+        double best = Double.NEGATIVE_INFINITY;
+        double stepScale = 2;
+        int sinceImproved = 0;
+        for (int iteration = 0; iteration < maxIterations && stepScale > MIN_STEP_SCALE; iteration++) {
+            int[] parent = candidateLists == null ? denseSpanningTree(geometry, penalties)
+                    : spanningTree.build(geometry, candidateLists, penalties);
+            double bound = oneTree(geometry, candidateLists, penalties, parent, degree);
+            if (bound > best) {
+                best = bound;
+                sinceImproved = 0;
+            } else if (++sinceImproved == PATIENCE) {
+                stepScale /= 2;
+                sinceImproved = 0;
+            }
+            long norm = 0;
+            for (int d : degree) {
+                norm += (long) (d - 2) * (d - 2);
+            }
+            if (norm == 0 || bound >= upperBound) { // The 1-tree is a tour, or the bound has met one.
+                break;
+            }
+            double step = stepScale * (upperBound - bound) / norm;
+            for (int i = 0; i < numNodes; i++) {
+                penalties[i] += step * (degree[i] - 2);
+            }
+        }
+        return Math.min(best, upperBound);
+    }
+
+    /**
+     * Completes a spanning tree into the longest 1-tree that adds an edge at one of its leaves, and counts the degree
+     * of each node in it.
+     * @param geometry The positions of the nodes.
+     * @param candidateLists The candidates the leaf's extra edge is chosen from (null for every node).
+     * @param penalties The penalty of each node.
+     * @param parent The parent of each node in the spanning tree (-1 for the root).
+     * @param degree Filled with the degree of each node in the 1-tree.
+     * @return bound The penalised length of the 1-tree less twice the sum of the penalties.
+     */
+    private static double oneTree(NodeGeometry geometry, CandidateLists candidateLists, double[] penalties,
+                                  int[] parent, int[] degree) {
+        int numNodes = geometry.getNumNodes();
+        Arrays.fill(degree, 0);
+        double length = 0;
+        int root = -1;
+        int rootChild = -1;
+        for (int i = 0; i < numNodes; i++) {
+            int p = parent[i];
+            if (p == -1) {
+                root = i;
+                continue;
+            }
+            degree[i]++;
+            degree[p]++;
+            length += weight(geometry, penalties, i, p);
+        }
+        for (int i = 0; i < numNodes && rootChild == -1; i++) {
+            if (parent[i] == root) {
+                rootChild = i;
+            }
+        }
+        // Removing a leaf leaves a spanning tree of the other nodes, so each leaf can be the 1-tree's special node.
+        double bestExtra = Double.NEGATIVE_INFINITY;
+        int bestLeaf = -1;
+        int bestOther = -1;
+        for (int leaf = 0; leaf < numNodes; leaf++) {
+            if (degree[leaf] != 1) {
+                continue;
+            }
+            int neighbour = leaf == root ? rootChild : parent[leaf];
+            double extra = Double.POSITIVE_INFINITY;
+            int other = -1;
+            int numChoices = candidateLists == null ? numNodes : candidateLists.getK();
+            for (int c = 0; c < numChoices; c++) {
+                int j = candidateLists == null ? c : candidateLists.get(leaf, c);
+                if (j != leaf && j != neighbour) {
+                    double w = weight(geometry, penalties, leaf, j);
+                    if (w < extra) {
+                        extra = w;
+                        other = j;
+                    }
+                }
+            }
+            if (other != -1 && extra > bestExtra) {
+                bestExtra = extra;
+                bestLeaf = leaf;
+                bestOther = other;
+            }
+        }
+        if (bestLeaf != -1) {
+            length += bestExtra;
+            degree[bestLeaf]++;
+            degree[bestOther]++;
+        }
+        double totalPenalty = 0;
+        for (double penalty : penalties) {
+            totalPenalty += penalty;
+        }
+        return length - 2 * totalPenalty;
+    }
+
+    /**
+     * Builds an exact minimum spanning tree of the penalised complete graph with Prim's algorithm on arrays.
+     * @param geometry The positions of the nodes.
+     * @param penalties The penalty of each node.
+     * @return parent The parent of each node, rooted at node 0 (-1 for the root).
+     */
+    private static int[] denseSpanningTree(NodeGeometry geometry, double[] penalties) {
+        int numNodes = geometry.getNumNodes();
+        int[] parent = new int[numNodes];
+        double[] key = new double[numNodes];
+        boolean[] inTree = new boolean[numNodes];
+        Arrays.fill(key, Double.POSITIVE_INFINITY);
+        parent[0] = -1;
+        key[0] = 0;
+        for (int added = 0; added < numNodes; added++) {
+            int next = -1;
+            for (int i = 0; i < numNodes; i++) {
+                if (!inTree[i] && (next == -1 || key[i] < key[next])) {
+                    next = i;
+                }
+            }
+            inTree[next] = true;
+            for (int i = 0; i < numNodes; i++) {
+                if (!inTree[i]) {
+                    double w = weight(geometry, penalties, next, i);
+                    if (w < key[i]) {
+                        key[i] = w;
+                        parent[i] = next;
+                    }
+                }
+            }
+        }
+        return parent;
+    }
+
+    /**
+     * Returns the penalised weight of an edge.
+     * @param geometry The positions of the nodes.
+     * @param penalties The penalty of each node.
+     * @param i The first node of the edge.
+     * @param j The second node of the edge.
+     * @return weight The length of the edge plus the penalties of both of its nodes.
+     */
+    private static double weight(NodeGeometry geometry, double[] penalties, int i, int j) {
+        return geometry.distance(i, j) + penalties[i] + penalties[j];
+    }
+
+    /**
+     * Returns the value of the @code{maxIterations} attribute.
+     * @return maxIterations The value of the @code{maxIterations} attribute.
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Sets the @code{maxIterations} attribute to a new value.
+     * @param maxIterations The new value to assign the @code{maxIterations} attribute (at least 1).
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = Math.max(1, maxIterations);
+    }
+
+    /**
+     * Returns the value of the @code{executorService} attribute.
+     * @return executorService The value of the @code{executorService} attribute.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Sets the @code{executorService} attribute to a new value.
+     * @param executorService The new value to assign the @code{executorService} attribute.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+}
@@ -0,0 +1,60 @@
+package com.alike.solution_helpers;
+
+/**
+ * The Hilbert curve: each quadrant is visited in turn by a smaller Hilbert curve, rotated so that consecutive squares
+ * along the curve are always adjacent. It keeps nearby squares closer together along the curve than the other curves,
+ * which usually gives the shortest tours.
+ * @author alike
+ */
+public class HilbertCurve implements SpaceFillingCurve {
+    /**
+     * Returns the position along the curve of a square of the grid.
+     * @param x The x coordinate of the square (0 to 2^order - 1).
+     * @param y The y coordinate of the square (0 to 2^order - 1).
+     * @param order The order of the curve.
+     * @return index The position of the square along the curve.
+     */
+    @Override
+    public long index(int x, int y, int order) {
+        return hilbertIndex(1 << order, x, y);
+    }
+
+    /**
+     * Returns the number of bits needed to hold any index of the curve at an order.
+     * @param order The order of the curve.
+     * @return bits The number of bits in the largest index.
+     */
+    @Override
+    public int getIndexBits(int order) {
+        return 2 * order;
+    }
+
+    /**
+     * Returns the index along a hilbert curve of the square at (x, y). Each pair of bits of the index is found from the
+     * quadrant the square is in, after which the square is rotated into the orientation of the sub-curve through that
+     * quadrant. The curve starts at (0, 0), heads up to (0, 1) and ends at (n - 1, 0).
+     * Algorithm found: https://en.wikipedia.org/wiki/Hilbert_curve
+     * @param n The side length of the curve in squares (a power of two).
+     * @param x The x coordinate of the square.
+     * @param y The y coordinate of the square.
+     * @return d The index of the square along the curve.
+     */
+    public static long hilbertIndex(int n, int x, int y) {
+        long d = 0;
+        for (int s = n >>> 1; s > 0; s >>>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) { // Rotate the quadrant so that its sub-curve is in the standard orientation.
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int temp = x;
+                x = y;
+                y = temp;
+            }
+        }
+        return d;
+    }
+}
@@ -0,0 +1,184 @@
+package com.alike.solution_helpers;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of the items 0 to n - 1, each with a @code{double} key, held in primitive arrays. The position of
+ * each item in the heap is tracked, so the key of an item already in the heap can be changed in O(log n) without
+ * searching for it (as the decrease-key step of Prim's and Dijkstra's algorithms and of insertion heuristics needs).
+ * @author alike
+ */
+public class IndexedMinHeap {
+    /**
+     * The items in heap order: the key of the item at i is no larger than the keys of the items at 2i + 1 and 2i + 2.
+     */
+    private final int[] heap;
+
+    /**
+     * The index of each item in the @code{heap}, or -1 if it is not in the heap.
+     */
+    private final int[] position;
+
+    /**
+     * The key of each item.
+     */
+    private final double[] keys;
+
+    /**
+     * The number of items in the heap.
+     */
+    private int size = 0;
+
+    /**
+     * Constructs a new, empty, @code{IndexedMinHeap}.
+     * @param capacity The number of items (the heap holds the items 0 to capacity - 1).
+     */
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Adds an item to the heap, or changes its key if it is already in the heap.
+     * @param item The item.
+     * @param key The item's key.
+     */
+    public void update(int item, double key) {
+        if (position[item] == -1) {
+            heap[size] = item;
+            position[item] = size++;
+            keys[item] = key;
+            siftUp(position[item]);
+        } else {
+            double oldKey = keys[item];
+            keys[item] = key;
+            if (key < oldKey) {
+                siftUp(position[item]);
+            } else {
+                siftDown(position[item]);
+            }
+        }
+    }
+
+    /**
+     * Removes the item with the smallest key from the heap.
+     * @return item The item with the smallest key, or -1 if the heap is empty.
+     */
+    public int poll() {
+        if (size == 0) {
+            return -1;
+        }
+        int item = heap[0];
+        remove(item);
+        return item;
+    }
+
+    /**
+     * Returns the item with the smallest key without removing it.
+     * @return item The item with the smallest key, or -1 if the heap is empty.
+     */
+    public int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    /**
+     * Removes an item from the heap if it is in it.
+     * @param item The item to remove.
+     */
+    public void remove(int item) {
+        int index = position[item];
+        if (index == -1) {
+            return;
+        }
+        int last = heap[--size];
+        position[item] = -1;
+        if (index < size) { // Move the last item into the gap and restore the heap order around it.
+            heap[index] = last;
+            position[last] = index;
+            siftUp(index);
+            siftDown(position[last]);
+        }
+    }
+
+    /**
+     * Returns whether an item is in the heap.
+     * @param item The item.
+     * @return contains True if the item is in the heap.
+     */
+    public boolean contains(int item) {
+        return position[item] != -1;
+    }
+
+    /**
+     * Returns the key of an item (the key it was last given, if it is no longer in the heap).
+     * @param item The item.
+     * @return key The item's key.
+     */
+    public double getKey(int item) {
+        return keys[item];
+    }
+
+    /**
+     * Returns whether the heap is empty.
+     * @return empty True if there are no items in the heap.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of items in the heap.
+     * @return size The number of items in the heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Moves the item at an index up the heap until its parent's key is no larger than its own.
+     * @param index The index of the item.
+     */
+    private void siftUp(int index) {
+        int item = heap[index];
+        double key = keys[item];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = item;
+        position[item] = index;
+    }
+
+    /**
+     * Moves the item at an index down the heap until neither of its children has a smaller key.
+     * @param index The index of the item.
+     */
+    private void siftDown(int index) {
+        int item = heap[index];
+        double key = keys[item];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (keys[heap[child]] >= key) {
+                break;
+            }
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = item;
+        position[item] = index;
+    }
+}
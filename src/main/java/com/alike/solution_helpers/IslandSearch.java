@@ -0,0 +1,34 @@
+package com.alike.solution_helpers;
+
+/**
+ * Interface for one island of an island model search: a metaheuristic run (e.g. a genetic algorithm population or a
+ * simulated annealing chain) whose state is private to it, so that islands on different threads never contend. The
+ * islands only meet when tours migrate between them.
+ * @author alike
+ */
+public interface IslandSearch {
+    /**
+     * Continues the search for a number of iterations (generations, rounds etc.) on the calling thread.
+     * @param numIterations The number of iterations to run.
+     */
+    void run(int numIterations);
+
+    /**
+     * Returns the shortest tour the island has found.
+     * @return tour The indices of the nodes of the tour, in order (a copy the caller may keep).
+     */
+    int[] getBestTour();
+
+    /**
+     * Returns the length of the shortest tour the island has found.
+     * @return length The length of the tour.
+     */
+    double getBestLength();
+
+    /**
+     * Takes a tour from another island into the search (e.g. in place of the worst individual).
+     * @param tour The indices of the nodes of the tour, in order (the island may keep it).
+     * @param length The length of the tour.
+     */
+    void immigrate(int[] tour, double length);
+}
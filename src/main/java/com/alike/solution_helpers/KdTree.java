@@ -0,0 +1,395 @@
+package com.alike.solution_helpers;
+
+/**
+ * A 2-d tree over the nodes of a @code{NodeGeometry}, used to answer nearest neighbour queries without comparing a
+ * node to every other node. The nodes are split at the median of the wider of their x and y extents until at most
+ * @code{BUCKET_SIZE} are left, so the tree stays balanced however the nodes are clustered. Nodes can be removed (e.g.
+ * once a tour has visited them) and each part of the tree keeps a count of the nodes still present in it, so queries
+ * skip the parts that are empty. @code{copy} gives an independent copy of the nodes present that shares the
+ * structure of the tree, so several searches can run on one tree at once.
+ * Algorithm found: J. L. Bentley, "K-d trees for semidynamic point sets" (1990).
+ * @author alike
+ */
+public class KdTree {
+    /**
+     * The largest number of nodes held in a leaf of the tree.
+     */
+    private static final int BUCKET_SIZE = 8;
+
+    /**
+     * The positions of the nodes.
+     */
+    private final NodeGeometry geometry;
+
+    /**
+     * The first index in @code{nodes} of the nodes held by each part of the tree.
+     */
+    private final int[] first;
+
+    /**
+     * The number of nodes held by each part of the tree (when it was built).
+     */
+    private final int[] size;
+
+    /**
+     * The part of the tree holding the nodes below the split of each part (-1 for a leaf).
+     */
+    private final int[] lower;
+
+    /**
+     * The part of the tree holding the nodes above the split of each part (-1 for a leaf).
+     */
+    private final int[] upper;
+
+    /**
+     * The part of the tree each part is a half of (-1 for the root).
+     */
+    private final int[] parent;
+
+    /**
+     * Whether each part of the tree is split on the y coordinate (true) or the x coordinate (false).
+     */
+    private final boolean[] splitOnY;
+
+    /**
+     * The coordinate each part of the tree is split at.
+     */
+    private final double[] split;
+
+    /**
+     * The leaf each node is in.
+     */
+    private final int[] leafOf;
+
+    /**
+     * The nodes ordered by the tree, so each part of the tree holds a contiguous range. The nodes present in a leaf
+     * are the first @code{present[leaf]} of its range; removed nodes are swapped to the end of the range.
+     */
+    private final int[] nodes;
+
+    /**
+     * The index of each node in @code{nodes}.
+     */
+    private final int[] slot;
+
+    /**
+     * The number of nodes present in each part of the tree.
+     */
+    private final int[] present;
+
+    /**
+     * The number of parts of the tree.
+     */
+    private int numParts;
+
+    /**
+     * Scratch space for the node found by @code{nearest}.
+     */
+    private final int[] nearestScratch = new int[1];
+
+    /**
+     * Scratch space for the distance of the node found by @code{nearest}.
+     */
+    private final double[] distanceScratch = new double[1];
+
+    /**
+     * Constructs a new @code{KdTree} holding every node of a geometry.
+     * @param geometry The positions of the nodes.
+     */
+    public KdTree(NodeGeometry geometry) {
+        this.geometry = geometry;
+        int numNodes = geometry.getNumNodes();
+        int maxParts = Math.max(1, 4 * ((numNodes + BUCKET_SIZE - 1) / BUCKET_SIZE));
+        this.first = new int[maxParts];
+        this.size = new int[maxParts];
+        this.lower = new int[maxParts];
+        this.upper = new int[maxParts];
+        this.parent = new int[maxParts];
+        this.splitOnY = new boolean[maxParts];
+        this.split = new double[maxParts];
+        this.present = new int[maxParts];
+        this.leafOf = new int[numNodes];
+        this.nodes = new int[numNodes];
+        this.slot = new int[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            nodes[i] = i;
+        }
+        build(0, numNodes, -1);
+        for (int i = 0; i < numNodes; i++) {
+            slot[nodes[i]] = i;
+        }
+    }
+
+    /**
+     * Constructs a copy of a tree that shares its structure but has its own record of which nodes are present.
+     * @param other The tree to copy.
+     */
+    private KdTree(KdTree other) {
+        this.geometry = other.geometry;
+        this.first = other.first;
+        this.size = other.size;
+        this.lower = other.lower;
+        this.upper = other.upper;
+        this.parent = other.parent;
+        this.splitOnY = other.splitOnY;
+        this.split = other.split;
+        this.leafOf = other.leafOf;
+        this.numParts = other.numParts;
+        this.nodes = other.nodes.clone();
+        this.slot = other.slot.clone();
+        this.present = other.present.clone();
+    }
+
+    /**
+     * Returns a copy of this tree with the same nodes present, which can be changed independently of this tree.
+     * @return copy The new tree.
+     */
+    public KdTree copy() {
+        return new KdTree(this);
+    }
+
+    /**
+     * Builds the part of the tree holding a range of @code{nodes}, splitting it at the median of its wider extent.
+     * @param from The first index of the range.
+     * @param to The index after the end of the range.
+     * @param parentPart The part this part is a half of (-1 for the root).
+     * @return part The new part.
+     */
+    private int build(int from, int to, int parentPart) {
+        int part = numParts++;
+        first[part] = from;
+        size[part] = to - from;
+        present[part] = to - from;
+        parent[part] = parentPart;
+        lower[part] = -1;
+        upper[part] = -1;
+        if (to - from <= BUCKET_SIZE) {
+            for (int i = from; i < to; i++) {
+                leafOf[nodes[i]] = part;
+            }
+            return part;
+        }
+        double lowX = Double.POSITIVE_INFINITY, lowY = Double.POSITIVE_INFINITY;
+        double highX = Double.NEGATIVE_INFINITY, highY = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            lowX = Math.min(lowX, geometry.getX(nodes[i]));
+            highX = Math.max(highX, geometry.getX(nodes[i]));
+            lowY = Math.min(lowY, geometry.getY(nodes[i]));
+            highY = Math.max(highY, geometry.getY(nodes[i]));
+        }
+        boolean onY = highY - lowY > highX - lowX;
+        int middle = (from + to) >>> 1;
+        select(from, to, middle, onY);
+        splitOnY[part] = onY;
+        split[part] = coordinate(nodes[middle], onY);
+        lower[part] = build(from, middle, part);
+        upper[part] = build(middle, to, part);
+        return part;
+    }
+
+    /**
+     * Rearranges a range of @code{nodes} so that the node at an index is the one that would be there if the range
+     * was sorted by a coordinate, with no larger node before it and no smaller node after it (quickselect).
+     * @param from The first index of the range.
+     * @param to The index after the end of the range.
+     * @param k The index to select.
+     * @param onY Whether to compare the y coordinate (true) or the x coordinate (false).
+     */
+    private void select(int from, int to, int k, boolean onY) {
+        int left = from;
+        int right = to - 1;
+        while (left < right) {
+            double pivot = coordinate(nodes[(left + right) >>> 1], onY);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coordinate(nodes[i], onY) < pivot) {
+                    i++;
+                }
+                while (coordinate(nodes[j], onY) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = nodes[i];
+                    nodes[i] = nodes[j];
+                    nodes[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes a node from the tree, so that it is no longer returned by queries.
+     * @param node The node to remove.
+     */
+    public void remove(int node) {
+        if (!contains(node)) {
+            return;
+        }
+        int leaf = leafOf[node];
+        // Swap the node with the last present node of its leaf.
+        int last = first[leaf] + present[leaf] - 1;
+        int other = nodes[last];
+        nodes[last] = node;
+        nodes[slot[node]] = other;
+        slot[other] = slot[node];
+        slot[node] = last;
+        for (int part = leaf; part != -1; part = parent[part]) {
+            present[part]--;
+        }
+    }
+
+    /**
+     * Puts a removed node back into the tree, so that it is returned by queries again.
+     * @param node The node to restore.
+     */
+    public void restore(int node) {
+        if (contains(node)) {
+            return;
+        }
+        int leaf = leafOf[node];
+        // Swap the node with the first removed node of its leaf.
+        int next = first[leaf] + present[leaf];
+        int other = nodes[next];
+        nodes[next] = node;
+        nodes[slot[node]] = other;
+        slot[other] = slot[node];
+        slot[node] = next;
+        for (int part = leaf; part != -1; part = parent[part]) {
+            present[part]++;
+        }
+    }
+
+    /**
+     * Returns whether a node is present in the tree.
+     * @param node The node.
+     * @return present True if the node has not been removed.
+     */
+    public boolean contains(int node) {
+        int leaf = leafOf[node];
+        return slot[node] < first[leaf] + present[leaf];
+    }
+
+    /**
+     * Returns the nearest node present in the tree to a node (other than the node itself). Uses scratch space owned by
+     * the tree, so a tree (or copy) should only be queried with this method by one thread at a time.
+     * @param node The node to search around.
+     * @return nearest The nearest node, or -1 if there are no other nodes present.
+     */
+    public int nearest(int node) {
+        return kNearest(node, 1, nearestScratch, distanceScratch) == 0 ? -1 : nearestScratch[0];
+    }
+
+    /**
+     * Finds the k nearest nodes present in the tree to a node (other than the node itself), nearest first. Equally
+     * near nodes are ordered by index. The tree is not changed, so any number of threads can call this method on the
+     * same tree with their own arrays.
+     * @param node The node to search around.
+     * @param k The number of nodes to find.
+     * @param nearest The array the nodes are written to (at least k long).
+     * @param distances The array the distances of the nodes are written to (at least k long).
+     * @return found The number of nodes found (k, unless fewer than k other nodes are present).
+     */
+    public int kNearest(int node, int k, int[] nearest, double[] distances) {
+        if (k <= 0 || numParts == 0) {
+            return 0;
+        }
+        return search(0, node, k, nearest, distances, 0);
+    }
+
+    /**
+     * Searches a part of the tree for nodes nearer than the k nearest found so far, searching the half of each part
+     * the node lies in first and only searching the other half if the split is nearer than the k-th nearest node.
+     * @param part The part of the tree to search.
+     * @param node The node the search is around.
+     * @param k The number of nodes to find.
+     * @param nearest The nearest nodes found so far, nearest first.
+     * @param distances The distances of the nearest nodes found so far.
+     * @param found The number of nodes found so far.
+     * @return found The number of nodes found after searching the part.
+     */
+    private int search(int part, int node, int k, int[] nearest, double[] distances, int found) {
+        if (present[part] == 0) {
+            return found;
+        }
+        if (lower[part] == -1) {
+            for (int i = first[part], end = first[part] + present[part]; i < end; i++) {
+                int other = nodes[i];
+                if (other != node) {
+                    found = offer(other, geometry.distance(node, other), k, nearest, distances, found);
+                }
+            }
+            return found;
+        }
+        double gap = coordinate(node, splitOnY[part]) - split[part];
+        int near = gap < 0 ? lower[part] : upper[part];
+        int far = gap < 0 ? upper[part] : lower[part];
+        found = search(near, node, k, nearest, distances, found);
+        if (found < k || Math.abs(gap) <= distances[k - 1]) {
+            found = search(far, node, k, nearest, distances, found);
+        }
+        return found;
+    }
+
+    /**
+     * Adds a node to a list of the k nearest nodes found so far if it is nearer than the k-th.
+     * @param other The node.
+     * @param distance The distance to the node.
+     * @param k The number of nodes to find.
+     * @param nearest The nearest nodes found so far, nearest first.
+     * @param distances The distances of the nearest nodes found so far.
+     * @param found The number of nodes found so far.
+     * @return found The number of nodes found after adding the node.
+     */
+    private static int offer(int other, double distance, int k, int[] nearest, double[] distances, int found) {
+        if (found == k && (distance > distances[k - 1] || (distance == distances[k - 1] && other > nearest[k - 1]))) {
+            return found; // Not closer than the furthest node we already have.
+        }
+        // Insertion sort the node into place, dropping the furthest one if the list is full.
+        int j = found == k ? k - 1 : found++;
+        while (j > 0 && (distances[j - 1] > distance || (distances[j - 1] == distance && nearest[j - 1] > other))) {
+            distances[j] = distances[j - 1];
+            nearest[j] = nearest[j - 1];
+            j--;
+        }
+        distances[j] = distance;
+        nearest[j] = other;
+        return found;
+    }
+
+    /**
+     * Returns the x or y coordinate of a node.
+     * @param node The node.
+     * @param y Whether to return the y coordinate (true) or the x coordinate (false).
+     * @return coordinate The coordinate.
+     */
+    private double coordinate(int node, boolean y) {
+        return y ? geometry.getY(node) : geometry.getX(node);
+    }
+
+    /**
+     * Returns every node (present or not) in the order the tree holds them, in which nodes that are near each other
+     * in space are mostly near each other. Running queries in this order keeps the memory they touch in the cache.
+     * @return order The indices of the nodes in tree order.
+     */
+    public int[] getTreeOrder() {
+        return nodes.clone(); // Removing a node only moves it within its leaf.
+    }
+
+    /**
+     * Returns the number of nodes present in the tree.
+     * @return numPresent The number of nodes that have not been removed.
+     */
+    public int getNumPresent() {
+        return numParts == 0 ? 0 : present[0];
+    }
+}
@@ -0,0 +1,505 @@
+package com.alike.solution_helpers;
+
+import com.alike.graphsystem.Node;
+import com.alike.solvers.SpaceFillingCurveSolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Builds minimum spanning trees of the nodes of a @code{NodeGeometry} with Boruvka's algorithm over the sparse graph
+ * of each node's candidates (in both directions). Each round every component finds its cheapest edge to another
+ * component, and all of those edges are added at once, so there are at most log n rounds. Both halves of a round run in parallel over
+ * chunks of the nodes, with the components held in a @code{ConcurrentUnionFind} and each component's cheapest edge
+ * held in an atomic array. Edges are compared by length and then by their nodes, so that no two edges are equal and
+ * the edges added in a round can never form a cycle.
+ * If the candidate graph is not connected (e.g. for far apart clusters of nodes), the components left are joined by
+ * the shortest edges between them, found with a @code{KdTree}. The tree is exact whenever the candidate graph
+ * contains the minimum spanning tree, which it does for all but a handful of edges with 10 or more candidates.
+ * Algorithm found: O. Boruvka, "O jistem problemu minimalnim" (1926).
+ * @author alike
+ */
+public class MinimumSpanningTree {
+    /**
+     * The number of candidates per node used when no candidate lists are given.
+     */
+    public static final int DEFAULT_CANDIDATES = 10;
+
+    /**
+     * The fewest nodes for which a round is split between threads.
+     */
+    private static final int PARALLEL_THRESHOLD = 10000;
+
+    /**
+     * The executor service the rounds are run on.
+     */
+    private ExecutorService executorService;
+
+    /**
+     * Constructs a new @code{MinimumSpanningTree} that runs on the common fork/join pool.
+     */
+    public MinimumSpanningTree() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new @code{MinimumSpanningTree}.
+     * @param executorService The executor service the rounds are run on.
+     */
+    public MinimumSpanningTree(ExecutorService executorService) {
+        setExecutorService(executorService);
+    }
+
+    /**
+     * Builds a minimum spanning tree of the nodes of a geometry over their @code{DEFAULT_CANDIDATES} nearest
+     * candidates (which are also found in parallel).
+     * @param geometry The positions of the nodes.
+     * @return parent The parent of each node in the tree, which is rooted at node 0 (-1 for the root).
+     */
+    public int[] build(NodeGeometry geometry) {
+        return build(geometry, CandidateLists.fromGeometry(geometry, DEFAULT_CANDIDATES, executorService));
+    }
+
+    /**
+     * Builds a minimum spanning tree of the nodes of a geometry over their candidates.
+     * @param geometry The positions of the nodes.
+     * @param candidateLists The candidates of each node, nearest first.
+     * @return parent The parent of each node in the tree, which is rooted at node 0 (-1 for the root).
+     */
+    public int[] build(NodeGeometry geometry, CandidateLists candidateLists) {
+        return build(geometry, candidateLists, null);
+    }
+
+    /**
+     * Builds a minimum spanning tree of the nodes of a geometry over their candidates, where the weight of each edge
+     * is its length plus the penalties of both of its nodes (as used by Held-Karp lower bounds). Any edges needed to
+     * join a candidate graph that is not connected are chosen by length alone.
+     * @param geometry The positions of the nodes.
+     * @param candidateLists The candidates of each node, nearest first.
+     * @param penalties The penalty of each node (null for none).
+     * @return parent The parent of each node in the tree, which is rooted at node 0 (-1 for the root).
+     */
+    public int[] build(NodeGeometry geometry, CandidateLists candidateLists, double[] penalties) {
+        int numNodes = geometry.getNumNodes();
+        if (numNodes == 0) {
+            return new int[0];
+        }
+        // Work on the nodes renumbered in Hilbert curve order, so that nodes near each other in space are near each
+        // other in every array and the rounds touch memory that is mostly in the cache.
+        int[] order = new SpaceFillingCurveSolver(new HilbertCurve()).getNodesOrdered(geometry);
+        int[] rank = new int[numNodes];
+        List<Node> rankedNodes = new ArrayList<>(numNodes);
+        for (int r = 0; r < numNodes; r++) {
+            rank[order[r]] = r;
+            rankedNodes.add(geometry.getNode(order[r]));
+        }
+        NodeGeometry ranked = new NodeGeometry(rankedNodes);
+        int k = candidateLists.getK();
+        int[] rankedCandidates = new int[numNodes * k];
+        double[] rankedPenalties = penalties == null ? null : new double[numNodes];
+        for (int r = 0; r < numNodes; r++) {
+            for (int j = 0; j < k; j++) {
+                rankedCandidates[r * k + j] = rank[candidateLists.get(order[r], j)];
+            }
+            if (penalties != null) {
+                rankedPenalties[r] = penalties[order[r]];
+            }
+        }
+        // The neighbours of node x are adjacent[first[x]] up to adjacent[first[x + 1]], nearest first.
+        int[] first = new int[numNodes + 1];
+        int[] adjacent = toSymmetricLists(ranked, new CandidateLists(rankedCandidates, k), first);
+        ConcurrentUnionFind components = new ConcurrentUnionFind(numNodes);
+        // The first neighbour of each node that was not yet in the same component at the last look.
+        int[] nextNeighbour = Arrays.copyOf(first, numNodes);
+        // The cheapest edge out of each component (by its root) found this round, as (x << 32 | y), or -1.
+        AtomicLongArray cheapest = new AtomicLongArray(numNodes);
+        for (int x = 0; x < numNodes; x++) {
+            cheapest.set(x, -1);
+        }
+        int[] edgeStart = new int[numNodes - 1];
+        int[] edgeEnd = new int[numNodes - 1];
+        AtomicInteger numTreeEdges = new AtomicInteger();
+        while (numTreeEdges.get() < numNodes - 1) {
+            int before = numTreeEdges.get();
+            runInParallel(numNodes, (from, to) -> {
+                for (int x = from; x < to; x++) {
+                    offerCheapestEdge(ranked, first, adjacent, rankedPenalties, components, nextNeighbour, cheapest,
+                            x);
+                }
+            });
+            runInParallel(numNodes, (from, to) -> {
+                for (int root = from; root < to; root++) {
+                    long edge = cheapest.get(root);
+                    if (edge != -1) {
+                        cheapest.set(root, -1);
+                        int x = (int) (edge >>> 32);
+                        int y = (int) edge;
+                        if (components.union(x, y)) { // False if the other component chose the same edge.
+                            int index = numTreeEdges.getAndIncrement();
+                            edgeStart[index] = x;
+                            edgeEnd[index] = y;
+                        }
+                    }
+                }
+            });
+            if (numTreeEdges.get() == before) {
+                break; // No candidate edges leave any component.
+            }
+        }
+        int numEdges = joinComponents(ranked, components, edgeStart, edgeEnd, numTreeEdges.get());
+        int[] rankedParent = toParentArray(numNodes, edgeStart, edgeEnd, numEdges, rank[0]);
+        int[] parent = new int[numNodes];
+        for (int r = 0; r < numNodes; r++) {
+            parent[order[r]] = rankedParent[r] == -1 ? -1 : order[rankedParent[r]];
+        }
+        return parent;
+    }
+
+    /**
+     * Turns candidate lists into symmetric neighbour lists, where y is a neighbour of x if either is a candidate of
+     * the other, so that every component sees every candidate edge that leaves it. Each list is sorted nearest first
+     * (and by index between equally near neighbours).
+     * @param geometry The positions of the nodes.
+     * @param candidateLists The candidates of each node.
+     * @param first Where the start of each node's list is written (numNodes + 1 long).
+     * @return adjacent The neighbours of every node.
+     */
+    private static int[] toSymmetricLists(NodeGeometry geometry, CandidateLists candidateLists, int[] first) {
+        int numNodes = geometry.getNumNodes();
+        int k = candidateLists.getK();
+        int[] candidates = candidateLists.getCandidates();
+        for (int x = 0; x < numNodes; x++) {
+            for (int i = x * k; i < x * k + k; i++) {
+                first[x + 1]++;
+                if (!isCandidate(candidates, k, candidates[i], x)) {
+                    first[candidates[i] + 1]++;
+                }
+            }
+        }
+        for (int x = 0; x < numNodes; x++) {
+            first[x + 1] += first[x];
+        }
+        int[] adjacent = new int[first[numNodes]];
+        int[] filled = Arrays.copyOf(first, numNodes);
+        for (int x = 0; x < numNodes; x++) {
+            for (int i = x * k; i < x * k + k; i++) {
+                int y = candidates[i];
+                adjacent[filled[x]++] = y;
+                if (!isCandidate(candidates, k, y, x)) {
+                    adjacent[filled[y]++] = x;
+                }
+            }
+        }
+        for (int x = 0; x < numNodes; x++) { // Insertion sort each (short) list.
+            for (int i = first[x] + 1; i < first[x + 1]; i++) {
+                int y = adjacent[i];
+                double length = geometry.distance(x, y);
+                int j = i;
+                while (j > first[x] && isNearer(geometry, x, y, length, adjacent[j - 1])) {
+                    adjacent[j] = adjacent[j - 1];
+                    j--;
+                }
+                adjacent[j] = y;
+            }
+        }
+        return adjacent;
+    }
+
+    /**
+     * Returns whether a node is nearer to x than another node, or as near with a lower index.
+     * @param geometry The positions of the nodes.
+     * @param x The node distances are measured from.
+     * @param y The first node.
+     * @param length The distance from x to y.
+     * @param other The second node.
+     * @return nearer True if y comes before other.
+     */
+    private static boolean isNearer(NodeGeometry geometry, int x, int y, double length, int other) {
+        double otherLength = geometry.distance(x, other);
+        return length < otherLength || (length == otherLength && y < other);
+    }
+
+    /**
+     * Returns whether a node is one of the candidates of another node.
+     * @param candidates The flat array of candidates.
+     * @param k The number of candidates of each node.
+     * @param node The node whose candidates are checked.
+     * @param candidate The node to look for.
+     * @return isCandidate True if @code{candidate} is a candidate of @code{node}.
+     */
+    private static boolean isCandidate(int[] candidates, int k, int node, int candidate) {
+        for (int i = node * k; i < node * k + k; i++) {
+            if (candidates[i] == candidate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the cheapest edge from a node to a neighbour in another component and offers it as the cheapest edge out
+     * of the node's component. Neighbours already in the node's component are skipped for good, as components only
+     * grow.
+     * @param geometry The positions of the nodes.
+     * @param first The start of each node's neighbour list.
+     * @param adjacent The neighbours of every node, nearest first.
+     * @param penalties The penalty of each node (null for none).
+     * @param components The components found so far.
+     * @param nextNeighbour The first neighbour of each node that may be in a different component.
+     * @param cheapest The cheapest edge out of each component found so far.
+     * @param x The node.
+     */
+    private static void offerCheapestEdge(NodeGeometry geometry, int[] first, int[] adjacent, double[] penalties,
+                                          ConcurrentUnionFind components, int[] nextNeighbour,
+                                          AtomicLongArray cheapest, int x) {
+        int root = components.find(x);
+        int end = first[x + 1];
+        int i = nextNeighbour[x];
+        while (i < end && components.find(adjacent[i]) == root) {
+            i++;
+        }
+        nextNeighbour[x] = i;
+        if (i == end) {
+            return;
+        }
+        int best = adjacent[i];
+        double bestLength = geometry.distance(x, best);
+        for (int j = i + 1; j < end; j++) {
+            int y = adjacent[j];
+            if (penalties == null && geometry.distance(x, y) > bestLength) {
+                break; // The neighbours are nearest first, so none of the rest can be cheaper.
+            }
+            if (components.find(y) != root && isCheaper(geometry, penalties, x, y, x, best)) {
+                best = y;
+            }
+        }
+        long edge = ((long) x << 32) | best;
+        long current = cheapest.get(root);
+        while (current == -1 || isCheaper(geometry, penalties, x, best, (int) (current >>> 32), (int) current)) {
+            if (cheapest.compareAndSet(root, current, edge)) {
+                return;
+            }
+            current = cheapest.get(root);
+        }
+    }
+
+    /**
+     * Returns whether one edge is cheaper than another, comparing by weight and then by the nodes of the edges, so
+     * that two different edges are never equal.
+     * @param geometry The positions of the nodes.
+     * @param penalties The penalty of each node (null for none).
+     * @param x1 The first node of the first edge.
+     * @param y1 The second node of the first edge.
+     * @param x2 The first node of the second edge.
+     * @param y2 The second node of the second edge.
+     * @return cheaper True if the first edge is cheaper.
+     */
+    private static boolean isCheaper(NodeGeometry geometry, double[] penalties, int x1, int y1, int x2, int y2) {
+        double weight1 = weight(geometry, penalties, x1, y1);
+        double weight2 = weight(geometry, penalties, x2, y2);
+        if (weight1 != weight2) {
+            return weight1 < weight2;
+        }
+        int low1 = Math.min(x1, y1);
+        int low2 = Math.min(x2, y2);
+        if (low1 != low2) {
+            return low1 < low2;
+        }
+        return Math.max(x1, y1) < Math.max(x2, y2);
+    }
+
+    /**
+     * Returns the weight of an edge.
+     * @param geometry The positions of the nodes.
+     * @param penalties The penalty of each node (null for none).
+     * @param x The first node.
+     * @param y The second node.
+     * @return weight The length of the edge plus the penalties of its nodes.
+     */
+    private static double weight(NodeGeometry geometry, double[] penalties, int x, int y) {
+        double length = geometry.distance(x, y);
+        return penalties == null ? length : length + penalties[x] + penalties[y];
+    }
+
+    /**
+     * Joins the components left once no candidate edges leave them, Boruvka style: each round every component finds
+     * its shortest edge to any other component (by removing its own nodes from a @code{KdTree}, searching from each of
+     * them and putting them back) and all of those edges are added.
+     * @param geometry The positions of the nodes.
+     * @param components The components found so far.
+     * @param edgeStart The first node of each tree edge.
+     * @param edgeEnd The second node of each tree edge.
+     * @param numEdges The number of tree edges so far.
+     * @return numEdges The number of tree edges once every component is joined.
+     */
+    private static int joinComponents(NodeGeometry geometry, ConcurrentUnionFind components, int[] edgeStart,
+                                      int[] edgeEnd, int numEdges) {
+        int numNodes = geometry.getNumNodes();
+        if (numEdges == numNodes - 1) {
+            return numEdges;
+        }
+        KdTree tree = new KdTree(geometry);
+        int[] root = new int[numNodes];
+        int[] first = new int[numNodes + 1];
+        int[] members = new int[numNodes];
+        int[] bestFrom = new int[numNodes];
+        int[] bestTo = new int[numNodes];
+        double[] bestLength = new double[numNodes];
+        while (numEdges < numNodes - 1) {
+            // List the nodes of each component (by its root) together.
+            Arrays.fill(first, 0);
+            for (int x = 0; x < numNodes; x++) {
+                root[x] = components.find(x);
+                first[root[x] + 1]++;
+            }
+            for (int r = 0; r < numNodes; r++) {
+                first[r + 1] += first[r];
+            }
+            int[] filled = Arrays.copyOf(first, numNodes);
+            for (int x = 0; x < numNodes; x++) {
+                members[filled[root[x]]++] = x;
+            }
+            for (int r = 0; r < numNodes; r++) {
+                if (first[r] == first[r + 1]) {
+                    continue;
+                }
+                bestLength[r] = Double.POSITIVE_INFINITY;
+                for (int i = first[r]; i < first[r + 1]; i++) {
+                    tree.remove(members[i]);
+                }
+                for (int i = first[r]; i < first[r + 1]; i++) {
+                    int y = tree.nearest(members[i]);
+                    double length = geometry.distance(members[i], y);
+                    if (length < bestLength[r]) {
+                        bestLength[r] = length;
+                        bestFrom[r] = members[i];
+                        bestTo[r] = y;
+                    }
+                }
+                for (int i = first[r]; i < first[r + 1]; i++) {
+                    tree.restore(members[i]);
+                }
+            }
+            for (int r = 0; r < numNodes; r++) {
+                if (first[r] != first[r + 1] && components.union(bestFrom[r], bestTo[r])) {
+                    edgeStart[numEdges] = bestFrom[r];
+                    edgeEnd[numEdges++] = bestTo[r];
+                }
+            }
+        }
+        return numEdges;
+    }
+
+    /**
+     * Roots a tree given as a list of edges.
+     * @param numNodes The number of nodes.
+     * @param edgeStart The first node of each edge.
+     * @param edgeEnd The second node of each edge.
+     * @param numEdges The number of edges.
+     * @param root The node to root the tree at.
+     * @return parent The parent of each node (-1 for the root).
+     */
+    private static int[] toParentArray(int numNodes, int[] edgeStart, int[] edgeEnd, int numEdges, int root) {
+        // The neighbours of node x are adjacent[first[x]] up to adjacent[first[x + 1]].
+        int[] first = new int[numNodes + 1];
+        for (int e = 0; e < numEdges; e++) {
+            first[edgeStart[e] + 1]++;
+            first[edgeEnd[e] + 1]++;
+        }
+        for (int x = 0; x < numNodes; x++) {
+            first[x + 1] += first[x];
+        }
+        int[] adjacent = new int[2 * numEdges];
+        int[] filled = Arrays.copyOf(first, numNodes);
+        for (int e = 0; e < numEdges; e++) {
+            adjacent[filled[edgeStart[e]]++] = edgeEnd[e];
+            adjacent[filled[edgeEnd[e]]++] = edgeStart[e];
+        }
+        int[] parent = new int[numNodes];
+        Arrays.fill(parent, -2); // Not reached yet.
+        parent[root] = -1;
+        int[] queue = new int[numNodes];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        while (head < tail) {
+            int x = queue[head++];
+            for (int i = first[x]; i < first[x + 1]; i++) {
+                int y = adjacent[i];
+                if (parent[y] == -2) {
+                    parent[y] = x;
+                    queue[tail++] = y;
+                }
+            }
+        }
+        return parent;
+    }
+
+    /**
+     * Runs a task over a range of items, split into chunks run on the @code{executorService} if there are enough.
+     * @param numItems The number of items.
+     * @param task The task to run on each chunk.
+     */
+    private void runInParallel(int numItems, RangeTask task) {
+        int numChunks = numItems < PARALLEL_THRESHOLD ? 1 : 4 * Runtime.getRuntime().availableProcessors();
+        if (numChunks == 1) {
+            task.run(0, numItems);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(numChunks);
+        for (int i = 0; i < numChunks; i++) {
+            int from = (int) ((long) i * numItems / numChunks);
+            int to = (int) ((long) (i + 1) * numItems / numChunks);
+            tasks.add(() -> {
+                task.run(from, to);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executorService.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building a minimum spanning tree.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A minimum spanning tree round failed.", e.getCause());
+        }
+    }
+
+    /**
+     * A task run over a range of items.
+     */
+    private interface RangeTask {
+        /**
+         * Runs the task.
+         * @param from The first item.
+         * @param to The item after the last.
+         */
+        void run(int from, int to);
+    }
+
+    /**
+     * Returns the value of the @code{executorService} attribute.
+     * @return executorService The value of the @code{executorService} attribute.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Sets the @code{executorService} attribute to a new value.
+     * @param executorService The new value to assign the @code{executorService} attribute.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+}
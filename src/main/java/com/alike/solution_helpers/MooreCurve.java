@@ -0,0 +1,43 @@
+package com.alike.solution_helpers;
+
+/**
+ * The Moore curve: the closed variant of the Hilbert curve. Four Hilbert curves visit the quadrants (bottom left, top
+ * left, top right, bottom right) so that the last square is adjacent to the first, so the tour's closing edge is short
+ * rather than crossing the grid as the Hilbert curve's does.
+ * @author alike
+ */
+public class MooreCurve implements SpaceFillingCurve {
+    /**
+     * Returns the position along the curve of a square of the grid.
+     * @param x The x coordinate of the square (0 to 2^order - 1).
+     * @param y The y coordinate of the square (0 to 2^order - 1).
+     * @param order The order of the curve.
+     * @return index The position of the square along the curve.
+     */
+    @Override
+    public long index(int x, int y, int order) {
+        if (order == 0) {
+            return 0;
+        }
+        int half = 1 << (order - 1);
+        long quadrantSize = (long) half * half;
+        if (x < half) {
+            // The left quadrants are crossed upwards by Hilbert curves that start and end on their right edge.
+            int quadrant = y < half ? 0 : 1;
+            return quadrant * quadrantSize + HilbertCurve.hilbertIndex(half, y % half, half - 1 - x);
+        }
+        // The right quadrants are crossed downwards by Hilbert curves that start and end on their left edge.
+        int quadrant = y < half ? 3 : 2;
+        return quadrant * quadrantSize + HilbertCurve.hilbertIndex(half, half - 1 - y % half, x - half);
+    }
+
+    /**
+     * Returns the number of bits needed to hold any index of the curve at an order.
+     * @param order The order of the curve.
+     * @return bits The number of bits in the largest index.
+     */
+    @Override
+    public int getIndexBits(int order) {
+        return 2 * order;
+    }
+}
@@ -0,0 +1,196 @@
+package com.alike.solution_helpers;
+
+import com.alike.customexceptions.EdgeToSelfException;
+import com.alike.customexceptions.InvalidTourException;
+import com.alike.graphsystem.Edge;
+import com.alike.graphsystem.EdgeContainer;
+import com.alike.graphsystem.Node;
+import com.alike.graphsystem.StaticGraph;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * A snapshot of the positions of a graph's nodes held in primitive arrays. Nodes are referred to by their index in
+ * the snapshot, so tour based solvers can work on @code{int} tours and calculate distances on demand rather than
+ * building an n^2 edge length matrix.
+ * @author alike
+ */
+public class NodeGeometry {
+    /**
+     * The nodes of the snapshot; node i is the node at index i.
+     */
+    private final Node[] nodes;
+
+    /**
+     * The x coordinate of each node.
+     */
+    private final double[] xs;
+
+    /**
+     * The y coordinate of each node.
+     */
+    private final double[] ys;
+
+    /**
+     * Maps each node to its index (built the first time it is needed).
+     */
+    private IdentityHashMap<Node, Integer> indices;
+
+    /**
+     * Constructs a new @code{NodeGeometry} snapshot of the nodes of a graph.
+     * @param graph The graph whose nodes will be captured.
+     */
+    public NodeGeometry(StaticGraph graph) {
+        this(graph.getNodeContainer().getNodeSet());
+    }
+
+    /**
+     * Constructs a new @code{NodeGeometry} snapshot of a list of nodes.
+     * @param nodes The nodes to capture (node i of the snapshot is the i-th node of the list).
+     */
+    public NodeGeometry(List<Node> nodes) {
+        this.nodes = nodes.toArray(new Node[0]);
+        this.xs = new double[this.nodes.length];
+        this.ys = new double[this.nodes.length];
+        for (int i = 0; i < this.nodes.length; i++) {
+            xs[i] = this.nodes[i].getCoordinate().getX();
+            ys[i] = this.nodes[i].getCoordinate().getY();
+        }
+    }
+
+    /**
+     * Returns the distance between two nodes.
+     * @param i The index of the first node.
+     * @param j The index of the second node.
+     * @return distance The euclidean distance between the nodes.
+     */
+    public double distance(int i, int j) {
+        double dx = xs[i] - xs[j];
+        double dy = ys[i] - ys[j];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Returns the length of a closed tour.
+     * @param tour The indices of the nodes of the tour, in order.
+     * @return length The length of the tour, including the edge back to the start.
+     */
+    public double tourLength(int[] tour) {
+        double length = 0.0;
+        for (int i = 0; i < tour.length; i++) {
+            length += distance(tour[i], tour[(i + 1) % tour.length]);
+        }
+        return length;
+    }
+
+    /**
+     * Returns the index of a node in this snapshot.
+     * @param node The node to find.
+     * @return index The index of the node, or -1 if the node is not part of the snapshot.
+     */
+    public int indexOf(Node node) {
+        if (indices == null) {
+            indices = new IdentityHashMap<>(nodes.length * 2);
+            for (int i = 0; i < nodes.length; i++) {
+                indices.put(nodes[i], i);
+            }
+        }
+        Integer index = indices.get(node);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Converts a set of edges that form a single tour through every node (such as the output of another solver) into
+     * the order the tour visits the nodes in.
+     * @param edgeContainer The container holding the edges of the tour.
+     * @return tour The indices of the nodes of the tour, in order.
+     * @throws InvalidTourException Thrown if the edges are not a single tour through every node.
+     */
+    public int[] tourFromEdges(EdgeContainer edgeContainer) throws InvalidTourException {
+        int numNodes = nodes.length;
+        List<Edge> edges = edgeContainer.getEdgeSet();
+        if (edges.size() != numNodes) {
+            throw new InvalidTourException("A tour through " + numNodes + " nodes needs " + numNodes + " edges, but "
+                    + edges.size() + " were given.");
+        }
+        // Each node of a tour has exactly two neighbours.
+        int[] neighbours = new int[numNodes * 2];
+        int[] degree = new int[numNodes];
+        for (Edge e : edges) {
+            int a = indexOf(e.getStartNode());
+            int b = indexOf(e.getEndNode());
+            if (a == -1 || b == -1 || degree[a] == 2 || degree[b] == 2) {
+                throw new InvalidTourException("The edge " + e.getEdgeID() + " cannot be part of a tour of the graph.");
+            }
+            neighbours[a * 2 + degree[a]++] = b;
+            neighbours[b * 2 + degree[b]++] = a;
+        }
+        // Walk the tour from node 0.
+        int[] tour = new int[numNodes];
+        int previous = -1;
+        int current = 0;
+        for (int i = 0; i < numNodes; i++) {
+            if (i > 0 && current == 0) {
+                throw new InvalidTourException("The edges form more than one cycle.");
+            }
+            tour[i] = current;
+            int next = neighbours[current * 2] != previous ? neighbours[current * 2] : neighbours[current * 2 + 1];
+            previous = current;
+            current = next;
+        }
+        if (current != 0) {
+            throw new InvalidTourException("The edges do not form a closed tour.");
+        }
+        return tour;
+    }
+
+    /**
+     * Constructs an @code{EdgeContainer} holding a closed tour.
+     * @param tour The indices of the nodes of the tour, in order.
+     * @return edgeContainer The container holding the edges of the tour.
+     * @throws EdgeToSelfException Thrown if the tour visits a node twice in a row.
+     */
+    public EdgeContainer toEdgeContainer(int[] tour) throws EdgeToSelfException {
+        Node[] tourNodes = new Node[tour.length];
+        for (int i = 0; i < tour.length; i++) {
+            tourNodes[i] = nodes[tour[i]];
+        }
+        return EdgeContainer.fromCycle(tourNodes);
+    }
+
+    /**
+     * Returns the node at an index.
+     * @param i The index of the node.
+     * @return node The node at the index.
+     */
+    public Node getNode(int i) {
+        return nodes[i];
+    }
+
+    /**
+     * Returns the x coordinate of a node.
+     * @param i The index of the node.
+     * @return x The x coordinate of the node.
+     */
+    public double getX(int i) {
+        return xs[i];
+    }
+
+    /**
+     * Returns the y coordinate of a node.
+     * @param i The index of the node.
+     * @return y The y coordinate of the node.
+     */
+    public double getY(int i) {
+        return ys[i];
+    }
+
+    /**
+     * Returns the number of nodes in the snapshot.
+     * @return numNodes The number of nodes.
+     */
+    public int getNumNodes() {
+        return nodes.length;
+    }
+}
@@ -0,0 +1,195 @@
+package com.alike.solution_helpers;
+
+/**
+ * Improves a tour with Or-opt moves: a segment of up to three consecutive nodes is cut out of the tour, the gap is
+ * closed, and the segment (optionally reversed) is inserted between two neighbouring nodes elsewhere. Insertion points
+ * are only searched for next to the candidates of the segment's end nodes, and don't-look bits keep the search to the
+ * nodes whose tour edges have changed. Moves are applied with @code{Tour.flip}, so nothing is allocated per move.
+ * Or-opt repairs the small local defects that 2-opt cannot, such as a single node visited out of order.
+ * @author alike
+ */
+public class OrOptImprover implements TourImprover {
+    /**
+     * The smallest gain considered an improvement (guards against looping on rounding errors).
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * The number of nodes in the longest segment that will be moved.
+     */
+    private int maxSegmentLength;
+
+    /**
+     * Constructs a new @code{OrOptImprover} that moves segments of 1 to 3 nodes.
+     */
+    public OrOptImprover() {
+        this(3);
+    }
+
+    /**
+     * Constructs a new @code{OrOptImprover}.
+     * @param maxSegmentLength The number of nodes in the longest segment that will be moved.
+     */
+    public OrOptImprover(int maxSegmentLength) {
+        setMaxSegmentLength(maxSegmentLength);
+    }
+
+    /**
+     * Improves a tour in place until no segment can be moved to a better position near its candidates.
+     * @param tour The tour to improve.
+     * @param geometry The positions of the nodes of the tour.
+     * @param candidateLists The nearest candidates of each node.
+     * @return improved True if the tour was changed.
+     */
+    @Override
+    public boolean improve(Tour tour, NodeGeometry geometry, CandidateLists candidateLists) {
+        return improve(tour, geometry, candidateLists, DontLookBits.allOf(tour.toArray()));
+    }
+
+    /**
+     * Improves a tour in place, searching from the nodes queued in a set of don't-look bits (e.g. only those near
+     * where the tour was changed) and from any node whose tour edges a move changes.
+     * @param tour The tour to improve.
+     * @param geometry The positions of the nodes of the tour.
+     * @param candidateLists The nearest candidates of each node.
+     * @param dontLookBits The nodes to search from; empty when this returns.
+     * @return improved True if the tour was changed.
+     */
+    public boolean improve(Tour tour, NodeGeometry geometry, CandidateLists candidateLists,
+                           DontLookBits dontLookBits) {
+        if (tour.getNumNodes() < maxSegmentLength + 3) {
+            return false; // There must be an edge left to insert the segment into once it has been cut out.
+        }
+        boolean improved = false;
+        int node;
+        while ((node = dontLookBits.poll()) != -1) {
+            if (improveFrom(node, tour, geometry, candidateLists, dontLookBits)) {
+                improved = true;
+                dontLookBits.push(node);
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Searches for an improving move of a segment that starts or ends at a node and applies the first one found.
+     * @param node The node at one end of the segments to try.
+     * @param tour The tour to improve.
+     * @param geometry The positions of the nodes of the tour.
+     * @param candidateLists The nearest candidates of each node.
+     * @param dontLookBits The queue the end nodes of an applied move are added to.
+     * @return improved True if a move was applied.
+     */
+    private boolean improveFrom(int node, Tour tour, NodeGeometry geometry, CandidateLists candidateLists,
+                                DontLookBits dontLookBits) {
+        // Segments running forwards from the node, then segments running backwards to it.
+        int s2 = node;
+        for (int length = 1; length <= maxSegmentLength; length++) {
+            if (tryMoveSegment(node, s2, tour, geometry, candidateLists, dontLookBits)) {
+                return true;
+            }
+            s2 = tour.next(s2);
+        }
+        int s1 = tour.prev(node);
+        for (int length = 2; length <= maxSegmentLength; length++) {
+            if (tryMoveSegment(s1, node, tour, geometry, candidateLists, dontLookBits)) {
+                return true;
+            }
+            s1 = tour.prev(s1);
+        }
+        return false;
+    }
+
+    /**
+     * Searches for a better position for the segment s1..s2 between two neighbouring nodes a and b = next(a), where a
+     * or b is a candidate of s1 or s2, and applies the first improving move found.
+     * @param s1 The first node of the segment.
+     * @param s2 The last node of the segment.
+     * @param tour The tour to improve.
+     * @param geometry The positions of the nodes of the tour.
+     * @param candidateLists The nearest candidates of each node.
+     * @param dontLookBits The queue the end nodes of an applied move are added to.
+     * @return improved True if the segment was moved.
+     */
+    private boolean tryMoveSegment(int s1, int s2, Tour tour, NodeGeometry geometry,
+                                   CandidateLists candidateLists, DontLookBits dontLookBits) {
+        int p = tour.prev(s1);
+        int n = tour.next(s2);
+        // The gain of cutting the segment out and joining p to n.
+        double removeGain = geometry.distance(p, s1) + geometry.distance(s2, n) - geometry.distance(p, n);
+        if (removeGain <= EPSILON) {
+            return false;
+        }
+        int[] candidates = candidateLists.getCandidates();
+        int k = candidateLists.getK();
+        for (int end = 0; end < 2; end++) {
+            int e = end == 0 ? s1 : s2;
+            for (int i = e * k; i < e * k + k; i++) {
+                int c = candidates[i];
+                if (geometry.distance(e, c) >= removeGain) {
+                    break; // Candidates are nearest first, so no later candidate is close enough to gain.
+                }
+                if (tour.between(s1, c, s2)) {
+                    continue; // Part of the segment.
+                }
+                // Try the tour edges on both sides of the candidate.
+                for (int side = 0; side < 2; side++) {
+                    int a = side == 0 ? tour.prev(c) : c;
+                    int b = side == 0 ? c : tour.next(c);
+                    if (a == s2 || b == s1) {
+                        continue; // The edge touches the segment.
+                    }
+                    double gain = removeGain + geometry.distance(a, b);
+                    double forwardGain = gain - geometry.distance(a, s1) - geometry.distance(s2, b);
+                    double reversedGain = gain - geometry.distance(a, s2) - geometry.distance(s1, b);
+                    if (forwardGain > EPSILON || reversedGain > EPSILON) {
+                        moveSegment(s1, s2, a, forwardGain >= reversedGain, tour);
+                        dontLookBits.push(p);
+                        dontLookBits.push(n);
+                        dontLookBits.push(s1);
+                        dontLookBits.push(s2);
+                        dontLookBits.push(a);
+                        dontLookBits.push(b);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the segment s1..s2 to lie between a and next(a). The tour p s1..s2 n X a b becomes p n X a s1..s2 b (or
+     * p n X a s2..s1 b if the segment is reversed) using two or three flips. The node a must not be p or lie in the
+     * segment.
+     * @param s1 The first node of the segment.
+     * @param s2 The last node of the segment.
+     * @param a The node the segment will follow.
+     * @param forward Whether the segment keeps its orientation (s1 next to a) or is reversed (s2 next to a).
+     * @param tour The tour to change.
+     */
+    public static void moveSegment(int s1, int s2, int a, boolean forward, Tour tour) {
+        int n = tour.next(s2);
+        tour.flip(s1, a); // p a X' n s2..s1 b
+        tour.flip(a, n); // p n X a s2..s1 b
+        if (forward) {
+            tour.flip(s2, s1); // p n X a s1..s2 b
+        }
+    }
+
+    /**
+     * Returns the value of the @code{maxSegmentLength} attribute.
+     * @return maxSegmentLength The value of the @code{maxSegmentLength} attribute.
+     */
+    public int getMaxSegmentLength() {
+        return maxSegmentLength;
+    }
+
+    /**
+     * Sets the @code{maxSegmentLength} attribute to a new value.
+     * @param maxSegmentLength The new value to assign the @code{maxSegmentLength} attribute (at least 1).
+     */
+    public void setMaxSegmentLength(int maxSegmentLength) {
+        this.maxSegmentLength = Math.max(1, maxSegmentLength);
+    }
+}
@@ -0,0 +1,137 @@
+package com.alike.solution_helpers;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A lock-free matrix of pheromone levels for use by the @code{Ant} workers of an @code{AntColonyOptimisationSolver}.
+ * The levels are held as raw double bits in a single flat @code{long[]} so that reads and updates never box and the
+ * whole matrix is one object rather than n^2 separate ones. Updates use a @code{VarHandle} compare-and-set loop that
+ * always compares against the value the new level was calculated from, so concurrent updates cannot overwrite one
+ * another.
+ * @author alike
+ */
+public class PheromoneMatrix {
+    /**
+     * The handle used to atomically access the elements of the @code{levels} array.
+     */
+    private static final VarHandle LEVELS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * The raw bits of each pheromone level (see @code{Double.doubleToRawLongBits}).
+     */
+    private final long[] levels;
+
+    /**
+     * The number of nodes (rows/columns) the matrix represents.
+     */
+    private final int numNodes;
+
+    /**
+     * Whether (x, y) and (y, x) share a single level. When true only the lower triangle of the matrix is stored.
+     */
+    private final boolean symmetric;
+
+    /**
+     * Constructs a new @code{PheromoneMatrix} with every level set to 0.
+     * @param numNodes The number of nodes the matrix will hold pheromone levels between.
+     * @param symmetric Whether the edge (x, y) should share its pheromone level with the edge (y, x).
+     */
+    public PheromoneMatrix(int numNodes, boolean symmetric) {
+        this.numNodes = numNodes;
+        this.symmetric = symmetric;
+        long size = symmetric ? (long) numNodes * (numNodes + 1) / 2 : (long) numNodes * numNodes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Cannot store a pheromone matrix for " + numNodes + " nodes.");
+        }
+        this.levels = new long[(int) size];
+    }
+
+    /**
+     * Returns the index in the @code{levels} array at which the level of the edge (x, y) is stored.
+     * @param x The row of the level.
+     * @param y The column of the level.
+     * @return index The index of the level in the @code{levels} array.
+     */
+    private int index(int x, int y) {
+        if (symmetric) { // The flag is final, so this branch is perfectly predicted.
+            int hi = Math.max(x, y);
+            return (hi * (hi + 1) >>> 1) + Math.min(x, y);
+        }
+        return x * numNodes + y;
+    }
+
+    /**
+     * Returns the pheromone level of the edge (x, y).
+     * @param x The row of the level.
+     * @param y The column of the level.
+     * @return level The pheromone level of the edge.
+     */
+    public double get(int x, int y) {
+        return Double.longBitsToDouble((long) LEVELS.getOpaque(levels, index(x, y)));
+    }
+
+    /**
+     * Sets the pheromone level of the edge (x, y) to a new value.
+     * @param x The row of the level.
+     * @param y The column of the level.
+     * @param level The new pheromone level of the edge.
+     */
+    public void set(int x, int y, double level) {
+        LEVELS.setOpaque(levels, index(x, y), Double.doubleToRawLongBits(level));
+    }
+
+    /**
+     * Atomically adds an amount of pheromone to the edge (x, y).
+     * @param x The row of the level.
+     * @param y The column of the level.
+     * @param delta The amount of pheromone to add (negative to remove).
+     * @return level The pheromone level of the edge after the addition.
+     */
+    public double add(int x, int y, double delta) {
+        int i = index(x, y);
+        long expected;
+        double updated;
+        do {
+            expected = (long) LEVELS.getVolatile(levels, i);
+            updated = Double.longBitsToDouble(expected) + delta;
+        } while (!LEVELS.weakCompareAndSet(levels, i, expected, Double.doubleToRawLongBits(updated)));
+        return updated;
+    }
+
+    /**
+     * Atomically evaporates the pheromone on the edge (x, y) and deposits a new amount, i.e. sets the level to
+     * (1 - rho) * level + deposit. Levels never fall below 0.
+     * @param x The row of the level.
+     * @param y The column of the level.
+     * @param rho The fraction of the current pheromone that evaporates (0<RHO<1).
+     * @param deposit The amount of pheromone deposited.
+     * @return level The pheromone level of the edge after the update.
+     */
+    public double evaporateAndDeposit(int x, int y, double rho, double deposit) {
+        int i = index(x, y);
+        long expected;
+        double updated;
+        do {
+            expected = (long) LEVELS.getVolatile(levels, i);
+            updated = Math.max(0.0, (1 - rho) * Double.longBitsToDouble(expected) + deposit);
+        } while (!LEVELS.weakCompareAndSet(levels, i, expected, Double.doubleToRawLongBits(updated)));
+        return updated;
+    }
+
+    /**
+     * Returns the value of the @code{numNodes} attribute.
+     * @return numNodes The value of the @code{numNodes} attribute.
+     */
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    /**
+     * Returns the value of the @code{symmetric} attribute.
+     * @return symmetric The value of the @code{symmetric} attribute.
+     */
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+}
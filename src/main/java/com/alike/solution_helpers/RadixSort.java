@@ -0,0 +1,115 @@
+package com.alike.solution_helpers;
+
+import java.util.Arrays;
+
+/**
+ * A least significant digit radix sort for arrays of non-negative @code{long} keys. Solvers that order nodes by an
+ * integer key (e.g. their index along a space filling curve) pack the key and the node's index into one @code{long}, so
+ * sorting the array orders the nodes without any boxing or comparator calls.
+ * @author alike
+ */
+public class RadixSort {
+    /**
+     * The number of bits sorted on in each pass.
+     */
+    private static final int BITS_PER_PASS = 8;
+
+    /**
+     * The number of distinct values of a digit.
+     */
+    private static final int RADIX = 1 << BITS_PER_PASS;
+
+    /**
+     * Sorts an array of non-negative keys into ascending order in O(n) time per digit. Only as many passes are made as
+     * there are digits in the largest key.
+     * @param keys The keys to sort (all greater than or equal to 0).
+     */
+    public static void sort(long[] keys) {
+        long max = 0;
+        for (long key : keys) {
+            max = Math.max(max, key);
+        }
+        int bits = 64 - Long.numberOfLeadingZeros(max);
+        long[] from = keys;
+        long[] to = new long[keys.length];
+        int[] counts = new int[RADIX];
+        for (int shift = 0; shift < bits; shift += BITS_PER_PASS) {
+            Arrays.fill(counts, 0);
+            for (long key : from) {
+                counts[(int) (key >>> shift) & (RADIX - 1)]++;
+            }
+            // Turn the counts into the index each digit's keys start at.
+            int start = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int count = counts[digit];
+                counts[digit] = start;
+                start += count;
+            }
+            for (long key : from) {
+                to[counts[(int) (key >>> shift) & (RADIX - 1)]++] = key;
+            }
+            long[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != keys) { // An odd number of passes left the result in the scratch array.
+            System.arraycopy(from, 0, keys, 0, keys.length);
+        }
+    }
+
+    /**
+     * Sorts an array of non-negative keys into ascending order, applying the same rearrangement to an array of
+     * values (so @code{values[i]} stays with @code{keys[i]}). The sort is stable. Non-negative @code{double}s can be
+     * sorted exactly by passing their @code{Double.doubleToLongBits}, which are ordered the same way.
+     * @param keys The keys to sort (all greater than or equal to 0).
+     * @param values The values to rearrange with the keys (at least as long as the keys).
+     */
+    public static void sort(long[] keys, int[] values) {
+        long max = 0;
+        for (long key : keys) {
+            max = Math.max(max, key);
+        }
+        int bits = 64 - Long.numberOfLeadingZeros(max);
+        long[] fromKeys = keys;
+        int[] fromValues = values;
+        long[] toKeys = new long[keys.length];
+        int[] toValues = new int[keys.length];
+        int[] counts = new int[RADIX];
+        for (int shift = 0; shift < bits; shift += BITS_PER_PASS) {
+            Arrays.fill(counts, 0);
+            for (long key : fromKeys) {
+                counts[(int) (key >>> shift) & (RADIX - 1)]++;
+            }
+            int start = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int count = counts[digit];
+                counts[digit] = start;
+                start += count;
+            }
+            for (int i = 0; i < fromKeys.length; i++) {
+                int index = counts[(int) (fromKeys[i] >>> shift) & (RADIX - 1)]++;
+                toKeys[index] = fromKeys[i];
+                toValues[index] = fromValues[i];
+            }
+            long[] swapKeys = fromKeys;
+            fromKeys = toKeys;
+            toKeys = swapKeys;
+            int[] swapValues = fromValues;
+            fromValues = toValues;
+            toValues = swapValues;
+        }
+        if (fromKeys != keys) { // An odd number of passes left the result in the scratch arrays.
+            System.arraycopy(fromKeys, 0, keys, 0, keys.length);
+            System.arraycopy(fromValues, 0, values, 0, keys.length);
+        }
+    }
+
+    /**
+     * Returns the number of bits needed to store the values 0 to n - 1 (at least 1).
+     * @param n The number of values.
+     * @return bits The number of bits needed.
+     */
+    public static int bitsFor(int n) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(0, n - 1)));
+    }
+}
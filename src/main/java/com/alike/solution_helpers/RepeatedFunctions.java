@@ -4,6 +4,9 @@ import com.alike.customexceptions.InvalidGraphException;
 import com.alike.graphsystem.Graph;
 
 import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Class contains some useful functions that are repeated multiple times in the project (or have no obvious space).
@@ -24,17 +27,49 @@ public class RepeatedFunctions {
     }
 
     /**
-     * Used to sleep the thread that executes it.
-     * @param milliseconds The amount of time in milliseconds that the thread should sleep for.
+     * Used to sleep the thread that executes it. The sleep is a managed block, so a fork/join pool whose worker sleeps
+     * (e.g. an ant slowed down to be animated on the common pool) starts a spare worker rather than being starved.
+     * @param milliseconds The amount of time in milliseconds that the thread should sleep for (nothing if 0 or less).
      */
     public static void sleep(int milliseconds) {
+        if (milliseconds <= 0) {
+            return;
+        }
         try {
-            Thread.sleep(milliseconds);
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                private boolean slept = false;
+
+                @Override
+                public boolean block() throws InterruptedException {
+                    Thread.sleep(milliseconds);
+                    slept = true;
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return slept;
+                }
+            });
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Creates an executor service with a single daemon thread, for background work that should never keep the program
+     * running on its own.
+     * @param name The name of the thread.
+     * @return executorService The new executor service.
+     */
+    public static ExecutorService newDaemonExecutor(String name) {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     /**
      * Used to validate whether a graph is legal by throwing an exception when an input graph is not.
      * @param graph The graph to validate.
@@ -0,0 +1,61 @@
+package com.alike.solution_helpers;
+
+/**
+ * The Sierpinski curve: the square is split along a diagonal into two triangles, and each triangle is recursively
+ * split into two halves visited in turn. It is closed like the Moore curve and is the curve used by Platzman and
+ * Bartholdi's space filling curve heuristic.
+ * Algorithm found: J. J. Bartholdi and L. K. Platzman, "Heuristics based on spacefilling curves for combinatorial
+ * problems in Euclidean space" (1988).
+ * @author alike
+ */
+public class SierpinskiCurve implements SpaceFillingCurve {
+    /**
+     * Returns the position along the curve of a square of the grid. The centre of the square is indexed on a grid one
+     * order finer, so that no centre lies on a dividing diagonal.
+     * @param x The x coordinate of the square (0 to 2^order - 1).
+     * @param y The y coordinate of the square (0 to 2^order - 1).
+     * @param order The order of the curve.
+     * @return index The position of the square along the curve.
+     */
+    @Override
+    public long index(int x, int y, int order) {
+        long max = 1L << (order + 1);
+        long px = 2L * x + 1;
+        long py = 2L * y + 1;
+        long result = 0;
+        if (px > py) { // The lower right triangle is visited second.
+            result++;
+            px = max - px;
+            py = max - py;
+        }
+        for (long loop = max; loop > 0; loop >>= 1) {
+            result += result;
+            if (px + py > max) { // The second half of the current triangle.
+                result++;
+                long oldX = px;
+                px = max - py;
+                py = oldX;
+            }
+            px += px;
+            py += py;
+            result += result;
+            if (py > max) {
+                result++;
+                long oldX = px;
+                px = py - max;
+                py = max - oldX;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of bits needed to hold any index of the curve at an order.
+     * @param order The order of the curve.
+     * @return bits The number of bits in the largest index.
+     */
+    @Override
+    public int getIndexBits(int order) {
+        return 2 * (order + 2) + 1; // One bit for the first triangle, then two per halving of the finer grid.
+    }
+}
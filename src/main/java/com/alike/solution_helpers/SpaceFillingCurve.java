@@ -0,0 +1,26 @@
+package com.alike.solution_helpers;
+
+/**
+ * Interface for space filling curves that visit every square of a 2^order by 2^order grid. Sorting nodes by the index
+ * of their square along the curve gives a tour in O(n log n) time (or O(n) with a radix sort); curves differ in how
+ * well they keep nearby squares close together along the curve and in how cheap their index is to calculate.
+ * @author alike
+ */
+public interface SpaceFillingCurve {
+    /**
+     * Returns the position along the curve of a square of the grid. Squares further along the curve have larger
+     * indices, though the indices need not be consecutive.
+     * @param x The x coordinate of the square (0 to 2^order - 1).
+     * @param y The y coordinate of the square (0 to 2^order - 1).
+     * @param order The order of the curve, i.e. the grid has 2^order squares along each side.
+     * @return index The position of the square along the curve.
+     */
+    long index(int x, int y, int order);
+
+    /**
+     * Returns the number of bits needed to hold any index of the curve at an order.
+     * @param order The order of the curve.
+     * @return bits The number of bits in the largest index.
+     */
+    int getIndexBits(int order);
+}
@@ -0,0 +1,71 @@
+package com.alike.solution_helpers;
+
+/**
+ * Interface for the tour data structures used by local search: a cyclic order of the nodes 0 to n - 1 that can be
+ * queried in O(1) and changed by reversing paths (the basic step of 2-opt, Or-opt and Lin-Kernighan moves).
+ * @author alike
+ */
+public interface Tour {
+    /**
+     * The number of nodes from which @code{create} uses a @code{TwoLevelListTour} rather than an @code{ArrayTour}.
+     */
+    int TWO_LEVEL_LIST_THRESHOLD = 100000;
+
+    /**
+     * Creates a tour using the data structure best suited to its size: an @code{ArrayTour} for small tours and a
+     * @code{TwoLevelListTour}, whose reversals cost O(sqrt(n)) rather than O(n), for large ones.
+     * @param tour The nodes of the tour, in order (each node from 0 to n - 1 exactly once).
+     * @return tour The new tour.
+     */
+    static Tour create(int[] tour) {
+        return tour.length >= TWO_LEVEL_LIST_THRESHOLD ? new TwoLevelListTour(tour) : new ArrayTour(tour);
+    }
+
+    /**
+     * Returns the node after a node in the tour.
+     * @param node The node.
+     * @return next The node after it.
+     */
+    int next(int node);
+
+    /**
+     * Returns the node before a node in the tour.
+     * @param node The node.
+     * @return prev The node before it.
+     */
+    int prev(int node);
+
+    /**
+     * Returns whether b lies on the path that travels forwards from a to c (inclusive of a and c).
+     * @param a The start of the path.
+     * @param b The node to check for.
+     * @param c The end of the path.
+     * @return between True if b is on the path.
+     */
+    boolean between(int a, int b, int c);
+
+    /**
+     * Reverses the path that travels forwards from a to b, i.e. turns ... p a ... b n ... into ... p b ... a n ...
+     * (the 2-opt move that removes the edges (p, a) and (b, n) and adds (p, b) and (a, n)).
+     * @param a The first node of the path.
+     * @param b The last node of the path.
+     */
+    void flip(int a, int b);
+
+    /**
+     * Reverses the orientation of the whole tour, so that @code{next} and @code{prev} swap.
+     */
+    void reverse();
+
+    /**
+     * Returns the nodes of the tour in order.
+     * @return tour The nodes of the tour, in order.
+     */
+    int[] toArray();
+
+    /**
+     * Returns the number of nodes in the tour.
+     * @return numNodes The number of nodes in the tour.
+     */
+    int getNumNodes();
+}
@@ -0,0 +1,102 @@
+package com.alike.solution_helpers;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the shortest tour offered to it by any of several threads. Offers are compared and swapped in atomically, so
+ * the threads never lock or wait for each other and a reader always sees a tour together with its own length.
+ * @author alike
+ */
+public class TourBoard {
+    /**
+     * The shortest tour offered so far (null until the first offer).
+     */
+    private final AtomicReference<Entry> best = new AtomicReference<>();
+
+    /**
+     * Offers a tour, which replaces the tour on the board if it is shorter.
+     * @param tour The indices of the nodes of the tour, in order; the board keeps it, so it must not be changed after.
+     * @param length The length of the tour.
+     * @param source What found the tour (e.g. the solver).
+     * @return accepted True if the tour is now the shortest on the board.
+     */
+    public boolean offer(int[] tour, double length, Object source) {
+        Entry entry = new Entry(tour, length, source);
+        while (true) {
+            Entry current = best.get();
+            if (current != null && current.length <= length) {
+                return false;
+            }
+            if (best.compareAndSet(current, entry)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns whether any tour has been offered.
+     * @return empty True if the board has no tour.
+     */
+    public boolean isEmpty() {
+        return best.get() == null;
+    }
+
+    /**
+     * Returns the shortest tour offered so far.
+     * @return tour The indices of the nodes of the tour, in order, or null if none has been offered.
+     */
+    public int[] getBestTour() {
+        Entry entry = best.get();
+        return entry == null ? null : entry.tour;
+    }
+
+    /**
+     * Returns the length of the shortest tour offered so far.
+     * @return length The length of the tour, or infinity if none has been offered.
+     */
+    public double getBestLength() {
+        Entry entry = best.get();
+        return entry == null ? Double.POSITIVE_INFINITY : entry.length;
+    }
+
+    /**
+     * Returns what found the shortest tour offered so far.
+     * @return source The source given with the tour, or null if none has been offered.
+     */
+    public Object getBestSource() {
+        Entry entry = best.get();
+        return entry == null ? null : entry.source;
+    }
+
+    /**
+     * A tour on the board.
+     */
+    private static final class Entry {
+        /**
+         * The indices of the nodes of the tour, in order.
+         */
+        private final int[] tour;
+
+        /**
+         * The length of the tour.
+         */
+        private final double length;
+
+        /**
+         * What found the tour.
+         */
+        private final Object source;
+
+        /**
+         * Constructs a new @code{Entry}.
+         * @param tour The indices of the nodes of the tour, in order.
+         * @param length The length of the tour.
+         * @param source What found the tour.
+         */
+        private Entry(int[] tour, double length, Object source) {
+            this.tour = tour;
+            this.length = length;
+            this.source = source;
+        }
+    }
+}
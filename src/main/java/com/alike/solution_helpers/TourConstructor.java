@@ -0,0 +1,15 @@
+package com.alike.solution_helpers;
+
+/**
+ * Interface for construction heuristics that build a tour directly from the positions of the nodes, without going
+ * through a graph's @code{EdgeContainer}, so they can be used to seed other solvers (e.g. local search) cheaply.
+ * @author alike
+ */
+public interface TourConstructor {
+    /**
+     * Constructs a tour through every node of a geometry.
+     * @param geometry The positions of the nodes.
+     * @return tour The indices of the nodes of the geometry, in the order they are visited.
+     */
+    int[] construct(NodeGeometry geometry);
+}
@@ -0,0 +1,17 @@
+package com.alike.solution_helpers;
+
+/**
+ * Interface for local search heuristics that improve an existing tour in place (e.g. 2-opt), so they can be chained
+ * after any construction heuristic.
+ * @author alike
+ */
+public interface TourImprover {
+    /**
+     * Improves a tour in place until no further improvement can be found by this heuristic.
+     * @param tour The tour to improve.
+     * @param geometry The positions of the nodes of the tour.
+     * @param candidateLists The nearest candidates of each node; moves are only searched for between candidates.
+     * @return improved True if the tour was changed.
+     */
+    boolean improve(Tour tour, NodeGeometry geometry, CandidateLists candidateLists);
+}
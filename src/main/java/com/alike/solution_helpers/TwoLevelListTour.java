@@ -0,0 +1,370 @@
+package com.alike.solution_helpers;
+
+/**
+ * A two-level tour for local search on large graphs. The nodes are held in a fixed array that is divided into about
+ * sqrt(n) segments, each with its own reversal bit, and the segments are kept in a second (much shorter) ordered
+ * list. @code{next}, @code{prev} and @code{between} are O(1); reversing a path splits at most two segments and then
+ * reverses the order (and the reversal bits) of the segments it covers, which is O(sqrt(n)) rather than the O(n) of an
+ * @code{ArrayTour}. The segments are rebalanced once splitting has doubled their number.
+ * @author alike
+ */
+public class TwoLevelListTour implements Tour {
+    /**
+     * The nodes of the tour. Each segment owns a contiguous range of this array; it is only rewritten when the
+     * segments are rebalanced.
+     */
+    private final int[] store;
+
+    /**
+     * The index of each node in the @code{store}.
+     */
+    private final int[] storeIndex;
+
+    /**
+     * The segment each node belongs to.
+     */
+    private final int[] segment;
+
+    /**
+     * The first index of each segment's range of the @code{store}.
+     */
+    private final int[] segmentStart;
+
+    /**
+     * The last index of each segment's range of the @code{store}.
+     */
+    private final int[] segmentEnd;
+
+    /**
+     * Whether each segment's nodes are visited from the end of its range to the start.
+     */
+    private final boolean[] segmentReversed;
+
+    /**
+     * The segments in tour order.
+     */
+    private final int[] segmentOrder;
+
+    /**
+     * The position of each segment in the @code{segmentOrder}.
+     */
+    private final int[] segmentPos;
+
+    /**
+     * The number of segments currently in use.
+     */
+    private int numSegments;
+
+    /**
+     * The number of nodes each segment holds after rebalancing.
+     */
+    private final int groupSize;
+
+    /**
+     * Whether the logical orientation of the tour is the reverse of the order of the segments.
+     */
+    private boolean reversed = false;
+
+    /**
+     * Constructs a new @code{TwoLevelListTour}.
+     * @param tour The nodes of the tour, in order (each node from 0 to n - 1 exactly once).
+     */
+    public TwoLevelListTour(int[] tour) {
+        int numNodes = tour.length;
+        this.store = tour.clone();
+        this.storeIndex = new int[numNodes];
+        this.segment = new int[numNodes];
+        this.groupSize = Math.max(1, (int) Math.ceil(Math.sqrt(numNodes)));
+        // Splitting adds at most two segments per flip; rebalance once the number of segments has doubled.
+        int capacity = 2 * ((numNodes + groupSize - 1) / groupSize) + 2;
+        this.segmentStart = new int[capacity];
+        this.segmentEnd = new int[capacity];
+        this.segmentReversed = new boolean[capacity];
+        this.segmentOrder = new int[capacity];
+        this.segmentPos = new int[capacity];
+        rebalance(store);
+    }
+
+    /**
+     * Returns the node after a node in the tour.
+     * @param node The node.
+     * @return next The node after it.
+     */
+    @Override
+    public int next(int node) {
+        return reversed ? rawPrev(node) : rawNext(node);
+    }
+
+    /**
+     * Returns the node before a node in the tour.
+     * @param node The node.
+     * @return prev The node before it.
+     */
+    @Override
+    public int prev(int node) {
+        return reversed ? rawNext(node) : rawPrev(node);
+    }
+
+    /**
+     * Returns whether b lies on the path that travels forwards from a to c (inclusive of a and c).
+     * @param a The start of the path.
+     * @param b The node to check for.
+     * @param c The end of the path.
+     * @return between True if b is on the path.
+     */
+    @Override
+    public boolean between(int a, int b, int c) {
+        if (reversed) { // Travelling forwards from a to c is travelling backwards from c to a in the raw order.
+            int swap = a;
+            a = c;
+            c = swap;
+        }
+        long ka = rank(a);
+        long kb = rank(b);
+        long kc = rank(c);
+        if (ka <= kc) {
+            return ka <= kb && kb <= kc;
+        }
+        return kb >= ka || kb <= kc;
+    }
+
+    /**
+     * Reverses the path that travels forwards from a to b, i.e. turns ... p a ... b n ... into ... p b ... a n ...
+     * (the 2-opt move that removes the edges (p, a) and (b, n) and adds (p, b) and (a, n)).
+     * @param a The first node of the path.
+     * @param b The last node of the path.
+     */
+    @Override
+    public void flip(int a, int b) {
+        if (a == b) {
+            return;
+        }
+        if (reversed) { // Work with the path in the raw order.
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        if (rawNext(b) == a) { // The path is the whole tour.
+            reversed = !reversed;
+            return;
+        }
+        if (numSegments + 2 > segmentOrder.length) {
+            rebalance(toRawArray());
+        }
+        // Make the path start at the start of a segment and end at the end of one.
+        splitBefore(a);
+        splitBefore(rawNext(b));
+        int i = segmentPos[segment[a]];
+        int j = segmentPos[segment[b]];
+        int count = Math.floorMod(j - i, numSegments) + 1;
+        if (count * 2 > numSegments) { // Cheaper to reverse the other segments and flip our orientation.
+            int start = (j + 1) % numSegments;
+            j = Math.floorMod(i - 1, numSegments);
+            i = start;
+            count = numSegments - count;
+            reversed = !reversed;
+        }
+        // Reverse the direction of each of the segments i..j, then their order.
+        for (int c = 0, pos = i; c < count; c++, pos = pos + 1 == numSegments ? 0 : pos + 1) {
+            segmentReversed[segmentOrder[pos]] = !segmentReversed[segmentOrder[pos]];
+        }
+        for (int swaps = count / 2; swaps > 0; swaps--) {
+            int x = segmentOrder[i];
+            int y = segmentOrder[j];
+            segmentOrder[i] = y;
+            segmentPos[y] = i;
+            segmentOrder[j] = x;
+            segmentPos[x] = j;
+            i = i + 1 == numSegments ? 0 : i + 1;
+            j = j == 0 ? numSegments - 1 : j - 1;
+        }
+    }
+
+    /**
+     * Reverses the orientation of the whole tour in O(1), so that @code{next} and @code{prev} swap.
+     */
+    @Override
+    public void reverse() {
+        reversed = !reversed;
+    }
+
+    /**
+     * Returns the nodes of the tour in order.
+     * @return tour The nodes of the tour, in order.
+     */
+    @Override
+    public int[] toArray() {
+        int[] tour = new int[store.length];
+        int node = nodeAt(segmentOrder[0], 0);
+        for (int i = 0; i < tour.length; i++) {
+            tour[i] = node;
+            node = next(node);
+        }
+        return tour;
+    }
+
+    /**
+     * Returns the number of nodes in the tour.
+     * @return numNodes The number of nodes in the tour.
+     */
+    @Override
+    public int getNumNodes() {
+        return store.length;
+    }
+
+    /**
+     * Returns the index of a node within its segment, counting in the segment's direction.
+     * @param node The node.
+     * @return index The index of the node within its segment.
+     */
+    private int indexInSegment(int node) {
+        int s = segment[node];
+        return segmentReversed[s] ? segmentEnd[s] - storeIndex[node] : storeIndex[node] - segmentStart[s];
+    }
+
+    /**
+     * Returns the node at an index of a segment, counting in the segment's direction.
+     * @param s The segment.
+     * @param index The index within the segment.
+     * @return node The node at the index.
+     */
+    private int nodeAt(int s, int index) {
+        return segmentReversed[s] ? store[segmentEnd[s] - index] : store[segmentStart[s] + index];
+    }
+
+    /**
+     * Returns the size of a segment.
+     * @param s The segment.
+     * @return size The number of nodes in the segment.
+     */
+    private int segmentSize(int s) {
+        return segmentEnd[s] - segmentStart[s] + 1;
+    }
+
+    /**
+     * Returns a key that orders the nodes by their position in the raw order (starting from the first segment).
+     * @param node The node.
+     * @return rank The position of the node's segment and of the node within it, combined.
+     */
+    private long rank(int node) {
+        return ((long) segmentPos[segment[node]] << 32) | indexInSegment(node);
+    }
+
+    /**
+     * Returns the node after a node in the raw order.
+     * @param node The node.
+     * @return next The node after it.
+     */
+    private int rawNext(int node) {
+        int s = segment[node];
+        int index = indexInSegment(node) + 1;
+        if (index < segmentSize(s)) {
+            return nodeAt(s, index);
+        }
+        int pos = segmentPos[s] + 1;
+        return nodeAt(segmentOrder[pos == numSegments ? 0 : pos], 0);
+    }
+
+    /**
+     * Returns the node before a node in the raw order.
+     * @param node The node.
+     * @return prev The node before it.
+     */
+    private int rawPrev(int node) {
+        int s = segment[node];
+        int index = indexInSegment(node) - 1;
+        if (index >= 0) {
+            return nodeAt(s, index);
+        }
+        int pos = segmentPos[s];
+        int previous = segmentOrder[pos == 0 ? numSegments - 1 : pos - 1];
+        return nodeAt(previous, segmentSize(previous) - 1);
+    }
+
+    /**
+     * Splits the segment of a node so that the node is the first node (in the raw order) of its segment. The smaller
+     * part of the segment is moved into a new segment so that as few nodes as possible are relabelled.
+     * @param node The node to split before.
+     */
+    private void splitBefore(int node) {
+        int s = segment[node];
+        int index = indexInSegment(node);
+        if (index == 0) {
+            return; // Already the first node of its segment.
+        }
+        int size = segmentSize(s);
+        boolean moveFront = index <= size - index; // Move the nodes before the split if there are fewer of them.
+        // The range of the store holding the nodes before the split, and the range holding the rest.
+        int frontStart, frontEnd, backStart, backEnd;
+        if (segmentReversed[s]) {
+            frontStart = segmentEnd[s] - index + 1;
+            frontEnd = segmentEnd[s];
+            backStart = segmentStart[s];
+            backEnd = segmentEnd[s] - index;
+        } else {
+            frontStart = segmentStart[s];
+            frontEnd = segmentStart[s] + index - 1;
+            backStart = segmentStart[s] + index;
+            backEnd = segmentEnd[s];
+        }
+        int t = numSegments++;
+        segmentReversed[t] = segmentReversed[s];
+        int pos = segmentPos[s];
+        if (moveFront) {
+            segmentStart[t] = frontStart;
+            segmentEnd[t] = frontEnd;
+            segmentStart[s] = backStart;
+            segmentEnd[s] = backEnd;
+        } else {
+            segmentStart[t] = backStart;
+            segmentEnd[t] = backEnd;
+            segmentStart[s] = frontStart;
+            segmentEnd[s] = frontEnd;
+            pos++;
+        }
+        for (int i = segmentStart[t]; i <= segmentEnd[t]; i++) {
+            segment[store[i]] = t;
+        }
+        // Insert the new segment into the order at pos.
+        System.arraycopy(segmentOrder, pos, segmentOrder, pos + 1, numSegments - 1 - pos);
+        segmentOrder[pos] = t;
+        for (int i = pos; i < numSegments; i++) {
+            segmentPos[segmentOrder[i]] = i;
+        }
+    }
+
+    /**
+     * Returns the nodes of the tour in the raw order.
+     * @return tour The nodes in the raw order.
+     */
+    private int[] toRawArray() {
+        int[] tour = new int[store.length];
+        int node = nodeAt(segmentOrder[0], 0);
+        for (int i = 0; i < tour.length; i++) {
+            tour[i] = node;
+            node = rawNext(node);
+        }
+        return tour;
+    }
+
+    /**
+     * Rewrites the @code{store} in the given order and divides it into segments of @code{groupSize} nodes.
+     * @param rawOrder The nodes of the tour in the raw order.
+     */
+    private void rebalance(int[] rawOrder) {
+        System.arraycopy(rawOrder, 0, store, 0, store.length);
+        numSegments = 0;
+        for (int start = 0; start < store.length; start += groupSize) {
+            int s = numSegments++;
+            segmentStart[s] = start;
+            segmentEnd[s] = Math.min(store.length, start + groupSize) - 1;
+            segmentReversed[s] = false;
+            segmentOrder[s] = s;
+            segmentPos[s] = s;
+        }
+        for (int i = 0; i < store.length; i++) {
+            storeIndex[store[i]] = i;
+            segment[store[i]] = i / groupSize;
+        }
+    }
+}
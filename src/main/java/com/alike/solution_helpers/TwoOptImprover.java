@@ -0,0 +1,147 @@
+package com.alike.solution_helpers;
+
+/**
+ * Improves a tour with 2-opt moves: two edges of the tour are removed and the two paths left are reconnected the other
+ * way round by reversing one of them. Only moves that add an edge from a node to one of its nearest candidates are
+ * considered, and don't-look bits keep the search to the nodes whose tour edges have changed, so a tour reaches a
+ * 2-opt local optimum in close to linear time.
+ * @author alike
+ */
+public class TwoOptImprover implements TourImprover {
+    /**
+     * The smallest gain considered an improvement (guards against looping on rounding errors).
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Whether to apply the best move found around each node (true) or the first improving one (false).
+     */
+    private boolean bestImprovement;
+
+    /**
+     * Constructs a new @code{TwoOptImprover} that applies the first improving move it finds around each node.
+     */
+    public TwoOptImprover() {
+        this(false);
+    }
+
+    /**
+     * Constructs a new @code{TwoOptImprover}.
+     * @param bestImprovement Whether to apply the best move found around each node rather than the first.
+     */
+    public TwoOptImprover(boolean bestImprovement) {
+        setBestImprovement(bestImprovement);
+    }
+
+    /**
+     * Improves a tour in place until it is 2-optimal with respect to the candidate lists.
+     * @param tour The tour to improve.
+     * @param geometry The positions of the nodes of the tour.
+     * @param candidateLists The nearest candidates of each node.
+     * @return improved True if the tour was changed.
+     */
+    @Override
+    public boolean improve(Tour tour, NodeGeometry geometry, CandidateLists candidateLists) {
+        return improve(tour, geometry, candidateLists, DontLookBits.allOf(tour.toArray()));
+    }
+
+    /**
+     * Improves a tour in place, searching from the nodes queued in a set of don't-look bits (e.g. only those near
+     * where the tour was changed) and from any node whose tour edges a move changes.
+     * @param tour The tour to improve.
+     * @param geometry The positions of the nodes of the tour.
+     * @param candidateLists The nearest candidates of each node.
+     * @param dontLookBits The nodes to search from; empty when this returns.
+     * @return improved True if the tour was changed.
+     */
+    public boolean improve(Tour tour, NodeGeometry geometry, CandidateLists candidateLists,
+                           DontLookBits dontLookBits) {
+        boolean improved = false;
+        int t1;
+        while ((t1 = dontLookBits.poll()) != -1) {
+            if (improveFrom(t1, tour, geometry, candidateLists, dontLookBits)) {
+                improved = true;
+                dontLookBits.push(t1); // t1 may still have another improving move.
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Searches for a 2-opt move that adds an edge from t1 to one of its candidates and applies it (the first found, or
+     * the best if @code{bestImprovement} is set).
+     * @param t1 The node to search around.
+     * @param tour The tour to improve.
+     * @param geometry The positions of the nodes of the tour.
+     * @param candidateLists The nearest candidates of each node.
+     * @param dontLookBits The queue the end nodes of an applied move are added to.
+     * @return improved True if a move was applied.
+     */
+    private boolean improveFrom(int t1, Tour tour, NodeGeometry geometry, CandidateLists candidateLists,
+                                DontLookBits dontLookBits) {
+        int[] candidates = candidateLists.getCandidates();
+        int k = candidateLists.getK();
+        double bestGain = EPSILON;
+        int bestT2 = -1, bestT3 = -1, bestT4 = -1;
+        boolean bestIsSuccessor = false;
+        for (int direction = 0; direction < 2; direction++) {
+            boolean successor = direction == 0;
+            int t2 = successor ? tour.next(t1) : tour.prev(t1);
+            double removed = geometry.distance(t1, t2);
+            for (int c = t1 * k; c < t1 * k + k; c++) {
+                int t3 = candidates[c];
+                double added = geometry.distance(t1, t3);
+                if (added >= removed) {
+                    break; // Candidates are nearest first, so no later candidate can give a positive gain.
+                }
+                int t4 = successor ? tour.next(t3) : tour.prev(t3);
+                if (t3 == t2 || t4 == t1) {
+                    continue;
+                }
+                double gain = removed + geometry.distance(t3, t4) - added - geometry.distance(t2, t4);
+                if (gain > bestGain) {
+                    bestGain = gain;
+                    bestT2 = t2;
+                    bestT3 = t3;
+                    bestT4 = t4;
+                    bestIsSuccessor = successor;
+                    if (!bestImprovement) {
+                        break;
+                    }
+                }
+            }
+            if (bestT2 != -1 && !bestImprovement) {
+                break;
+            }
+        }
+        if (bestT2 == -1) {
+            return false;
+        }
+        // Replace (t1, t2) and (t3, t4) with (t1, t3) and (t2, t4).
+        if (bestIsSuccessor) {
+            tour.flip(bestT2, bestT3); // t1 t2 ... t3 t4 becomes t1 t3 ... t2 t4.
+        } else {
+            tour.flip(t1, bestT4); // t2 t1 ... t4 t3 becomes t2 t4 ... t1 t3.
+        }
+        dontLookBits.push(bestT2);
+        dontLookBits.push(bestT3);
+        dontLookBits.push(bestT4);
+        return true;
+    }
+
+    /**
+     * Returns the value of the @code{bestImprovement} attribute.
+     * @return bestImprovement The value of the @code{bestImprovement} attribute.
+     */
+    public boolean isBestImprovement() {
+        return bestImprovement;
+    }
+
+    /**
+     * Sets the @code{bestImprovement} attribute to a new value.
+     * @param bestImprovement The new value to assign the @code{bestImprovement} attribute.
+     */
+    public void setBestImprovement(boolean bestImprovement) {
+        this.bestImprovement = bestImprovement;
+    }
+}
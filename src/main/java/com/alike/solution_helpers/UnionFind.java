@@ -0,0 +1,92 @@
+package com.alike.solution_helpers;
+
+/**
+ * A disjoint set (union-find) structure over the elements 0 to n - 1, with union by size and path halving, so that a
+ * sequence of operations takes close to constant time each. Used by solvers that join fragments of a tour or tree to
+ * check that a new edge does not close a cycle.
+ * @author alike
+ */
+public class UnionFind {
+    /**
+     * The parent of each element; the root of each set is its own parent.
+     */
+    private final int[] parent;
+
+    /**
+     * The number of elements in the set of each root.
+     */
+    private final int[] size;
+
+    /**
+     * The number of disjoint sets.
+     */
+    private int numSets;
+
+    /**
+     * Constructs a new @code{UnionFind} with each element in a set of its own.
+     * @param numElements The number of elements.
+     */
+    public UnionFind(int numElements) {
+        this.parent = new int[numElements];
+        this.size = new int[numElements];
+        for (int i = 0; i < numElements; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        this.numSets = numElements;
+    }
+
+    /**
+     * Returns the root of the set an element is in.
+     * @param element The element.
+     * @return root The root of its set.
+     */
+    public int find(int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]]; // Halve the path as we go.
+            element = parent[element];
+        }
+        return element;
+    }
+
+    /**
+     * Merges the sets two elements are in.
+     * @param a The first element.
+     * @param b The second element.
+     * @return merged True if the elements were in different sets (false if they were already in the same set).
+     */
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        if (size[rootA] < size[rootB]) { // Hang the smaller set under the larger.
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        numSets--;
+        return true;
+    }
+
+    /**
+     * Returns whether two elements are in the same set.
+     * @param a The first element.
+     * @param b The second element.
+     * @return connected True if the elements are in the same set.
+     */
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**
+     * Returns the value of the @code{numSets} attribute.
+     * @return numSets The value of the @code{numSets} attribute.
+     */
+    public int getNumSets() {
+        return numSets;
+    }
+}
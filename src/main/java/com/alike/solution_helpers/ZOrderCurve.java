@@ -0,0 +1,46 @@
+package com.alike.solution_helpers;
+
+/**
+ * The Z-order (Morton) curve: the index of a square is the bits of its x and y coordinates interleaved. It is the
+ * cheapest curve to calculate, but it jumps between distant squares at the end of each quadrant, so its tours are
+ * longer than those of the Hilbert curve.
+ * @author alike
+ */
+public class ZOrderCurve implements SpaceFillingCurve {
+    /**
+     * Returns the position along the curve of a square of the grid.
+     * @param x The x coordinate of the square (0 to 2^order - 1).
+     * @param y The y coordinate of the square (0 to 2^order - 1).
+     * @param order The order of the curve.
+     * @return index The position of the square along the curve.
+     */
+    @Override
+    public long index(int x, int y, int order) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    /**
+     * Returns the number of bits needed to hold any index of the curve at an order.
+     * @param order The order of the curve.
+     * @return bits The number of bits in the largest index.
+     */
+    @Override
+    public int getIndexBits(int order) {
+        return 2 * order;
+    }
+
+    /**
+     * Spreads the bits of a coordinate out so that there is a zero bit between each of them.
+     * @param value The coordinate (up to 31 bits).
+     * @return spread The coordinate with its bits moved to the even positions.
+     */
+    private static long spread(int value) {
+        long v = value & 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+}
@@ -1,15 +1,21 @@
 package com.alike.solvers;
 
 import com.alike.solution_helpers.Ant;
-import com.alike.solution_helpers.AtomicDouble;
+import com.alike.solution_helpers.CandidateLists;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.PheromoneMatrix;
 import com.alike.solvertestsuite.Fail;
+import com.alike.solvertestsuite.IterationStatistics;
 import com.alike.solvertestsuite.Solution;
 import com.alike.solvertestsuite.SolverOutput;
 import com.alike.time.Stopwatch;
 import com.alike.graphsystem.EdgeContainer;
 import com.alike.graphsystem.StaticGraph;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.concurrent.*;
 
 /**
@@ -24,40 +30,138 @@ public class AntColonyOptimisationSolver implements StaticSolver {
     private StaticGraph graph;
 
     /**
-     * This number is used to dictate when we wait for all ants to finish before sending new ones.
+     * The ways in which the solver can update the pheromone levels of the graph.
      */
-    public static final double PROCESSING_CYCLE_PROBABILITY = 0.8;
+    public enum UpdateStrategy {
+        ASYNCHRONOUS, // Ant system: every ant updates the pheromone of each edge as it traverses it.
+        MAX_MIN // MAX-MIN ant system: ants read a fixed snapshot and one bounded update is applied per iteration.
+    }
 
     /**
      * An edge container in which the shortest found route is stored.
      */
     private EdgeContainer shortestRoute;
 
+    /**
+     * The length of the route stored in @code{shortestRoute}.
+     */
+    private double shortestRouteLength = Double.MAX_VALUE;
+
+    /**
+     * The IDs of the nodes of the shortest found route, in order.
+     */
+    private int[] shortestTour;
+
+    /**
+     * The strategy used to update the pheromone levels.
+     */
+    private UpdateStrategy updateStrategy = UpdateStrategy.ASYNCHRONOUS;
+
+    /**
+     * The number of iterations (colonies of @code{numAnts} ants) run by the MAX-MIN ant system.
+     */
+    private int numIterations = 100;
+
+    /**
+     * How often the MAX-MIN ant system deposits on the global best route rather than the iteration best route (every
+     * n-th iteration, 0 to always use the iteration best).
+     */
+    private int globalBestFrequency = 5;
+
+    /**
+     * The probability with which a converged MAX-MIN colony reconstructs the best route; used to derive tauMin.
+     */
+    private double pBest = 0.05;
+
+    /**
+     * The seed used to give each ant of the MAX-MIN ant system its own random number generator (null for unseeded).
+     * Because the ants read a fixed pheromone snapshot, seeded runs are reproducible.
+     */
+    private Long seed = null;
+
     /**
      * A matrix used to store the pheromones currently deposited on each edge between each node.
      */
-    private AtomicDouble[][] pheromoneLevelMatrix;
+    private PheromoneMatrix pheromoneLevelMatrix;
+
+    /**
+     * Whether the edges (x, y) and (y, x) share a single pheromone level.
+     */
+    private boolean symmetricPheromones = false;
 
     /**
-     * A matrix used to store all the distances between each node in the graph.
+     * A matrix used to store all the distances between each node in the graph (null when ants are restricted to
+     * candidate lists, unless one is set with @code{setDistanceMatrix}).
      */
     private Double[][] distanceMatrix;
 
     /**
-     * A thread pool that will allow us to manage many Ant threads simultaneously.
+     * The positions of the nodes, which distances are calculated from when there is no @code{distanceMatrix}.
+     */
+    private NodeGeometry geometry;
+
+    /**
+     * A flat (row-major) matrix holding the heuristic weight (1/distance)^BETA of each edge. It only changes when the
+     * distances or BETA change, so it is calculated once rather than on every ant step (null when ants are restricted
+     * to candidate lists).
+     */
+    private double[] heuristicWeights;
+
+    /**
+     * A flat (row-major) matrix holding the "choice info" pheromone^ALPHA * (1/distance)^BETA of each edge - the
+     * numerator of the transition probability function. It is refreshed after each round of pheromone updates so ants
+     * only need to multiply and sum when choosing their next node (null when ants are restricted to candidate lists).
+     */
+    private double[] choiceInfo;
+
+    /**
+     * The heuristic weight of each candidate edge, laid out like the candidate lists: the weight of the edge from node
+     * x to its r-th candidate is stored at index x * k + r (null unless ants are restricted to candidate lists).
+     */
+    private double[] candidateWeights;
+
+    /**
+     * The choice info of each candidate edge, laid out like @code{candidateWeights} (null unless ants are restricted
+     * to candidate lists).
+     */
+    private double[] candidateChoiceInfo;
+
+    /**
+     * The number of nearest candidates ants choose between at each step. 0 means ants consider every unvisited node.
+     */
+    private int candidateListSize = 0;
+
+    /**
+     * The candidate lists of each node (null unless @code{candidateListSize} is greater than 0).
+     */
+    private CandidateLists candidateLists;
+
+    /**
+     * The executor the ants (and parallel pheromone updates) are run on. It is shared rather than owned by the solver,
+     * so the solver never shuts it down and can be reused for as many solves as required.
      */
     private ExecutorService executorService;
 
     /**
-     * The class used to register when the Ants have completed their journey. It places completed threads onto a queue
-     * accessible through @code{take}.
+     * The number of ants the asynchronous ant system sends out together before refreshing the choice info and
+     * recording the batch's statistics (0 to use the parallelism of the @code{executorService}).
+     */
+    private int batchSize = 0;
+
+    /**
+     * The statistics of each iteration (batch or colony of ants) of the most recent solve, published when it ends.
      */
-    private ExecutorCompletionService<Ant> executorCompletionService;
+    private volatile List<IterationStatistics> iterationStatistics = List.of();
 
     /**
-     * The number of Ant threads currently active (traversing the graph).
+     * The statistics of each iteration of the solve in progress (only touched by the thread running the solve).
      */
-    private int activeAnts = 0;
+    private final List<IterationStatistics> recordedStatistics = new ArrayList<>();
+
+    /**
+     * Set when the solver is asked to stop; any solve in progress finishes after its current iteration.
+     */
+    private volatile boolean stopRequested = false;
 
     /**
      * The time each ant will wait between moving from their current node to the next node (ms).
@@ -91,27 +195,42 @@ public class AntColonyOptimisationSolver implements StaticSolver {
 
     /**
      * Constructs a new StaticSolver object which can run an ant colony optimisation solution implementation to find a route
-     * through a TSP graph.
+     * through a TSP graph. The ants are run on the common @code{ForkJoinPool}.
      * @param graph The graph the solver will solve when @code{runSolution} is called.
      */
     public AntColonyOptimisationSolver(StaticGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new StaticSolver object which runs its ants on the given executor.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     * @param executorService The executor to run the ants on (it is not shut down by the solver).
+     */
+    public AntColonyOptimisationSolver(StaticGraph graph, ExecutorService executorService) {
+        setExecutorService(executorService);
         setGraph(graph);
-        setExecutorService(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
-        setExecutorCompletionService(new ExecutorCompletionService<>(getExecutorService()));
-        initialiseDistances();
-        initialisePheromoneLevels();
     }
 
     /**
-     * An empty constructor so that we can set the graph at a later time.
+     * An empty constructor so that we can set the graph at a later time. The ants are run on the common
+     * @code{ForkJoinPool}.
      */
     public AntColonyOptimisationSolver() {
-        setExecutorService(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
-        setExecutorCompletionService(new ExecutorCompletionService<>(getExecutorService()));
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * A constructor that leaves the graph to be set at a later time and runs its ants on the given executor.
+     * @param executorService The executor to run the ants on (it is not shut down by the solver).
+     */
+    public AntColonyOptimisationSolver(ExecutorService executorService) {
+        setExecutorService(executorService);
     }
 
     /**
      * Starts this solver object running the logic to find a route through the StaticGraph in the @code{graph} attribute.
+     * The solver can be run again afterwards, on the same graph or a new one.
      * @param delayPerStep The delay each Ant will take before moving nodes.
      * @return output The results of the solution attempt.
      */
@@ -120,17 +239,20 @@ public class AntColonyOptimisationSolver implements StaticSolver {
             Stopwatch sw = new Stopwatch();
             sw.start();
             setDelayPerStep(delayPerStep);
+            prepareDistances();
+            stopRequested = false;
+            recordedStatistics.clear();
+            resetShortestRoute();
             graph.getEdgeContainer().clear(); // Ensure the container is empty before we start.
-            // Activate all ants
-            for (int x = 0; x < numAnts; x++) {
-                executorCompletionService.submit(new Ant(this));
-                activeAnts++;
-                if (ThreadLocalRandom.current().nextDouble() > PROCESSING_CYCLE_PROBABILITY) {
-                    processAnts();
+            try {
+                if (updateStrategy == UpdateStrategy.MAX_MIN) {
+                    runMaxMinAntSystem();
+                } else {
+                    runAntSystem(numAnts);
                 }
+            } finally {
+                iterationStatistics = List.copyOf(recordedStatistics);
             }
-            processAnts(); // Finish all ants that haven't been processed yet.
-            getExecutorService().shutdownNow();
             return new Solution(graph, graph.getEdgeContainer().getTotalLength(), sw.getTimeNs());
         } catch (Exception e) {
             return new Fail(e, graph);
@@ -140,44 +262,244 @@ public class AntColonyOptimisationSolver implements StaticSolver {
     }
 
     /**
-     * Used to send the specified number of ants onto the graph.
+     * Used to send the specified number of ants onto the graph, keeping the pheromone levels left by previous calls
+     * (used to repeatedly re-solve a changing graph). Each call counts as a new solve for the iteration statistics.
      * @param numAnts The number of Ants to send out onto the graph.
      */
     public void sendAnts(int numAnts) {
         try {
-            // Activate all ants
-            for (int x = 0; x < numAnts; x++) {
-                executorCompletionService.submit(new Ant(this));
-                activeAnts++;
-                if (ThreadLocalRandom.current().nextDouble() > PROCESSING_CYCLE_PROBABILITY) {
-                    processAnts();
-                }
-            }
-            processAnts(); // Finish all ants that haven't been processed yet.
-        } catch (Exception | Error e) {
+            prepareDistances();
+            stopRequested = false;
+            recordedStatistics.clear();
+            runAntSystem(numAnts);
+        } catch (InterruptedException | ExecutionException e) {
             e.printStackTrace();
+        } finally {
+            iterationStatistics = List.copyOf(recordedStatistics);
         }
     }
 
+    /**
+     * Runs the asynchronous ant system: ants are sent out in batches, each of which runs in parallel and lays
+     * pheromone as it goes. After each batch the choice info of the edges its ants laid pheromone on is refreshed, so
+     * the next batch sees the updated levels without every edge being recalculated.
+     * @param numAnts The number of ants to send out in total.
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting for the ants.
+     * @throws ExecutionException Thrown if an ant fails.
+     */
+    private void runAntSystem(int numAnts) throws InterruptedException, ExecutionException {
+        int batchSize = getEffectiveBatchSize();
+        List<Ant> batch = new ArrayList<>(batchSize);
+        int iteration = 0;
+        for (int sent = 0; sent < numAnts && !stopRequested; sent += batchSize) {
+            batch.clear();
+            for (int x = 0; x < Math.min(batchSize, numAnts - sent); x++) {
+                batch.add(new Ant(this));
+            }
+            runIteration(batch, iteration++);
+            refreshChoiceInfo(batch); // The ants have finished updating pheromones, so bring their edges up to date.
+        }
+    }
 
     /**
-     * While Ants are still traversing, this method will check if they are completed and gets the result to see if it
-     * is smaller than the current shortest route.
+     * Runs one iteration (a batch or colony of ants) on the @code{executorService} and waits for every ant to finish.
+     * The statistics of the iteration are recorded and the shortest route is updated if an ant beat it.
+     * @param ants The ants to run.
+     * @param iteration The number of the iteration within the current solve.
+     * @return iterationBest The ant with the shortest route of the iteration (null if there were no ants).
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting for the ants.
+     * @throws ExecutionException Thrown if an ant fails.
      */
-    public void processAnts() {
-        while (activeAnts > 0) {
-            try {
-                Ant ant = executorCompletionService.take().get(); // Pick up an ant
-                // Check if the route found was shorter than the shortest thus far.
-                if (shortestRoute == null || ant.getRoute().getTotalLength() < shortestRoute.getTotalLength()) {
-                    shortestRoute = ant.getRoute();
-                    graph.setEdgeContainer(shortestRoute);
+    private Ant runIteration(List<Ant> ants, int iteration) throws InterruptedException, ExecutionException {
+        long startTime = System.nanoTime();
+        Ant iterationBest = null;
+        double worstLength = 0.0;
+        double totalLength = 0.0;
+        for (Future<Ant> future : executorService.invokeAll(ants)) {
+            Ant ant = future.get();
+            totalLength += ant.getTourLength();
+            worstLength = Math.max(worstLength, ant.getTourLength());
+            if (iterationBest == null || ant.getTourLength() < iterationBest.getTourLength()) {
+                iterationBest = ant;
+            }
+        }
+        if (iterationBest == null) {
+            return null; // No ants were sent.
+        }
+        if (iterationBest.getTourLength() < shortestRouteLength) {
+            recordShortestRoute(iterationBest);
+        }
+        recordedStatistics.add(new IterationStatistics(iteration, ants.size(), iterationBest.getTourLength(),
+                totalLength / ants.size(), worstLength, shortestRouteLength, System.nanoTime() - startTime));
+        return iterationBest;
+    }
+
+    /**
+     * Returns the number of ants the asynchronous ant system sends out together.
+     * @return batchSize The @code{batchSize} attribute or, if it is 0, the parallelism of the @code{executorService}.
+     */
+    private int getEffectiveBatchSize() {
+        if (batchSize > 0) {
+            return batchSize;
+        }
+        if (executorService instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executorService).getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Requests that any solve in progress stops once its current iteration has finished. The
+     * @code{executorService} is shared, so it is left running; whoever supplied it remains responsible for shutting it
+     * down. The solver can be run again afterwards.
+     */
+    public void shutdown() {
+        stopRequested = true;
+    }
+
+    /**
+     * Forgets the shortest route found so far (e.g. because the graph or its distances have changed).
+     */
+    private void resetShortestRoute() {
+        shortestRoute = null;
+        shortestRouteLength = Double.MAX_VALUE;
+        shortestTour = null;
+    }
+
+    /**
+     * Records the route of an ant as the shortest found route and displays it on the graph.
+     * @param ant The ant whose route is the shortest found so far.
+     */
+    private void recordShortestRoute(Ant ant) {
+        shortestRoute = ant.getRoute();
+        shortestRouteLength = ant.getTourLength();
+        shortestTour = ant.getTour();
+        graph.setEdgeContainer(shortestRoute);
+    }
+
+    /**
+     * Runs the MAX-MIN ant system: each iteration a colony of ants builds routes in parallel against a pheromone
+     * snapshot that does not change while they work, then a single parallel pass evaporates every edge, deposits
+     * pheromone on the iteration (or periodically the global) best route and bounds the levels to [tauMin, tauMax].
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting for the ants.
+     * @throws ExecutionException Thrown if an ant fails.
+     */
+    private void runMaxMinAntSystem() throws InterruptedException, ExecutionException {
+        initialiseMaxMinPheromoneLevels();
+        SplittableRandom seeds = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+        List<Ant> colony = new ArrayList<>(numAnts);
+        for (int iteration = 0; iteration < numIterations && !stopRequested; iteration++) {
+            colony.clear();
+            for (int x = 0; x < numAnts; x++) {
+                colony.add(new Ant(this, seeds.nextLong()));
+            }
+            Ant iterationBest = runIteration(colony, iteration);
+            if (iterationBest == null) {
+                return; // No ants were sent.
+            }
+            boolean depositOnGlobalBest = globalBestFrequency > 0 && (iteration + 1) % globalBestFrequency == 0;
+            if (depositOnGlobalBest) {
+                updateMaxMinPheromoneLevels(shortestTour, shortestRouteLength);
+            } else {
+                updateMaxMinPheromoneLevels(iterationBest.getTour(), iterationBest.getTourLength());
+            }
+        }
+    }
+
+    /**
+     * Sets every pheromone level to an estimate of tauMax, 1/(RHO * L), where L is the length of a nearest neighbour
+     * route through the graph.
+     */
+    private void initialiseMaxMinPheromoneLevels() {
+        int numNodes = graph.getNumNodes();
+        boolean[] visited = new boolean[numNodes];
+        visited[0] = true;
+        double length = 0.0;
+        int current = 0;
+        for (int step = 1; step < numNodes; step++) {
+            int nearest = -1;
+            for (int y = 0; y < numNodes; y++) {
+                if (!visited[y] && (nearest == -1 || distance(current, y) < distance(current, nearest))) {
+                    nearest = y;
                 }
-                activeAnts--;
-            } catch (InterruptedException | ExecutionException e) {
-                e.printStackTrace();
+            }
+            length += distance(current, nearest);
+            visited[nearest] = true;
+            current = nearest;
+        }
+        length += distance(current, 0);
+        double tauMax = 1 / (rh0 * length);
+        for (int x = 0; x < numNodes; x++) {
+            for (int y = symmetricPheromones ? x : 0; y < numNodes; y++) {
+                pheromoneLevelMatrix.set(x, y, tauMax);
             }
         }
+        refreshChoiceInfo();
+    }
+
+    /**
+     * Applies one MAX-MIN pheromone update: every level is evaporated, the edges of the deposit route receive
+     * 1/length, and the results are clamped to [tauMin, tauMax]. The rows of the matrix (and their choice info) are
+     * updated in parallel; no ants may be running. With candidate lists only the n * k candidate entries of the choice
+     * info are recalculated, once every level has been updated.
+     * @param depositTour The IDs of the nodes of the route to deposit pheromone on, in order.
+     * @param depositLength The length of the deposit route.
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting for the update.
+     * @throws ExecutionException Thrown if part of the update fails.
+     */
+    private void updateMaxMinPheromoneLevels(int[] depositTour, double depositLength)
+            throws InterruptedException, ExecutionException {
+        int numNodes = depositTour.length;
+        // Record each node's neighbours on the deposit route so that every row can be updated independently.
+        int[] successors = new int[numNodes];
+        int[] predecessors = new int[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            successors[depositTour[i]] = depositTour[(i + 1) % numNodes];
+            predecessors[depositTour[(i + 1) % numNodes]] = depositTour[i];
+        }
+        double tauMax = 1 / (rh0 * shortestRouteLength);
+        double pDec = Math.pow(pBest, 1.0 / numNodes);
+        double avgChoices = candidateLists != null ? candidateLists.getK() : numNodes / 2.0;
+        double tauMin = Math.min(tauMax, tauMax * (1 - pDec) / (Math.max(1.0, avgChoices - 1) * pDec));
+        double deposit = 1 / depositLength;
+        boolean denseChoiceInfo = candidateLists == null;
+        // Interleave the rows across the tasks so the triangle of a symmetric matrix is shared out evenly.
+        int numTasks = Math.min(numNodes, Runtime.getRuntime().availableProcessors() * 4);
+        List<Callable<Void>> tasks = new ArrayList<>(numTasks);
+        for (int t = 0; t < numTasks; t++) {
+            int firstRow = t;
+            tasks.add(() -> {
+                for (int x = firstRow; x < numNodes; x += numTasks) {
+                    int lastColumn = symmetricPheromones ? x : numNodes - 1;
+                    for (int y = 0; y <= lastColumn; y++) {
+                        if (x == y) {
+                            continue;
+                        }
+                        double level = (1 - rh0) * pheromoneLevelMatrix.get(x, y);
+                        if (y == successors[x] || y == predecessors[x]) {
+                            level += deposit;
+                        }
+                        level = Math.min(tauMax, Math.max(tauMin, level));
+                        pheromoneLevelMatrix.set(x, y, level);
+                        if (!denseChoiceInfo) {
+                            continue; // Refreshed for the candidate edges alone below.
+                        }
+                        double weight = Math.pow(level, alpha);
+                        choiceInfo[x * numNodes + y] = weight * heuristicWeights[x * numNodes + y];
+                        if (symmetricPheromones) { // (y, x) shares this level.
+                            choiceInfo[y * numNodes + x] = weight * heuristicWeights[y * numNodes + x];
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        for (Future<Void> future : executorService.invokeAll(tasks)) {
+            future.get();
+        }
+        if (!denseChoiceInfo) {
+            refreshChoiceInfo();
+        }
     }
 
     /**
@@ -186,8 +508,7 @@ public class AntColonyOptimisationSolver implements StaticSolver {
      */
     public void setGraph(StaticGraph graph) {
         this.graph = graph;
-        this.shortestRoute = null;
-        initialiseDistances();
+        clearDistances(); // Calculated for the new graph when it is next solved.
         initialisePheromoneLevels();
     }
 
@@ -208,7 +529,8 @@ public class AntColonyOptimisationSolver implements StaticSolver {
     }
 
     /**
-     * Sets the value of the @code{executorService} attribute to a new value.
+     * Sets the value of the @code{executorService} attribute to a new value. Any executor can be used, e.g. a
+     * dedicated @code{ForkJoinPool} or (on Java 21+) a virtual thread per task executor.
      * @param executorService The new value to assign to the @code{executorService}.
      */
     public void setExecutorService(ExecutorService executorService) {
@@ -216,42 +538,198 @@ public class AntColonyOptimisationSolver implements StaticSolver {
     }
 
     /**
-     * Sets the value of the @code{executorCompletionService} to a new value.
-     * @param executorCompletionService The new value to assign the @code{executorCompletionService}.
+     * Returns the value of the @code{batchSize} attribute.
+     * @return batchSize The value of the @code{batchSize} attribute.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the @code{batchSize} attribute to a new value.
+     * @param batchSize The new value to assign the @code{batchSize} attribute (0 to match the executor's parallelism).
      */
-    public void setExecutorCompletionService(ExecutorCompletionService<Ant> executorCompletionService) {
-        this.executorCompletionService = executorCompletionService;
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(0, batchSize);
     }
 
     /**
-     * Returns the value of the @code{executorCompletionService} attribute.
-     * @return executorCompletionService The value of the @code{executorCompletionService} attribute.
+     * Returns the statistics of each iteration of the most recent solve (or call to @code{sendAnts}).
+     * @return iterationStatistics The value of the @code{iterationStatistics} attribute.
      */
-    public ExecutorCompletionService<Ant> getExecutorCompletionService() {
-        return executorCompletionService;
+    public List<IterationStatistics> getIterationStatistics() {
+        return iterationStatistics;
     }
 
     /**
-     * Returns the value of the @code{activeAnts} attribute.
-     * @return activeAnts The value of the @code{activeAnts} attribute.
+     * Forgets the distances, candidate lists, heuristic weights and choice info, so that they are calculated again
+     * before the next solve.
      */
-    public int getActiveAnts() {
-        return activeAnts;
+    private void clearDistances() {
+        distanceMatrix = null;
+        geometry = null;
+        candidateLists = null;
+        heuristicWeights = null;
+        choiceInfo = null;
+        candidateWeights = null;
+        candidateChoiceInfo = null;
     }
 
     /**
-     * Sets the @code{activeAnts} attribute to a new value.
-     * @param activeAnts The new value to assign the @code{activeAnts} attribute.
+     * Calculates the distances of the graph, and everything derived from them, unless they are already known.
      */
-    public void setActiveAnts(int activeAnts) {
-        this.activeAnts = activeAnts;
+    private void prepareDistances() {
+        if (distanceMatrix == null && geometry == null) {
+            initialiseDistances();
+        }
     }
 
     /**
-     * Fills the distance matrix with the distance of each node to each other node.
+     * Fills the distance matrix with the distance of each node to each other node. When ants are restricted to
+     * candidate lists no matrix is built; distances are calculated from the positions of the nodes instead.
      */
     private void initialiseDistances() {
-        graph.constructEdgeLengthMatrix();
+        if (candidateListSize > 0) {
+            distanceMatrix = null;
+            geometry = new NodeGeometry(graph);
+            initialiseWeights();
+        } else {
+            graph.constructEdgeLengthMatrix();
+            setDistanceMatrix(graph.getEdgeLengthMatrix());
+        }
+    }
+
+    /**
+     * Rebuilds the candidate lists, heuristic weights and choice info after the distances have changed.
+     */
+    private void initialiseWeights() {
+        resetShortestRoute(); // The length of the old shortest route is out of date.
+        initialiseCandidateLists();
+        initialiseHeuristicWeights();
+        refreshChoiceInfo();
+    }
+
+    /**
+     * Builds the candidate lists of each node (from the @code{distanceMatrix} if there is one, otherwise from the
+     * positions of the nodes) if ants are restricted to candidates.
+     */
+    private void initialiseCandidateLists() {
+        if (candidateListSize > 0 && distanceMatrix != null) {
+            candidateLists = CandidateLists.fromDistanceMatrix(distanceMatrix, candidateListSize);
+        } else if (candidateListSize > 0 && geometry != null) {
+            candidateLists = CandidateLists.fromGeometry(geometry, candidateListSize, executorService);
+        } else {
+            candidateLists = null;
+        }
+    }
+
+    /**
+     * Calculates the heuristic weight (1/distance)^BETA of every edge or, if ants are restricted to candidate lists,
+     * of every candidate edge alone.
+     */
+    private void initialiseHeuristicWeights() {
+        int numNodes = graph.getNumNodes();
+        if (candidateLists != null) {
+            int k = candidateLists.getK();
+            int[] candidates = candidateLists.getCandidates();
+            heuristicWeights = null;
+            choiceInfo = null;
+            candidateWeights = new double[numNodes * k];
+            for (int x = 0; x < numNodes; x++) {
+                for (int c = x * k; c < x * k + k; c++) {
+                    candidateWeights[c] = Math.pow(1 / distance(x, candidates[c]), beta);
+                }
+            }
+            return;
+        }
+        candidateWeights = null;
+        candidateChoiceInfo = null;
+        numNodes = distanceMatrix.length;
+        heuristicWeights = new double[numNodes * numNodes];
+        for (int x = 0; x < numNodes; x++) {
+            for (int y = 0; y < numNodes; y++) {
+                if (x != y) { // Nodes have no distance to themselves, so leave their weight at 0.
+                    heuristicWeights[x * numNodes + y] = Math.pow(1 / distanceMatrix[x][y], beta);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recalculates the choice info pheromone^ALPHA * (1/distance)^BETA of every edge (or every candidate edge) using
+     * the current pheromone levels. Should be called after each round of pheromone updates.
+     */
+    public void refreshChoiceInfo() {
+        if (pheromoneLevelMatrix == null) {
+            return; // Nothing to combine yet.
+        }
+        if (candidateWeights != null) {
+            int k = candidateLists.getK();
+            int[] candidates = candidateLists.getCandidates();
+            if (candidateChoiceInfo == null || candidateChoiceInfo.length != candidateWeights.length) {
+                candidateChoiceInfo = new double[candidateWeights.length];
+            }
+            for (int c = 0; c < candidates.length; c++) {
+                candidateChoiceInfo[c] = Math.pow(pheromoneLevelMatrix.get(c / k, candidates[c]), alpha)
+                        * candidateWeights[c];
+            }
+            return;
+        }
+        if (heuristicWeights == null) {
+            return; // Nothing to combine yet.
+        }
+        int numNodes = pheromoneLevelMatrix.getNumNodes();
+        if (choiceInfo == null || choiceInfo.length != heuristicWeights.length) {
+            choiceInfo = new double[heuristicWeights.length];
+        }
+        for (int x = 0; x < numNodes; x++) {
+            int row = x * numNodes;
+            for (int y = 0; y < numNodes; y++) {
+                choiceInfo[row + y] = Math.pow(pheromoneLevelMatrix.get(x, y), alpha) * heuristicWeights[row + y];
+            }
+        }
+    }
+
+    /**
+     * Recalculates the choice info of only the edges a batch of ants of the asynchronous ant system laid pheromone on,
+     * which costs O(n) per ant rather than the O(n^2) of @code{refreshChoiceInfo()}.
+     * @param ants The ants that have finished their tours.
+     */
+    private void refreshChoiceInfo(List<Ant> ants) {
+        if ((heuristicWeights == null && candidateWeights == null) || pheromoneLevelMatrix == null) {
+            return; // Nothing to combine yet.
+        }
+        for (Ant ant : ants) {
+            int[] tour = ant.getTour();
+            for (int i = 0; i + 1 < tour.length; i++) { // Ants do not lay pheromone on the edge closing their tour.
+                refreshChoiceInfo(tour[i], tour[i + 1]);
+                if (symmetricPheromones) { // (y, x) shares the level of (x, y).
+                    refreshChoiceInfo(tour[i + 1], tour[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recalculates the choice info of the edge (x, y) using its current pheromone level. With candidate lists, only
+     * the choice info of candidate edges is stored, so other edges are skipped.
+     * @param x The node the edge starts at.
+     * @param y The node the edge ends at.
+     */
+    private void refreshChoiceInfo(int x, int y) {
+        if (candidateWeights != null) {
+            int k = candidateLists.getK();
+            int[] candidates = candidateLists.getCandidates();
+            for (int c = x * k; c < x * k + k; c++) {
+                if (candidates[c] == y) {
+                    candidateChoiceInfo[c] = Math.pow(pheromoneLevelMatrix.get(x, y), alpha) * candidateWeights[c];
+                    return;
+                }
+            }
+            return;
+        }
+        int index = x * pheromoneLevelMatrix.getNumNodes() + y;
+        choiceInfo[index] = Math.pow(pheromoneLevelMatrix.get(x, y), alpha) * heuristicWeights[index];
     }
 
     /**
@@ -259,13 +737,14 @@ public class AntColonyOptimisationSolver implements StaticSolver {
      */
     private void initialisePheromoneLevels() {
         int numNodes = graph.getNumNodes();
-        pheromoneLevelMatrix = new AtomicDouble[numNodes][numNodes];
+        pheromoneLevelMatrix = new PheromoneMatrix(numNodes, symmetricPheromones);
         Random r = new Random();
         for (int x = 0; x < numNodes; x++) {
-            for (int y = 0; y < numNodes; y++) {
-                pheromoneLevelMatrix[x][y] = new AtomicDouble(r.nextDouble());
+            for (int y = symmetricPheromones ? x : 0; y < numNodes; y++) {
+                pheromoneLevelMatrix.set(x, y, r.nextDouble());
             }
         }
+        refreshChoiceInfo();
     }
 
     /**
@@ -282,16 +761,108 @@ public class AntColonyOptimisationSolver implements StaticSolver {
      */
     public void setDistanceMatrix(Double[][] newMatrix) {
         this.distanceMatrix = newMatrix;
+        this.geometry = null;
+        initialiseWeights();
+    }
+
+    /**
+     * Returns the distance between two nodes, from the @code{distanceMatrix} if there is one, otherwise from the
+     * positions of the nodes.
+     * @param x The first node.
+     * @param y The second node.
+     * @return distance The distance between the nodes.
+     */
+    public double distance(int x, int y) {
+        return distanceMatrix != null ? distanceMatrix[x][y] : geometry.distance(x, y);
+    }
+
+    /**
+     * Calculates the choice info pheromone^ALPHA * (1/distance)^BETA of any edge on demand (used for the edges whose
+     * choice info is not stored because they are not candidate edges).
+     * @param x The node the edge starts at.
+     * @param y The node the edge ends at.
+     * @return choiceInfo The choice info of the edge.
+     */
+    public double choiceInfo(int x, int y) {
+        return Math.pow(pheromoneLevelMatrix.get(x, y), alpha) * Math.pow(1 / distance(x, y), beta);
+    }
+
+    /**
+     * Returns the value of the @code{choiceInfo} attribute. The choice info of the edge (x, y) is stored at index
+     * x * numNodes + y.
+     * @return choiceInfo The value of the @code{choiceInfo} attribute (null when ants are restricted to candidates).
+     */
+    public double[] getChoiceInfo() {
+        return choiceInfo;
+    }
+
+    /**
+     * Returns the value of the @code{candidateChoiceInfo} attribute. The choice info of the edge from node x to its
+     * r-th candidate is stored at index x * k + r.
+     * @return candidateChoiceInfo The value of the @code{candidateChoiceInfo} attribute (null unless ants are
+     * restricted to candidates).
+     */
+    public double[] getCandidateChoiceInfo() {
+        return candidateChoiceInfo;
     }
 
     /**
      * Returns the value of the @code{pheromoneLevelMatrix} attribute.
      * @return pheromoneLevelMatrix The value of the @code{pheromoneLevelMatrix} attribute.
      */
-    public AtomicDouble[][] getPheromoneLevelMatrix() {
+    public PheromoneMatrix getPheromoneLevelMatrix() {
         return pheromoneLevelMatrix;
     }
 
+    /**
+     * Returns the value of the @code{symmetricPheromones} attribute.
+     * @return symmetricPheromones The value of the @code{symmetricPheromones} attribute.
+     */
+    public boolean isSymmetricPheromones() {
+        return symmetricPheromones;
+    }
+
+    /**
+     * Sets the value of the @code{symmetricPheromones} attribute and re-initialises the pheromone levels of the current
+     * graph (if there is one) with the new layout.
+     * @param symmetricPheromones The new value to assign the @code{symmetricPheromones} attribute.
+     */
+    public void setSymmetricPheromones(boolean symmetricPheromones) {
+        this.symmetricPheromones = symmetricPheromones;
+        if (graph != null) {
+            initialisePheromoneLevels();
+        }
+    }
+
+    /**
+     * Returns the value of the @code{candidateLists} attribute.
+     * @return candidateLists The value of the @code{candidateLists} attribute (null if ants consider all nodes).
+     */
+    public CandidateLists getCandidateLists() {
+        return candidateLists;
+    }
+
+    /**
+     * Returns the value of the @code{candidateListSize} attribute.
+     * @return candidateListSize The value of the @code{candidateListSize} attribute.
+     */
+    public int getCandidateListSize() {
+        return candidateListSize;
+    }
+
+    /**
+     * Sets the number of nearest candidates ants choose between at each step. When every candidate of an ant's current
+     * node has been visited the ant falls back to the unvisited node with the highest choice info. Restricting ants to
+     * k candidates reduces the cost of a tour from O(n^2) to roughly O(n*k). Only the heuristic weights and choice
+     * info of the n*k candidate edges are then stored, and no distance matrix is built; the distances, and any
+     * matrix set with @code{setDistanceMatrix}, are recalculated from the graph on the next solve.
+     * @param candidateListSize The new value to assign the @code{candidateListSize} attribute (0 to disable).
+     */
+    public void setCandidateListSize(int candidateListSize) {
+        this.candidateListSize = Math.max(0, candidateListSize);
+        clearDistances();
+    }
+
     /**
      * Returns the value of the @code{delayPerStep} attribute.
      * @return delayPerStep The value of the @code{delayPerStep} attribute.
@@ -370,6 +941,7 @@ public class AntColonyOptimisationSolver implements StaticSolver {
      */
     public void setAlpha(double alpha) {
         this.alpha = alpha;
+        refreshChoiceInfo();
     }
 
     /**
@@ -386,5 +958,90 @@ public class AntColonyOptimisationSolver implements StaticSolver {
      */
     public void setBeta(double beta) {
         this.beta = beta;
+        if (distanceMatrix != null || geometry != null) {
+            initialiseHeuristicWeights();
+            refreshChoiceInfo();
+        }
+    }
+
+    /**
+     * Returns the value of the @code{updateStrategy} attribute.
+     * @return updateStrategy The value of the @code{updateStrategy} attribute.
+     */
+    public UpdateStrategy getUpdateStrategy() {
+        return updateStrategy;
+    }
+
+    /**
+     * Sets the @code{updateStrategy} attribute to a new value. The MAX-MIN ant system usually works best with an ALPHA
+     * of around 1, a BETA of 2 to 5 and a small RHO (around 0.02).
+     * @param updateStrategy The new value to assign the @code{updateStrategy} attribute.
+     */
+    public void setUpdateStrategy(UpdateStrategy updateStrategy) {
+        this.updateStrategy = updateStrategy;
+    }
+
+    /**
+     * Returns the value of the @code{numIterations} attribute.
+     * @return numIterations The value of the @code{numIterations} attribute.
+     */
+    public int getNumIterations() {
+        return numIterations;
+    }
+
+    /**
+     * Sets the @code{numIterations} attribute to a new value.
+     * @param numIterations The new value to assign the @code{numIterations} attribute.
+     */
+    public void setNumIterations(int numIterations) {
+        this.numIterations = numIterations;
+    }
+
+    /**
+     * Returns the value of the @code{globalBestFrequency} attribute.
+     * @return globalBestFrequency The value of the @code{globalBestFrequency} attribute.
+     */
+    public int getGlobalBestFrequency() {
+        return globalBestFrequency;
+    }
+
+    /**
+     * Sets the @code{globalBestFrequency} attribute to a new value.
+     * @param globalBestFrequency The new value to assign the @code{globalBestFrequency} attribute.
+     */
+    public void setGlobalBestFrequency(int globalBestFrequency) {
+        this.globalBestFrequency = globalBestFrequency;
+    }
+
+    /**
+     * Returns the value of the @code{pBest} attribute.
+     * @return pBest The value of the @code{pBest} attribute.
+     */
+    public double getPBest() {
+        return pBest;
+    }
+
+    /**
+     * Sets the @code{pBest} attribute to a new value.
+     * @param pBest The new value to assign the @code{pBest} attribute (0<pBest<1).
+     */
+    public void setPBest(double pBest) {
+        this.pBest = pBest;
+    }
+
+    /**
+     * Returns the value of the @code{seed} attribute.
+     * @return seed The value of the @code{seed} attribute.
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the @code{seed} attribute to a new value.
+     * @param seed The new value to assign the @code{seed} attribute (null for unseeded runs).
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
     }
 }
@@ -0,0 +1,934 @@
+package com.alike.solvers;
+
+import java.util.Arrays;
+
+/**
+ * Finds a minimum weight maximum cardinality matching of a sparse graph with Edmonds' primal-dual blossom algorithm
+ * (following the O(n^3) formulation of Galil, "Efficient algorithms for finding maximum matching in graphs"). Each
+ * stage grows alternating trees from the unmatched vertices over tight edges (edges whose slack under the dual
+ * variables is zero), shrinking odd cycles into blossoms, until an augmenting path is found; when no tight edge can
+ * grow a tree the duals are changed by the largest amount that keeps them feasible, which makes a new edge tight or
+ * lets a blossom be expanded. The graph is held in primitive arrays and only the given edges are ever looked at, so
+ * the algorithm is practical on the candidate graphs used by @code{ChristofidesSolver}.
+ * Weights are integers so that the tightness of an edge can be tested exactly.
+ * @author alike
+ */
+public class BlossomMatching {
+    /**
+     * The number of vertices of the graph.
+     */
+    private final int numVertices;
+
+    /**
+     * The number of edges of the graph.
+     */
+    private final int numEdges;
+
+    /**
+     * The vertex at each end of each edge: edge k joins @code{endpoint[2k]} and @code{endpoint[2k + 1]}, and the
+     * number p of an endpoint is used to refer to the edge seen from the other end.
+     */
+    private final int[] endpoint;
+
+    /**
+     * The weight of each edge.
+     */
+    private final long[] weights;
+
+    /**
+     * The remote endpoints of the edges of each vertex are @code{neighbours[firstNeighbour[v]]} up to
+     * @code{neighbours[firstNeighbour[v + 1]]}.
+     */
+    private final int[] firstNeighbour;
+
+    /**
+     * The remote endpoints of the edges of each vertex.
+     */
+    private final int[] neighbours;
+
+    /**
+     * The remote endpoint of the matched edge of each vertex, or -1 if the vertex is unmatched.
+     */
+    private int[] mate;
+
+    /**
+     * The label of each top level vertex and blossom: 0 for unlabelled, 1 for an S (outer) vertex and 2 for a T
+     * (inner) vertex. Bit 4 is used to mark blossoms while looking for the base of a new blossom.
+     */
+    private int[] label;
+
+    /**
+     * The endpoint through which each labelled vertex or blossom got its label, or -1 for the root of a tree.
+     */
+    private int[] labelEnd;
+
+    /**
+     * The top level blossom each vertex belongs to (the vertex itself if it is not in a blossom).
+     */
+    private int[] inBlossom;
+
+    /**
+     * The blossom each blossom or vertex is directly inside, or -1 if it is at the top level.
+     */
+    private int[] blossomParent;
+
+    /**
+     * The sub-blossoms (or vertices) of each blossom, in order around the blossom starting from the base.
+     */
+    private int[][] blossomChildren;
+
+    /**
+     * The base vertex of each blossom, or -1 if the blossom number is unused.
+     */
+    private int[] blossomBase;
+
+    /**
+     * The endpoints of the edges joining the sub-blossoms of each blossom: @code{blossomEndpoints[b][i]} joins
+     * @code{blossomChildren[b][i]} to the next sub-blossom.
+     */
+    private int[][] blossomEndpoints;
+
+    /**
+     * The least slack edge from each vertex or blossom to a different S blossom, or -1 if there is none.
+     */
+    private int[] bestEdge;
+
+    /**
+     * The least slack edges from each S blossom to each other S blossom, or null if they have not been worked out.
+     */
+    private int[][] blossomBestEdges;
+
+    /**
+     * The blossom numbers not in use.
+     */
+    private int[] unusedBlossoms;
+
+    /**
+     * The number of blossom numbers not in use.
+     */
+    private int numUnusedBlossoms;
+
+    /**
+     * The dual variable of each vertex, followed by the dual variable of each blossom (both doubled, so that they
+     * remain integers).
+     */
+    private long[] duals;
+
+    /**
+     * Whether each edge is known to be tight.
+     */
+    private boolean[] allowEdge;
+
+    /**
+     * The S vertices whose edges are still to be scanned.
+     */
+    private int[] queue;
+
+    /**
+     * The number of vertices in the queue.
+     */
+    private int queueSize;
+
+    /**
+     * Scratch space the vertices of a blossom are listed into.
+     */
+    private int[] leafBuffer;
+
+    /**
+     * Scratch space used while listing the vertices of a blossom.
+     */
+    private int[] leafStack;
+
+    /**
+     * Scratch space for the blossoms passed while tracing back towards the roots of the trees.
+     */
+    private int[] scanPath;
+
+    /**
+     * Scratch space for the sub-blossoms of a new blossom.
+     */
+    private int[] cyclePath;
+
+    /**
+     * Scratch space for the endpoints of the edges joining the sub-blossoms of a new blossom.
+     */
+    private int[] cycleEndpoints;
+
+    /**
+     * The least slack edge from a new blossom to each other S blossom found so far (-1 where none has been found).
+     */
+    private int[] bestEdgeTo;
+
+    /**
+     * The S blossoms that @code{bestEdgeTo} has an edge to.
+     */
+    private int[] bestEdgeTargets;
+
+    /**
+     * The number of S blossoms that @code{bestEdgeTo} has an edge to.
+     */
+    private int numBestEdgeTargets;
+
+    /**
+     * Constructs a new @code{BlossomMatching} over a graph.
+     * @param numVertices The number of vertices, which are numbered from 0.
+     * @param edgeStart The first vertex of each edge.
+     * @param edgeEnd The second vertex of each edge (different to the first).
+     * @param weights The weight of each edge.
+     */
+    public BlossomMatching(int numVertices, int[] edgeStart, int[] edgeEnd, long[] weights) {
+        this.numVertices = numVertices;
+        this.numEdges = edgeStart.length;
+        this.weights = Arrays.copyOf(weights, numEdges);
+        this.endpoint = new int[2 * numEdges];
+        this.firstNeighbour = new int[numVertices + 1];
+        for (int k = 0; k < numEdges; k++) {
+            endpoint[2 * k] = edgeStart[k];
+            endpoint[2 * k + 1] = edgeEnd[k];
+            firstNeighbour[edgeStart[k] + 1]++;
+            firstNeighbour[edgeEnd[k] + 1]++;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            firstNeighbour[v + 1] += firstNeighbour[v];
+        }
+        this.neighbours = new int[2 * numEdges];
+        int[] filled = Arrays.copyOf(firstNeighbour, numVertices);
+        for (int k = 0; k < numEdges; k++) {
+            neighbours[filled[edgeStart[k]]++] = 2 * k + 1;
+            neighbours[filled[edgeEnd[k]]++] = 2 * k;
+        }
+    }
+
+    /**
+     * Finds a matching with as many edges as possible and, of those, the least total weight.
+     * @return mate The vertex each vertex is matched to, or -1 for vertices left unmatched.
+     */
+    public int[] minimumWeightMatching() {
+        return minimumWeightMatching(false);
+    }
+
+    /**
+     * Finds a perfect matching of the least total weight, starting from a greedy matching of the edges that are
+     * tight under a better first set of duals (see @code{jumpStart}), which is much faster. If the graph has no
+     * perfect matching, a matching with as many edges as possible is still returned, but it may not have the least
+     * weight.
+     * @return mate The vertex each vertex is matched to, or -1 for vertices left unmatched.
+     */
+    public int[] minimumWeightPerfectMatching() {
+        return minimumWeightMatching(true);
+    }
+
+    /**
+     * Finds a matching with as many edges as possible and the least total weight by maximising
+     * (maxWeight - weight) over the matchings of greatest cardinality. The weights are doubled so that the duals set
+     * by @code{jumpStart} all have the same parity, as the algorithm needs.
+     * @param jumpStart Whether to start from the duals and matching set by @code{jumpStart}.
+     * @return mate The vertex each vertex is matched to, or -1 for vertices left unmatched.
+     */
+    private int[] minimumWeightMatching(boolean jumpStart) {
+        long maxWeight = 0;
+        for (long weight : weights) {
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        long[] original = Arrays.copyOf(weights, numEdges);
+        for (int k = 0; k < numEdges; k++) {
+            weights[k] = 2 * (maxWeight - weights[k]);
+        }
+        try {
+            initialise();
+            if (jumpStart) {
+                jumpStart();
+            }
+            return runStages(true);
+        } finally {
+            System.arraycopy(original, 0, weights, 0, numEdges);
+        }
+    }
+
+    /**
+     * Finds a matching of the greatest total weight.
+     * @param maxCardinality If true, only matchings with as many edges as possible are considered.
+     * @return mate The vertex each vertex is matched to, or -1 for vertices left unmatched.
+     */
+    public int[] maximumWeightMatching(boolean maxCardinality) {
+        initialise();
+        return runStages(maxCardinality);
+    }
+
+    /**
+     * Runs stages of the algorithm, each augmenting the matching by one edge, until the matching is optimal.
+     * @param maxCardinality If true, only matchings with as many edges as possible are considered.
+     * @return mate The vertex each vertex is matched to, or -1 for vertices left unmatched.
+     */
+    private int[] runStages(boolean maxCardinality) {
+        for (int stage = 0; stage < numVertices; stage++) {
+            Arrays.fill(label, 0);
+            Arrays.fill(bestEdge, -1);
+            Arrays.fill(blossomBestEdges, numVertices, 2 * numVertices, null);
+            Arrays.fill(allowEdge, false);
+            queueSize = 0;
+            for (int v = 0; v < numVertices; v++) {
+                if (mate[v] == -1 && label[inBlossom[v]] == 0) {
+                    assignLabel(v, 1, -1);
+                }
+            }
+            if (!runStage(maxCardinality)) {
+                break; // No augmenting path, so the matching is optimal.
+            }
+            // Blossoms whose duals have fallen to zero are no longer needed.
+            for (int b = numVertices; b < 2 * numVertices; b++) {
+                if (blossomParent[b] == -1 && blossomBase[b] >= 0 && label[b] == 1 && duals[b] == 0) {
+                    expandBlossom(b, true);
+                }
+            }
+        }
+        int[] result = new int[numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            result[v] = mate[v] >= 0 ? endpoint[mate[v]] : -1;
+        }
+        return result;
+    }
+
+    /**
+     * Sets up the state of an empty matching with every vertex in a blossom of its own.
+     */
+    private void initialise() {
+        long maxWeight = 0;
+        for (long weight : weights) {
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        mate = new int[numVertices];
+        Arrays.fill(mate, -1);
+        label = new int[2 * numVertices];
+        labelEnd = new int[2 * numVertices];
+        Arrays.fill(labelEnd, -1);
+        inBlossom = new int[numVertices];
+        blossomParent = new int[2 * numVertices];
+        Arrays.fill(blossomParent, -1);
+        blossomChildren = new int[2 * numVertices][];
+        blossomBase = new int[2 * numVertices];
+        Arrays.fill(blossomBase, -1);
+        blossomEndpoints = new int[2 * numVertices][];
+        bestEdge = new int[2 * numVertices];
+        blossomBestEdges = new int[2 * numVertices][];
+        unusedBlossoms = new int[numVertices];
+        numUnusedBlossoms = 0;
+        duals = new long[2 * numVertices];
+        for (int v = 0; v < numVertices; v++) {
+            inBlossom[v] = v;
+            blossomBase[v] = v;
+            duals[v] = maxWeight;
+        }
+        for (int b = 2 * numVertices - 1; b >= numVertices; b--) {
+            unusedBlossoms[numUnusedBlossoms++] = b;
+        }
+        allowEdge = new boolean[numEdges];
+        queue = new int[numVertices];
+        leafBuffer = new int[numVertices];
+        leafStack = new int[2 * numVertices];
+        scanPath = new int[2 * numVertices];
+        cyclePath = new int[2 * numVertices];
+        cycleEndpoints = new int[2 * numVertices];
+        bestEdgeTo = new int[2 * numVertices];
+        Arrays.fill(bestEdgeTo, -1);
+        bestEdgeTargets = new int[2 * numVertices];
+    }
+
+    /**
+     * Starts a maximum cardinality search part way through. Each vertex's dual is first lowered from the maximum
+     * weight to the weight of its heaviest edge, which keeps every slack non-negative. Then each unmatched vertex in
+     * turn lowers its dual as far as it can, which makes at least one of its edges tight, and is matched along a tight
+     * edge to another unmatched vertex if there is one. Far fewer stages are then needed. Every weight must be even,
+     * so that the duals keep the same parity. The unmatched vertices are left with different duals, so the result is
+     * only certain to be optimal if it is a perfect matching.
+     */
+    private void jumpStart() {
+        for (int v = 0; v < numVertices; v++) {
+            long heaviest = 0;
+            for (int i = firstNeighbour[v]; i < firstNeighbour[v + 1]; i++) {
+                heaviest = Math.max(heaviest, weights[neighbours[i] / 2]);
+            }
+            duals[v] = heaviest;
+        }
+        for (int v = 0; v < numVertices; v++) {
+            if (mate[v] != -1 || firstNeighbour[v] == firstNeighbour[v + 1]) {
+                continue;
+            }
+            long lowest = Long.MIN_VALUE;
+            for (int i = firstNeighbour[v]; i < firstNeighbour[v + 1]; i++) {
+                int p = neighbours[i];
+                lowest = Math.max(lowest, 2 * weights[p / 2] - duals[endpoint[p]]);
+            }
+            duals[v] = lowest;
+            for (int i = firstNeighbour[v]; i < firstNeighbour[v + 1]; i++) {
+                int p = neighbours[i];
+                if (mate[endpoint[p]] == -1 && slack(p / 2) == 0) {
+                    mate[v] = p;
+                    mate[endpoint[p]] = p ^ 1;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Grows the alternating trees, changing the duals whenever they get stuck, until the matching is augmented.
+     * @param maxCardinality If true, only matchings with as many edges as possible are considered.
+     * @return augmented True if the matching was augmented, false if it is already optimal.
+     */
+    private boolean runStage(boolean maxCardinality) {
+        while (true) {
+            while (queueSize > 0) {
+                int v = queue[--queueSize];
+                for (int i = firstNeighbour[v]; i < firstNeighbour[v + 1]; i++) {
+                    int p = neighbours[i];
+                    int k = p / 2;
+                    int w = endpoint[p];
+                    if (inBlossom[v] == inBlossom[w]) {
+                        continue; // An edge inside a blossom.
+                    }
+                    long kSlack = 0;
+                    if (!allowEdge[k]) {
+                        kSlack = slack(k);
+                        if (kSlack <= 0) {
+                            allowEdge[k] = true;
+                        }
+                    }
+                    if (allowEdge[k]) {
+                        if (label[inBlossom[w]] == 0) { // w is free, so it joins the tree as a T vertex.
+                            assignLabel(w, 2, p ^ 1);
+                        } else if (label[inBlossom[w]] == 1) { // Two S vertices: a blossom or an augmenting path.
+                            int base = scanBlossom(v, w);
+                            if (base >= 0) {
+                                addBlossom(base, k);
+                            } else {
+                                augmentMatching(k);
+                                return true;
+                            }
+                        } else if (label[w] == 0) { // w is inside a T blossom but has no label of its own yet.
+                            label[w] = 2;
+                            labelEnd[w] = p ^ 1;
+                        }
+                    } else if (label[inBlossom[w]] == 1) {
+                        int b = inBlossom[v];
+                        if (bestEdge[b] == -1 || kSlack < slack(bestEdge[b])) {
+                            bestEdge[b] = k;
+                        }
+                    } else if (label[w] == 0) {
+                        if (bestEdge[w] == -1 || kSlack < slack(bestEdge[w])) {
+                            bestEdge[w] = k;
+                        }
+                    }
+                }
+            }
+            // No tight edge grows the trees, so find the largest dual change that keeps every slack non-negative.
+            int deltaType = -1;
+            long delta = 0;
+            int deltaEdge = -1;
+            int deltaBlossom = -1;
+            if (!maxCardinality) {
+                deltaType = 1;
+                delta = minVertexDual();
+            }
+            for (int v = 0; v < numVertices; v++) {
+                if (label[inBlossom[v]] == 0 && bestEdge[v] != -1) {
+                    long d = slack(bestEdge[v]);
+                    if (deltaType == -1 || d < delta) {
+                        delta = d;
+                        deltaType = 2;
+                        deltaEdge = bestEdge[v];
+                    }
+                }
+            }
+            for (int b = 0; b < 2 * numVertices; b++) {
+                if (blossomParent[b] == -1 && label[b] == 1 && bestEdge[b] != -1) {
+                    long d = slack(bestEdge[b]) / 2;
+                    if (deltaType == -1 || d < delta) {
+                        delta = d;
+                        deltaType = 3;
+                        deltaEdge = bestEdge[b];
+                    }
+                }
+            }
+            for (int b = numVertices; b < 2 * numVertices; b++) {
+                if (blossomBase[b] >= 0 && blossomParent[b] == -1 && label[b] == 2
+                        && (deltaType == -1 || duals[b] < delta)) {
+                    delta = duals[b];
+                    deltaType = 4;
+                    deltaBlossom = b;
+                }
+            }
+            if (deltaType == -1) { // No further improvement is possible with maximum cardinality.
+                deltaType = 1;
+                delta = Math.max(0, minVertexDual());
+            }
+            for (int v = 0; v < numVertices; v++) {
+                if (label[inBlossom[v]] == 1) {
+                    duals[v] -= delta;
+                } else if (label[inBlossom[v]] == 2) {
+                    duals[v] += delta;
+                }
+            }
+            for (int b = numVertices; b < 2 * numVertices; b++) {
+                if (blossomBase[b] >= 0 && blossomParent[b] == -1) {
+                    if (label[b] == 1) {
+                        duals[b] += delta;
+                    } else if (label[b] == 2) {
+                        duals[b] -= delta;
+                    }
+                }
+            }
+            if (deltaType == 1) {
+                return false;
+            } else if (deltaType == 2 || deltaType == 3) {
+                allowEdge[deltaEdge] = true;
+                int i = endpoint[2 * deltaEdge];
+                if (label[inBlossom[i]] != 1) {
+                    i = endpoint[2 * deltaEdge + 1];
+                }
+                enqueue(i);
+            } else {
+                expandBlossom(deltaBlossom, false);
+            }
+        }
+    }
+
+    /**
+     * Returns the least dual variable of any vertex.
+     * @return min The least vertex dual.
+     */
+    private long minVertexDual() {
+        long min = Long.MAX_VALUE;
+        for (int v = 0; v < numVertices; v++) {
+            min = Math.min(min, duals[v]);
+        }
+        return min;
+    }
+
+    /**
+     * Returns the slack of an edge (twice its reduced cost).
+     * @param k The edge.
+     * @return slack The slack of the edge.
+     */
+    private long slack(int k) {
+        return duals[endpoint[2 * k]] + duals[endpoint[2 * k + 1]] - 2 * weights[k];
+    }
+
+    /**
+     * Adds a vertex to the queue of S vertices to scan.
+     * @param v The vertex.
+     */
+    private void enqueue(int v) {
+        if (queueSize == queue.length) {
+            queue = Arrays.copyOf(queue, 2 * queue.length);
+        }
+        queue[queueSize++] = v;
+    }
+
+    /**
+     * Lists the vertices inside a blossom into @code{leafBuffer}.
+     * @param b The blossom (or a vertex, which is listed on its own).
+     * @return count The number of vertices listed.
+     */
+    private int leaves(int b) {
+        int count = 0;
+        int top = 0;
+        leafStack[top++] = b;
+        while (top > 0) {
+            int t = leafStack[--top];
+            if (t < numVertices) {
+                leafBuffer[count++] = t;
+            } else {
+                for (int child : blossomChildren[t]) {
+                    leafStack[top++] = child;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Labels a vertex and the top level blossom containing it, and if it is a T vertex also labels the vertex it is
+     * matched to as an S vertex.
+     * @param w The vertex.
+     * @param t The label (1 for S, 2 for T).
+     * @param p The endpoint through which the vertex is reached.
+     */
+    private void assignLabel(int w, int t, int p) {
+        int b = inBlossom[w];
+        label[w] = t;
+        label[b] = t;
+        labelEnd[w] = p;
+        labelEnd[b] = p;
+        bestEdge[w] = -1;
+        bestEdge[b] = -1;
+        if (t == 1) {
+            int count = leaves(b);
+            for (int i = 0; i < count; i++) {
+                enqueue(leafBuffer[i]);
+            }
+        } else {
+            int base = blossomBase[b];
+            assignLabel(endpoint[mate[base]], 1, mate[base] ^ 1);
+        }
+    }
+
+    /**
+     * Traces back from two S vertices towards the roots of their trees to find whether they are in the same tree.
+     * @param v The first vertex.
+     * @param w The second vertex.
+     * @return base The base of the new blossom if the trees are the same, or -1 if they are different (so the
+     * vertices are on an augmenting path).
+     */
+    private int scanBlossom(int v, int w) {
+        int pathSize = 0;
+        int base = -1;
+        while (v != -1 || w != -1) {
+            int b = inBlossom[v];
+            if ((label[b] & 4) != 0) {
+                base = blossomBase[b];
+                break;
+            }
+            scanPath[pathSize++] = b;
+            label[b] = 5;
+            if (labelEnd[b] == -1) {
+                v = -1; // Reached the root of the tree.
+            } else {
+                v = endpoint[labelEnd[b]];
+                b = inBlossom[v];
+                v = endpoint[labelEnd[b]];
+            }
+            if (w != -1) { // Swap, so the two paths are traced alternately.
+                int temp = v;
+                v = w;
+                w = temp;
+            }
+        }
+        for (int i = 0; i < pathSize; i++) {
+            label[scanPath[i]] = 1;
+        }
+        return base;
+    }
+
+    /**
+     * Shrinks the odd cycle formed by an edge between two S vertices of the same tree into a new S blossom.
+     * @param base The base of the blossom.
+     * @param k The edge that closes the cycle.
+     */
+    private void addBlossom(int base, int k) {
+        int v = endpoint[2 * k];
+        int w = endpoint[2 * k + 1];
+        int bb = inBlossom[base];
+        int bv = inBlossom[v];
+        int bw = inBlossom[w];
+        int b = unusedBlossoms[--numUnusedBlossoms];
+        blossomBase[b] = base;
+        blossomParent[b] = -1;
+        blossomParent[bb] = b;
+        // Trace back from v to the base, then from w to the base, listing the sub-blossoms in order around the cycle.
+        int[] path = cyclePath;
+        int[] endpoints = cycleEndpoints;
+        int size = 0;
+        while (bv != bb) {
+            blossomParent[bv] = b;
+            path[size] = bv;
+            endpoints[size++] = labelEnd[bv];
+            v = endpoint[labelEnd[bv]];
+            bv = inBlossom[v];
+        }
+        path[size] = bb;
+        reverse(path, size + 1);
+        reverse(endpoints, size);
+        endpoints[size++] = 2 * k;
+        while (bw != bb) {
+            blossomParent[bw] = b;
+            path[size] = bw;
+            endpoints[size++] = labelEnd[bw] ^ 1;
+            w = endpoint[labelEnd[bw]];
+            bw = inBlossom[w];
+        }
+        int[] children = Arrays.copyOf(path, size);
+        blossomChildren[b] = children;
+        blossomEndpoints[b] = Arrays.copyOf(endpoints, size);
+        label[b] = 1;
+        labelEnd[b] = labelEnd[bb];
+        duals[b] = 0;
+        int count = leaves(b);
+        for (int i = 0; i < count; i++) {
+            int leaf = leafBuffer[i];
+            if (label[inBlossom[leaf]] == 2) { // T vertices become S vertices inside the blossom.
+                enqueue(leaf);
+            }
+            inBlossom[leaf] = b;
+        }
+        // Work out the least slack edge from the new blossom to each other S blossom.
+        numBestEdgeTargets = 0;
+        for (int child : children) {
+            if (blossomBestEdges[child] == null) {
+                int leafCount = leaves(child);
+                for (int i = 0; i < leafCount; i++) {
+                    int leaf = leafBuffer[i];
+                    for (int j = firstNeighbour[leaf]; j < firstNeighbour[leaf + 1]; j++) {
+                        considerBestEdge(neighbours[j] / 2, b);
+                    }
+                }
+            } else {
+                for (int edge : blossomBestEdges[child]) {
+                    considerBestEdge(edge, b);
+                }
+            }
+            blossomBestEdges[child] = null;
+            bestEdge[child] = -1;
+        }
+        int[] best = new int[numBestEdgeTargets];
+        bestEdge[b] = -1;
+        for (int i = 0; i < numBestEdgeTargets; i++) {
+            int edge = bestEdgeTo[bestEdgeTargets[i]];
+            bestEdgeTo[bestEdgeTargets[i]] = -1; // Reset for the next blossom.
+            best[i] = edge;
+            if (bestEdge[b] == -1 || slack(edge) < slack(bestEdge[b])) {
+                bestEdge[b] = edge;
+            }
+        }
+        blossomBestEdges[b] = best;
+    }
+
+    /**
+     * Records an edge as the least slack edge from a new blossom to the S blossom at its other end if it is better
+     * than the one found so far.
+     * @param k The edge.
+     * @param b The new blossom.
+     */
+    private void considerBestEdge(int k, int b) {
+        int j = endpoint[2 * k + 1];
+        if (inBlossom[j] == b) {
+            j = endpoint[2 * k];
+        }
+        int bj = inBlossom[j];
+        if (bj != b && label[bj] == 1 && (bestEdgeTo[bj] == -1 || slack(k) < slack(bestEdgeTo[bj]))) {
+            if (bestEdgeTo[bj] == -1) {
+                bestEdgeTargets[numBestEdgeTargets++] = bj;
+            }
+            bestEdgeTo[bj] = k;
+        }
+    }
+
+    /**
+     * Expands a blossom back into its sub-blossoms.
+     * @param b The blossom.
+     * @param endStage True at the end of a stage, when sub-blossoms with a zero dual are expanded too and labels do
+     * not need to be kept.
+     */
+    private void expandBlossom(int b, boolean endStage) {
+        int[] children = blossomChildren[b];
+        int[] endpoints = blossomEndpoints[b];
+        for (int s : children) {
+            blossomParent[s] = -1;
+            if (s < numVertices) {
+                inBlossom[s] = s;
+            } else if (endStage && duals[s] == 0) {
+                expandBlossom(s, true);
+            } else {
+                int count = leaves(s);
+                for (int i = 0; i < count; i++) {
+                    inBlossom[leafBuffer[i]] = s;
+                }
+            }
+        }
+        if (!endStage && label[b] == 2) {
+            // The blossom was a T blossom in a tree, so relabel the sub-blossoms on the even length path from the
+            // sub-blossom it was entered through to its base.
+            int entryChild = inBlossom[endpoint[labelEnd[b] ^ 1]];
+            int j = indexOf(children, entryChild);
+            int jStep;
+            int endpointTrick;
+            if ((j & 1) != 0) { // Odd position, so go forward and wrap around.
+                j -= children.length;
+                jStep = 1;
+                endpointTrick = 0;
+            } else { // Even position, so go backward.
+                jStep = -1;
+                endpointTrick = 1;
+            }
+            int p = labelEnd[b];
+            while (j != 0) {
+                label[endpoint[p ^ 1]] = 0;
+                label[endpoint[at(endpoints, j - endpointTrick) ^ endpointTrick ^ 1]] = 0;
+                assignLabel(endpoint[p ^ 1], 2, p);
+                allowEdge[at(endpoints, j - endpointTrick) / 2] = true;
+                j += jStep;
+                p = at(endpoints, j - endpointTrick) ^ endpointTrick;
+                allowEdge[p / 2] = true;
+                j += jStep;
+            }
+            // Relabel the base T sub-blossom without creating a new S vertex.
+            int bv = at(children, j);
+            label[endpoint[p ^ 1]] = 2;
+            label[bv] = 2;
+            labelEnd[endpoint[p ^ 1]] = p;
+            labelEnd[bv] = p;
+            bestEdge[bv] = -1;
+            // The sub-blossoms on the odd length path lose their labels unless they are reachable another way.
+            j += jStep;
+            while (at(children, j) != entryChild) {
+                bv = at(children, j);
+                if (label[bv] == 1) { // Already labelled S through an edge from another sub-blossom.
+                    j += jStep;
+                    continue;
+                }
+                int count = leaves(bv);
+                int labelled = -1;
+                for (int i = 0; i < count; i++) {
+                    if (label[leafBuffer[i]] != 0) {
+                        labelled = leafBuffer[i];
+                        break;
+                    }
+                }
+                if (labelled != -1) { // A vertex of the sub-blossom is reachable from outside it.
+                    label[labelled] = 0;
+                    label[endpoint[mate[blossomBase[bv]]]] = 0;
+                    assignLabel(labelled, 2, labelEnd[labelled]);
+                }
+                j += jStep;
+            }
+        }
+        label[b] = -1;
+        labelEnd[b] = -1;
+        blossomChildren[b] = null;
+        blossomEndpoints[b] = null;
+        blossomBase[b] = -1;
+        blossomBestEdges[b] = null;
+        bestEdge[b] = -1;
+        unusedBlossoms[numUnusedBlossoms++] = b;
+    }
+
+    /**
+     * Swaps the matched and unmatched edges on the path around a blossom from a vertex to the base, making the vertex
+     * the new base.
+     * @param b The blossom.
+     * @param v The vertex that becomes the base.
+     */
+    private void augmentBlossom(int b, int v) {
+        int t = v;
+        while (blossomParent[t] != b) {
+            t = blossomParent[t];
+        }
+        if (t >= numVertices) {
+            augmentBlossom(t, v);
+        }
+        int[] children = blossomChildren[b];
+        int[] endpoints = blossomEndpoints[b];
+        int i = indexOf(children, t);
+        int j = i;
+        int jStep;
+        int endpointTrick;
+        if ((i & 1) != 0) {
+            j -= children.length;
+            jStep = 1;
+            endpointTrick = 0;
+        } else {
+            jStep = -1;
+            endpointTrick = 1;
+        }
+        while (j != 0) {
+            j += jStep;
+            t = at(children, j);
+            int p = at(endpoints, j - endpointTrick) ^ endpointTrick;
+            if (t >= numVertices) {
+                augmentBlossom(t, endpoint[p]);
+            }
+            j += jStep;
+            t = at(children, j);
+            if (t >= numVertices) {
+                augmentBlossom(t, endpoint[p ^ 1]);
+            }
+            mate[endpoint[p]] = p ^ 1;
+            mate[endpoint[p ^ 1]] = p;
+        }
+        // Rotate the sub-blossoms so that the new base comes first.
+        blossomChildren[b] = rotate(children, i);
+        blossomEndpoints[b] = rotate(endpoints, i);
+        blossomBase[b] = blossomBase[blossomChildren[b][0]];
+    }
+
+    /**
+     * Augments the matching along the path through an edge between two trees, back to the root of each tree.
+     * @param k The edge joining the trees.
+     */
+    private void augmentMatching(int k) {
+        for (int side = 0; side < 2; side++) {
+            int s = endpoint[2 * k + side];
+            int p = 2 * k + 1 - side;
+            while (true) {
+                int bs = inBlossom[s];
+                if (bs >= numVertices) {
+                    augmentBlossom(bs, s);
+                }
+                mate[s] = p;
+                if (labelEnd[bs] == -1) {
+                    break; // Reached the root of the tree.
+                }
+                int t = endpoint[labelEnd[bs]];
+                int bt = inBlossom[t];
+                s = endpoint[labelEnd[bt]];
+                int j = endpoint[labelEnd[bt] ^ 1];
+                if (bt >= numVertices) {
+                    augmentBlossom(bt, j);
+                }
+                mate[j] = labelEnd[bt];
+                p = labelEnd[bt] ^ 1;
+            }
+        }
+    }
+
+    /**
+     * Returns an element of an array by a position that may be negative, counting from the end.
+     * @param array The array.
+     * @param position The position (greater than -length).
+     * @return element The element.
+     */
+    private static int at(int[] array, int position) {
+        return array[position >= 0 ? position : position + array.length];
+    }
+
+    /**
+     * Returns the position of a value in an array.
+     * @param array The array.
+     * @param value The value.
+     * @return position The position of the first occurrence of the value, or -1 if it is not in the array.
+     */
+    private static int indexOf(int[] array, int value) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a copy of an array rotated to start at a position.
+     * @param array The array.
+     * @param start The position that becomes the first.
+     * @return rotated The rotated copy.
+     */
+    private static int[] rotate(int[] array, int start) {
+        int[] rotated = new int[array.length];
+        System.arraycopy(array, start, rotated, 0, array.length - start);
+        System.arraycopy(array, 0, rotated, array.length - start, start);
+        return rotated;
+    }
+
+    /**
+     * Reverses the first elements of an array.
+     * @param array The array.
+     * @param length The number of elements to reverse.
+     */
+    private static void reverse(int[] array, int length) {
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+    }
+}
@@ -1,24 +1,59 @@
 package com.alike.solvers;
 
-import com.alike.customexceptions.*;
+import com.alike.customexceptions.EdgeSuperimpositionException;
+import com.alike.customexceptions.EdgeToSelfException;
+import com.alike.graphsystem.Edge;
+import com.alike.graphsystem.EdgeContainer;
+import com.alike.graphsystem.StaticGraph;
+import com.alike.solution_helpers.KdTree;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.RadixSort;
 import com.alike.solution_helpers.RepeatedFunctions;
+import com.alike.solution_helpers.TourConstructor;
+import com.alike.solvertestsuite.Fail;
 import com.alike.solvertestsuite.Solution;
-import com.alike.graphsystem.*;
+import com.alike.solvertestsuite.SolverOutput;
+import com.alike.time.Stopwatch;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 
 /**
- * Used to find a route through a @code{StaticGraph} using Christofide's algorithm.
+ * Used to find a route through a @code{StaticGraph} using Christofide's algorithm:
+ * 1. Construct a minimum spanning tree (MST) of the nodes.
+ * 2. Find the nodes with an odd number of tree edges (there is always an even number of them).
+ * 3. Match the odd nodes into pairs, so that adding the matching to the tree gives every node an even degree. With
+ * a minimum weight matching the tour is at most 1.5 times the optimal length. Only the edges between each odd node
+ * and its nearest odd nodes are matched over (see @code{MatchingStrategy}), so the guarantee holds only when the
+ * minimum weight matching uses nothing but those edges, as it almost always does.
+ * 4. Follow an Euler circuit of the tree and matching, which uses every edge exactly once.
+ * 5. Shortcut the circuit by skipping nodes it has already visited, which gives a tour no longer than the circuit.
+ * The tree is built with Prim's algorithm over arrays in O(n^2) and everything after it is near linear.
  * @author alike
  */
-public class ChristofidesSolver implements StaticSolver {
+public class ChristofidesSolver implements StaticSolver, TourConstructor {
+    /**
+     * The ways in which the odd nodes can be matched.
+     */
+    public enum MatchingStrategy {
+        BLOSSOM, // Exact over the candidate edges; 1.5 only when the optimal matching uses candidate edges.
+        GREEDY // Shortest candidate edges first; faster, but with no guarantee.
+    }
+
+    /**
+     * The number of nearest odd nodes considered as partners for each odd node by the greedy matching.
+     */
+    private static final int MATCHING_CANDIDATES = 10;
+
     /**
      * The @code{StaticGraph} we are solving.
      */
     private StaticGraph graph;
 
+    /**
+     * The way in which the odd nodes are matched.
+     */
+    private MatchingStrategy matchingStrategy = MatchingStrategy.BLOSSOM;
+
     /**
      * Constructs a new @code{ChristofideSolver} object.
      * @param graph The graph which this solver will solve.
@@ -34,242 +69,415 @@ public class ChristofidesSolver implements StaticSolver {
 
     }
 
-    public Solution runSolution(int delayPerStep) {
-        long startTime = System.nanoTime();
-        // Construct a minimum spanning tree in graph (MST)
+    /**
+     * Constructs a tour through the graph in the @code{graph} attribute with Christofide's algorithm.
+     * @param delayPerStep Time to wait after adding each edge of the MST to the graph (so we can see it drawn).
+     * @return output The results of the solution attempt.
+     */
+    @Override
+    public SolverOutput runSolution(int delayPerStep) {
         try {
-            constructMinimumSpanningTree(delayPerStep);
-        } catch (EdgeToSelfException | InterruptedException | EdgeSuperimpositionException e) {
-            e.printStackTrace();
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.start();
+            NodeGeometry geometry = new NodeGeometry(graph);
+            int[] parent = constructMinimumSpanningTree(geometry);
+            if (delayPerStep > 0) {
+                drawTree(geometry, parent, delayPerStep);
+            }
+            graph.setEdgeContainer(geometry.toEdgeContainer(construct(geometry, parent)));
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), stopwatch.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
         }
-        // Create a subgraph out of the nodes with an odd order.
-        StaticGraph subgraph = null;
-        try {
-            subgraph = new StaticGraph(new NodeContainer(getOddOrderedNodes()), new EdgeContainer());
-        } catch (NodeSuperimpositionException e) {
-            e.printStackTrace();
+    }
+
+    /**
+     * Constructs a tour through the nodes of a geometry with Christofide's algorithm.
+     * @param geometry The positions of the nodes.
+     * @return tour The indices of the nodes of the tour, in order.
+     */
+    @Override
+    public int[] construct(NodeGeometry geometry) {
+        return construct(geometry, constructMinimumSpanningTree(geometry));
+    }
+
+    /**
+     * Constructs a tour from a minimum spanning tree of the nodes of a geometry.
+     * @param geometry The positions of the nodes.
+     * @param parent The parent of each node in the tree (-1 for the root).
+     * @return tour The indices of the nodes of the tour, in order.
+     */
+    private int[] construct(NodeGeometry geometry, int[] parent) {
+        int[] oddNodes = getOddDegreeNodes(parent);
+        int[] mate = getMinimumWeightMatching(geometry, oddNodes);
+        return shortcut(getEulerCircuit(parent, oddNodes, mate), parent.length);
+    }
+
+    /**
+     * Constructs a minimum spanning tree of the nodes using Prim's algorithm. Each node not yet in the tree keeps its
+     * distance to the nearest node in the tree, so each step is one pass to find the nearest node and one pass to
+     * update the distances with it, O(n^2) in total.
+     * @param geometry The positions of the nodes.
+     * @return parent The parent of each node in the tree, which is rooted at node 0 (-1 for the root).
+     */
+    private static int[] constructMinimumSpanningTree(NodeGeometry geometry) {
+        int numNodes = geometry.getNumNodes();
+        int[] parent = new int[numNodes];
+        double[] distance = new double[numNodes];
+        // The nodes not yet in the tree are kept at the front of this array so the passes skip the rest.
+        int[] outside = new int[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            outside[i] = i;
+            parent[i] = 0;
+            distance[i] = geometry.distance(0, i);
         }
-        // Find the best perfect matching we can
-        assert subgraph != null;
-        graph.setEdgeContainer(getMinimumWeightMatching(subgraph));
+        parent[0] = -1;
+        int numOutside = numNodes;
+        outside[0] = outside[--numOutside];
+        while (numOutside > 0) {
+            int nearest = 0;
+            for (int i = 1; i < numOutside; i++) {
+                if (distance[outside[i]] < distance[outside[nearest]]) {
+                    nearest = i;
+                }
+            }
+            int added = outside[nearest];
+            outside[nearest] = outside[--numOutside];
+            for (int i = 0; i < numOutside; i++) {
+                int node = outside[i];
+                double d = geometry.distance(added, node);
+                if (d < distance[node]) {
+                    distance[node] = d;
+                    parent[node] = added;
+                }
+            }
+        }
+        return parent;
+    }
 
-        // Unite the MST and the matching
-//        EdgeContainer temp = graph.getEdgeContainer();
-//        RepeatedFunctions.sleep(5000);
-//        graph.setEdgeContainer(bestPerfectMatching);
-//        RepeatedFunctions.sleep(1000);
-//        graph.setEdgeContainer(temp);
-//        graph.getEdgeContainer().absorb(bestPerfectMatching);
-        // Now that every node has an even degree - we can calculate an Euler tour.
+    /**
+     * Returns the nodes that have an odd number of edges in a tree, counting each node's edges in one pass over the
+     * parent array.
+     * @param parent The parent of each node in the tree (-1 for the root).
+     * @return oddNodes The indices of the nodes with an odd degree.
+     */
+    private static int[] getOddDegreeNodes(int[] parent) {
+        int[] degrees = new int[parent.length];
+        for (int node = 0; node < parent.length; node++) {
+            if (parent[node] != -1) {
+                degrees[node]++;
+                degrees[parent[node]]++;
+            }
+        }
+        int[] oddNodes = new int[parent.length];
+        int numOdd = 0;
+        for (int node = 0; node < parent.length; node++) {
+            if (degrees[node] % 2 != 0) {
+                oddNodes[numOdd++] = node;
+            }
+        }
+        return Arrays.copyOf(oddNodes, numOdd);
+    }
 
-        long finishTime = System.nanoTime();
-        return new Solution(graph, graph.getEdgeContainer().getTotalLength(), finishTime - startTime);
+    /**
+     * Finds a perfect matching of the odd nodes over the edges between each odd node and its nearest odd nodes, with
+     * the @code{matchingStrategy}. Any nodes the candidate edges leave unmatched (which is rare) are then matched to
+     * their nearest unmatched node.
+     * @param geometry The positions of the nodes.
+     * @param oddNodes The nodes to match (an even number of them).
+     * @return mate The node each node is matched to (-1 for nodes that are not odd).
+     */
+    private int[] getMinimumWeightMatching(NodeGeometry geometry, int[] oddNodes) {
+        int[] mate = new int[geometry.getNumNodes()];
+        Arrays.fill(mate, -1);
+        if (oddNodes.length == 0) {
+            return mate;
+        }
+        // A tree holding only the odd nodes that are still unmatched.
+        KdTree unmatched = new KdTree(geometry);
+        int[] positionOf = new int[geometry.getNumNodes()];
+        Arrays.fill(positionOf, -1);
+        for (int i = 0; i < oddNodes.length; i++) {
+            positionOf[oddNodes[i]] = i;
+        }
+        for (int node = 0; node < positionOf.length; node++) {
+            if (positionOf[node] == -1) {
+                unmatched.remove(node);
+            }
+        }
+        // The candidates of the odd node at position i are partners[i * k] up to partners[i * k + found[i]].
+        int k = Math.min(MATCHING_CANDIDATES, oddNodes.length - 1);
+        int[] partners = new int[oddNodes.length * k];
+        double[] distances = new double[oddNodes.length * k];
+        int[] found = new int[oddNodes.length];
+        int[] nearest = new int[k];
+        double[] nearestDistances = new double[k];
+        for (int i = 0; i < oddNodes.length; i++) {
+            found[i] = unmatched.kNearest(oddNodes[i], k, nearest, nearestDistances);
+            System.arraycopy(nearest, 0, partners, i * k, found[i]);
+            System.arraycopy(nearestDistances, 0, distances, i * k, found[i]);
+        }
+        if (matchingStrategy == MatchingStrategy.BLOSSOM) {
+            matchByBlossom(oddNodes, positionOf, partners, distances, found, k, mate);
+        } else {
+            matchGreedily(oddNodes, partners, distances, found, k, mate);
+        }
+        for (int x : oddNodes) {
+            if (mate[x] != -1) {
+                unmatched.remove(x);
+            }
+        }
+        for (int x : oddNodes) {
+            if (mate[x] == -1) {
+                unmatched.remove(x);
+                int y = unmatched.nearest(x);
+                unmatched.remove(y);
+                mate[x] = y;
+                mate[y] = x;
+            }
+        }
+        return mate;
     }
 
-//    /**
-//     * Constructs an edge container for this graph that ensures the graph is complete - a complete graph is a graph
-//     * where all nodes have an edge to all other nodes. NB: The number of edges constructed during this process will be:
-//     * (n * (n-1))/2 nodes
-//     */
-//    public void completeGraph() {
-//        ArrayList<Node> nodes = new ArrayList<>(graph.getNodeContainer().getNodeSet()); // Copy the node set
-//        EdgeContainer edgeContainer = graph.getEdgeContainer();
-//        edgeContainer.clear();
-//
-//        for (int i = 0; i < nodes.size(); i++) {
-//            for (Node node : nodes) {
-//                try {
-//                    Edge e = new Edge(nodes.get(i), node);
-//                    edgeContainer.add(e);
-//                } catch (EdgeSuperimpositionException | EdgeToSelfException ignored) {
-//                }
-//            }
-//            nodes.remove(i); // Removing the element at the front means we will still be at index 0
-//            i--;
-//        }
-//    }
+    /**
+     * Matches odd nodes by taking the candidate edges from shortest to longest whenever neither node is matched yet.
+     * This is fast but has no guarantee of being close to the minimum matching.
+     * @param oddNodes The nodes to match.
+     * @param partners The candidate partners of each odd node.
+     * @param distances The distance to each candidate partner.
+     * @param found The number of candidate partners of each odd node.
+     * @param k The space given to the candidates of each odd node.
+     * @param mate Where the node each node is matched to is recorded.
+     */
+    private static void matchGreedily(int[] oddNodes, int[] partners, double[] distances, int[] found, int k,
+                                      int[] mate) {
+        // Each candidate edge is stored as its position in the partners array.
+        int[] edges = new int[partners.length];
+        long[] lengths = new long[partners.length];
+        int numEdges = 0;
+        for (int i = 0; i < oddNodes.length; i++) {
+            for (int j = i * k; j < i * k + found[i]; j++) {
+                edges[numEdges] = j;
+                // Non-negative doubles are ordered the same as their bits, so the lengths can be radix sorted.
+                lengths[numEdges++] = Double.doubleToLongBits(distances[j]);
+            }
+        }
+        lengths = Arrays.copyOf(lengths, numEdges);
+        edges = Arrays.copyOf(edges, numEdges);
+        RadixSort.sort(lengths, edges);
+        for (int e = 0; e < numEdges; e++) {
+            int x = oddNodes[edges[e] / k];
+            int y = partners[edges[e]];
+            if (mate[x] == -1 && mate[y] == -1) {
+                mate[x] = y;
+                mate[y] = x;
+            }
+        }
+    }
 
     /**
-     * Constructs a minimum spanning tree of the graph using the prim algorithm.
-     * @param delayPerStep The time to wait after adding an edge (so we can see it draw if we need)
-     * @throws EdgeToSelfException Thrown if an attempt is made to create an edge to and from the same node.
-     * @throws EdgeSuperimpositionException Thrown if an attempt is made to create an edge that already exists.
-     * @throws InterruptedException Thrown if the thread is interrupted.
+     * Matches odd nodes with a @code{BlossomMatching} over the candidate edges, which finds the minimum weight
+     * matching among them (and the minimum weight perfect matching whenever it only uses candidate edges, which is
+     * almost always). The lengths are scaled to integers of up to 2^40 so that the matching can compare them exactly.
+     * @param oddNodes The nodes to match.
+     * @param positionOf The position of each odd node in @code{oddNodes}.
+     * @param partners The candidate partners of each odd node.
+     * @param distances The distance to each candidate partner.
+     * @param found The number of candidate partners of each odd node.
+     * @param k The space given to the candidates of each odd node.
+     * @param mate Where the node each node is matched to is recorded.
      */
-    private void constructMinimumSpanningTree(int delayPerStep) throws EdgeToSelfException, EdgeSuperimpositionException, InterruptedException {
-        graph.setAllNodesUnvisited();
-        // Create and populate arrays containing which nodes are visited and not visited.
-        ArrayList<Node> unvisited = new ArrayList<>(graph.getNodeContainer().getNodeSet());
-        ArrayList<Node> visited = new ArrayList<>();
-        // Set the starting node
-        unvisited.get(0).setVisited(true);
-        visited.add(unvisited.get(0));
-        unvisited.remove(0);
-        // Create a space for us to add edges to.
-        EdgeContainer edgeContainer = new EdgeContainer();
-        graph.setEdgeContainer(edgeContainer);
-        // Run algorithm
-        while (!unvisited.isEmpty()) {
-            double record = Integer.MAX_VALUE;
-            int vIdx = -1;
-            int uIdx = -1;
-            for (int v = 0; v < visited.size(); v++) {
-                for (int u = 0; u < unvisited.size(); u++) {
-                    Node n1 = visited.get(v);
-                    Node n2 = unvisited.get(u);
-                    double distance = n1.getVectorTo(n2).magnitude();
-                    if (distance < record) {
-                        record = distance;
-                        vIdx = v;
-                        uIdx = u;
-                    }
+    private static void matchByBlossom(int[] oddNodes, int[] positionOf, int[] partners, double[] distances,
+                                       int[] found, int k, int[] mate) {
+        int[] edgeStart = new int[partners.length];
+        int[] edgeEnd = new int[partners.length];
+        double[] lengths = new double[partners.length];
+        double maxLength = 0;
+        int numEdges = 0;
+        for (int i = 0; i < oddNodes.length; i++) {
+            for (int j = i * k; j < i * k + found[i]; j++) {
+                int other = positionOf[partners[j]];
+                if (other < i && isCandidate(partners, found, k, other, oddNodes[i])) {
+                    continue; // Already added from the other node's candidates.
                 }
+                edgeStart[numEdges] = i;
+                edgeEnd[numEdges] = other;
+                lengths[numEdges++] = distances[j];
+                maxLength = Math.max(maxLength, distances[j]);
             }
-            if (vIdx != -1) { // Only check one since the are initialised in the same block
-                edgeContainer.add(new Edge(visited.get(vIdx), unvisited.get(uIdx)));
-                RepeatedFunctions.sleep(delayPerStep);
-                unvisited.get(uIdx).setVisited(true);
-                visited.add(unvisited.get(uIdx));
-                unvisited.remove(uIdx);
+        }
+        double scale = maxLength > 0 ? (1L << 40) / maxLength : 0;
+        long[] weights = new long[numEdges];
+        for (int e = 0; e < numEdges; e++) {
+            weights[e] = Math.round(lengths[e] * scale);
+        }
+        int[] matched = new BlossomMatching(oddNodes.length, Arrays.copyOf(edgeStart, numEdges),
+                Arrays.copyOf(edgeEnd, numEdges), weights).minimumWeightPerfectMatching();
+        for (int i = 0; i < oddNodes.length; i++) {
+            if (matched[i] != -1) {
+                mate[oddNodes[i]] = oddNodes[matched[i]];
             }
         }
     }
 
     /**
-     * Returns the set of nodes that have an odd order (odd number of edges connected to them).
-     * @return oddOrderedNodes An ArrayList containing the nodes that were found to have an odd order.
+     * Returns whether a node is one of the candidate partners of an odd node.
+     * @param partners The candidate partners of each odd node.
+     * @param found The number of candidate partners of each odd node.
+     * @param k The space given to the candidates of each odd node.
+     * @param position The position of the odd node whose candidates are checked.
+     * @param node The node to look for.
+     * @return isCandidate True if @code{node} is a candidate partner of the odd node.
      */
-    private ArrayList<Node> getOddOrderedNodes() {
-        ArrayList<Node> oddOrderedNodes = new ArrayList<>();
-        for (Node n : graph.getNodeContainer().getNodeSet()) { // For each node
-            int nodeOrder = 0;
-            // Find its order
-            for (Edge e : graph.getEdgeContainer().getEdgeSet()) {
-                if (e.containsNode(n)) {
-                    nodeOrder++;
-                }
+    private static boolean isCandidate(int[] partners, int[] found, int k, int position, int node) {
+        for (int j = position * k; j < position * k + found[position]; j++) {
+            if (partners[j] == node) {
+                return true;
             }
-            // If it's not even then add it.
-            if (!(nodeOrder % 2 == 0)) {
-                oddOrderedNodes.add(n);
+        }
+        return false;
+    }
+
+    /**
+     * Finds an Euler circuit of the multigraph made of a tree and a matching of its odd nodes using Hierholzer's
+     * algorithm: follow unused edges from the current node until stuck, then back up, adding nodes to the circuit as
+     * they are backed out of.
+     * @param parent The parent of each node in the tree (-1 for the root).
+     * @param oddNodes The nodes with an odd degree in the tree.
+     * @param mate The node each odd node is matched to.
+     * @return circuit The nodes of the circuit in order (the first node is not repeated at the end).
+     */
+    private static int[] getEulerCircuit(int[] parent, int[] oddNodes, int[] mate) {
+        int numNodes = parent.length;
+        // The edges as pairs of nodes: first the tree edges, then the matching edges.
+        int numEdges = numNodes - 1 + oddNodes.length / 2;
+        int[] edgeStart = new int[numEdges];
+        int[] edgeEnd = new int[numEdges];
+        int e = 0;
+        for (int node = 0; node < numNodes; node++) {
+            if (parent[node] != -1) {
+                edgeStart[e] = node;
+                edgeEnd[e++] = parent[node];
             }
         }
-        return oddOrderedNodes;
+        for (int node : oddNodes) {
+            if (node < mate[node]) {
+                edgeStart[e] = node;
+                edgeEnd[e++] = mate[node];
+            }
+        }
+        // The edges of each node, as a compressed adjacency list: the edges of node x are adjacent[first[x]] up to
+        // adjacent[first[x + 1]].
+        int[] first = new int[numNodes + 1];
+        for (int i = 0; i < numEdges; i++) {
+            first[edgeStart[i] + 1]++;
+            first[edgeEnd[i] + 1]++;
+        }
+        for (int node = 0; node < numNodes; node++) {
+            first[node + 1] += first[node];
+        }
+        int[] adjacent = new int[2 * numEdges];
+        int[] filled = Arrays.copyOf(first, numNodes);
+        for (int i = 0; i < numEdges; i++) {
+            adjacent[filled[edgeStart[i]]++] = i;
+            adjacent[filled[edgeEnd[i]]++] = i;
+        }
+        boolean[] used = new boolean[numEdges];
+        int[] nextEdge = Arrays.copyOf(first, numNodes); // The next edge of each node to try.
+        int[] stack = new int[numEdges + 1];
+        int[] circuit = new int[numEdges + 1];
+        int stackSize = 0;
+        int circuitSize = 0;
+        stack[stackSize++] = 0;
+        while (stackSize > 0) {
+            int node = stack[stackSize - 1];
+            while (nextEdge[node] < first[node + 1] && used[adjacent[nextEdge[node]]]) {
+                nextEdge[node]++;
+            }
+            if (nextEdge[node] == first[node + 1]) { // Stuck, so back up.
+                circuit[circuitSize++] = node;
+                stackSize--;
+            } else {
+                int edge = adjacent[nextEdge[node]++];
+                used[edge] = true;
+                stack[stackSize++] = edgeStart[edge] == node ? edgeEnd[edge] : edgeStart[edge];
+            }
+        }
+        return Arrays.copyOf(circuit, Math.max(1, circuitSize - 1));
     }
 
-//    public EdgeContainer findBestPerfectMatching(StaticGraph graph) throws EdgeSuperimpositionException, EdgeToSelfException, NoClosestNodeException {
-//        double bestLength = Double.MAX_VALUE;
-//        EdgeContainer bestMatching = null;
-//        // Iterate forwards
-//        for (int i = 0; i < graph.getNumNodes(); i++) {
-//            EdgeContainer currMatching = findPerfectMatching(graph, i);
-//            double currLength = currMatching.getTotalLength();
-//            if (currLength < bestLength) {
-//                bestLength = currLength;
-//                bestMatching = currMatching;
-//            }
-//        }
-//        return bestMatching;
-//    }
+    /**
+     * Turns a circuit that visits every node into a tour by skipping each node after its first visit.
+     * @param circuit The nodes of the circuit in order.
+     * @param numNodes The number of nodes.
+     * @return tour The nodes of the tour in order.
+     */
+    private static int[] shortcut(int[] circuit, int numNodes) {
+        boolean[] visited = new boolean[numNodes];
+        int[] tour = new int[numNodes];
+        int size = 0;
+        for (int node : circuit) {
+            if (!visited[node]) {
+                visited[node] = true;
+                tour[size++] = node;
+            }
+        }
+        return tour;
+    }
 
     /**
-     * Finds a perfect matching using a greedy algorithm given a starting node (only finds perfect matching if input
-     * node set has an even number of nodes). Calculates starting from the node at the startingIdx in the graph's node
-     * set. Note: This creates a perfect but non-minimal matching!
-     * @param graph The graph for which to find a perfect matching.
-     * @param startingIdx The index from which to start the perfect matching.
-     * @return matching An @code{EdgeContainer} containing the edges of the perfect matching.
+     * Shows a tree on the graph one edge at a time.
+     * @param geometry The positions of the nodes.
+     * @param parent The parent of each node in the tree (-1 for the root).
+     * @param delayPerStep The time to wait after adding each edge.
+     * @throws EdgeToSelfException Thrown if an attempt is made to create an edge to and from the same node.
+     * @throws EdgeSuperimpositionException Thrown if an attempt is made to create an edge that already exists.
      */
-    public EdgeContainer findPerfectMatching(StaticGraph graph, int startingIdx) {
-        EdgeContainer matching = new EdgeContainer();
-        ArrayList<Node> unmatched = new ArrayList<>(graph.getNodeContainer().getNodeSet());
-        try {
-            // For each node, find its closest node and create a pair out of them, then remove them from the unmatched
-            for (int i = 0; i < unmatched.size(); i++) {
-                Node currNode = unmatched.get((i + startingIdx) % unmatched.size());
-                Node closestNode = currNode.getClosestNode(unmatched, false);
-                matching.add(new Edge(currNode, closestNode));
-                unmatched.remove(currNode);
-                unmatched.remove(closestNode);
+    private void drawTree(NodeGeometry geometry, int[] parent, int delayPerStep)
+            throws EdgeToSelfException, EdgeSuperimpositionException {
+        EdgeContainer edgeContainer = new EdgeContainer();
+        graph.setEdgeContainer(edgeContainer);
+        for (int node = 0; node < parent.length; node++) {
+            if (parent[node] != -1) {
+                edgeContainer.add(new Edge(geometry.getNode(node), geometry.getNode(parent[node])));
+                RepeatedFunctions.sleep(delayPerStep);
             }
-        } catch (EdgeToSelfException | NoClosestNodeException | EdgeSuperimpositionException e) {
-            e.printStackTrace();
         }
-        return matching;
     }
 
     /**
      * Sets the value of the @code{graph} attribute to a new value.
      * @param graph The new value to become the @code{graph} attribute.
      */
+    @Override
     public void setGraph(StaticGraph graph) {
         RepeatedFunctions.validateGraph(graph);
         this.graph = graph;
     }
 
     /**
-     * Returns a minimum weight perfect matching (I think) of a graph with an even number of vertexes by:
-     * 1. Calculate all edge lengths by creating a matrix of node IDs.
-     * 2. Ignore all the values to the left of and including the diagonal of the matrix starting in the top left corner
-     * and ending in the bottom right. We can do this because nodes don't map to themselves and edges are symmetrical.
-     * 3. Take the edges we haven't ignored and sort them by length.
-     * 4. Record which nodes we have included in the matching and search through our sorted list lowest to highest.
-     * 5. When we see an edge that has neither nodes visited we can add it to the matching.
-     * @param graph The graph of which we need a matching.
-     * @return matching The minimum weight perfect matching of the graph.
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
      */
-    private EdgeContainer getMinimumWeightMatching(StaticGraph graph) {
-        int nN = graph.getNumNodes(); // We need to know how many nodes there are.
-        // Check that our graph is legal for this method.
-        if (nN % 2 != 0) {
-            try {
-                throw new InvalidGraphException("Graph had " + nN + " nodes which is not even.");
-            } catch (InvalidGraphException e) {
-                e.printStackTrace();
-            }
-        }
-        ArrayList<Edge> edges = new ArrayList<>();
-        // For each row,column in a square matrix, find the edge length between the nodes with ids row and column.
-        for (int row = 0; row < nN; row++) {
-            for (int col = 0; col < nN; col++) {
-                // Nodes can't edge to themselves, so don't check calculate where col == row.
-                // Edges are symmetrical, so don't calculate where col < row since we already calculated it earlier.
-                if (col > row) {
-                    try { // Try and get the nodes to construct an edge between them.
-                        Edge e = new Edge(
-                                graph.getNodeContainer().getNodeByID(row),
-                                graph.getNodeContainer().getNodeByID(col) // Doesn't matter which way round they are.
-                        );
-                        edges.add(e); // Put this edge in the matrix.
-                    } catch (NonExistentNodeException | EdgeToSelfException ignored) {
-                    }
-                }
-            }
-        }
-        // Now we have all the important edge lengths we can sort them lowest to highest
-        Collections.sort(edges); // Sorted using comparable implementation in Edge class.
-        /* We now need to start constructing the matching from this sorted array. To get the minimum matching we can
-           choose the edges in order when node pairs first appear. Afer the nodes have been
-           visited, we can set them to visited and not select edges including either again. */
-        EdgeContainer matching = new EdgeContainer(); // This is where we will keep the edges in the matching.
-        HashMap<Integer, Boolean> visited = new HashMap<>(); // Map records which nodes are in matching
-        for (Edge edge : edges) {
-            visited.put(edge.getStartNode().getNodeID(), false);
-            visited.put(edge.getEndNode().getNodeID(), false);
-        } // We now have one entry of nodeID:false for each node in the graph.
-        for (Edge e : edges) {
-            int nodeIDa = e.getStartNode().getNodeID();
-            int nodeIDb = e.getEndNode().getNodeID();
-            if (!visited.get(nodeIDa) && !visited.get(nodeIDb)) { // If neither node is visited.
-                try {
-                    matching.add(e);
-                    visited.put(nodeIDa, true);
-                    visited.put(nodeIDb, true);
-                } catch (EdgeSuperimpositionException ex) {
-                    ex.printStackTrace();
-                }
-            }
-        }
-        return matching;
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{matchingStrategy} attribute.
+     * @return matchingStrategy The value of the @code{matchingStrategy} attribute.
+     */
+    public MatchingStrategy getMatchingStrategy() {
+        return matchingStrategy;
+    }
+
+    /**
+     * Sets the @code{matchingStrategy} attribute to a new value.
+     * @param matchingStrategy The new value to assign the @code{matchingStrategy} attribute.
+     */
+    public void setMatchingStrategy(MatchingStrategy matchingStrategy) {
+        this.matchingStrategy = matchingStrategy;
     }
 }
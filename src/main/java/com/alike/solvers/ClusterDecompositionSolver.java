@@ -0,0 +1,632 @@
+package com.alike.solvers;
+
+import com.alike.graphsystem.Node;
+import com.alike.graphsystem.StaticGraph;
+import com.alike.solution_helpers.CandidateLists;
+import com.alike.solution_helpers.DontLookBits;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.OrOptImprover;
+import com.alike.solution_helpers.RepeatedFunctions;
+import com.alike.solution_helpers.Tour;
+import com.alike.solution_helpers.TourConstructor;
+import com.alike.solution_helpers.TwoOptImprover;
+import com.alike.solvertestsuite.Fail;
+import com.alike.solvertestsuite.Solution;
+import com.alike.solvertestsuite.SolverOutput;
+import com.alike.time.Stopwatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A divide and conquer solver for very large graphs. The nodes are split into clusters of at most
+ * @code{clusterSize} nodes by recursively cutting the longer side of their bounding box at the median (the leaves of a
+ * k-d tree). Each cluster is solved on its own, in parallel, by the @code{innerSolver} and polished with 2-opt and
+ * Or-opt. The clusters are then visited in the order of a meta-tour through one representative node per cluster, and
+ * each is patched into the tour built so far by the cheapest exchange of one of its tour edges for one tour edge
+ * near it (found through the nodes' candidates), which joins the two cycles into one. Finally 2-opt and Or-opt are
+ * run from the nodes within @code{seamWindow} of each seam only.
+ * Apart from the candidate lists, everything is held in a few arrays of n integers, and only the clusters being solved
+ * at the time have snapshots of their own, so memory stays O(n).
+ * Algorithm found: R. M. Karp, "Probabilistic analysis of partitioning algorithms for the traveling-salesman problem
+ * in the plane" (1977).
+ * @author alike
+ */
+public class ClusterDecompositionSolver implements StaticSolver, TourConstructor {
+    /**
+     * The graph which we are to solve.
+     */
+    private StaticGraph graph;
+
+    /**
+     * Solves each cluster.
+     */
+    private TourConstructor innerSolver = new GreedyEdgeSolver();
+
+    /**
+     * The largest number of nodes in a cluster.
+     */
+    private int clusterSize = 1000;
+
+    /**
+     * The number of nodes on each side of a seam that the final local search starts from.
+     */
+    private int seamWindow = 10;
+
+    /**
+     * The number of nearest candidates each node is given.
+     */
+    private int candidateListSize = 8;
+
+    /**
+     * The executor service the clusters are solved on.
+     */
+    private ExecutorService executorService;
+
+    /**
+     * Constructs a new @code{ClusterDecompositionSolver} that runs on the common fork/join pool.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     */
+    public ClusterDecompositionSolver(StaticGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new @code{ClusterDecompositionSolver}.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     * @param executorService The executor service the clusters are solved on.
+     */
+    public ClusterDecompositionSolver(StaticGraph graph, ExecutorService executorService) {
+        setGraph(graph);
+        setExecutorService(executorService);
+    }
+
+    /**
+     * Constructs a new @code{ClusterDecompositionSolver} that runs on the common fork/join pool, for use as a
+     * @code{TourConstructor}.
+     */
+    public ClusterDecompositionSolver() {
+        setExecutorService(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Solves the graph in the @code{graph} attribute by decomposition.
+     * @param delayPerStep Unused; the tour is only displayed once it is finished.
+     * @return output The results of the solution attempt.
+     */
+    @Override
+    public SolverOutput runSolution(int delayPerStep) {
+        try {
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.start();
+            NodeGeometry geometry = new NodeGeometry(graph);
+            graph.setEdgeContainer(geometry.toEdgeContainer(construct(geometry)));
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), stopwatch.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
+        }
+    }
+
+    /**
+     * Builds a tour through the nodes of a geometry by solving clusters of them and patching the cluster tours together.
+     * @param geometry The positions of the nodes.
+     * @return tour The indices of the nodes of the tour, in order.
+     */
+    @Override
+    public int[] construct(NodeGeometry geometry) {
+        int numNodes = geometry.getNumNodes();
+        if (numNodes <= clusterSize) {
+            return solveCluster(geometry, identity(numNodes), 0, numNodes);
+        }
+        // Split the nodes into clusters; cluster c is nodes[clusterStart[c]] up to nodes[clusterStart[c + 1]].
+        int[] nodes = identity(numNodes);
+        List<Integer> starts = new ArrayList<>();
+        partition(geometry, nodes, 0, numNodes, starts);
+        int numClusters = starts.size();
+        int[] clusterStart = new int[numClusters + 1];
+        for (int c = 0; c < numClusters; c++) {
+            clusterStart[c] = starts.get(c);
+        }
+        clusterStart[numClusters] = numNodes;
+        // Solve the clusters in parallel; each writes its tour over its own range of the nodes array.
+        List<Callable<Void>> tasks = new ArrayList<>(numClusters);
+        for (int c = 0; c < numClusters; c++) {
+            int from = clusterStart[c];
+            int to = clusterStart[c + 1];
+            tasks.add(() -> {
+                int[] tour = solveCluster(geometry, nodes, from, to);
+                System.arraycopy(tour, 0, nodes, from, tour.length);
+                return null;
+            });
+        }
+        CandidateLists candidateLists = CandidateLists.fromGeometry(geometry,
+                Math.min(candidateListSize, numNodes - 1), executorService);
+        runAll(tasks);
+        // Each cluster tour becomes a cycle of the linked list.
+        int[] next = new int[numNodes];
+        int[] prev = new int[numNodes];
+        int[] clusterOf = new int[numNodes];
+        for (int c = 0; c < numClusters; c++) {
+            for (int i = clusterStart[c]; i < clusterStart[c + 1]; i++) {
+                int node = nodes[i];
+                int after = nodes[i + 1 == clusterStart[c + 1] ? clusterStart[c] : i + 1];
+                next[node] = after;
+                prev[after] = node;
+                clusterOf[node] = c;
+            }
+        }
+        int[] metaTour = metaTour(geometry, nodes, clusterStart);
+        boolean[] merged = new boolean[numClusters];
+        merged[metaTour[0]] = true;
+        DontLookBits seams = new DontLookBits(numNodes);
+        for (int i = 1; i < numClusters; i++) {
+            int c = metaTour[i];
+            patch(geometry, candidateLists, nodes, clusterStart, c, clusterOf, merged, next, prev, seams);
+            merged[c] = true;
+        }
+        int[] tour = new int[numNodes];
+        tour[0] = nodes[0];
+        for (int i = 1; i < numNodes; i++) {
+            tour[i] = next[tour[i - 1]];
+        }
+        return improveSeams(geometry, candidateLists, tour, seams);
+    }
+
+    /**
+     * Recursively splits a range of nodes at the median of the longer side of its bounding box until each part has at
+     * most @code{clusterSize} nodes, and records where each part starts.
+     * @param geometry The positions of the nodes.
+     * @param nodes The nodes; the range is rearranged so that each part is contiguous.
+     * @param from The start of the range.
+     * @param to The end of the range (exclusive).
+     * @param starts The list the start of each part is added to, in order.
+     */
+    private void partition(NodeGeometry geometry, int[] nodes, int from, int to, List<Integer> starts) {
+        if (to - from <= clusterSize) {
+            starts.add(from);
+            return;
+        }
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            minX = Math.min(minX, geometry.getX(nodes[i]));
+            maxX = Math.max(maxX, geometry.getX(nodes[i]));
+            minY = Math.min(minY, geometry.getY(nodes[i]));
+            maxY = Math.max(maxY, geometry.getY(nodes[i]));
+        }
+        boolean byX = maxX - minX >= maxY - minY;
+        int middle = (from + to) >>> 1;
+        select(geometry, nodes, from, to, middle, byX);
+        partition(geometry, nodes, from, middle, starts);
+        partition(geometry, nodes, middle, to, starts);
+    }
+
+    /**
+     * Rearranges a range of nodes so that the node at index k is the one that would be there if the range were sorted
+     * by one coordinate, with no node before it greater and no node after it smaller (quickselect).
+     * @param geometry The positions of the nodes.
+     * @param nodes The nodes.
+     * @param from The start of the range.
+     * @param to The end of the range (exclusive).
+     * @param k The index to select.
+     * @param byX Whether to compare x coordinates (or y coordinates).
+     */
+    private static void select(NodeGeometry geometry, int[] nodes, int from, int to, int k, boolean byX) {
+        int lo = from;
+        int hi = to - 1;
+        while (lo < hi) {
+            double pivot = coordinate(geometry, nodes[(lo + hi) >>> 1], byX);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (coordinate(geometry, nodes[i], byX) < pivot) {
+                    i++;
+                }
+                while (coordinate(geometry, nodes[j], byX) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = nodes[i];
+                    nodes[i++] = nodes[j];
+                    nodes[j--] = swap;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns one coordinate of a node.
+     * @param geometry The positions of the nodes.
+     * @param node The node.
+     * @param byX Whether to return the x coordinate (or the y coordinate).
+     * @return coordinate The coordinate.
+     */
+    private static double coordinate(NodeGeometry geometry, int node, boolean byX) {
+        return byX ? geometry.getX(node) : geometry.getY(node);
+    }
+
+    /**
+     * Solves one cluster with the @code{innerSolver} and polishes its tour with 2-opt and Or-opt.
+     * @param geometry The positions of all the nodes.
+     * @param nodes The nodes, of which the cluster is a range.
+     * @param from The start of the cluster's range.
+     * @param to The end of the cluster's range (exclusive).
+     * @return tour The nodes of the cluster (as indices of the full geometry) in tour order.
+     */
+    private int[] solveCluster(NodeGeometry geometry, int[] nodes, int from, int to) {
+        List<Node> clusterNodes = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            clusterNodes.add(geometry.getNode(nodes[i]));
+        }
+        NodeGeometry clusterGeometry = new NodeGeometry(clusterNodes);
+        int[] localTour = innerSolver.construct(clusterGeometry);
+        if (localTour.length > 3) {
+            CandidateLists candidateLists = CandidateLists.fromGeometry(clusterGeometry,
+                    Math.min(candidateListSize, localTour.length - 1));
+            Tour tour = Tour.create(localTour);
+            polish(tour, clusterGeometry, candidateLists, null);
+            localTour = tour.toArray();
+        }
+        int[] clusterTour = new int[localTour.length];
+        for (int i = 0; i < localTour.length; i++) {
+            clusterTour[i] = nodes[from + localTour[i]];
+        }
+        return clusterTour;
+    }
+
+    /**
+     * Orders the clusters by a tour through the node of each cluster nearest the cluster's centroid.
+     * @param geometry The positions of the nodes.
+     * @param nodes The nodes, arranged into clusters.
+     * @param clusterStart The start of each cluster's range of nodes (and the end of the last).
+     * @return metaTour The indices of the clusters, in the order they are to be visited.
+     */
+    private int[] metaTour(NodeGeometry geometry, int[] nodes, int[] clusterStart) {
+        int numClusters = clusterStart.length - 1;
+        List<Node> representatives = new ArrayList<>(numClusters);
+        for (int c = 0; c < numClusters; c++) {
+            double x = 0;
+            double y = 0;
+            for (int i = clusterStart[c]; i < clusterStart[c + 1]; i++) {
+                x += geometry.getX(nodes[i]);
+                y += geometry.getY(nodes[i]);
+            }
+            int size = clusterStart[c + 1] - clusterStart[c];
+            x /= size;
+            y /= size;
+            int nearest = nodes[clusterStart[c]];
+            double nearestDistance = Double.POSITIVE_INFINITY;
+            for (int i = clusterStart[c]; i < clusterStart[c + 1]; i++) {
+                double dx = geometry.getX(nodes[i]) - x;
+                double dy = geometry.getY(nodes[i]) - y;
+                if (dx * dx + dy * dy < nearestDistance) {
+                    nearestDistance = dx * dx + dy * dy;
+                    nearest = nodes[i];
+                }
+            }
+            representatives.add(geometry.getNode(nearest));
+        }
+        NodeGeometry metaGeometry = new NodeGeometry(representatives);
+        int[] metaTour = new GreedyEdgeSolver().construct(metaGeometry);
+        if (numClusters > 3) {
+            Tour tour = Tour.create(metaTour);
+            polish(tour, metaGeometry, CandidateLists.fromGeometry(metaGeometry,
+                    Math.min(candidateListSize, numClusters - 1)), null);
+            metaTour = tour.toArray();
+        }
+        return metaTour;
+    }
+
+    /**
+     * Joins a cluster's cycle into the merged tour by removing one edge from each and adding two edges between them,
+     * choosing the cheapest such exchange between a node of the cluster and one of its candidates in the merged tour.
+     * If no candidate of the cluster is in the merged tour, the merged node nearest the cluster is found by a scan.
+     * @param geometry The positions of the nodes.
+     * @param candidateLists The nearest candidates of each node.
+     * @param nodes The nodes, arranged into clusters.
+     * @param clusterStart The start of each cluster's range of nodes (and the end of the last).
+     * @param cluster The cluster to join.
+     * @param clusterOf The cluster of each node.
+     * @param merged Whether each cluster is in the merged tour.
+     * @param next The node after each node in its cycle.
+     * @param prev The node before each node in its cycle.
+     * @param seams The queue the nodes near the new edges are added to.
+     */
+    private void patch(NodeGeometry geometry, CandidateLists candidateLists, int[] nodes, int[] clusterStart,
+                       int cluster, int[] clusterOf, boolean[] merged, int[] next, int[] prev, DontLookBits seams) {
+        double bestDelta = Double.POSITIVE_INFINITY;
+        int bestX = -1;
+        int bestU = -1;
+        boolean bestReversed = false;
+        int k = candidateLists.getK();
+        for (int i = clusterStart[cluster]; i < clusterStart[cluster + 1]; i++) {
+            int b = nodes[i];
+            for (int j = 0; j < k; j++) {
+                int a = candidateLists.get(b, j);
+                if (!merged[clusterOf[a]]) {
+                    continue;
+                }
+                for (int x : new int[] {prev[a], a}) {
+                    for (int u : new int[] {prev[b], b}) {
+                        double[] deltas = exchangeDeltas(geometry, x, next[x], u, next[u]);
+                        for (int r = 0; r < 2; r++) {
+                            if (deltas[r] < bestDelta) {
+                                bestDelta = deltas[r];
+                                bestX = x;
+                                bestU = u;
+                                bestReversed = r == 1;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (bestX == -1) {
+            // No candidate edges reach the merged tour: join at the merged node nearest the cluster's first node.
+            int b = nodes[clusterStart[cluster]];
+            int a = -1;
+            for (int node = 0; node < clusterOf.length; node++) {
+                if (merged[clusterOf[node]] && (a == -1 || geometry.distance(b, node) < geometry.distance(b, a))) {
+                    a = node;
+                }
+            }
+            for (int u : new int[] {prev[b], b}) {
+                double[] deltas = exchangeDeltas(geometry, a, next[a], u, next[u]);
+                for (int r = 0; r < 2; r++) {
+                    if (deltas[r] < bestDelta) {
+                        bestDelta = deltas[r];
+                        bestX = a;
+                        bestU = u;
+                        bestReversed = r == 1;
+                    }
+                }
+            }
+        }
+        int x = bestX;
+        int y = next[x];
+        int u = bestU;
+        int w = next[u];
+        if (bestReversed) {
+            // Reverse the cluster's cycle so that the path from u to w runs forwards.
+            for (int i = clusterStart[cluster]; i < clusterStart[cluster + 1]; i++) {
+                int node = nodes[i];
+                int swap = next[node];
+                next[node] = prev[node];
+                prev[node] = swap;
+            }
+            int swap = u;
+            u = w;
+            w = swap;
+        }
+        // x y and u w become x w ... u y.
+        next[x] = w;
+        prev[w] = x;
+        next[u] = y;
+        prev[y] = u;
+        for (int end : new int[] {x, w, u, y}) {
+            int before = end;
+            int after = end;
+            for (int step = 0; step < seamWindow; step++) {
+                seams.push(before);
+                seams.push(after);
+                before = prev[before];
+                after = next[after];
+            }
+        }
+    }
+
+    /**
+     * Returns the change in length of joining two cycles by removing the edges (x, y) and (u, w) and adding either
+     * (x, w) and (u, y), which keeps the second cycle's direction, or (x, u) and (w, y), which reverses it.
+     * @param geometry The positions of the nodes.
+     * @param x The first node of the edge of the first cycle.
+     * @param y The second node of the edge of the first cycle.
+     * @param u The first node of the edge of the second cycle.
+     * @param w The second node of the edge of the second cycle.
+     * @return deltas The change in length of the forward join and of the reversed join.
+     */
+    private static double[] exchangeDeltas(NodeGeometry geometry, int x, int y, int u, int w) {
+        double removed = geometry.distance(x, y) + geometry.distance(u, w);
+        return new double[] {
+                geometry.distance(x, w) + geometry.distance(u, y) - removed,
+                geometry.distance(x, u) + geometry.distance(w, y) - removed
+        };
+    }
+
+    /**
+     * Runs 2-opt and Or-opt from the nodes near the seams until neither can improve the tour.
+     * @param geometry The positions of the nodes.
+     * @param candidateLists The nearest candidates of each node.
+     * @param tourOrder The nodes of the tour, in order.
+     * @param seams The nodes near the seams.
+     * @return tour The improved tour.
+     */
+    private int[] improveSeams(NodeGeometry geometry, CandidateLists candidateLists, int[] tourOrder,
+                               DontLookBits seams) {
+        List<Integer> seamNodes = new ArrayList<>();
+        int node;
+        while ((node = seams.poll()) != -1) {
+            seamNodes.add(node);
+        }
+        Tour tour = Tour.create(tourOrder);
+        polish(tour, geometry, candidateLists, seamNodes);
+        return tour.toArray();
+    }
+
+    /**
+     * Runs 2-opt and Or-opt in turn until neither can improve a tour.
+     * @param tour The tour to improve.
+     * @param geometry The positions of the nodes.
+     * @param candidateLists The nearest candidates of each node.
+     * @param startNodes The nodes each pass starts from (null for every node).
+     */
+    private static void polish(Tour tour, NodeGeometry geometry, CandidateLists candidateLists,
+                               List<Integer> startNodes) {
+        TwoOptImprover twoOpt = new TwoOptImprover();
+        OrOptImprover orOpt = new OrOptImprover();
+        boolean improved = true;
+        while (improved) {
+            improved = twoOpt.improve(tour, geometry, candidateLists, queue(tour, startNodes));
+            improved |= orOpt.improve(tour, geometry, candidateLists, queue(tour, startNodes));
+        }
+    }
+
+    /**
+     * Returns don't-look bits with some nodes queued.
+     * @param tour The tour.
+     * @param startNodes The nodes to queue (null for every node, in tour order).
+     * @return dontLookBits The new don't-look bits.
+     */
+    private static DontLookBits queue(Tour tour, List<Integer> startNodes) {
+        if (startNodes == null) {
+            return DontLookBits.allOf(tour.toArray());
+        }
+        DontLookBits dontLookBits = new DontLookBits(tour.getNumNodes());
+        for (int node : startNodes) {
+            dontLookBits.push(node);
+        }
+        return dontLookBits;
+    }
+
+    /**
+     * Returns the array 0, 1, ..., n - 1.
+     * @param n The length of the array.
+     * @return identity The array.
+     */
+    private static int[] identity(int n) {
+        int[] identity = new int[n];
+        for (int i = 0; i < n; i++) {
+            identity[i] = i;
+        }
+        return identity;
+    }
+
+    /**
+     * Runs a batch of tasks on the @code{executorService} and waits for them all to finish.
+     * @param tasks The tasks.
+     */
+    private void runAll(List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> future : executorService.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving the clusters.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A cluster could not be solved.", e.getCause());
+        }
+    }
+
+    /**
+     * Sets the @code{graph} attribute to a new value.
+     * @param graph The graph to assign the StaticSolver's @code{graph} attribute.
+     */
+    @Override
+    public void setGraph(StaticGraph graph) {
+        RepeatedFunctions.validateGraph(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
+     */
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{innerSolver} attribute.
+     * @return innerSolver The value of the @code{innerSolver} attribute.
+     */
+    public TourConstructor getInnerSolver() {
+        return innerSolver;
+    }
+
+    /**
+     * Sets the @code{innerSolver} attribute to a new value.
+     * @param innerSolver The new value to assign the @code{innerSolver} attribute.
+     */
+    public void setInnerSolver(TourConstructor innerSolver) {
+        this.innerSolver = innerSolver;
+    }
+
+    /**
+     * Returns the value of the @code{clusterSize} attribute.
+     * @return clusterSize The value of the @code{clusterSize} attribute.
+     */
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Sets the @code{clusterSize} attribute to a new value.
+     * @param clusterSize The new value to assign the @code{clusterSize} attribute (at least 8).
+     */
+    public void setClusterSize(int clusterSize) {
+        this.clusterSize = Math.max(8, clusterSize);
+    }
+
+    /**
+     * Returns the value of the @code{seamWindow} attribute.
+     * @return seamWindow The value of the @code{seamWindow} attribute.
+     */
+    public int getSeamWindow() {
+        return seamWindow;
+    }
+
+    /**
+     * Sets the @code{seamWindow} attribute to a new value.
+     * @param seamWindow The new value to assign the @code{seamWindow} attribute (at least 1).
+     */
+    public void setSeamWindow(int seamWindow) {
+        this.seamWindow = Math.max(1, seamWindow);
+    }
+
+    /**
+     * Returns the value of the @code{candidateListSize} attribute.
+     * @return candidateListSize The value of the @code{candidateListSize} attribute.
+     */
+    public int getCandidateListSize() {
+        return candidateListSize;
+    }
+
+    /**
+     * Sets the @code{candidateListSize} attribute to a new value.
+     * @param candidateListSize The new value to assign the @code{candidateListSize} attribute (at least 1).
+     */
+    public void setCandidateListSize(int candidateListSize) {
+        this.candidateListSize = Math.max(1, candidateListSize);
+    }
+
+    /**
+     * Returns the value of the @code{executorService} attribute.
+     * @return executorService The value of the @code{executorService} attribute.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Sets the @code{executorService} attribute to a new value.
+     * @param executorService The new value to assign the @code{executorService} attribute.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+}
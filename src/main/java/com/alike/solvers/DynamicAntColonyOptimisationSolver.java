@@ -89,7 +89,6 @@ public class DynamicAntColonyOptimisationSolver implements DynamicSolver {
             dgraph.move();
             RepeatedFunctions.sleep(delayPerSolve);
         }
-        acos.getExecutorService().shutdown();
         return new DynamicSolution(dgraph.getAverageRouteLength(), totalTime/numSolves);
     }
 
@@ -133,7 +132,7 @@ public class DynamicAntColonyOptimisationSolver implements DynamicSolver {
             graph.constructEdgeLengthMatrix(); // Reconstruct the edge matrix, since it has changed.
             acos.setDistanceMatrix(graph.getEdgeLengthMatrix());
             // Run the ants
-            acos.sendAnts(numAntsPerSolve); // Cannot use runSolution due to shutdownNow call.
+            acos.sendAnts(numAntsPerSolve); // Keeps the pheromone levels of the previous solve, unlike runSolution.
             totalTime += stopwatch.getTimeNs(); // Also stops the stopwatch
             stopwatch.clear(); // Eradicate the values from the watch.
             completedSolves++;
@@ -181,12 +180,11 @@ public class DynamicAntColonyOptimisationSolver implements DynamicSolver {
     }
 
     /**
-     * Stops the solution from running by setting the @code{running} attribute to false. And calls shutdown on the
-     * thread pool.
+     * Stops the solution from running by setting the @code{running} attribute to false, and asks the underlying solver
+     * to stop after its current batch of ants.
      */
     public void kill() {
         this.running = false;
-        acos.processAnts();
-        acos.getExecutorService().shutdownNow();
+        acos.shutdown();
     }
 }
@@ -1,6 +1,14 @@
 package com.alike.solvers;
 
+import com.alike.Main;
+import com.alike.customexceptions.EdgeToSelfException;
+import com.alike.graphsystem.Coordinate;
 import com.alike.graphsystem.DynamicGraph;
+import com.alike.graphsystem.Edge;
+import com.alike.graphsystem.EdgeContainer;
+import com.alike.graphsystem.Node;
+import com.alike.solution_helpers.HilbertCurve;
+import com.alike.solution_helpers.RadixSort;
 import com.alike.solution_helpers.RepeatedFunctions;
 import com.alike.time.Timer;
 import com.alike.solvertestsuite.DynamicSolution;
@@ -8,8 +16,15 @@ import com.alike.solvertestsuite.SolverOutput;
 import com.alike.time.Stopwatch;
 import com.alike.graphsystem.StaticGraph;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
- * A class that can solve DTSPs using the hilbert fractal curve method.
+ * A class that can solve DTSPs using the hilbert fractal curve method. The underlying solver indexes the nodes along
+ * the curve directly, so each solve only costs a sort of the nodes. In incremental mode (the default) the order and
+ * curve index of the nodes are kept between solves: only the nodes that moved are re-indexed, the order is repaired
+ * by merging the nodes that moved out of order back in and only the edges whose end nodes changed are replaced, so a
+ * solve costs little more than the movement since the last one.
  * @author alike 
  */
 public class DynamicHilbertFractalCurveSolver implements DynamicSolver {
@@ -33,12 +48,74 @@ public class DynamicHilbertFractalCurveSolver implements DynamicSolver {
      */
     private volatile boolean running;
 
+    /**
+     * Whether each solve repairs the order of the last solve (true) or sorts all of the nodes again (false).
+     */
+    private boolean incremental = true;
+
+    /**
+     * The nodes of the graph when they were last sorted from scratch. Node i owns edge i of the @code{route}: the
+     * edge from it to the node after it.
+     */
+    private Node[] nodes;
+
+    /**
+     * The index along the curve of each node in @code{nodes}.
+     */
+    private long[] keys;
+
+    /**
+     * The x coordinate each node in @code{nodes} had when its key was calculated.
+     */
+    private int[] keyedX;
+
+    /**
+     * The y coordinate each node in @code{nodes} had when its key was calculated.
+     */
+    private int[] keyedY;
+
+    /**
+     * The nodes (as indices into @code{nodes}) in the order of the last solve.
+     */
+    private int[] order;
+
+    /**
+     * The node (as an index into @code{nodes}) that each node's edge in the @code{route} leads to.
+     */
+    private int[] successors;
+
+    /**
+     * The edge container built by the last solve.
+     */
+    private EdgeContainer route;
+
+    /**
+     * Scratch space for the nodes that are still in order during a repair.
+     */
+    private int[] inOrder;
+
+    /**
+     * Scratch space for the packed keys of the nodes that are out of order during a repair.
+     */
+    private long[] outOfOrder;
+
+    /**
+     * The positions in the @code{route} of the edges replaced by the current solve.
+     */
+    private int[] changedEdges;
+
+    /**
+     * The replacements for the edges at the positions in @code{changedEdges}.
+     */
+    private Edge[] replacementEdges;
+
     /**
      * Constructs a new @code{DynamicHilberFractalCurveSolver} object.
      * @param dgraph The @code{DynamicGraph} object this solver will be solving or manipulating.
      */
     public DynamicHilbertFractalCurveSolver(DynamicGraph dgraph) {
         setHfcs(new HilbertFractalCurveSolver());
+        hfcs.setDirectIndexing(true); // Never constructs the curve, so each solve is O(n).
         setGraph(dgraph);
     }
 
@@ -47,6 +124,7 @@ public class DynamicHilbertFractalCurveSolver implements DynamicSolver {
      */
     public DynamicHilbertFractalCurveSolver() {
         setHfcs(new HilbertFractalCurveSolver());
+        hfcs.setDirectIndexing(true); // Never constructs the curve, so each solve is O(n).
     }
 
     /**
@@ -64,7 +142,7 @@ public class DynamicHilbertFractalCurveSolver implements DynamicSolver {
             try {
                 dgraph.stop();
                 watch.start();
-                hfcs.runSolution(0);
+                solve();
                 totalTime += watch.getTimeNs(); // Also stops the watch.
                 numSolves++;
                 watch.clear();
@@ -113,7 +191,7 @@ public class DynamicHilbertFractalCurveSolver implements DynamicSolver {
             try {
                 dgraph.stop();
                 stopwatch.start();
-                hfcs.runSolution(0);
+                solve();
                 totalTime += stopwatch.getTimeNs(); // Also stops the watch.
                 stopwatch.clear(); // Ready it for use again.
                 solvesCompleted++; // Completed a solve.
@@ -127,6 +205,139 @@ public class DynamicHilbertFractalCurveSolver implements DynamicSolver {
         return new DynamicSolution(dgraph.getAverageRouteLength(), totalTime/numSolves);
     }
 
+    /**
+     * Finds a route around the graph, either by repairing the route of the last solve or by running the underlying
+     * solver from scratch.
+     * @throws EdgeToSelfException Thrown if the route visits a node twice in a row.
+     */
+    private void solve() throws EdgeToSelfException {
+        if (!incremental) {
+            hfcs.runSolution(0);
+            return;
+        }
+        List<Node> graphNodes = graph.getNodeContainer().getNodeSet();
+        // Start again if the nodes changed or something else has replaced our route.
+        if (nodes == null || nodes.length != graphNodes.size() || graph.getEdgeContainer() != route) {
+            sortAll(graphNodes);
+        } else {
+            repairOrder();
+        }
+    }
+
+    /**
+     * Calculates the curve index of every node, radix sorts the nodes by it and builds a new route.
+     * @param graphNodes The nodes of the graph.
+     * @throws EdgeToSelfException Thrown if the route visits a node twice in a row.
+     */
+    private void sortAll(List<Node> graphNodes) throws EdgeToSelfException {
+        int numNodes = graphNodes.size();
+        int indexBits = RadixSort.bitsFor(numNodes);
+        long[] packed = new long[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            packed[i] = (curveIndex(graphNodes.get(i).getCoordinate()) << indexBits) | i;
+        }
+        RadixSort.sort(packed);
+        // Number the nodes in sorted order, so node i owns edge i of a route built with fromCycle.
+        nodes = new Node[numNodes];
+        keys = new long[numNodes];
+        keyedX = new int[numNodes];
+        keyedY = new int[numNodes];
+        order = new int[numNodes];
+        successors = new int[numNodes];
+        inOrder = new int[numNodes];
+        outOfOrder = new long[numNodes];
+        changedEdges = new int[numNodes];
+        replacementEdges = new Edge[numNodes];
+        long indexMask = (1L << indexBits) - 1;
+        for (int i = 0; i < numNodes; i++) {
+            Node node = graphNodes.get((int) (packed[i] & indexMask));
+            nodes[i] = node;
+            keys[i] = packed[i] >>> indexBits;
+            keyedX[i] = node.getCoordinate().getX();
+            keyedY[i] = node.getCoordinate().getY();
+            order[i] = i;
+            successors[i] = (i + 1) % numNodes;
+        }
+        route = EdgeContainer.fromCycle(nodes);
+        graph.setEdgeContainer(route);
+    }
+
+    /**
+     * Re-indexes the nodes that have moved since the last solve and restores the order with an adaptive merge: the
+     * nodes that are now out of order are taken out, sorted on their own and merged back into the nodes that are
+     * still in order. Only the edges of the nodes whose successor has changed are replaced, so apart from O(n) scans a
+     * repair costs O(m log m) for the m nodes that moved out of order.
+     * @throws EdgeToSelfException Thrown if the route visits a node twice in a row.
+     */
+    private void repairOrder() throws EdgeToSelfException {
+        int numNodes = nodes.length;
+        for (int i = 0; i < numNodes; i++) {
+            Coordinate c = nodes[i].getCoordinate();
+            if (c.getX() != keyedX[i] || c.getY() != keyedY[i]) {
+                keyedX[i] = c.getX();
+                keyedY[i] = c.getY();
+                keys[i] = curveIndex(c);
+            }
+        }
+        // Split the order into a sorted run and the nodes that break it.
+        int indexBits = RadixSort.bitsFor(numNodes);
+        int numInOrder = 0;
+        int numOutOfOrder = 0;
+        long lastKey = Long.MIN_VALUE;
+        for (int i = 0; i < numNodes; i++) {
+            int node = order[i];
+            long key = keys[node];
+            // A node larger than the node after it is also taken out, so one node that jumped forwards along the
+            // curve doesn't force every node after it out of the sorted run.
+            if (key >= lastKey && (i == numNodes - 1 || key <= keys[order[i + 1]])) {
+                inOrder[numInOrder++] = node;
+                lastKey = key;
+            } else {
+                outOfOrder[numOutOfOrder++] = (key << indexBits) | node;
+            }
+        }
+        if (numOutOfOrder > 0) {
+            long[] displaced = Arrays.copyOf(outOfOrder, numOutOfOrder);
+            RadixSort.sort(displaced);
+            long indexMask = (1L << indexBits) - 1;
+            // Merge the two sorted runs back into the order (taking the sorted run first on ties).
+            int a = 0;
+            int b = 0;
+            for (int i = 0; i < numNodes; i++) {
+                if (b == numOutOfOrder || (a < numInOrder && keys[inOrder[a]] <= displaced[b] >>> indexBits)) {
+                    order[i] = inOrder[a++];
+                } else {
+                    order[i] = (int) (displaced[b++] & indexMask);
+                }
+            }
+        }
+        // Replace the edges of the nodes whose successor has changed.
+        int numChanged = 0;
+        for (int i = 0; i < numNodes; i++) {
+            int node = order[i];
+            int next = order[i + 1 == numNodes ? 0 : i + 1];
+            if (successors[node] != next) {
+                successors[node] = next;
+                changedEdges[numChanged] = node;
+                replacementEdges[numChanged++] = new Edge(nodes[node], nodes[next]);
+            }
+        }
+        route.patch(changedEdges, replacementEdges, numChanged);
+    }
+
+    /**
+     * Returns the index along the curve of the square of the underlying solver's grid that a coordinate lies in.
+     * Coordinates outside of the canvas are moved to its nearest edge.
+     * @param c The coordinate.
+     * @return index The index along the curve.
+     */
+    private long curveIndex(Coordinate c) {
+        int side = hfcs.getN();
+        int x = (int) Math.max(0, Math.min(side - 1, (long) c.getX() * side / Main.coordinateMaxWidth));
+        int y = (int) Math.max(0, Math.min(side - 1, (long) c.getY() * side / Main.coordinateMaxWidth));
+        return HilbertCurve.hilbertIndex(side, x, y);
+    }
+
     /**
      * Returns the value of the @code{hfcs} attribute.
      * @return hfcs The value of the @code{hfcs} attribute.
@@ -176,6 +387,7 @@ public class DynamicHilbertFractalCurveSolver implements DynamicSolver {
     public void setGraph(StaticGraph graph) {
         this.graph = graph;
         hfcs.setGraph(graph);
+        nodes = null; // The next solve sorts the new graph's nodes from scratch.
     }
 
     /**
@@ -194,6 +406,22 @@ public class DynamicHilbertFractalCurveSolver implements DynamicSolver {
         this.running = running;
     }
 
+    /**
+     * Returns the value of the @code{incremental} attribute.
+     * @return incremental The value of the @code{incremental} attribute.
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Assigns the value of the @code{incremental} attribute.
+     * @param incremental The new value to assign the @code{incremental} attribute.
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
     /**
      * Used to set halt the solver running by setting the @code{running} attribute to false.
      */
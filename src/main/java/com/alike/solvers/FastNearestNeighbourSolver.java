@@ -0,0 +1,246 @@
+package com.alike.solvers;
+
+import com.alike.graphsystem.StaticGraph;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.RepeatedFunctions;
+import com.alike.solution_helpers.KdTree;
+import com.alike.solution_helpers.TourConstructor;
+import com.alike.solvertestsuite.Fail;
+import com.alike.solvertestsuite.Solution;
+import com.alike.solvertestsuite.SolverOutput;
+import com.alike.time.Stopwatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Creates a TSP route using the nearest neighbour algorithm, finding the nearest unvisited node at each step with a
+ * @code{KdTree} rather than by checking every unvisited node as the @code{NearestNeighbourSolver} does. In
+ * multi-start mode a tour is constructed from each of several start nodes in parallel and the shortest is kept.
+ * @author alike
+ */
+public class FastNearestNeighbourSolver implements StaticSolver, TourConstructor {
+    /**
+     * The graph which we are to solve.
+     */
+    private StaticGraph graph;
+
+    /**
+     * The number of start nodes to construct a tour from (spread evenly through the graph's nodes).
+     */
+    private int numStarts = 1;
+
+    /**
+     * The executor the tours of a multi-start solve are constructed on.
+     */
+    private ExecutorService executorService;
+
+    /**
+     * Constructs a new @code{FastNearestNeighbourSolver} that constructs one tour, starting at the first node.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     */
+    public FastNearestNeighbourSolver(StaticGraph graph) {
+        this(graph, 1);
+    }
+
+    /**
+     * Constructs a new @code{FastNearestNeighbourSolver} that runs its starts on the common fork join pool.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     * @param numStarts The number of start nodes to construct a tour from.
+     */
+    public FastNearestNeighbourSolver(StaticGraph graph, int numStarts) {
+        this(graph, numStarts, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new @code{FastNearestNeighbourSolver}.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     * @param numStarts The number of start nodes to construct a tour from.
+     * @param executorService The executor to run the starts on (it is not shut down by the solver).
+     */
+    public FastNearestNeighbourSolver(StaticGraph graph, int numStarts, ExecutorService executorService) {
+        setGraph(graph);
+        setNumStarts(numStarts);
+        setExecutorService(executorService);
+    }
+
+    /**
+     * Constructs a new @code{FastNearestNeighbourSolver} without a graph, so one can be set at a later time.
+     */
+    public FastNearestNeighbourSolver() {
+        setExecutorService(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs the shortest nearest neighbour tour (over the start nodes) through the graph in the @code{graph}
+     * attribute.
+     * @param delayPerStep Unused; the tour is built in one step.
+     * @return output The results of the solution attempt.
+     */
+    @Override
+    public SolverOutput runSolution(int delayPerStep) {
+        try {
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.start();
+            NodeGeometry geometry = new NodeGeometry(graph);
+            graph.setEdgeContainer(geometry.toEdgeContainer(construct(geometry)));
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), stopwatch.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
+        }
+    }
+
+    /**
+     * Constructs a nearest neighbour tour from each start node and returns the shortest. The starts are split into one
+     * contiguous block per core, and each block keeps only its shortest tour, so at most two tours per block are alive.
+     * @param geometry The positions of the nodes.
+     * @return tour The indices of the nodes of the shortest tour, in order.
+     */
+    @Override
+    public int[] construct(NodeGeometry geometry) {
+        int numNodes = geometry.getNumNodes();
+        KdTree tree = new KdTree(geometry);
+        int starts = Math.max(1, Math.min(numStarts, numNodes));
+        if (starts == 1) {
+            int[] tour = new int[numNodes];
+            constructFrom(0, tree.copy(), tour);
+            return tour;
+        }
+        int numTasks = Math.min(starts, Runtime.getRuntime().availableProcessors());
+        List<Callable<BlockBest>> tasks = new ArrayList<>(numTasks);
+        for (int t = 0; t < numTasks; t++) {
+            int firstStart = (int) ((long) starts * t / numTasks);
+            int lastStart = (int) ((long) starts * (t + 1) / numTasks);
+            tasks.add(() -> {
+                int[] best = new int[numNodes];
+                int[] tour = new int[numNodes];
+                double bestLength = Double.POSITIVE_INFINITY;
+                for (int i = firstStart; i < lastStart; i++) {
+                    constructFrom((int) ((long) i * numNodes / starts), tree.copy(), tour);
+                    double length = geometry.tourLength(tour);
+                    if (length < bestLength) {
+                        bestLength = length;
+                        int[] swap = best;
+                        best = tour;
+                        tour = swap;
+                    }
+                }
+                return new BlockBest(best, bestLength);
+            });
+        }
+        BlockBest best = null;
+        try {
+            for (Future<BlockBest> future : executorService.invokeAll(tasks)) {
+                BlockBest blockBest = future.get();
+                if (best == null || blockBest.length < best.length) {
+                    best = blockBest;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while constructing nearest neighbour tours.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A nearest neighbour start failed.", e.getCause());
+        }
+        return best.tour;
+    }
+
+    /**
+     * Constructs a nearest neighbour tour from a start node.
+     * @param start The node the tour starts at.
+     * @param tree A tree holding every node, which is emptied as the tour visits the nodes.
+     * @param tour Filled with the indices of the nodes of the tour, in order.
+     */
+    private static void constructFrom(int start, KdTree tree, int[] tour) {
+        int current = start;
+        tree.remove(current);
+        tour[0] = current;
+        for (int i = 1; i < tour.length; i++) {
+            current = tree.nearest(current);
+            tree.remove(current);
+            tour[i] = current;
+        }
+    }
+
+    /**
+     * The shortest tour of a block of starts.
+     */
+    private static final class BlockBest {
+        /**
+         * The indices of the nodes of the tour, in order.
+         */
+        private final int[] tour;
+
+        /**
+         * The length of the tour.
+         */
+        private final double length;
+
+        /**
+         * Constructs a new @code{BlockBest}.
+         * @param tour The indices of the nodes of the tour, in order.
+         * @param length The length of the tour.
+         */
+        private BlockBest(int[] tour, double length) {
+            this.tour = tour;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Sets the @code{graph} attribute to a new value.
+     * @param graph The graph to assign the StaticSolver's @code{graph} attribute.
+     */
+    @Override
+    public void setGraph(StaticGraph graph) {
+        RepeatedFunctions.validateGraph(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
+     */
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{numStarts} attribute.
+     * @return numStarts The value of the @code{numStarts} attribute.
+     */
+    public int getNumStarts() {
+        return numStarts;
+    }
+
+    /**
+     * Sets the @code{numStarts} attribute to a new value.
+     * @param numStarts The new value to assign the @code{numStarts} attribute (at least 1).
+     */
+    public void setNumStarts(int numStarts) {
+        this.numStarts = Math.max(1, numStarts);
+    }
+
+    /**
+     * Returns the value of the @code{executorService} attribute.
+     * @return executorService The value of the @code{executorService} attribute.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Sets the @code{executorService} attribute to a new value.
+     * @param executorService The new value to assign the @code{executorService} attribute.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+}
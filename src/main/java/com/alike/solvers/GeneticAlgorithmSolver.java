@@ -0,0 +1,761 @@
+package com.alike.solvers;
+
+import com.alike.graphsystem.StaticGraph;
+import com.alike.solution_helpers.ArrayTour;
+import com.alike.solution_helpers.CandidateLists;
+import com.alike.solution_helpers.IslandSearch;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.RepeatedFunctions;
+import com.alike.solution_helpers.TourConstructor;
+import com.alike.solution_helpers.TwoOptImprover;
+import com.alike.solvertestsuite.Fail;
+import com.alike.solvertestsuite.Solution;
+import com.alike.solvertestsuite.SolverOutput;
+import com.alike.time.Stopwatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A genetic algorithm solver. A population of @code{int[]} tours evolves by generational replacement: each child is
+ * bred from two parents picked by tournament selection, with order crossover (OX) or partially mapped crossover (PMX),
+ * mutated with probability @code{mutationRate} by a random 2-opt move (reversing a random section), and (by default)
+ * improved to a 2-opt local optimum over the candidate lists, which makes the algorithm memetic and far stronger on
+ * anything but tiny graphs. The shortest tour always survives into the next generation.
+ * Children are bred and evaluated in parallel on an executor service, each task with its own random number generator
+ * and scratch arrays. The population and its offspring live in preallocated arrays that swap places each generation,
+ * so a generation allocates nothing but the local search's work queue.
+ * The first individual is built by the @code{initialConstructor} and the rest are random tours.
+ * Algorithm found: L. Davis, "Applying adaptive algorithms to epistatic domains" (1985) for OX, and D. E. Goldberg
+ * and R. Lingle, "Alleles, loci, and the traveling salesman problem" (1985) for PMX.
+ * @author alike
+ */
+public class GeneticAlgorithmSolver implements StaticSolver, TourConstructor, IslandSolver {
+    /**
+     * The crossover operators children can be bred with.
+     */
+    public enum Crossover {
+        ORDER, // OX: copy a section of the first parent, then fill the rest in the second parent's order.
+        PARTIALLY_MAPPED // PMX: copy a section of the first parent into the second, swapping out the displaced nodes.
+    }
+
+    /**
+     * The graph which we are to solve.
+     */
+    private StaticGraph graph;
+
+    /**
+     * The crossover operator used to breed children.
+     */
+    private Crossover crossover = Crossover.ORDER;
+
+    /**
+     * Constructs the first individual of the starting population.
+     */
+    private TourConstructor initialConstructor = new GreedyEdgeSolver();
+
+    /**
+     * The number of individuals in the population.
+     */
+    private int populationSize = 50;
+
+    /**
+     * The number of generations to evolve.
+     */
+    private int numGenerations = 100;
+
+    /**
+     * The number of individuals that compete in each tournament.
+     */
+    private int tournamentSize = 3;
+
+    /**
+     * The probability that a child is mutated.
+     */
+    private double mutationRate = 0.3;
+
+    /**
+     * Whether each child is improved to a 2-opt local optimum.
+     */
+    private boolean localSearch = true;
+
+    /**
+     * The number of nearest candidates each node is given for the local search.
+     */
+    private int candidateListSize = 8;
+
+    /**
+     * The seed used to give each breeding task its own random number generator (null for unseeded).
+     */
+    private Long seed = null;
+
+    /**
+     * The executor service children are bred on.
+     */
+    private ExecutorService executorService;
+
+    /**
+     * Constructs a new @code{GeneticAlgorithmSolver} that runs on the common fork/join pool.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     */
+    public GeneticAlgorithmSolver(StaticGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new @code{GeneticAlgorithmSolver}.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     * @param executorService The executor service children are bred on.
+     */
+    public GeneticAlgorithmSolver(StaticGraph graph, ExecutorService executorService) {
+        setGraph(graph);
+        setExecutorService(executorService);
+    }
+
+    /**
+     * Constructs a new @code{GeneticAlgorithmSolver} that runs on the common fork/join pool, for use as a
+     * @code{TourConstructor}.
+     */
+    public GeneticAlgorithmSolver() {
+        setExecutorService(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Evolves a tour through the graph in the @code{graph} attribute.
+     * @param delayPerStep Unused; the tour is only displayed once it is finished.
+     * @return output The results of the solution attempt.
+     */
+    @Override
+    public SolverOutput runSolution(int delayPerStep) {
+        try {
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.start();
+            NodeGeometry geometry = new NodeGeometry(graph);
+            graph.setEdgeContainer(geometry.toEdgeContainer(construct(geometry)));
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), stopwatch.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
+        }
+    }
+
+    /**
+     * Evolves a tour through the nodes of a geometry.
+     * @param geometry The positions of the nodes.
+     * @return tour The indices of the nodes of the shortest tour found, in order.
+     */
+    @Override
+    public int[] construct(NodeGeometry geometry) {
+        SplittableRandom seeds = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+        int numTasks = Math.min(populationSize - 1, 4 * Runtime.getRuntime().availableProcessors());
+        Evolution evolution = new Evolution(geometry, seeds, numTasks);
+        evolution.run(numGenerations);
+        return evolution.getBestTour();
+    }
+
+    /**
+     * Creates an island that evolves its own population on a single thread. A tour that immigrates replaces the
+     * longest individual if it is shorter.
+     * @param geometry The positions of the nodes.
+     * @param seed The seed of the island's random number generator.
+     * @return island The new island.
+     */
+    @Override
+    public IslandSearch createIsland(NodeGeometry geometry, long seed) {
+        return new Evolution(geometry, new SplittableRandom(seed), 1);
+    }
+
+    /**
+     * One run of the genetic algorithm: the population, the preallocated offspring buffers and the breeders.
+     */
+    private final class Evolution implements IslandSearch {
+        /**
+         * The positions of the nodes.
+         */
+        private final NodeGeometry geometry;
+
+        /**
+         * The tours of the population (null if there are too few nodes or individuals to evolve).
+         */
+        private final int[][] population;
+
+        /**
+         * The buffers the offspring are bred into.
+         */
+        private final int[][] offspring;
+
+        /**
+         * The length of each tour of the population.
+         */
+        private final double[] lengths;
+
+        /**
+         * The length of each tour of the offspring.
+         */
+        private final double[] offspringLengths;
+
+        /**
+         * The breeders, one per task.
+         */
+        private final List<Breeder> breeders;
+
+        /**
+         * The index of the shortest tour of the population.
+         */
+        private int best = 0;
+
+        /**
+         * Constructs a new @code{Evolution} whose first individual is built by the @code{initialConstructor} and
+         * whose others are random tours (each improved by local search if it is on).
+         * @param geometry The positions of the nodes.
+         * @param seeds The generator the seeds of the breeders are drawn from.
+         * @param numTasks The number of tasks each generation is split into (1 to run on the caller only).
+         */
+        private Evolution(NodeGeometry geometry, SplittableRandom seeds, int numTasks) {
+            int numNodes = geometry.getNumNodes();
+            this.geometry = geometry;
+            int[] start = initialConstructor.construct(geometry);
+            boolean evolves = numNodes >= 4 && populationSize >= 2; // Any tour through 3 or fewer nodes is optimal.
+            int size = evolves ? populationSize : 1;
+            this.population = new int[size][];
+            this.offspring = new int[size][];
+            this.lengths = new double[size];
+            this.offspringLengths = new double[size];
+            this.breeders = new ArrayList<>(numTasks);
+            population[0] = start;
+            lengths[0] = geometry.tourLength(start);
+            if (!evolves) {
+                return;
+            }
+            CandidateLists candidateLists = localSearch
+                    ? CandidateLists.fromGeometry(geometry, Math.min(candidateListSize, numNodes - 1)) : null;
+            for (int i = 0; i < size; i++) {
+                population[i] = i == 0 ? start : new int[numNodes];
+                offspring[i] = new int[numNodes];
+            }
+            for (int t = 0; t < numTasks; t++) {
+                breeders.add(new Breeder(geometry, candidateLists, seeds.nextLong()));
+            }
+            runInParallel(breeders, (breeder, i) -> {
+                int[] individual = population[i];
+                for (int x = 0; x < numNodes; x++) {
+                    individual[x] = x;
+                }
+                for (int x = numNodes - 1; x > 0; x--) { // Fisher-Yates shuffle.
+                    int y = breeder.random.nextInt(x + 1);
+                    int swap = individual[x];
+                    individual[x] = individual[y];
+                    individual[y] = swap;
+                }
+                breeder.improve(individual);
+                lengths[i] = geometry.tourLength(individual);
+            });
+            best = indexOfShortest(lengths);
+        }
+
+        /**
+         * Evolves the population for a number of generations.
+         * @param numIterations The number of generations.
+         */
+        @Override
+        public void run(int numIterations) {
+            if (breeders.isEmpty()) {
+                return;
+            }
+            int numNodes = geometry.getNumNodes();
+            for (int generation = 0; generation < numIterations; generation++) {
+                runInParallel(breeders, (breeder, i) -> {
+                    breeder.breed(population, lengths, offspring[i]);
+                    offspringLengths[i] = geometry.tourLength(offspring[i]);
+                });
+                System.arraycopy(population[best], 0, offspring[0], 0, numNodes); // Elitism.
+                offspringLengths[0] = lengths[best];
+                for (int i = 0; i < population.length; i++) { // The offspring become the population.
+                    int[] swap = population[i];
+                    population[i] = offspring[i];
+                    offspring[i] = swap;
+                    lengths[i] = offspringLengths[i];
+                }
+                best = indexOfShortest(lengths);
+            }
+        }
+
+        /**
+         * Returns the shortest tour of the population.
+         * @return tour The indices of the nodes of the tour, in order.
+         */
+        @Override
+        public int[] getBestTour() {
+            return population[best].clone();
+        }
+
+        /**
+         * Returns the length of the shortest tour of the population.
+         * @return length The length of the tour.
+         */
+        @Override
+        public double getBestLength() {
+            return lengths[best];
+        }
+
+        /**
+         * Replaces the longest individual with a tour from another island if the tour is shorter.
+         * @param tour The indices of the nodes of the tour, in order.
+         * @param length The length of the tour.
+         */
+        @Override
+        public void immigrate(int[] tour, double length) {
+            int worst = 0;
+            for (int i = 1; i < lengths.length; i++) {
+                if (lengths[i] > lengths[worst]) {
+                    worst = i;
+                }
+            }
+            if (length < lengths[worst]) {
+                System.arraycopy(tour, 0, population[worst], 0, tour.length);
+                lengths[worst] = length;
+                if (length < lengths[best]) {
+                    best = worst;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a job for each individual from 1 to @code{populationSize} - 1 (0 is kept for the elite), split into one
+     * contiguous range per breeder, and waits for them all. A single breeder runs on the calling thread.
+     * @param breeders The breeders, one per task.
+     * @param job The job to run for each individual.
+     */
+    private void runInParallel(List<Breeder> breeders, BreederJob job) {
+        int numItems = populationSize - 1;
+        if (breeders.size() == 1) {
+            for (int i = 1; i <= numItems; i++) {
+                job.run(breeders.get(0), i);
+            }
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(breeders.size());
+        for (int t = 0; t < breeders.size(); t++) {
+            Breeder breeder = breeders.get(t);
+            int from = 1 + (int) ((long) t * numItems / breeders.size());
+            int to = 1 + (int) ((long) (t + 1) * numItems / breeders.size());
+            tasks.add(() -> {
+                for (int i = from; i < to; i++) {
+                    job.run(breeder, i);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executorService.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while breeding.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A breeding task failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the index of the smallest value in an array.
+     * @param values The values.
+     * @return index The index of the (first) smallest value.
+     */
+    private static int indexOfShortest(double[] values) {
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] < values[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A job run for one individual by a breeder.
+     */
+    private interface BreederJob {
+        /**
+         * Runs the job.
+         * @param breeder The breeder running it.
+         * @param index The index of the individual.
+         */
+        void run(Breeder breeder, int index);
+    }
+
+    /**
+     * Breeds children on one thread with its own random number generator and preallocated scratch arrays.
+     */
+    private final class Breeder {
+        /**
+         * The positions of the nodes.
+         */
+        private final NodeGeometry geometry;
+
+        /**
+         * The nearest candidates of each node (null if local search is off).
+         */
+        private final CandidateLists candidateLists;
+
+        /**
+         * The breeder's random number generator.
+         */
+        private final SplittableRandom random;
+
+        /**
+         * The stamp of the last child each node was copied into, for order crossover.
+         */
+        private final int[] copied;
+
+        /**
+         * The current stamp; a node is copied if its entry in @code{copied} equals it.
+         */
+        private int stamp = 0;
+
+        /**
+         * The position of each node in the child, for partially mapped crossover.
+         */
+        private final int[] position;
+
+        /**
+         * The tour the local search works on (null if local search is off).
+         */
+        private final ArrayTour tour;
+
+        /**
+         * The local search.
+         */
+        private final TwoOptImprover twoOpt = new TwoOptImprover();
+
+        /**
+         * Constructs a new @code{Breeder}.
+         * @param geometry The positions of the nodes.
+         * @param candidateLists The nearest candidates of each node (null if local search is off).
+         * @param seed The seed of the breeder's random number generator.
+         */
+        private Breeder(NodeGeometry geometry, CandidateLists candidateLists, long seed) {
+            int numNodes = geometry.getNumNodes();
+            this.geometry = geometry;
+            this.candidateLists = candidateLists;
+            this.random = new SplittableRandom(seed);
+            this.copied = new int[numNodes];
+            this.position = new int[numNodes];
+            int[] identity = new int[numNodes];
+            for (int i = 0; i < numNodes; i++) {
+                identity[i] = i;
+            }
+            this.tour = candidateLists == null ? null : new ArrayTour(identity);
+        }
+
+        /**
+         * Breeds a child from two parents chosen by tournament: crossover, then mutation, then local search.
+         * @param parents The population.
+         * @param lengths The length of each individual of the population.
+         * @param child The array to write the child into.
+         */
+        private void breed(int[][] parents, double[] lengths, int[] child) {
+            int[] first = parents[tournament(lengths)];
+            int[] second = parents[tournament(lengths)];
+            int numNodes = child.length;
+            int from = random.nextInt(numNodes);
+            int to = random.nextInt(numNodes);
+            if (from > to) {
+                int swap = from;
+                from = to;
+                to = swap;
+            }
+            if (crossover == Crossover.ORDER) {
+                orderCrossover(first, second, from, to, child);
+            } else {
+                partiallyMappedCrossover(first, second, from, to, child);
+            }
+            if (random.nextDouble() < mutationRate) {
+                int i = random.nextInt(numNodes);
+                int j = random.nextInt(numNodes);
+                reverse(child, Math.min(i, j), Math.max(i, j));
+            }
+            improve(child);
+        }
+
+        /**
+         * Returns the index of the shortest of @code{tournamentSize} individuals picked at random.
+         * @param lengths The length of each individual of the population.
+         * @return winner The index of the winner.
+         */
+        private int tournament(double[] lengths) {
+            int winner = random.nextInt(lengths.length);
+            for (int i = 1; i < tournamentSize; i++) {
+                int challenger = random.nextInt(lengths.length);
+                if (lengths[challenger] < lengths[winner]) {
+                    winner = challenger;
+                }
+            }
+            return winner;
+        }
+
+        /**
+         * Order crossover: the child takes the first parent's section from..to in place, and the other nodes in the
+         * order they appear in the second parent, starting after the section.
+         * @param first The first parent.
+         * @param second The second parent.
+         * @param from The first position of the section.
+         * @param to The last position of the section.
+         * @param child The array to write the child into.
+         */
+        private void orderCrossover(int[] first, int[] second, int from, int to, int[] child) {
+            int numNodes = child.length;
+            stamp++;
+            for (int i = from; i <= to; i++) {
+                child[i] = first[i];
+                copied[first[i]] = stamp;
+            }
+            int write = to + 1 == numNodes ? 0 : to + 1;
+            for (int read = to + 1, count = 0; count < numNodes; read++, count++) {
+                int node = second[read >= numNodes ? read - numNodes : read];
+                if (copied[node] != stamp) {
+                    child[write] = node;
+                    write = write + 1 == numNodes ? 0 : write + 1;
+                }
+            }
+        }
+
+        /**
+         * Partially mapped crossover: the child starts as a copy of the second parent, then each node of the first
+         * parent's section from..to is swapped into its position in the child.
+         * @param first The first parent.
+         * @param second The second parent.
+         * @param from The first position of the section.
+         * @param to The last position of the section.
+         * @param child The array to write the child into.
+         */
+        private void partiallyMappedCrossover(int[] first, int[] second, int from, int to, int[] child) {
+            System.arraycopy(second, 0, child, 0, child.length);
+            for (int i = 0; i < child.length; i++) {
+                position[child[i]] = i;
+            }
+            for (int i = from; i <= to; i++) {
+                int node = first[i];
+                int j = position[node];
+                int displaced = child[i];
+                child[i] = node;
+                child[j] = displaced;
+                position[node] = i;
+                position[displaced] = j;
+            }
+        }
+
+        /**
+         * Improves a tour in place to a 2-opt local optimum, if local search is on.
+         * @param individual The tour to improve.
+         */
+        private void improve(int[] individual) {
+            if (tour != null) {
+                tour.load(individual);
+                twoOpt.improve(tour, geometry, candidateLists);
+                tour.copyInto(individual);
+            }
+        }
+    }
+
+    /**
+     * Reverses the section i..j of a tour (a 2-opt move).
+     * @param tour The tour.
+     * @param i The first position of the section.
+     * @param j The last position of the section.
+     */
+    private static void reverse(int[] tour, int i, int j) {
+        while (i < j) {
+            int swap = tour[i];
+            tour[i++] = tour[j];
+            tour[j--] = swap;
+        }
+    }
+
+    /**
+     * Sets the @code{graph} attribute to a new value.
+     * @param graph The graph to assign the StaticSolver's @code{graph} attribute.
+     */
+    @Override
+    public void setGraph(StaticGraph graph) {
+        RepeatedFunctions.validateGraph(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
+     */
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{crossover} attribute.
+     * @return crossover The value of the @code{crossover} attribute.
+     */
+    public Crossover getCrossover() {
+        return crossover;
+    }
+
+    /**
+     * Sets the @code{crossover} attribute to a new value.
+     * @param crossover The new value to assign the @code{crossover} attribute.
+     */
+    public void setCrossover(Crossover crossover) {
+        this.crossover = crossover;
+    }
+
+    /**
+     * Returns the value of the @code{initialConstructor} attribute.
+     * @return initialConstructor The value of the @code{initialConstructor} attribute.
+     */
+    public TourConstructor getInitialConstructor() {
+        return initialConstructor;
+    }
+
+    /**
+     * Sets the @code{initialConstructor} attribute to a new value.
+     * @param initialConstructor The new value to assign the @code{initialConstructor} attribute.
+     */
+    public void setInitialConstructor(TourConstructor initialConstructor) {
+        this.initialConstructor = initialConstructor;
+    }
+
+    /**
+     * Returns the value of the @code{populationSize} attribute.
+     * @return populationSize The value of the @code{populationSize} attribute.
+     */
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    /**
+     * Sets the @code{populationSize} attribute to a new value.
+     * @param populationSize The new value to assign the @code{populationSize} attribute (at least 1).
+     */
+    public void setPopulationSize(int populationSize) {
+        this.populationSize = Math.max(1, populationSize);
+    }
+
+    /**
+     * Returns the value of the @code{numGenerations} attribute.
+     * @return numGenerations The value of the @code{numGenerations} attribute.
+     */
+    public int getNumGenerations() {
+        return numGenerations;
+    }
+
+    /**
+     * Sets the @code{numGenerations} attribute to a new value.
+     * @param numGenerations The new value to assign the @code{numGenerations} attribute (at least 0).
+     */
+    public void setNumGenerations(int numGenerations) {
+        this.numGenerations = Math.max(0, numGenerations);
+    }
+
+    /**
+     * Returns the value of the @code{tournamentSize} attribute.
+     * @return tournamentSize The value of the @code{tournamentSize} attribute.
+     */
+    public int getTournamentSize() {
+        return tournamentSize;
+    }
+
+    /**
+     * Sets the @code{tournamentSize} attribute to a new value.
+     * @param tournamentSize The new value to assign the @code{tournamentSize} attribute (at least 1).
+     */
+    public void setTournamentSize(int tournamentSize) {
+        this.tournamentSize = Math.max(1, tournamentSize);
+    }
+
+    /**
+     * Returns the value of the @code{mutationRate} attribute.
+     * @return mutationRate The value of the @code{mutationRate} attribute.
+     */
+    public double getMutationRate() {
+        return mutationRate;
+    }
+
+    /**
+     * Sets the @code{mutationRate} attribute to a new value.
+     * @param mutationRate The new value to assign the @code{mutationRate} attribute (a probability).
+     */
+    public void setMutationRate(double mutationRate) {
+        this.mutationRate = mutationRate;
+    }
+
+    /**
+     * Returns the value of the @code{localSearch} attribute.
+     * @return localSearch The value of the @code{localSearch} attribute.
+     */
+    public boolean isLocalSearch() {
+        return localSearch;
+    }
+
+    /**
+     * Sets the @code{localSearch} attribute to a new value.
+     * @param localSearch The new value to assign the @code{localSearch} attribute.
+     */
+    public void setLocalSearch(boolean localSearch) {
+        this.localSearch = localSearch;
+    }
+
+    /**
+     * Returns the value of the @code{candidateListSize} attribute.
+     * @return candidateListSize The value of the @code{candidateListSize} attribute.
+     */
+    public int getCandidateListSize() {
+        return candidateListSize;
+    }
+
+    /**
+     * Sets the @code{candidateListSize} attribute to a new value.
+     * @param candidateListSize The new value to assign the @code{candidateListSize} attribute (at least 1).
+     */
+    public void setCandidateListSize(int candidateListSize) {
+        this.candidateListSize = Math.max(1, candidateListSize);
+    }
+
+    /**
+     * Returns the value of the @code{seed} attribute.
+     * @return seed The value of the @code{seed} attribute.
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the @code{seed} attribute to a new value.
+     * @param seed The new value to assign the @code{seed} attribute (null for unseeded runs).
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the value of the @code{executorService} attribute.
+     * @return executorService The value of the @code{executorService} attribute.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Sets the @code{executorService} attribute to a new value.
+     * @param executorService The new value to assign the @code{executorService} attribute.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+}
@@ -0,0 +1,255 @@
+package com.alike.solvers;
+
+import com.alike.graphsystem.StaticGraph;
+import com.alike.solution_helpers.CandidateLists;
+import com.alike.solution_helpers.KdTree;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.RadixSort;
+import com.alike.solution_helpers.RepeatedFunctions;
+import com.alike.solution_helpers.TourConstructor;
+import com.alike.solution_helpers.UnionFind;
+import com.alike.solvertestsuite.Fail;
+import com.alike.solvertestsuite.Solution;
+import com.alike.solvertestsuite.SolverOutput;
+import com.alike.time.Stopwatch;
+
+import java.util.Arrays;
+
+/**
+ * Creates a TSP route using the greedy edge heuristic: edges are considered from shortest to longest and an edge is
+ * added to the route whenever neither of its nodes already has two edges and it would not close a cycle (checked with
+ * a @code{UnionFind}). Only the edges between each node and its nearest candidates are considered, rather than all
+ * n^2 edges, which leaves the route as a set of paths (fragments); these are then joined into a tour by repeatedly
+ * joining the end of the current fragment to the nearest end of another fragment.
+ * Greedy tours are usually 15-20% shorter than nearest neighbour tours and make a better start for local search.
+ * @author alike
+ */
+public class GreedyEdgeSolver implements StaticSolver, TourConstructor {
+    /**
+     * The graph which we are to solve.
+     */
+    private StaticGraph graph;
+
+    /**
+     * The number of nearest candidates whose edges are considered for each node.
+     */
+    private int candidateListSize = 10;
+
+    /**
+     * Constructs a new @code{GreedyEdgeSolver}.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     */
+    public GreedyEdgeSolver(StaticGraph graph) {
+        setGraph(graph);
+    }
+
+    /**
+     * Constructs a new @code{GreedyEdgeSolver} without a graph, so one can be set at a later time.
+     */
+    public GreedyEdgeSolver() {}
+
+    /**
+     * Constructs a greedy tour through the graph in the @code{graph} attribute.
+     * @param delayPerStep Unused; the tour is built in one step.
+     * @return output The results of the solution attempt.
+     */
+    @Override
+    public SolverOutput runSolution(int delayPerStep) {
+        try {
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.start();
+            NodeGeometry geometry = new NodeGeometry(graph);
+            graph.setEdgeContainer(geometry.toEdgeContainer(construct(geometry)));
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), stopwatch.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
+        }
+    }
+
+    /**
+     * Constructs a greedy tour through the nodes of a geometry.
+     * @param geometry The positions of the nodes.
+     * @return tour The indices of the nodes of the tour, in order.
+     */
+    @Override
+    public int[] construct(NodeGeometry geometry) {
+        int numNodes = geometry.getNumNodes();
+        // links[2x] and links[2x + 1] are the nodes x is joined to; degrees[x] says how many are in use.
+        int[] links = new int[2 * numNodes];
+        int[] degrees = new int[numNodes];
+        addGreedyEdges(geometry, links, degrees);
+        joinFragments(geometry, links, degrees);
+        // Walk the cycle from node 0.
+        int[] tour = new int[numNodes];
+        int previous = -1;
+        int current = 0;
+        for (int i = 0; i < numNodes; i++) {
+            tour[i] = current;
+            int next = links[2 * current] != previous ? links[2 * current] : links[2 * current + 1];
+            previous = current;
+            current = next;
+        }
+        return tour;
+    }
+
+    /**
+     * Adds the candidate edges to the route from shortest to longest, skipping any that would give a node a third
+     * edge or close a cycle.
+     * @param geometry The positions of the nodes.
+     * @param links The nodes each node is joined to.
+     * @param degrees The number of nodes each node is joined to.
+     */
+    private void addGreedyEdges(NodeGeometry geometry, int[] links, int[] degrees) {
+        int numNodes = geometry.getNumNodes();
+        CandidateLists candidateLists = CandidateLists.fromGeometry(geometry, candidateListSize);
+        int k = candidateLists.getK();
+        int[] candidates = candidateLists.getCandidates();
+        // Each edge is stored as the position of its (x, candidate) entry, once for each pair of nodes.
+        int[] edges = new int[numNodes * k];
+        long[] lengths = new long[numNodes * k];
+        int numEdges = 0;
+        for (int x = 0; x < numNodes; x++) {
+            for (int i = x * k; i < x * k + k; i++) {
+                int y = candidates[i];
+                if (y < x && isCandidate(candidates, k, y, x)) {
+                    continue; // Already added from y's list.
+                }
+                edges[numEdges] = i;
+                // Non-negative doubles are ordered the same as their bits, so the lengths can be radix sorted.
+                lengths[numEdges++] = Double.doubleToLongBits(geometry.distance(x, y));
+            }
+        }
+        long[] sortedLengths = Arrays.copyOf(lengths, numEdges);
+        int[] sortedEdges = Arrays.copyOf(edges, numEdges);
+        RadixSort.sort(sortedLengths, sortedEdges);
+        UnionFind fragments = new UnionFind(numNodes);
+        int numAdded = 0;
+        for (int e = 0; e < numEdges && numAdded < numNodes - 1; e++) {
+            int x = sortedEdges[e] / k;
+            int y = candidates[sortedEdges[e]];
+            if (degrees[x] < 2 && degrees[y] < 2 && fragments.union(x, y)) {
+                link(x, y, links, degrees);
+                numAdded++;
+            }
+        }
+    }
+
+    /**
+     * Joins the fragments left by the greedy edges into a tour. Starting from one end of a fragment, the other end of
+     * the fragment is joined to the nearest end of a fragment not yet in the tour, until every fragment is joined.
+     * @param geometry The positions of the nodes.
+     * @param links The nodes each node is joined to.
+     * @param degrees The number of nodes each node is joined to.
+     */
+    private static void joinFragments(NodeGeometry geometry, int[] links, int[] degrees) {
+        int numNodes = geometry.getNumNodes();
+        // A tree holding only the ends of the fragments (nodes with fewer than two edges).
+        KdTree ends = new KdTree(geometry);
+        int start = -1;
+        for (int x = 0; x < numNodes; x++) {
+            if (degrees[x] == 2) {
+                ends.remove(x);
+            } else if (start == -1) {
+                start = x;
+            }
+        }
+        ends.remove(start);
+        int end = otherEnd(start, links, degrees);
+        ends.remove(end);
+        int next;
+        while ((next = ends.nearest(end)) != -1) {
+            ends.remove(next);
+            int nextEnd = otherEnd(next, links, degrees); // Found before joining, while next is still an end.
+            ends.remove(nextEnd);
+            link(end, next, links, degrees);
+            end = nextEnd;
+        }
+        link(end, start, links, degrees); // Close the tour.
+    }
+
+    /**
+     * Returns the node at the other end of the fragment that a node is one end of.
+     * @param end An end of a fragment.
+     * @param links The nodes each node is joined to.
+     * @param degrees The number of nodes each node is joined to.
+     * @return otherEnd The other end of the fragment (the node itself if it has no edges).
+     */
+    private static int otherEnd(int end, int[] links, int[] degrees) {
+        if (degrees[end] == 0) {
+            return end;
+        }
+        int previous = end;
+        int current = links[2 * end];
+        while (degrees[current] == 2) {
+            int next = links[2 * current] != previous ? links[2 * current] : links[2 * current + 1];
+            previous = current;
+            current = next;
+        }
+        return current;
+    }
+
+    /**
+     * Joins two nodes with an edge.
+     * @param x The first node.
+     * @param y The second node.
+     * @param links The nodes each node is joined to.
+     * @param degrees The number of nodes each node is joined to.
+     */
+    private static void link(int x, int y, int[] links, int[] degrees) {
+        links[2 * x + degrees[x]++] = y;
+        links[2 * y + degrees[y]++] = x;
+    }
+
+    /**
+     * Returns whether a node is one of the candidates of another node.
+     * @param candidates The flat array of candidates.
+     * @param k The number of candidates of each node.
+     * @param node The node whose candidates are checked.
+     * @param candidate The node to look for.
+     * @return isCandidate True if @code{candidate} is a candidate of @code{node}.
+     */
+    private static boolean isCandidate(int[] candidates, int k, int node, int candidate) {
+        for (int i = node * k; i < node * k + k; i++) {
+            if (candidates[i] == candidate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the @code{graph} attribute to a new value.
+     * @param graph The graph to assign the StaticSolver's @code{graph} attribute.
+     */
+    @Override
+    public void setGraph(StaticGraph graph) {
+        RepeatedFunctions.validateGraph(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
+     */
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{candidateListSize} attribute.
+     * @return candidateListSize The value of the @code{candidateListSize} attribute.
+     */
+    public int getCandidateListSize() {
+        return candidateListSize;
+    }
+
+    /**
+     * Sets the @code{candidateListSize} attribute to a new value.
+     * @param candidateListSize The new value to assign the @code{candidateListSize} attribute (at least 1).
+     */
+    public void setCandidateListSize(int candidateListSize) {
+        this.candidateListSize = Math.max(1, candidateListSize);
+    }
+}
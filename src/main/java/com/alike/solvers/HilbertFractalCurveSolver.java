@@ -2,6 +2,8 @@ package com.alike.solvers;
 
 import com.alike.Main;
 import com.alike.customexceptions.*;
+import com.alike.solution_helpers.HilbertCurve;
+import com.alike.solution_helpers.RadixSort;
 import com.alike.solution_helpers.RepeatedFunctions;
 import com.alike.solvertestsuite.Fail;
 import com.alike.solvertestsuite.Solution;
@@ -10,11 +12,14 @@ import com.alike.graphsystem.*;
 import com.alike.time.Stopwatch;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static com.alike.solution_helpers.RepeatedFunctions.isPowerOfTwo;
 
 /**
  * Class constructs a pseudo hilbert fractal curve and then overlays the curve onto a TSP to find an order of traversal.
+ * In direct indexing mode the curve is never constructed: each node's index along the curve is calculated from its
+ * coordinates and the nodes are radix sorted by that index, which is O(n) rather than O(4^order * n).
  * @author alike
  */
 public class HilbertFractalCurveSolver implements StaticSolver {
@@ -43,6 +48,12 @@ public class HilbertFractalCurveSolver implements StaticSolver {
      */
     private Coordinate[] curveCoordinates; // Don't initialise yet, as its usually very large.
 
+    /**
+     * Whether nodes are ordered by calculating their index along the curve directly (true) or by walking the curve's
+     * coordinates (false).
+     */
+    private boolean directIndexing = false;
+
     /**
      * The object in charge of recording time in this class.
      */
@@ -66,9 +77,7 @@ public class HilbertFractalCurveSolver implements StaticSolver {
         validateCoordinateSpaceIsSquareOfSideLenPowerOf2();
         // Set our graph
         setGraph(graph);
-        // Construct the curve.
-        setValues();
-        constructHilbertCurve(false);
+        setValues(); // The curve itself is only constructed once it is needed.
     }
 
     /**
@@ -78,7 +87,6 @@ public class HilbertFractalCurveSolver implements StaticSolver {
     public HilbertFractalCurveSolver() {
         validateCoordinateSpaceIsSquareOfSideLenPowerOf2();
         setValues();
-        constructHilbertCurve(false);
     }
 
     /**
@@ -122,6 +130,10 @@ public class HilbertFractalCurveSolver implements StaticSolver {
     public void constructRoute(int delayPerStep) throws NodeMissedException, HilbertCurveUnconstructedException {
         try {
             ArrayList<Node> nodesOrdered = getNodesOrdered();
+            if (delayPerStep <= 0) { // Nothing to watch, so build the whole container at once.
+                graph.setEdgeContainer(EdgeContainer.fromCycle(nodesOrdered.toArray(new Node[0])));
+                return;
+            }
             graph.getEdgeContainer().clear();
             for (int i = 0; i < nodesOrdered.size(); i++) {
                 // Create the edge and add it
@@ -140,8 +152,13 @@ public class HilbertFractalCurveSolver implements StaticSolver {
      * @throws HilbertCurveUnconstructedException Thrown if the curve has not yet been constructed.
      */
     public ArrayList<Node> getNodesOrdered() throws NodeMissedException, HilbertCurveUnconstructedException {
-
-        if (curveCoordinates == null || curveCoordinates.length == 0) {
+        if (directIndexing) {
+            return getNodesOrderedDirectly();
+        }
+        if (curveCoordinates == null) {
+            constructHilbertCurve(false);
+        }
+        if (curveCoordinates.length == 0) {
             throw new HilbertCurveUnconstructedException("No curve constructed.");
         }
         // Find which nodes we want and put them in order according to the graph.
@@ -172,6 +189,43 @@ public class HilbertFractalCurveSolver implements StaticSolver {
         return nodesInOrder;
     }
 
+    /**
+     * Returns the nodes in the order the hilbert curve visits them by calculating each node's index along the curve and
+     * radix sorting the nodes by it. Unlike walking the curve, nodes that share a coordinate are all kept.
+     * @return nodesOrdered A list containing the nodes in the order the hilbert curve hits them.
+     * @throws NodeMissedException Thrown if a node lies outside of the area covered by the curve.
+     */
+    private ArrayList<Node> getNodesOrderedDirectly() throws NodeMissedException {
+        List<Node> nodes = graph.getNodeContainer().getNodeSet();
+        int numNodes = nodes.size();
+        int indexBits = RadixSort.bitsFor(numNodes);
+        long[] keys = new long[numNodes];
+        StringBuilder missed = new StringBuilder();
+        for (int i = 0; i < numNodes; i++) {
+            Coordinate c = nodes.get(i).getCoordinate();
+            // Find the square of the curve the node is in.
+            int x = (int) ((long) c.getX() * N / Main.coordinateMaxWidth);
+            int y = (int) ((long) c.getY() * N / Main.coordinateMaxWidth);
+            if (c.getX() < 0 || c.getY() < 0 || x >= N || y >= N) {
+                missed.append(nodes.get(i).toString()).append(", ");
+                continue;
+            }
+            // The curve index in the high bits and the node's index in the low bits.
+            keys[i] = (HilbertCurve.hilbertIndex(N, x, y) << indexBits) | i;
+        }
+        if (missed.length() > 0) {
+            missed.delete(missed.length() - 2, missed.length()); // Remove the last comma
+            throw new NodeMissedException("Node(s) missed: " + missed);
+        }
+        RadixSort.sort(keys);
+        ArrayList<Node> nodesInOrder = new ArrayList<>(numNodes);
+        long indexMask = (1L << indexBits) - 1;
+        for (long key : keys) {
+            nodesInOrder.add(nodes.get((int) (key & indexMask)));
+        }
+        return nodesInOrder;
+    }
+
     /**
      * Used to return the coordinates of an index i on the curve.
      * Algorithm found: http://blog.marcinchwedczuk.pl/iterative-algorithm-for-drawing-hilbert-curve
@@ -221,6 +275,9 @@ public class HilbertFractalCurveSolver implements StaticSolver {
      * @return curveCornerCoordinates The value of the @code{curveCornerCoordinates} attribute.
      */
     public Coordinate[] getCornerCoordinates() {
+        if (curveCoordinates == null) {
+            constructHilbertCurve(false);
+        }
         return curveCoordinates;
     }
 
@@ -259,6 +316,22 @@ public class HilbertFractalCurveSolver implements StaticSolver {
         }
     }
 
+    /**
+     * Returns the value of the @code{directIndexing} attribute.
+     * @return directIndexing The value of the @code{directIndexing} attribute.
+     */
+    public boolean isDirectIndexing() {
+        return directIndexing;
+    }
+
+    /**
+     * Sets the @code{directIndexing} attribute to a new value.
+     * @param directIndexing The new value to assign the @code{directIndexing} attribute.
+     */
+    public void setDirectIndexing(boolean directIndexing) {
+        this.directIndexing = directIndexing;
+    }
+
     /**
      * Returns the value of the @code{order} attribute.
      * @return order The value of the @code{order} attribute.
@@ -0,0 +1,560 @@
+package com.alike.solvers;
+
+import com.alike.graphsystem.StaticGraph;
+import com.alike.solution_helpers.IndexedMinHeap;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.RadixSort;
+import com.alike.solution_helpers.RepeatedFunctions;
+import com.alike.solution_helpers.TourConstructor;
+import com.alike.solvertestsuite.Fail;
+import com.alike.solvertestsuite.Solution;
+import com.alike.solvertestsuite.SolverOutput;
+import com.alike.time.Stopwatch;
+
+import java.util.Random;
+
+/**
+ * Creates a TSP route with an insertion heuristic: the tour starts as the convex hull of the nodes (which every
+ * optimal tour visits in hull order) and the remaining nodes are inserted one at a time into the tour edge where they
+ * add the least length. The @code{rule} decides which node is inserted next:
+ * cheapest insertion inserts the node that adds the least length, using an @code{IndexedMinHeap} of each node's best
+ * insertion cost and a short list of each node's cheapest insertion edges, so that when the edge a node was going to
+ * be inserted into is gone its next best edge is usually already known;
+ * farthest insertion inserts the node furthest from the tour, which roughs out the shape of the tour early; random
+ * insertion inserts the nodes in a random order.
+ * Farthest and random insertion run in O(n^2) time. Cheapest insertion runs in O(n^2 log n): each insertion offers
+ * its two new edges to every node and updates the heap. On top of that, a node needs an O(n) search of the whole tour
+ * only once the edges on its list are gone or can no longer be trusted, which takes @code{RUNNER_UP_EDGES}
+ * insertions into those very edges, so such searches are rare (about one per node in all). Keeping every edge of
+ * every node would rule them out entirely but would need O(n^2) space, so this is a deliberate trade: in the
+ * (contrived) worst case the searches could still add up to O(n^3).
+ * Every rule uses O(n) space (no distance matrix).
+ * @author alike
+ */
+public class InsertionSolver implements StaticSolver, TourConstructor {
+    /**
+     * The ways in which the next node to insert can be chosen.
+     */
+    public enum InsertionRule {
+        CHEAPEST, // The node whose insertion adds the least length.
+        FARTHEST, // The node furthest from any node already in the tour.
+        RANDOM // The nodes in a random order.
+    }
+
+    /**
+     * The number of cheapest insertion edges cheapest insertion keeps for each node.
+     */
+    private static final int RUNNER_UP_EDGES = 4;
+
+    /**
+     * The graph which we are to solve.
+     */
+    private StaticGraph graph;
+
+    /**
+     * The rule used to choose the next node to insert.
+     */
+    private InsertionRule rule;
+
+    /**
+     * The random number generator used by random insertion.
+     */
+    private Random random = new Random();
+
+    /**
+     * Constructs a new @code{InsertionSolver} that uses cheapest insertion.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     */
+    public InsertionSolver(StaticGraph graph) {
+        this(graph, InsertionRule.CHEAPEST);
+    }
+
+    /**
+     * Constructs a new @code{InsertionSolver}.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     * @param rule The rule used to choose the next node to insert.
+     */
+    public InsertionSolver(StaticGraph graph, InsertionRule rule) {
+        setGraph(graph);
+        setRule(rule);
+    }
+
+    /**
+     * Constructs a new @code{InsertionSolver} without a graph, so one can be set at a later time.
+     * @param rule The rule used to choose the next node to insert.
+     */
+    public InsertionSolver(InsertionRule rule) {
+        setRule(rule);
+    }
+
+    /**
+     * Constructs a tour through the graph in the @code{graph} attribute by insertion.
+     * @param delayPerStep Unused; the tour is built in one step.
+     * @return output The results of the solution attempt.
+     */
+    @Override
+    public SolverOutput runSolution(int delayPerStep) {
+        try {
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.start();
+            NodeGeometry geometry = new NodeGeometry(graph);
+            graph.setEdgeContainer(geometry.toEdgeContainer(construct(geometry)));
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), stopwatch.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
+        }
+    }
+
+    /**
+     * Constructs a tour through the nodes of a geometry by inserting them into their convex hull.
+     * @param geometry The positions of the nodes.
+     * @return tour The indices of the nodes of the tour, in order.
+     */
+    @Override
+    public int[] construct(NodeGeometry geometry) {
+        int numNodes = geometry.getNumNodes();
+        // The tour is held as the successor of each node; inserted holds the nodes of the tour in insertion order.
+        int[] next = new int[numNodes];
+        int[] inserted = new int[numNodes];
+        boolean[] inTour = new boolean[numNodes];
+        int[] hull = convexHull(geometry);
+        int numInserted = 0;
+        for (int i = 0; i < hull.length; i++) {
+            next[hull[i]] = hull[(i + 1) % hull.length];
+            inserted[numInserted++] = hull[i];
+            inTour[hull[i]] = true;
+        }
+        if (numInserted == 1 && numNodes > 1) { // Every node is in the same place; start with a tour of two.
+            int other = hull[0] == 0 ? 1 : 0;
+            next[hull[0]] = other;
+            next[other] = hull[0];
+            inserted[numInserted++] = other;
+            inTour[other] = true;
+        }
+        if (rule == InsertionRule.CHEAPEST) {
+            insertCheapest(geometry, next, inserted, numInserted, inTour);
+        } else {
+            insertInOrder(geometry, next, inserted, numInserted, inTour);
+        }
+        int[] tour = new int[numNodes];
+        int node = inserted[0];
+        for (int i = 0; i < numNodes; i++) {
+            tour[i] = node;
+            node = next[node];
+        }
+        return tour;
+    }
+
+    /**
+     * Inserts the remaining nodes by cheapest insertion. Each node's best insertion cost is kept in a heap, and its
+     * cheapest few insertion edges in an @code{InsertionEdges} list. After an insertion only the two new edges need
+     * offering to each node. A node whose best edge was replaced keeps its (now too low) cost until it reaches the top
+     * of the heap; its next best edge is then taken from its list, and only if that cannot be trusted is the whole
+     * tour searched again.
+     * @param geometry The positions of the nodes.
+     * @param next The successor of each node in the tour.
+     * @param inserted The nodes in the tour.
+     * @param numInserted The number of nodes in the tour.
+     * @param inTour Whether each node is in the tour.
+     */
+    private static void insertCheapest(NodeGeometry geometry, int[] next, int[] inserted, int numInserted,
+                                       boolean[] inTour) {
+        int numNodes = geometry.getNumNodes();
+        InsertionEdges edges = new InsertionEdges(numNodes, RUNNER_UP_EDGES);
+        IndexedMinHeap heap = new IndexedMinHeap(numNodes);
+        for (int node = 0; node < numNodes; node++) {
+            if (!inTour[node]) {
+                heap.update(node, edges.search(geometry, node, next, inserted, numInserted));
+            }
+        }
+        while (!heap.isEmpty()) {
+            int node = heap.peek();
+            if (!edges.dropReplaced(node, next)) { // The best edge left on the list may not be the best in the tour.
+                heap.update(node, edges.search(geometry, node, next, inserted, numInserted));
+                continue;
+            }
+            if (edges.getCost(node) > heap.getKey(node)) { // The best edge was replaced, so the cost is out of date.
+                heap.update(node, edges.getCost(node));
+                continue;
+            }
+            heap.poll();
+            int a = edges.getStart(node);
+            int b = next[a];
+            next[a] = node;
+            next[node] = b;
+            inserted[numInserted++] = node;
+            inTour[node] = true;
+            // Offer the two new edges (a, node) and (node, b) to every node still to be inserted.
+            for (int i = 0; i < numNodes; i++) {
+                if (inTour[i]) {
+                    continue;
+                }
+                double toNode = geometry.distance(i, node);
+                double costBefore = geometry.distance(a, i) + toNode - geometry.distance(a, node);
+                double costAfter = toNode + geometry.distance(i, b) - geometry.distance(node, b);
+                boolean cheaper = edges.offer(i, a, node, costBefore);
+                cheaper |= edges.offer(i, node, b, costAfter);
+                if (cheaper && edges.getCost(i) < heap.getKey(i)) {
+                    heap.update(i, edges.getCost(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the remaining nodes in the order given by the @code{rule} (farthest or random), each into the edge of
+     * the tour where it adds the least length.
+     * @param geometry The positions of the nodes.
+     * @param next The successor of each node in the tour.
+     * @param inserted The nodes in the tour.
+     * @param numInserted The number of nodes in the tour.
+     * @param inTour Whether each node is in the tour.
+     */
+    private void insertInOrder(NodeGeometry geometry, int[] next, int[] inserted, int numInserted, boolean[] inTour) {
+        int numNodes = geometry.getNumNodes();
+        // The nodes still to be inserted, and (for farthest insertion) the distance from each to the tour.
+        int[] remaining = new int[numNodes - numInserted];
+        int numRemaining = 0;
+        for (int node = 0; node < numNodes; node++) {
+            if (!inTour[node]) {
+                remaining[numRemaining++] = node;
+            }
+        }
+        double[] distanceToTour = new double[numNodes];
+        if (rule == InsertionRule.FARTHEST) {
+            for (int i = 0; i < numRemaining; i++) {
+                distanceToTour[remaining[i]] = Double.POSITIVE_INFINITY;
+                for (int j = 0; j < numInserted; j++) {
+                    distanceToTour[remaining[i]] = Math.min(distanceToTour[remaining[i]],
+                            geometry.distance(remaining[i], inserted[j]));
+                }
+            }
+        }
+        int[] bestEdge = new int[numNodes];
+        int[] bestEdgeEnd = new int[numNodes];
+        while (numRemaining > 0) {
+            // Choose the next node: a linear scan finds the farthest, as every distance changes after each insertion.
+            int chosen;
+            if (rule == InsertionRule.FARTHEST) {
+                chosen = 0;
+                for (int i = 1; i < numRemaining; i++) {
+                    if (distanceToTour[remaining[i]] > distanceToTour[remaining[chosen]]) {
+                        chosen = i;
+                    }
+                }
+            } else {
+                chosen = random.nextInt(numRemaining);
+            }
+            int node = remaining[chosen];
+            remaining[chosen] = remaining[--numRemaining];
+            findBestEdge(geometry, node, next, inserted, numInserted, bestEdge, bestEdgeEnd);
+            int a = bestEdge[node];
+            next[node] = next[a];
+            next[a] = node;
+            inserted[numInserted++] = node;
+            inTour[node] = true;
+            if (rule == InsertionRule.FARTHEST) {
+                for (int i = 0; i < numRemaining; i++) {
+                    int other = remaining[i];
+                    distanceToTour[other] = Math.min(distanceToTour[other], geometry.distance(other, node));
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the edge of the tour where inserting a node adds the least length.
+     * @param geometry The positions of the nodes.
+     * @param node The node to insert.
+     * @param next The successor of each node in the tour.
+     * @param inserted The nodes in the tour.
+     * @param numInserted The number of nodes in the tour.
+     * @param bestEdge Where the start of the best edge is recorded (at index @code{node}).
+     * @param bestEdgeEnd Where the end of the best edge is recorded (at index @code{node}).
+     * @return cost The length the insertion adds.
+     */
+    private static double findBestEdge(NodeGeometry geometry, int node, int[] next, int[] inserted, int numInserted,
+                                       int[] bestEdge, int[] bestEdgeEnd) {
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < numInserted; i++) {
+            int a = inserted[i];
+            int b = next[a];
+            double cost = geometry.distance(a, node) + geometry.distance(node, b) - geometry.distance(a, b);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestEdge[node] = a;
+                bestEdgeEnd[node] = b;
+            }
+        }
+        return bestCost;
+    }
+
+    /**
+     * Finds the convex hull of the nodes with Andrew's monotone chain algorithm.
+     * @param geometry The positions of the nodes.
+     * @return hull The nodes on the hull in anticlockwise order (nodes lying on an edge of the hull are left out).
+     */
+    private static int[] convexHull(NodeGeometry geometry) {
+        int numNodes = geometry.getNumNodes();
+        int[] sorted = sortByPosition(geometry);
+        int[] hull = new int[2 * numNodes];
+        int size = 0;
+        for (int i = 0; i < numNodes; i++) { // Lower hull.
+            while (size >= 2 && cross(geometry, hull[size - 2], hull[size - 1], sorted[i]) <= 0) {
+                size--;
+            }
+            hull[size++] = sorted[i];
+        }
+        for (int i = numNodes - 2, lowerSize = size + 1; i >= 0; i--) { // Upper hull.
+            while (size >= lowerSize && cross(geometry, hull[size - 2], hull[size - 1], sorted[i]) <= 0) {
+                size--;
+            }
+            hull[size++] = sorted[i];
+        }
+        size = Math.max(1, size - 1); // The last node is the first node again.
+        int[] result = new int[size];
+        System.arraycopy(hull, 0, result, 0, size);
+        return result;
+    }
+
+    /**
+     * Returns the nodes sorted by x coordinate, and by y coordinate where the x coordinates are equal.
+     * @param geometry The positions of the nodes.
+     * @return sorted The indices of the nodes in sorted order.
+     */
+    private static int[] sortByPosition(NodeGeometry geometry) {
+        int numNodes = geometry.getNumNodes();
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < numNodes; i++) {
+            minX = Math.min(minX, geometry.getX(i));
+            minY = Math.min(minY, geometry.getY(i));
+        }
+        int[] sorted = new int[numNodes];
+        long[] keys = new long[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            sorted[i] = i;
+            keys[i] = Double.doubleToLongBits(geometry.getY(i) - minY); // Non-negative, so ordered like their bits.
+        }
+        RadixSort.sort(keys, sorted);
+        for (int i = 0; i < numNodes; i++) { // The sort is stable, so sorting by x keeps nodes of equal x sorted by y.
+            keys[i] = Double.doubleToLongBits(geometry.getX(sorted[i]) - minX);
+        }
+        RadixSort.sort(keys, sorted);
+        return sorted;
+    }
+
+    /**
+     * Returns the cross product of the vectors o to a and o to b, which is positive if o, a, b turn anticlockwise.
+     * @param geometry The positions of the nodes.
+     * @param o The first node.
+     * @param a The second node.
+     * @param b The third node.
+     * @return cross The cross product.
+     */
+    private static double cross(NodeGeometry geometry, int o, int a, int b) {
+        return (geometry.getX(a) - geometry.getX(o)) * (geometry.getY(b) - geometry.getY(o))
+                - (geometry.getY(a) - geometry.getY(o)) * (geometry.getX(b) - geometry.getX(o));
+    }
+
+    /**
+     * Sets the @code{graph} attribute to a new value.
+     * @param graph The graph to assign the StaticSolver's @code{graph} attribute.
+     */
+    @Override
+    public void setGraph(StaticGraph graph) {
+        RepeatedFunctions.validateGraph(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
+     */
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{rule} attribute.
+     * @return rule The value of the @code{rule} attribute.
+     */
+    public InsertionRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Sets the @code{rule} attribute to a new value.
+     * @param rule The new value to assign the @code{rule} attribute.
+     */
+    public void setRule(InsertionRule rule) {
+        this.rule = rule;
+    }
+
+    /**
+     * Returns the value of the @code{random} attribute.
+     * @return random The value of the @code{random} attribute.
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Sets the @code{random} attribute to a new value (e.g. a seeded generator, for repeatable random insertion).
+     * @param random The new value to assign the @code{random} attribute.
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * The cheapest few insertion edges of each node still to be inserted, cheapest first. Every edge of the tour that
+     * is not on a node's list costs at least the node's threshold or, while the list is full, the last edge on it. So
+     * the cheapest edge on the list that is still in the tour is the node's best edge as long as it costs no more than
+     * the threshold.
+     */
+    private static final class InsertionEdges {
+        /**
+         * The most edges kept for each node.
+         */
+        private final int capacity;
+
+        /**
+         * The start of each edge; the edges of node x are stored from index x * capacity.
+         */
+        private final int[] starts;
+
+        /**
+         * The end of each edge when it was offered (the edge is gone once the start has another successor).
+         */
+        private final int[] ends;
+
+        /**
+         * The length inserting the node into each edge adds.
+         */
+        private final double[] costs;
+
+        /**
+         * The number of edges on the list of each node.
+         */
+        private final int[] sizes;
+
+        /**
+         * The least cost any edge of the tour that is not on the list of each node may have, apart from edges turned
+         * away while the list was full (which cost at least the last edge on it).
+         */
+        private final double[] thresholds;
+
+        /**
+         * Constructs a new @code{InsertionEdges} object with an empty list for every node.
+         * @param numNodes The number of nodes.
+         * @param capacity The most edges kept for each node.
+         */
+        private InsertionEdges(int numNodes, int capacity) {
+            this.capacity = capacity;
+            this.starts = new int[numNodes * capacity];
+            this.ends = new int[numNodes * capacity];
+            this.costs = new double[numNodes * capacity];
+            this.sizes = new int[numNodes];
+            this.thresholds = new double[numNodes];
+        }
+
+        /**
+         * Searches every edge of the tour for the cheapest edges to insert a node into and replaces its list with them.
+         * @param geometry The positions of the nodes.
+         * @param node The node to insert.
+         * @param next The successor of each node in the tour.
+         * @param inserted The nodes in the tour.
+         * @param numInserted The number of nodes in the tour.
+         * @return cost The length inserting the node into its best edge adds.
+         */
+        private double search(NodeGeometry geometry, int node, int[] next, int[] inserted, int numInserted) {
+            sizes[node] = 0;
+            thresholds[node] = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < numInserted; i++) {
+                int a = inserted[i];
+                int b = next[a];
+                offer(node, a, b, geometry.distance(a, node) + geometry.distance(node, b) - geometry.distance(a, b));
+            }
+            return getCost(node);
+        }
+
+        /**
+         * Offers an edge of the tour to the list of a node. It is kept if the list has room or the edge is cheaper
+         * than the last edge on the list, which is then dropped.
+         * @param node The node to insert.
+         * @param start The start of the edge.
+         * @param end The end of the edge.
+         * @param cost The length inserting the node into the edge adds.
+         * @return first True if the edge is now first on the list.
+         */
+        private boolean offer(int node, int start, int end, double cost) {
+            int offset = node * capacity;
+            int size = sizes[node];
+            if (size == capacity) {
+                if (cost >= costs[offset + size - 1]) {
+                    return false; // Turned away; it costs at least the last edge on the full list.
+                }
+                size--; // Drop the last edge, which no longer counts as on the list.
+                thresholds[node] = Math.min(thresholds[node], costs[offset + size]);
+            }
+            int i = offset + size;
+            while (i > offset && costs[i - 1] > cost) { // Shift the dearer edges up to keep the list in cost order.
+                starts[i] = starts[i - 1];
+                ends[i] = ends[i - 1];
+                costs[i] = costs[i - 1];
+                i--;
+            }
+            starts[i] = start;
+            ends[i] = end;
+            costs[i] = cost;
+            sizes[node] = size + 1;
+            return i == offset;
+        }
+
+        /**
+         * Drops the edges from the front of the list of a node that are no longer in the tour.
+         * @param node The node to insert.
+         * @param next The successor of each node in the tour.
+         * @return trusted True if the first edge left is the node's best edge in the tour; false if the tour must be
+         * searched.
+         */
+        private boolean dropReplaced(int node, int[] next) {
+            int offset = node * capacity;
+            int size = sizes[node];
+            int gone = 0;
+            while (gone < size && next[starts[offset + gone]] != ends[offset + gone]) {
+                gone++;
+            }
+            if (gone > 0) {
+                if (size == capacity) { // Edges turned away by the full list cost at least its last edge.
+                    thresholds[node] = Math.min(thresholds[node], costs[offset + size - 1]);
+                }
+                System.arraycopy(starts, offset + gone, starts, offset, size - gone);
+                System.arraycopy(ends, offset + gone, ends, offset, size - gone);
+                System.arraycopy(costs, offset + gone, costs, offset, size - gone);
+                sizes[node] = size - gone;
+            }
+            return sizes[node] > 0 && costs[offset] <= thresholds[node];
+        }
+
+        /**
+         * Returns the cost of the first edge on the list of a node.
+         * @param node The node to insert.
+         * @return cost The length inserting the node into the edge adds (infinity if the list is empty).
+         */
+        private double getCost(int node) {
+            return sizes[node] == 0 ? Double.POSITIVE_INFINITY : costs[node * capacity];
+        }
+
+        /**
+         * Returns the start of the first edge on the list of a node.
+         * @param node The node to insert.
+         * @return start The node the edge starts at.
+         */
+        private int getStart(int node) {
+            return starts[node * capacity];
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.alike.solvers;
+
+import com.alike.graphsystem.StaticGraph;
+import com.alike.solution_helpers.CandidateLists;
+import com.alike.solution_helpers.IslandSearch;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.OrOptImprover;
+import com.alike.solution_helpers.RepeatedFunctions;
+import com.alike.solution_helpers.Tour;
+import com.alike.solution_helpers.TourConstructor;
+import com.alike.solution_helpers.TwoOptImprover;
+import com.alike.solvertestsuite.Fail;
+import com.alike.solvertestsuite.Solution;
+import com.alike.solvertestsuite.SolverOutput;
+import com.alike.time.Stopwatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An island model solver: several independent runs of an @code{IslandSolver} (e.g. genetic algorithm populations or
+ * simulated annealing chains), one per thread, each with state of its own so that nothing is shared while they search.
+ * Every @code{migrationInterval} iterations each island posts a copy of its shortest tour to the mailbox of the next
+ * island on a ring and takes in whatever tour has been posted to its own. A mailbox holds only the latest tour and
+ * is read and written with atomic operations, so the islands never lock or wait for each other and the throughput
+ * grows with the number of cores. The shortest tour of all the islands is finished off with 2-opt and Or-opt.
+ * Because migrants arrive whenever their island gets there, runs with more than one island are not reproducible even
+ * when seeded.
+ * Algorithm found: D. Whitley, S. Rana and R. B. Heckendorn, "The island model genetic algorithm: On separability,
+ * population size and convergence" (1999).
+ * @author alike
+ */
+public class IslandModelSolver implements StaticSolver, TourConstructor {
+    /**
+     * The graph which we are to solve.
+     */
+    private StaticGraph graph;
+
+    /**
+     * The solver whose settings each island is created with.
+     */
+    private IslandSolver islandSolver;
+
+    /**
+     * The number of islands (normally one per core).
+     */
+    private int numIslands = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The number of iterations each island runs between migrations.
+     */
+    private int migrationInterval = 10;
+
+    /**
+     * The number of migrations (so each island runs @code{numMigrations} * @code{migrationInterval} iterations).
+     */
+    private int numMigrations = 10;
+
+    /**
+     * The time in milliseconds after which islands stop at their next migration (0 for no limit).
+     */
+    private long timeLimit = 0;
+
+    /**
+     * The number of nearest candidates each node is given for the final local search.
+     */
+    private int candidateListSize = 10;
+
+    /**
+     * The seed the islands' seeds are drawn from (null for unseeded).
+     */
+    private Long seed = null;
+
+    /**
+     * The executor service the islands are run on; it should have a thread for each island.
+     */
+    private ExecutorService executorService;
+
+    /**
+     * Constructs a new @code{IslandModelSolver} of genetic algorithm islands that runs on the common fork/join pool.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     */
+    public IslandModelSolver(StaticGraph graph) {
+        this(graph, new GeneticAlgorithmSolver(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new @code{IslandModelSolver}.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     * @param islandSolver The solver whose settings each island is created with.
+     * @param executorService The executor service the islands are run on.
+     */
+    public IslandModelSolver(StaticGraph graph, IslandSolver islandSolver, ExecutorService executorService) {
+        setGraph(graph);
+        setIslandSolver(islandSolver);
+        setExecutorService(executorService);
+    }
+
+    /**
+     * Constructs a new @code{IslandModelSolver} that runs on the common fork/join pool, for use as a
+     * @code{TourConstructor}.
+     * @param islandSolver The solver whose settings each island is created with.
+     */
+    public IslandModelSolver(IslandSolver islandSolver) {
+        setIslandSolver(islandSolver);
+        setExecutorService(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the islands on the graph in the @code{graph} attribute.
+     * @param delayPerStep Unused; the tour is only displayed once it is finished.
+     * @return output The results of the solution attempt.
+     */
+    @Override
+    public SolverOutput runSolution(int delayPerStep) {
+        try {
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.start();
+            NodeGeometry geometry = new NodeGeometry(graph);
+            graph.setEdgeContainer(geometry.toEdgeContainer(construct(geometry)));
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), stopwatch.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
+        }
+    }
+
+    /**
+     * Runs the islands, migrating tours around the ring between them, and returns the shortest tour found.
+     * @param geometry The positions of the nodes.
+     * @return tour The indices of the nodes of the shortest tour found, in order.
+     */
+    @Override
+    public int[] construct(NodeGeometry geometry) {
+        long startTime = System.currentTimeMillis();
+        SplittableRandom seeds = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+        AtomicReferenceArray<Migrant> mailboxes = new AtomicReferenceArray<>(numIslands);
+        List<Callable<IslandSearch>> tasks = new ArrayList<>(numIslands);
+        for (int i = 0; i < numIslands; i++) {
+            int index = i;
+            long islandSeed = seeds.nextLong();
+            tasks.add(() -> {
+                IslandSearch island = islandSolver.createIsland(geometry, islandSeed);
+                for (int migration = 0; migration < numMigrations; migration++) {
+                    if (timeLimit > 0 && System.currentTimeMillis() - startTime >= timeLimit) {
+                        break;
+                    }
+                    island.run(migrationInterval);
+                    if (numIslands > 1) {
+                        // Overwrites any tour the next island has not taken yet; only the latest is worth having.
+                        mailboxes.set((index + 1) % numIslands,
+                                new Migrant(island.getBestTour(), island.getBestLength()));
+                        Migrant migrant = mailboxes.getAndSet(index, null);
+                        if (migrant != null) {
+                            island.immigrate(migrant.tour, migrant.length);
+                        }
+                    }
+                }
+                return island;
+            });
+        }
+        int[] best = null;
+        double bestLength = Double.POSITIVE_INFINITY;
+        try {
+            for (Future<IslandSearch> future : executorService.invokeAll(tasks)) {
+                IslandSearch island = future.get();
+                if (island.getBestLength() < bestLength) {
+                    bestLength = island.getBestLength();
+                    best = island.getBestTour();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running the islands.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("An island failed.", e.getCause());
+        }
+        if (best == null || best.length <= 3) {
+            return best;
+        }
+        CandidateLists candidateLists = CandidateLists.fromGeometry(geometry,
+                Math.min(candidateListSize, best.length - 1));
+        Tour tour = Tour.create(best);
+        TwoOptImprover twoOpt = new TwoOptImprover();
+        OrOptImprover orOpt = new OrOptImprover();
+        boolean improved = true;
+        while (improved) {
+            improved = twoOpt.improve(tour, geometry, candidateLists);
+            improved |= orOpt.improve(tour, geometry, candidateLists);
+        }
+        return tour.toArray();
+    }
+
+    /**
+     * A tour posted from one island to another.
+     */
+    private static final class Migrant {
+        /**
+         * The indices of the nodes of the tour, in order.
+         */
+        private final int[] tour;
+
+        /**
+         * The length of the tour.
+         */
+        private final double length;
+
+        /**
+         * Constructs a new @code{Migrant}.
+         * @param tour The indices of the nodes of the tour, in order.
+         * @param length The length of the tour.
+         */
+        private Migrant(int[] tour, double length) {
+            this.tour = tour;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Sets the @code{graph} attribute to a new value.
+     * @param graph The graph to assign the StaticSolver's @code{graph} attribute.
+     */
+    @Override
+    public void setGraph(StaticGraph graph) {
+        RepeatedFunctions.validateGraph(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
+     */
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{islandSolver} attribute.
+     * @return islandSolver The value of the @code{islandSolver} attribute.
+     */
+    public IslandSolver getIslandSolver() {
+        return islandSolver;
+    }
+
+    /**
+     * Sets the @code{islandSolver} attribute to a new value.
+     * @param islandSolver The new value to assign the @code{islandSolver} attribute.
+     */
+    public void setIslandSolver(IslandSolver islandSolver) {
+        this.islandSolver = islandSolver;
+    }
+
+    /**
+     * Returns the value of the @code{numIslands} attribute.
+     * @return numIslands The value of the @code{numIslands} attribute.
+     */
+    public int getNumIslands() {
+        return numIslands;
+    }
+
+    /**
+     * Sets the @code{numIslands} attribute to a new value.
+     * @param numIslands The new value to assign the @code{numIslands} attribute (at least 1).
+     */
+    public void setNumIslands(int numIslands) {
+        this.numIslands = Math.max(1, numIslands);
+    }
+
+    /**
+     * Returns the value of the @code{migrationInterval} attribute.
+     * @return migrationInterval The value of the @code{migrationInterval} attribute.
+     */
+    public int getMigrationInterval() {
+        return migrationInterval;
+    }
+
+    /**
+     * Sets the @code{migrationInterval} attribute to a new value.
+     * @param migrationInterval The new value to assign the @code{migrationInterval} attribute (at least 1).
+     */
+    public void setMigrationInterval(int migrationInterval) {
+        this.migrationInterval = Math.max(1, migrationInterval);
+    }
+
+    /**
+     * Returns the value of the @code{numMigrations} attribute.
+     * @return numMigrations The value of the @code{numMigrations} attribute.
+     */
+    public int getNumMigrations() {
+        return numMigrations;
+    }
+
+    /**
+     * Sets the @code{numMigrations} attribute to a new value.
+     * @param numMigrations The new value to assign the @code{numMigrations} attribute (at least 1).
+     */
+    public void setNumMigrations(int numMigrations) {
+        this.numMigrations = Math.max(1, numMigrations);
+    }
+
+    /**
+     * Returns the value of the @code{timeLimit} attribute.
+     * @return timeLimit The value of the @code{timeLimit} attribute.
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * Sets the @code{timeLimit} attribute to a new value.
+     * @param timeLimit The new value to assign the @code{timeLimit} attribute, in milliseconds (0 for no limit).
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = Math.max(0, timeLimit);
+    }
+
+    /**
+     * Returns the value of the @code{candidateListSize} attribute.
+     * @return candidateListSize The value of the @code{candidateListSize} attribute.
+     */
+    public int getCandidateListSize() {
+        return candidateListSize;
+    }
+
+    /**
+     * Sets the @code{candidateListSize} attribute to a new value.
+     * @param candidateListSize The new value to assign the @code{candidateListSize} attribute (at least 1).
+     */
+    public void setCandidateListSize(int candidateListSize) {
+        this.candidateListSize = Math.max(1, candidateListSize);
+    }
+
+    /**
+     * Returns the value of the @code{seed} attribute.
+     * @return seed The value of the @code{seed} attribute.
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the @code{seed} attribute to a new value.
+     * @param seed The new value to assign the @code{seed} attribute (null for unseeded runs).
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the value of the @code{executorService} attribute.
+     * @return executorService The value of the @code{executorService} attribute.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Sets the @code{executorService} attribute to a new value.
+     * @param executorService The new value to assign the @code{executorService} attribute.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+}
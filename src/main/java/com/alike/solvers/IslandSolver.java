@@ -0,0 +1,19 @@
+package com.alike.solvers;
+
+import com.alike.solution_helpers.IslandSearch;
+import com.alike.solution_helpers.NodeGeometry;
+
+/**
+ * Interface for solvers that can run as the islands of an @code{IslandModelSolver}. The solver holds the settings,
+ * and each island it creates holds its own search state.
+ * @author alike
+ */
+public interface IslandSolver {
+    /**
+     * Creates a new island that searches for tours through the nodes of a geometry on whichever single thread runs it.
+     * @param geometry The positions of the nodes.
+     * @param seed The seed of the island's random number generators.
+     * @return island The new island, with its starting state built.
+     */
+    IslandSearch createIsland(NodeGeometry geometry, long seed);
+}
@@ -1,11 +1,24 @@
 package com.alike.solvers;
 
+import com.alike.solution_helpers.CandidateLists;
+import com.alike.solution_helpers.DontLookBits;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.RepeatedFunctions;
+import com.alike.solution_helpers.Tour;
+import com.alike.solvertestsuite.Fail;
 import com.alike.solvertestsuite.Solution;
+import com.alike.solvertestsuite.SolverOutput;
 import com.alike.graphsystem.EdgeContainer;
 import com.alike.graphsystem.StaticGraph;
+import com.alike.time.Stopwatch;
 
 /**
- * A solver employing the LinKernighan algorithm (incomplete).
+ * A solver employing the Lin-Kernighan heuristic. A starting tour is built by another @code{StaticSolver} and then
+ * improved by variable depth moves: from a base node t1 the edge (t1, t2) is removed and a chain of 2-opt flips is
+ * followed, each adding an edge from the current t2 to one of its nearest candidates t3 and removing the edge (t3, t4)
+ * so the tour can be closed again. The chain stops when the partial gain runs out and the tour is rolled back to the
+ * depth that gave the largest gain. Don't-look bits keep the search focussed on the parts of the tour that have changed.
+ * @author alike
  */
 public class LinKernighanSolver implements StaticSolver {
 
@@ -15,9 +28,9 @@ public class LinKernighanSolver implements StaticSolver {
     private StaticGraph graph;
 
     /**
-     * A reference to the edge matrix of the graph we are trying to solve.
+     * The solver used to construct the starting tour.
      */
-    private Double[][] edgeMatrix;
+    private StaticSolver initialSolver;
 
     /**
      * The set of edges that is the current tour.
@@ -25,25 +38,325 @@ public class LinKernighanSolver implements StaticSolver {
     private EdgeContainer tour;
 
     /**
-     * Constructs a new @code{LinKernighanSolver} object.
+     * The number of nearest candidates considered as the new end of each added edge.
+     */
+    private int candidateListSize = 8;
+
+    /**
+     * The maximum number of flips in a single move (a move of depth d is a sequential (d + 1)-opt move).
+     */
+    private int maxDepth = 50;
+
+    /**
+     * The number of alternatives tried for the added edge at each of the first levels of a move before backtracking
+     * (deeper levels only try the most promising alternative).
+     */
+    private int[] breadth = {5, 3};
+
+    /**
+     * The positions of the nodes of the graph.
+     */
+    private NodeGeometry geometry;
+
+    /**
+     * The tour being improved.
+     */
+    private Tour workingTour;
+
+    /**
+     * The candidate lists of each node.
+     */
+    private CandidateLists candidateLists;
+
+    /**
+     * The start (t2) and end (t4) node of each flip applied by the current move, so it can be rolled back.
+     */
+    private int[] flipStarts, flipEnds;
+
+    /**
+     * The edges added (t2, t3) and removed (t3, t4) by the current move; an edge may not be both.
+     */
+    private int[] addedFrom, addedTo, removedFrom, removedTo;
+
+    /**
+     * The candidates chosen at each level of the current move (the last row is shared by every greedy level).
+     */
+    private int[][] alternatives;
+
+    /**
+     * The value of each candidate in @code{alternatives}.
+     */
+    private double[][] alternativeValues;
+
+    /**
+     * The number of flips the current move has applied.
+     */
+    private int numFlips;
+
+    /**
+     * The largest gain of the current move so far.
+     */
+    private double bestGain;
+
+    /**
+     * The number of flips of the current move that gave the @code{bestGain}.
+     */
+    private int bestDepth;
+
+    /**
+     * The queue of nodes that still need to be tried as the base (t1) of a move.
+     */
+    private DontLookBits dontLookBits;
+
+    /**
+     * Constructs a new @code{LinKernighanSolver} object that builds its starting tour with a
+     * @code{NearestNeighbourSolver}.
      * @param graph The graph the sovler will solve when instructed to do so.
      */
     public LinKernighanSolver(StaticGraph graph) {
+        this(graph, new NearestNeighbourSolver());
+    }
+
+    /**
+     * Constructs a new @code{LinKernighanSolver} object.
+     * @param graph The graph the sovler will solve when instructed to do so.
+     * @param initialSolver The solver used to construct the starting tour (its graph is set by this solver).
+     */
+    public LinKernighanSolver(StaticGraph graph, StaticSolver initialSolver) {
+        setInitialSolver(initialSolver);
         setGraph(graph);
     }
 
     /**
      * Invokes the solver to solve the graph stored in the graph attribute.
      * @param delayPerStep The delay between algorithmic decisions in the solution - used to slow a solver down.
-     * @return null - Incomplete.
+     * @return output The results of the solution attempt.
      */
     @Override
-    public Solution runSolution(int delayPerStep) {
+    public SolverOutput runSolution(int delayPerStep) {
+        try {
+            Stopwatch sw = new Stopwatch();
+            sw.start();
+            initialSolver.setGraph(graph);
+            SolverOutput initialOutput = initialSolver.runSolution(0);
+            if (initialOutput == null || initialOutput.isFail()) {
+                return initialOutput;
+            }
+            geometry = new NodeGeometry(graph);
+            int[] initialTour = geometry.tourFromEdges(graph.getEdgeContainer());
+            if (geometry.getNumNodes() > 3) { // Any tour through 3 or fewer nodes is optimal.
+                improve(initialTour, delayPerStep);
+                setTour(geometry.toEdgeContainer(workingTour.toArray()));
+                graph.setEdgeContainer(tour);
+            }
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), sw.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
+        }
+    }
 
-        graph.constructEdgeLengthMatrix(); // Construct a matrix containing the complete graph.
-        setEdgeMatrix(graph.getEdgeLengthMatrix());
+    /**
+     * Improves a tour until no node can be the base of an improving move.
+     * @param initialTour The indices (in the @code{geometry}) of the nodes of the starting tour, in order.
+     * @param delayPerStep The delay after each improving move (the graph is updated with each new tour if non-zero).
+     */
+    private void improve(int[] initialTour, int delayPerStep) {
+        workingTour = Tour.create(initialTour);
+        candidateLists = CandidateLists.fromGeometry(geometry, candidateListSize);
+        flipStarts = new int[maxDepth];
+        flipEnds = new int[maxDepth];
+        addedFrom = new int[maxDepth];
+        addedTo = new int[maxDepth];
+        removedFrom = new int[maxDepth + 1];
+        removedTo = new int[maxDepth + 1];
+        alternatives = new int[breadth.length + 1][];
+        alternativeValues = new double[breadth.length + 1][];
+        for (int level = 0; level <= breadth.length; level++) {
+            int size = level < breadth.length ? Math.max(1, breadth[level]) : 1;
+            alternatives[level] = new int[size];
+            alternativeValues[level] = new double[size];
+        }
+        dontLookBits = DontLookBits.allOf(initialTour);
+        while (!dontLookBits.isEmpty()) {
+            int t1 = dontLookBits.poll();
+            // Try removing both of the tour edges at t1; reversing the orientation turns (prev(t1), t1) into (t1, next(t1)).
+            boolean improved = improveFrom(t1);
+            if (!improved) {
+                workingTour.reverse();
+                improved = improveFrom(t1);
+            }
+            if (improved) {
+                dontLookBits.push(t1); // t1 may still be the base of another improving move.
+                if (delayPerStep > 0) {
+                    publishTour();
+                    RepeatedFunctions.sleep(delayPerStep);
+                }
+            }
+        }
+    }
 
-        return null;
+    /**
+     * Searches for an improving move that starts by removing the edge (t1, next(t1)) and applies the best one found.
+     * @param t1 The base node of the move.
+     * @return improved True if the tour was improved.
+     */
+    private boolean improveFrom(int t1) {
+        int t2 = workingTour.next(t1);
+        removedFrom[0] = t1;
+        removedTo[0] = t2;
+        bestGain = 0.0;
+        bestDepth = 0;
+        numFlips = 0;
+        if (!search(t1, t2, geometry.distance(t1, t2), 0)) {
+            return false;
+        }
+        // Undo the flips that came after the best depth, newest first.
+        while (numFlips > bestDepth) {
+            undoFlip();
+        }
+        for (int d = 0; d < bestDepth; d++) { // Every endpoint of the move needs to be looked at again.
+            dontLookBits.push(flipStarts[d]);
+            dontLookBits.push(flipEnds[d]);
+            dontLookBits.push(addedTo[d]);
+        }
+        return true;
+    }
+
+    /**
+     * Extends the current move by one flip: an edge is added from t2 to a candidate t3, the edge (t3, t4) is removed
+     * and the tour is closed with (t4, t1) by reversing the path t2..t4. The first levels try several candidates
+     * (backtracking if none of them lead to an improvement); deeper levels only try the most promising one.
+     * @param t1 The base node of the move.
+     * @param t2 The free end of the move (currently next(t1)).
+     * @param gain The partial gain so far: the lengths of the removed edges minus those of the added edges.
+     * @param depth The number of flips applied so far.
+     * @return improved True if the move has found an improvement (its flips are left in place for the caller to trim
+     * back to @code{bestDepth}), false if every flip made by this call has been undone.
+     */
+    private boolean search(int t1, int t2, double gain, int depth) {
+        int numAlternatives = chooseNextNodes(t1, t2, gain, depth);
+        for (int a = 0; a < numAlternatives; a++) {
+            int t3 = alternatives[depth < breadth.length ? depth : breadth.length][a];
+            int t4 = workingTour.prev(t3);
+            double newGain = gain - geometry.distance(t2, t3) + geometry.distance(t3, t4);
+            applyFlip(t2, t3, t4);
+            double closedGain = newGain - geometry.distance(t4, t1);
+            if (closedGain > bestGain + 1e-9) {
+                bestGain = closedGain;
+                bestDepth = numFlips;
+            }
+            if (numFlips < maxDepth) {
+                search(t1, t4, newGain, depth + 1); // t4 is now next(t1).
+            }
+            if (bestDepth > 0) {
+                return true;
+            }
+            undoFlip();
+        }
+        return false;
+    }
+
+    /**
+     * Finds the candidates t3 that the next edge added from t2 may go to: those with a positive partial gain, ordered
+     * by the length of the edge (t3, t4) they allow us to remove minus the length of the added edge (t2, t3).
+     * @param t1 The base node of the move.
+     * @param t2 The node the edge is added from.
+     * @param gain The partial gain of the move so far.
+     * @param depth The number of flips applied so far.
+     * @return numAlternatives The number of candidates placed in the @code{alternatives} row of this depth.
+     */
+    private int chooseNextNodes(int t1, int t2, double gain, int depth) {
+        int[] candidates = candidateLists.getCandidates();
+        int k = candidateLists.getK();
+        int level = Math.min(depth, breadth.length);
+        int maxAlternatives = depth < breadth.length ? Math.max(1, breadth[depth]) : 1;
+        int[] chosen = alternatives[level];
+        double[] values = alternativeValues[level];
+        int found = 0;
+        for (int c = t2 * k; c < t2 * k + k; c++) {
+            int t3 = candidates[c];
+            double added = geometry.distance(t2, t3);
+            if (gain - added <= 0) {
+                break; // Candidates are nearest first, so no later candidate can give a positive gain.
+            }
+            if (t3 == t1 || t3 == workingTour.next(t2)) {
+                continue;
+            }
+            int t4 = workingTour.prev(t3);
+            if (isEdgeIn(t2, t3, removedFrom, removedTo, depth + 1) || isEdgeIn(t3, t4, addedFrom, addedTo, depth)) {
+                continue; // Never add an edge the move removed or remove one it added.
+            }
+            double value = geometry.distance(t3, t4) - added;
+            if (found == maxAlternatives && value <= values[found - 1]) {
+                continue;
+            }
+            // Insertion sort the candidate into place, dropping the worst if the row is full.
+            int i = found == maxAlternatives ? found - 1 : found++;
+            while (i > 0 && values[i - 1] < value) {
+                values[i] = values[i - 1];
+                chosen[i] = chosen[i - 1];
+                i--;
+            }
+            values[i] = value;
+            chosen[i] = t3;
+        }
+        return found;
+    }
+
+    /**
+     * Applies a flip of the current move and records it so it can be undone.
+     * @param t2 The node the added edge goes from (the first node of the reversed path).
+     * @param t3 The node the added edge goes to.
+     * @param t4 The node the removed edge (t3, t4) leaves behind (the last node of the reversed path).
+     */
+    private void applyFlip(int t2, int t3, int t4) {
+        workingTour.flip(t2, t4);
+        flipStarts[numFlips] = t2;
+        flipEnds[numFlips] = t4;
+        addedFrom[numFlips] = t2;
+        addedTo[numFlips] = t3;
+        removedFrom[numFlips + 1] = t3;
+        removedTo[numFlips + 1] = t4;
+        numFlips++;
+    }
+
+    /**
+     * Undoes the most recent flip of the current move.
+     */
+    private void undoFlip() {
+        numFlips--;
+        workingTour.flip(flipEnds[numFlips], flipStarts[numFlips]); // The path now runs from t4 to t2.
+    }
+
+    /**
+     * Returns whether the edge (a, b) is one of the first @code{count} edges of a list.
+     * @param a One end of the edge.
+     * @param b The other end of the edge.
+     * @param from The first ends of the edges in the list.
+     * @param to The second ends of the edges in the list.
+     * @param count The number of edges in the list.
+     * @return found True if the edge is in the list (in either direction).
+     */
+    private static boolean isEdgeIn(int a, int b, int[] from, int[] to, int count) {
+        for (int i = 0; i < count; i++) {
+            if ((from[i] == a && to[i] == b) || (from[i] == b && to[i] == a)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Displays the current tour on the graph.
+     */
+    private void publishTour() {
+        try {
+            graph.setEdgeContainer(geometry.toEdgeContainer(workingTour.toArray()));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
     }
 
     /**
@@ -56,11 +369,35 @@ public class LinKernighanSolver implements StaticSolver {
     }
 
     /**
-     * Sets the @code{edgeMatrix} attribute to a new value.
-     * @param edgeMatrix The new value to assign the @code{edgeMatrix} attribute.
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
+     */
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{initialSolver} attribute.
+     * @return initialSolver The value of the @code{initialSolver} attribute.
+     */
+    public StaticSolver getInitialSolver() {
+        return initialSolver;
+    }
+
+    /**
+     * Sets the @code{initialSolver} attribute to a new value.
+     * @param initialSolver The new value to assign the @code{initialSolver} attribute.
      */
-    public void setEdgeMatrix(Double[][] edgeMatrix) {
-        this.edgeMatrix = edgeMatrix;
+    public void setInitialSolver(StaticSolver initialSolver) {
+        this.initialSolver = initialSolver;
+    }
+
+    /**
+     * Returns the value of the @code{tour} attribute.
+     * @return tour The value of the @code{tour} attribute.
+     */
+    public EdgeContainer getTour() {
+        return tour;
     }
 
     /**
@@ -70,4 +407,52 @@ public class LinKernighanSolver implements StaticSolver {
     public void setTour(EdgeContainer tour) {
         this.tour = tour;
     }
+
+    /**
+     * Returns the value of the @code{candidateListSize} attribute.
+     * @return candidateListSize The value of the @code{candidateListSize} attribute.
+     */
+    public int getCandidateListSize() {
+        return candidateListSize;
+    }
+
+    /**
+     * Sets the @code{candidateListSize} attribute to a new value.
+     * @param candidateListSize The new value to assign the @code{candidateListSize} attribute.
+     */
+    public void setCandidateListSize(int candidateListSize) {
+        this.candidateListSize = Math.max(1, candidateListSize);
+    }
+
+    /**
+     * Returns the value of the @code{maxDepth} attribute.
+     * @return maxDepth The value of the @code{maxDepth} attribute.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Sets the @code{maxDepth} attribute to a new value.
+     * @param maxDepth The new value to assign the @code{maxDepth} attribute.
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = Math.max(1, maxDepth);
+    }
+
+    /**
+     * Returns the value of the @code{breadth} attribute.
+     * @return breadth The value of the @code{breadth} attribute.
+     */
+    public int[] getBreadth() {
+        return breadth;
+    }
+
+    /**
+     * Sets the @code{breadth} attribute to a new value.
+     * @param breadth The number of alternatives to try at each of the first levels of a move (e.g. 5, 3).
+     */
+    public void setBreadth(int... breadth) {
+        this.breadth = breadth.clone();
+    }
 }
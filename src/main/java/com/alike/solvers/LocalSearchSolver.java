@@ -0,0 +1,179 @@
+package com.alike.solvers;
+
+import com.alike.solution_helpers.CandidateLists;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.Tour;
+import com.alike.solution_helpers.TourImprover;
+import com.alike.solution_helpers.TwoOptImprover;
+import com.alike.solvertestsuite.Fail;
+import com.alike.solvertestsuite.Solution;
+import com.alike.solvertestsuite.SolverOutput;
+import com.alike.graphsystem.StaticGraph;
+import com.alike.time.Stopwatch;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A solver that constructs a tour with another @code{StaticSolver} (e.g. a @code{NearestNeighbourSolver} or
+ * @code{HilbertFractalCurveSolver}) and then improves it with a chain of @code{TourImprover}s. The improvers are run in
+ * turn until none of them can improve the tour any further.
+ * @author alike
+ */
+public class LocalSearchSolver implements StaticSolver {
+    /**
+     * The graph which we are to solve.
+     */
+    private StaticGraph graph;
+
+    /**
+     * The solver used to construct the starting tour.
+     */
+    private StaticSolver constructionSolver;
+
+    /**
+     * The improvers applied to the starting tour, in order.
+     */
+    private List<TourImprover> improvers;
+
+    /**
+     * The number of nearest candidates the improvers consider for each node.
+     */
+    private int candidateListSize = 10;
+
+    /**
+     * Constructs a new @code{LocalSearchSolver} that improves a nearest neighbour tour with 2-opt.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     */
+    public LocalSearchSolver(StaticGraph graph) {
+        this(graph, new NearestNeighbourSolver(), new TwoOptImprover());
+    }
+
+    /**
+     * Constructs a new @code{LocalSearchSolver}.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     * @param constructionSolver The solver used to construct the starting tour (its graph is set by this solver).
+     * @param improvers The improvers to apply to the starting tour, in order.
+     */
+    public LocalSearchSolver(StaticGraph graph, StaticSolver constructionSolver, TourImprover... improvers) {
+        setConstructionSolver(constructionSolver);
+        setImprovers(Arrays.asList(improvers));
+        setGraph(graph);
+    }
+
+    /**
+     * Constructs a tour through the graph in the @code{graph} attribute and improves it.
+     * @param delayPerStep The delay between algorithmic decisions of the construction solver.
+     * @return output The results of the solution attempt.
+     */
+    @Override
+    public SolverOutput runSolution(int delayPerStep) {
+        try {
+            Stopwatch sw = new Stopwatch();
+            sw.start();
+            constructionSolver.setGraph(graph);
+            SolverOutput constructionOutput = constructionSolver.runSolution(delayPerStep);
+            if (constructionOutput == null || constructionOutput.isFail()) {
+                return constructionOutput;
+            }
+            NodeGeometry geometry = new NodeGeometry(graph);
+            Tour tour = Tour.create(geometry.tourFromEdges(graph.getEdgeContainer()));
+            if (geometry.getNumNodes() > 3) { // Any tour through 3 or fewer nodes is optimal.
+                CandidateLists candidateLists = CandidateLists.fromGeometry(geometry, candidateListSize);
+                improve(tour, geometry, candidateLists);
+                graph.setEdgeContainer(geometry.toEdgeContainer(tour.toArray()));
+            }
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), sw.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
+        }
+    }
+
+    /**
+     * Runs each improver in turn until a full pass over the improvers leaves the tour unchanged.
+     * @param tour The tour to improve.
+     * @param geometry The positions of the nodes of the tour.
+     * @param candidateLists The nearest candidates of each node.
+     */
+    private void improve(Tour tour, NodeGeometry geometry, CandidateLists candidateLists) {
+        if (improvers.isEmpty()) {
+            return;
+        }
+        int lastImprover = -1; // The last improver that changed the tour.
+        for (int i = 0; ; i = (i + 1) % improvers.size()) {
+            if (i == lastImprover) {
+                return; // Every other improver has run since this one left the tour at its local optimum.
+            }
+            if (improvers.get(i).improve(tour, geometry, candidateLists) || lastImprover == -1) {
+                lastImprover = i;
+            }
+        }
+    }
+
+    /**
+     * Sets the @code{graph} attribute to a new value.
+     * @param graph The graph to assign the StaticSolver's @code{graph} attribute.
+     */
+    @Override
+    public void setGraph(StaticGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
+     */
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{constructionSolver} attribute.
+     * @return constructionSolver The value of the @code{constructionSolver} attribute.
+     */
+    public StaticSolver getConstructionSolver() {
+        return constructionSolver;
+    }
+
+    /**
+     * Sets the @code{constructionSolver} attribute to a new value.
+     * @param constructionSolver The new value to assign the @code{constructionSolver} attribute.
+     */
+    public void setConstructionSolver(StaticSolver constructionSolver) {
+        this.constructionSolver = constructionSolver;
+    }
+
+    /**
+     * Returns the value of the @code{improvers} attribute.
+     * @return improvers The value of the @code{improvers} attribute.
+     */
+    public List<TourImprover> getImprovers() {
+        return improvers;
+    }
+
+    /**
+     * Sets the @code{improvers} attribute to a new value.
+     * @param improvers The new value to assign the @code{improvers} attribute.
+     */
+    public void setImprovers(List<TourImprover> improvers) {
+        this.improvers = improvers;
+    }
+
+    /**
+     * Returns the value of the @code{candidateListSize} attribute.
+     * @return candidateListSize The value of the @code{candidateListSize} attribute.
+     */
+    public int getCandidateListSize() {
+        return candidateListSize;
+    }
+
+    /**
+     * Sets the @code{candidateListSize} attribute to a new value.
+     * @param candidateListSize The new value to assign the @code{candidateListSize} attribute.
+     */
+    public void setCandidateListSize(int candidateListSize) {
+        this.candidateListSize = Math.max(1, candidateListSize);
+    }
+}
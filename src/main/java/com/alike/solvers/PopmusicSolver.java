@@ -0,0 +1,493 @@
+package com.alike.solvers;
+
+import com.alike.graphsystem.StaticGraph;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.RepeatedFunctions;
+import com.alike.solution_helpers.TourConstructor;
+import com.alike.solvertestsuite.Fail;
+import com.alike.solvertestsuite.Solution;
+import com.alike.solvertestsuite.SolverOutput;
+import com.alike.time.Stopwatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Improves the tour of another @code{TourConstructor} by repeatedly re-optimising sub-paths of it (POPMUSIC: partial
+ * optimisation metaheuristic under special intensification conditions). Each pass cuts the tour into windows of
+ * @code{windowSize} consecutive nodes with one node left between each window and the next. The nodes either side of a
+ * window are its fixed ends, and the order of the nodes inside it is replaced by the shortest path between those ends
+ * through them, found exactly with the Held-Karp dynamic programme in O(2^r r^2) time. No two windows of a pass share a
+ * node, so they are optimised in parallel. The windows are shifted by half their length between passes, windows
+ * none of whose nodes have moved since they were last optimised are skipped, and the search stops once a full cycle of
+ * shifts changes nothing or @code{maxPasses} or @code{timeLimit} is reached.
+ * Algorithm found: E. D. Taillard and K. Helsgaun, "POPMUSIC for the travelling salesman problem" (2019).
+ * @author alike
+ */
+public class PopmusicSolver implements StaticSolver, TourConstructor {
+    /**
+     * The largest window size; the dynamic programme holds 2^r r distances and parents for each task.
+     */
+    public static final int MAX_WINDOW_SIZE = 16;
+
+    /**
+     * The improvement below which a re-optimised window is treated as unchanged (to ignore rounding errors).
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * The graph which we are to solve.
+     */
+    private StaticGraph graph;
+
+    /**
+     * Builds the tour to be improved.
+     */
+    private TourConstructor constructor;
+
+    /**
+     * The number of nodes in each window.
+     */
+    private int windowSize = 8;
+
+    /**
+     * The largest number of passes over the tour.
+     */
+    private int maxPasses = 1000;
+
+    /**
+     * The time in milliseconds after which no more passes are started (0 for no limit).
+     */
+    private long timeLimit = 0;
+
+    /**
+     * The executor service the windows are optimised on.
+     */
+    private ExecutorService executorService;
+
+    /**
+     * Constructs a new @code{PopmusicSolver} that improves greedy edge tours on the common fork/join pool.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     */
+    public PopmusicSolver(StaticGraph graph) {
+        this(graph, new GreedyEdgeSolver(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new @code{PopmusicSolver}.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     * @param constructor Builds the tour to be improved.
+     * @param executorService The executor service the windows are optimised on.
+     */
+    public PopmusicSolver(StaticGraph graph, TourConstructor constructor, ExecutorService executorService) {
+        setGraph(graph);
+        setConstructor(constructor);
+        setExecutorService(executorService);
+    }
+
+    /**
+     * Constructs a new @code{PopmusicSolver} that runs on the common fork/join pool, for use as a
+     * @code{TourConstructor}.
+     * @param constructor Builds the tour to be improved.
+     */
+    public PopmusicSolver(TourConstructor constructor) {
+        setConstructor(constructor);
+        setExecutorService(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds and improves a tour of the graph in the @code{graph} attribute.
+     * @param delayPerStep Unused; the tour is only displayed once it is finished.
+     * @return output The results of the solution attempt.
+     */
+    @Override
+    public SolverOutput runSolution(int delayPerStep) {
+        try {
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.start();
+            NodeGeometry geometry = new NodeGeometry(graph);
+            graph.setEdgeContainer(geometry.toEdgeContainer(construct(geometry)));
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), stopwatch.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
+        }
+    }
+
+    /**
+     * Builds a tour with the @code{constructor} and improves it by re-optimising its sub-paths.
+     * @param geometry The positions of the nodes.
+     * @return tour The indices of the nodes of the tour, in order.
+     */
+    @Override
+    public int[] construct(NodeGeometry geometry) {
+        int[] tour = constructor.construct(geometry);
+        improve(tour, geometry);
+        return tour;
+    }
+
+    /**
+     * Improves a tour in place by re-optimising its sub-paths until a full cycle of window offsets changes nothing or
+     * the pass or time limit is reached.
+     * @param tour The indices of the nodes of the tour, in order.
+     * @param geometry The positions of the nodes.
+     * @return improved True if the tour was shortened.
+     */
+    public boolean improve(int[] tour, NodeGeometry geometry) {
+        int numNodes = tour.length;
+        if (numNodes < 4) {
+            return false;
+        }
+        long startTime = System.currentTimeMillis();
+        // A window and the node after it; a tour too short for one full window is optimised as a single window.
+        int span = Math.min(windowSize, numNodes - 1) + 1;
+        int shift = Math.max(1, span / 2);
+        int numOffsets = span / gcd(span, shift);
+        // The last pass that moved the node at each position, and the last pass run at each offset.
+        int[] lastChanged = new int[numNodes];
+        int[] lastRun = new int[span];
+        Arrays.fill(lastChanged, -1);
+        Arrays.fill(lastRun, -1);
+        // The dynamic programme tables, shared between passes; a task borrows one set while it runs.
+        ConcurrentLinkedQueue<PathOptimiser> optimisers = new ConcurrentLinkedQueue<>();
+        boolean improved = false;
+        int unchangedPasses = 0;
+        for (int pass = 0; pass < maxPasses && unchangedPasses < numOffsets; pass++) {
+            if (timeLimit > 0 && System.currentTimeMillis() - startTime >= timeLimit) {
+                break;
+            }
+            int offset = (int) ((long) pass * shift % span);
+            if (runPass(tour, geometry, span, offset, pass, lastRun[offset], lastChanged, optimisers)) {
+                improved = true;
+                unchangedPasses = 0;
+            } else {
+                unchangedPasses++;
+            }
+            lastRun[offset] = pass;
+            if (span == numNodes) { // The single window was solved exactly.
+                break;
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Re-optimises the windows of one pass over a tour, in parallel, skipping any whose nodes and ends have not
+     * moved since they were last optimised.
+     * @param tour The indices of the nodes of the tour, in order.
+     * @param geometry The positions of the nodes.
+     * @param span The number of positions each window and the fixed node after it take up.
+     * @param offset The position of the first window.
+     * @param pass The number of this pass.
+     * @param lastRun The last pass run at the same offset (-1 for none).
+     * @param lastChanged The last pass that moved the node at each position; updated for the windows reordered.
+     * @param optimisers The idle dynamic programme tables; a task takes one (or makes one if there are none) when it
+     * first needs it and puts it back when it finishes, so no more are ever made than tasks run at once.
+     * @return improved True if any window was shortened.
+     */
+    private boolean runPass(int[] tour, NodeGeometry geometry, int span, int offset, int pass, int lastRun,
+                            int[] lastChanged, ConcurrentLinkedQueue<PathOptimiser> optimisers) {
+        int numNodes = tour.length;
+        int numWindows = numNodes / span;
+        int numTasks = Math.min(numWindows, 4 * Runtime.getRuntime().availableProcessors());
+        List<Callable<Boolean>> tasks = new ArrayList<>(numTasks);
+        for (int t = 0; t < numTasks; t++) {
+            int firstWindow = (int) ((long) numWindows * t / numTasks);
+            int lastWindow = (int) ((long) numWindows * (t + 1) / numTasks);
+            tasks.add(() -> {
+                PathOptimiser optimiser = null;
+                boolean improved = false;
+                for (int w = firstWindow; w < lastWindow; w++) {
+                    int from = offset + w * span;
+                    boolean moved = lastRun == -1;
+                    for (int i = -1; i < span && !moved; i++) {
+                        moved = lastChanged[Math.floorMod(from + i, numNodes)] > lastRun;
+                    }
+                    if (!moved) {
+                        continue;
+                    }
+                    if (optimiser == null) {
+                        optimiser = optimisers.poll();
+                        if (optimiser == null) {
+                            optimiser = new PathOptimiser(geometry, span - 1);
+                        }
+                    }
+                    if (optimiser.optimise(tour, from)) {
+                        improved = true;
+                        for (int i = 0; i < span - 1; i++) {
+                            lastChanged[(from + i) % numNodes] = pass;
+                        }
+                    }
+                }
+                if (optimiser != null) {
+                    optimisers.offer(optimiser);
+                }
+                return improved;
+            });
+        }
+        boolean improved = false;
+        try {
+            for (Future<Boolean> future : executorService.invokeAll(tasks)) {
+                improved |= future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while optimising the windows.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A window could not be optimised.", e.getCause());
+        }
+        return improved;
+    }
+
+    /**
+     * Returns the greatest common divisor of two positive numbers.
+     * @param a The first number.
+     * @param b The second number.
+     * @return gcd The greatest common divisor.
+     */
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Finds shortest paths through the nodes of a window with the Held-Karp dynamic programme. The tables are reused
+     * from window to window and pass to pass, and only one task uses a set at a time.
+     */
+    private static final class PathOptimiser {
+        /**
+         * The positions of the nodes.
+         */
+        private final NodeGeometry geometry;
+
+        /**
+         * The number of nodes in a window.
+         */
+        private final int size;
+
+        /**
+         * The nodes of the current window, in their current order.
+         */
+        private final int[] nodes;
+
+        /**
+         * The distances between the nodes of the window, row by row.
+         */
+        private final double[] distances;
+
+        /**
+         * The distance from the fixed node before the window to each of its nodes.
+         */
+        private final double[] fromStart;
+
+        /**
+         * The distance from each node of the window to the fixed node after it.
+         */
+        private final double[] toEnd;
+
+        /**
+         * The length of the shortest path from the fixed start through a subset of the nodes that ends at one of
+         * them, indexed by subset * size + end.
+         */
+        private final double[] lengths;
+
+        /**
+         * The node before the end of each of those shortest paths (-1 for the first node).
+         */
+        private final byte[] parents;
+
+        /**
+         * Constructs a new @code{PathOptimiser}.
+         * @param geometry The positions of the nodes.
+         * @param size The number of nodes in a window.
+         */
+        private PathOptimiser(NodeGeometry geometry, int size) {
+            this.geometry = geometry;
+            this.size = size;
+            nodes = new int[size];
+            distances = new double[size * size];
+            fromStart = new double[size];
+            toEnd = new double[size];
+            lengths = new double[size << size];
+            parents = new byte[size << size];
+        }
+
+        /**
+         * Replaces the order of the nodes of one window of a tour with the shortest path through them between the
+         * nodes either side of it, if that is shorter.
+         * @param tour The indices of the nodes of the tour, in order.
+         * @param from The position of the first node of the window (taken modulo the length of the tour).
+         * @return improved True if the window was reordered.
+         */
+        private boolean optimise(int[] tour, int from) {
+            int numNodes = tour.length;
+            int start = tour[Math.floorMod(from - 1, numNodes)];
+            int end = tour[(from + size) % numNodes];
+            double current = 0;
+            for (int i = 0; i < size; i++) {
+                nodes[i] = tour[(from + i) % numNodes];
+                fromStart[i] = geometry.distance(start, nodes[i]);
+                toEnd[i] = geometry.distance(nodes[i], end);
+                for (int j = 0; j < i; j++) {
+                    double d = geometry.distance(nodes[i], nodes[j]);
+                    distances[i * size + j] = d;
+                    distances[j * size + i] = d;
+                }
+                current += i == 0 ? fromStart[0] : distances[(i - 1) * size + i];
+            }
+            current += toEnd[size - 1];
+            Arrays.fill(lengths, Double.POSITIVE_INFINITY);
+            for (int i = 0; i < size; i++) {
+                lengths[(1 << i) * size + i] = fromStart[i];
+                parents[(1 << i) * size + i] = -1;
+            }
+            int full = (1 << size) - 1;
+            for (int subset = 1; subset < full; subset++) {
+                for (int last = 0; last < size; last++) {
+                    double length = lengths[subset * size + last];
+                    if (length == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    int row = last * size;
+                    for (int next = 0; next < size; next++) {
+                        if ((subset & (1 << next)) != 0) {
+                            continue;
+                        }
+                        int index = (subset | (1 << next)) * size + next;
+                        double candidate = length + distances[row + next];
+                        if (candidate < lengths[index]) {
+                            lengths[index] = candidate;
+                            parents[index] = (byte) last;
+                        }
+                    }
+                }
+            }
+            double best = Double.POSITIVE_INFINITY;
+            int bestLast = -1;
+            for (int last = 0; last < size; last++) {
+                double length = lengths[full * size + last] + toEnd[last];
+                if (length < best) {
+                    best = length;
+                    bestLast = last;
+                }
+            }
+            if (best >= current - EPSILON) {
+                return false;
+            }
+            int subset = full;
+            int last = bestLast;
+            for (int i = size - 1; i >= 0; i--) {
+                tour[(from + i) % numNodes] = nodes[last];
+                int parent = parents[subset * size + last];
+                subset &= ~(1 << last);
+                last = parent;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Sets the @code{graph} attribute to a new value.
+     * @param graph The graph to assign the StaticSolver's @code{graph} attribute.
+     */
+    @Override
+    public void setGraph(StaticGraph graph) {
+        RepeatedFunctions.validateGraph(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
+     */
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{constructor} attribute.
+     * @return constructor The value of the @code{constructor} attribute.
+     */
+    public TourConstructor getConstructor() {
+        return constructor;
+    }
+
+    /**
+     * Sets the @code{constructor} attribute to a new value.
+     * @param constructor The new value to assign the @code{constructor} attribute.
+     */
+    public void setConstructor(TourConstructor constructor) {
+        this.constructor = constructor;
+    }
+
+    /**
+     * Returns the value of the @code{windowSize} attribute.
+     * @return windowSize The value of the @code{windowSize} attribute.
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Sets the @code{windowSize} attribute to a new value.
+     * @param windowSize The new value to assign the @code{windowSize} attribute (from 2 to @code{MAX_WINDOW_SIZE}).
+     */
+    public void setWindowSize(int windowSize) {
+        this.windowSize = Math.max(2, Math.min(MAX_WINDOW_SIZE, windowSize));
+    }
+
+    /**
+     * Returns the value of the @code{maxPasses} attribute.
+     * @return maxPasses The value of the @code{maxPasses} attribute.
+     */
+    public int getMaxPasses() {
+        return maxPasses;
+    }
+
+    /**
+     * Sets the @code{maxPasses} attribute to a new value.
+     * @param maxPasses The new value to assign the @code{maxPasses} attribute (at least 1).
+     */
+    public void setMaxPasses(int maxPasses) {
+        this.maxPasses = Math.max(1, maxPasses);
+    }
+
+    /**
+     * Returns the value of the @code{timeLimit} attribute.
+     * @return timeLimit The value of the @code{timeLimit} attribute.
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * Sets the @code{timeLimit} attribute to a new value.
+     * @param timeLimit The new value to assign the @code{timeLimit} attribute, in milliseconds (0 for no limit).
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = Math.max(0, timeLimit);
+    }
+
+    /**
+     * Returns the value of the @code{executorService} attribute.
+     * @return executorService The value of the @code{executorService} attribute.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Sets the @code{executorService} attribute to a new value.
+     * @param executorService The new value to assign the @code{executorService} attribute.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+}
@@ -0,0 +1,285 @@
+package com.alike.solvers;
+
+import com.alike.customexceptions.InvalidTourException;
+import com.alike.graphsystem.StaticGraph;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.RepeatedFunctions;
+import com.alike.solution_helpers.TourBoard;
+import com.alike.solvertestsuite.Fail;
+import com.alike.solvertestsuite.Solution;
+import com.alike.solvertestsuite.SolverOutput;
+import com.alike.time.Stopwatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Races several @code{StaticSolver}s against each other on the same graph and returns the shortest tour any of them
+ * has found by a deadline, so the time to a good tour follows whichever solver suits the graph best. The solvers are
+ * given as factories, and every race makes fresh solvers with them, so no solver is ever run twice at once or left
+ * holding state from an earlier race (the same portfolio can be reused across graphs, e.g. by a
+ * @code{StaticTestSuite}). Each solver is given a @code{sharedCopy} of the graph, which shares the nodes and edge
+ * length matrix rather than copying them, and posts its tour to a @code{TourBoard} as soon as it finishes. At the
+ * deadline the tours any unfinished solvers are displaying are posted too, and the shortest tour on the board is
+ * returned. If no solver has a tour by then, the portfolio waits for the first one that does.
+ * None of the solvers can be stopped part way, so any still running at the deadline are left to finish in the
+ * background (solvers that have not started by then are skipped); by default they run on daemon threads so that they
+ * never keep the program alive. The next race waits for them to finish before it starts timing, so leftover solvers
+ * never pile up or slow down a later race.
+ * @author alike
+ */
+public class PortfolioSolver implements StaticSolver {
+    /**
+     * The graph which we are to solve.
+     */
+    private StaticGraph graph;
+
+    /**
+     * Make the solvers to race, a fresh one for each race.
+     */
+    private List<Supplier<StaticSolver>> solvers;
+
+    /**
+     * The time in milliseconds after which the shortest tour found so far is returned (0 to wait for every solver).
+     */
+    private long timeLimit = 0;
+
+    /**
+     * The executor service the solvers are run on (null for a new daemon thread per solver on each run).
+     */
+    private ExecutorService executorService = null;
+
+    /**
+     * The solver whose tour was returned by the last run.
+     */
+    private StaticSolver winner;
+
+    /**
+     * Counts down as the solvers of the last race finish (null before the first race).
+     */
+    private CountDownLatch lastRace = null;
+
+    /**
+     * Constructs a new @code{PortfolioSolver} that runs each solver on a thread of its own.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     * @param solvers Make the solvers to race, a fresh one for each race.
+     */
+    public PortfolioSolver(StaticGraph graph, List<Supplier<StaticSolver>> solvers) {
+        setGraph(graph);
+        setSolvers(solvers);
+    }
+
+    /**
+     * Races the solvers on the graph in the @code{graph} attribute.
+     * @param delayPerStep The delay passed on to each solver.
+     * @return output The results of the solution attempt.
+     */
+    @Override
+    public SolverOutput runSolution(int delayPerStep) {
+        try {
+            if (lastRace != null) { // Let the last race's unfinished solvers finish so they do not skew the timing.
+                lastRace.await();
+            }
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.start();
+            NodeGeometry geometry = new NodeGeometry(graph);
+            int[] tour = race(geometry, delayPerStep);
+            graph.setEdgeContainer(geometry.toEdgeContainer(tour));
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), stopwatch.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
+        }
+    }
+
+    /**
+     * Runs a fresh instance of every solver on its own copy of the graph until the deadline and returns the shortest
+     * tour found.
+     * @param geometry The positions of the nodes of the graph.
+     * @param delayPerStep The delay passed on to each solver.
+     * @return tour The indices of the nodes of the shortest tour, in order.
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting for the solvers.
+     */
+    private int[] race(NodeGeometry geometry, int delayPerStep) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeLimit;
+        ExecutorService executor = executorService != null ? executorService
+                : Executors.newFixedThreadPool(solvers.size(), runnable -> {
+                    Thread thread = new Thread(runnable, "portfolio-solver");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        TourBoard board = new TourBoard();
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+        CountDownLatch race = new CountDownLatch(solvers.size());
+        AtomicBoolean over = new AtomicBoolean(false);
+        lastRace = race;
+        List<StaticSolver> members = new ArrayList<>(solvers.size());
+        List<StaticGraph> copies = new ArrayList<>(solvers.size());
+        List<Future<Void>> futures = new ArrayList<>(solvers.size());
+        for (Supplier<StaticSolver> factory : solvers) {
+            StaticSolver solver = factory.get();
+            StaticGraph copy = graph.sharedCopy();
+            members.add(solver);
+            copies.add(copy);
+            futures.add(completionService.submit(() -> {
+                try {
+                    if (!over.get()) { // Solvers that have not started by the end of the race are skipped.
+                        solver.setGraph(copy);
+                        if (!solver.runSolution(delayPerStep).isFail()) {
+                            post(board, geometry, copy, solver);
+                        }
+                    }
+                } finally {
+                    race.countDown();
+                }
+                return null;
+            }));
+        }
+        try {
+            int finished = 0;
+            while (finished < solvers.size()) {
+                long remaining = deadline - System.currentTimeMillis();
+                Future<Void> future = timeLimit == 0 ? completionService.take()
+                        : completionService.poll(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+                if (future == null) { // The deadline has passed: take what the unfinished solvers are displaying.
+                    for (int i = 0; i < solvers.size(); i++) {
+                        if (!futures.get(i).isDone()) {
+                            post(board, geometry, copies.get(i), members.get(i));
+                        }
+                    }
+                    if (!board.isEmpty()) {
+                        break;
+                    }
+                    future = completionService.take();
+                }
+                finished++;
+                try {
+                    future.get();
+                } catch (ExecutionException e) { // Failed solvers simply drop out of the race.
+                    e.getCause().printStackTrace();
+                }
+            }
+        } finally {
+            over.set(true);
+            if (executor != executorService) {
+                executor.shutdown();
+            }
+        }
+        if (board.isEmpty()) {
+            throw new IllegalStateException("None of the solvers in the portfolio found a tour.");
+        }
+        winner = (StaticSolver) board.getBestSource();
+        return board.getBestTour();
+    }
+
+    /**
+     * Posts the tour on a copy of the graph to the board, if it is a complete tour. Solvers that are still running may
+     * be changing their edges, so anything that is not a single tour through every node is ignored.
+     * @param board The board to post to.
+     * @param geometry The positions of the nodes of the graph.
+     * @param copy The solver's copy of the graph.
+     * @param solver The solver.
+     */
+    private static void post(TourBoard board, NodeGeometry geometry, StaticGraph copy, StaticSolver solver) {
+        try {
+            int[] tour = geometry.tourFromEdges(copy.getEdgeContainer());
+            board.offer(tour, geometry.tourLength(tour), solver);
+        } catch (InvalidTourException | RuntimeException e) {
+            // The edges were not a whole tour (yet).
+        }
+    }
+
+    /**
+     * Sets the @code{graph} attribute to a new value.
+     * @param graph The graph to assign the StaticSolver's @code{graph} attribute.
+     */
+    @Override
+    public void setGraph(StaticGraph graph) {
+        RepeatedFunctions.validateGraph(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
+     */
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{solvers} attribute.
+     * @return solvers The value of the @code{solvers} attribute.
+     */
+    public List<Supplier<StaticSolver>> getSolvers() {
+        return solvers;
+    }
+
+    /**
+     * Sets the @code{solvers} attribute to a new value.
+     * @param solvers The new value to assign the @code{solvers} attribute.
+     */
+    public void setSolvers(List<Supplier<StaticSolver>> solvers) {
+        this.solvers = solvers;
+    }
+
+    /**
+     * Returns the value of the @code{timeLimit} attribute.
+     * @return timeLimit The value of the @code{timeLimit} attribute.
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * Sets the @code{timeLimit} attribute to a new value.
+     * @param timeLimit The new value to assign the @code{timeLimit} attribute, in milliseconds (0 for no limit).
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = Math.max(0, timeLimit);
+    }
+
+    /**
+     * Returns the value of the @code{executorService} attribute.
+     * @return executorService The value of the @code{executorService} attribute.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Sets the @code{executorService} attribute to a new value.
+     * @param executorService The new value to assign the @code{executorService} attribute (null for a new daemon
+     * thread per solver on each run).
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    /**
+     * Returns the value of the @code{winner} attribute.
+     * @return winner The solver whose tour was returned by the last run (null before the first).
+     */
+    public StaticSolver getWinner() {
+        return winner;
+    }
+
+    /**
+     * Sets the @code{winner} attribute to a new value.
+     * @param winner The new value to assign the @code{winner} attribute.
+     */
+    public void setWinner(StaticSolver winner) {
+        this.winner = winner;
+    }
+}
@@ -0,0 +1,709 @@
+package com.alike.solvers;
+
+import com.alike.graphsystem.StaticGraph;
+import com.alike.solution_helpers.CandidateLists;
+import com.alike.solution_helpers.IslandSearch;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.OrOptImprover;
+import com.alike.solution_helpers.RepeatedFunctions;
+import com.alike.solution_helpers.Tour;
+import com.alike.solution_helpers.TourConstructor;
+import com.alike.solution_helpers.TwoOptImprover;
+import com.alike.solvertestsuite.Fail;
+import com.alike.solvertestsuite.Solution;
+import com.alike.solvertestsuite.SolverOutput;
+import com.alike.time.Stopwatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A simulated annealing solver with parallel tempering. Several replicas of a starting tour are annealed at once, each
+ * at its own temperature on a geometric ladder and on its own thread, with random 2-opt moves (reverse a path) and
+ * Or-opt moves (move a segment of up to three nodes) between each node and one of its candidates. Every move's change
+ * in length is worked out from the four to six edges it touches, so a move costs O(1) to evaluate. A worse move is
+ * accepted with probability exp(-delta / T).
+ * After each round the replicas' lengths are recomputed exactly, and neighbouring replicas swap tours with the
+ * parallel tempering probability, so good tours found at high temperatures sink to the cold replicas while the hot
+ * replicas keep exploring. The whole ladder also cools geometrically from round to round. The shortest tour seen is
+ * finished off with 2-opt and Or-opt local search. Temperatures are given in multiples of the average distance from a
+ * node to its nearest neighbour, so the defaults suit graphs of any scale.
+ * Algorithm found: S. Kirkpatrick, C. D. Gelatt and M. P. Vecchi, "Optimization by simulated annealing" (1983), and
+ * K. Hukushima and K. Nemoto, "Exchange Monte Carlo method and application to spin glass simulations" (1996).
+ * @author alike
+ */
+public class SimulatedAnnealingSolver implements StaticSolver, TourConstructor, IslandSolver {
+    /**
+     * The number of nodes in the longest segment an Or-opt move will move.
+     */
+    private static final int MAX_SEGMENT_LENGTH = 3;
+
+    /**
+     * The graph which we are to solve.
+     */
+    private StaticGraph graph;
+
+    /**
+     * Constructs the tour every replica starts from.
+     */
+    private TourConstructor initialConstructor = new GreedyEdgeSolver();
+
+    /**
+     * The number of replicas (normally one per core).
+     */
+    private int numReplicas = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The number of rounds of annealing (the replicas try to exchange tours after each).
+     */
+    private int numRounds = 100;
+
+    /**
+     * The number of moves each replica tries per node per round.
+     */
+    private int sweepsPerRound = 20;
+
+    /**
+     * The temperature of the coldest replica in the first round, in multiples of the mean nearest neighbour distance.
+     */
+    private double startTemperature = 0.3;
+
+    /**
+     * The temperature of the coldest replica in the last round, in multiples of the mean nearest neighbour distance.
+     */
+    private double endTemperature = 0.003;
+
+    /**
+     * The ratio between the temperatures of neighbouring replicas on the ladder.
+     */
+    private double temperatureRatio = 1.5;
+
+    /**
+     * The number of nearest candidates each node's moves are chosen from.
+     */
+    private int candidateListSize = 8;
+
+    /**
+     * The time in milliseconds after which no more rounds are started (0 for no limit).
+     */
+    private long timeLimit = 0;
+
+    /**
+     * The seed used to give each replica (and the exchanges) its own random number generator (null for unseeded).
+     */
+    private Long seed = null;
+
+    /**
+     * The executor service the replicas are run on.
+     */
+    private ExecutorService executorService;
+
+    /**
+     * Constructs a new @code{SimulatedAnnealingSolver} that runs on the common fork/join pool.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     */
+    public SimulatedAnnealingSolver(StaticGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new @code{SimulatedAnnealingSolver}.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     * @param executorService The executor service the replicas are run on.
+     */
+    public SimulatedAnnealingSolver(StaticGraph graph, ExecutorService executorService) {
+        setGraph(graph);
+        setExecutorService(executorService);
+    }
+
+    /**
+     * Constructs a new @code{SimulatedAnnealingSolver} that runs on the common fork/join pool, for use as a
+     * @code{TourConstructor}.
+     */
+    public SimulatedAnnealingSolver() {
+        setExecutorService(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Anneals a tour through the graph in the @code{graph} attribute.
+     * @param delayPerStep Unused; the tour is only displayed once it is finished.
+     * @return output The results of the solution attempt.
+     */
+    @Override
+    public SolverOutput runSolution(int delayPerStep) {
+        try {
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.start();
+            NodeGeometry geometry = new NodeGeometry(graph);
+            graph.setEdgeContainer(geometry.toEdgeContainer(construct(geometry)));
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), stopwatch.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
+        }
+    }
+
+    /**
+     * Anneals a tour through the nodes of a geometry with parallel tempering.
+     * @param geometry The positions of the nodes.
+     * @return tour The indices of the nodes of the shortest tour found, in order.
+     */
+    @Override
+    public int[] construct(NodeGeometry geometry) {
+        long startTime = System.currentTimeMillis();
+        Annealing annealing = new Annealing(geometry, seed == null ? new SplittableRandom()
+                : new SplittableRandom(seed), true);
+        for (int round = 0; round < numRounds; round++) {
+            if (timeLimit > 0 && System.currentTimeMillis() - startTime >= timeLimit) {
+                break;
+            }
+            annealing.run(1);
+        }
+        if (annealing.candidateLists == null) {
+            return annealing.getBestTour();
+        }
+        Tour tour = Tour.create(annealing.getBestTour());
+        TwoOptImprover twoOpt = new TwoOptImprover();
+        OrOptImprover orOpt = new OrOptImprover(MAX_SEGMENT_LENGTH);
+        boolean improved = true;
+        while (improved) {
+            improved = twoOpt.improve(tour, geometry, annealing.candidateLists);
+            improved |= orOpt.improve(tour, geometry, annealing.candidateLists);
+        }
+        return tour.toArray();
+    }
+
+    /**
+     * Creates an island that anneals its own ladder of replicas on a single thread. Once it has run @code{numRounds}
+     * rounds it carries on at the end temperature, and a tour that immigrates replaces the coldest replica's tour if
+     * it is shorter.
+     * @param geometry The positions of the nodes.
+     * @param seed The seed of the island's random number generators.
+     * @return island The new island.
+     */
+    @Override
+    public IslandSearch createIsland(NodeGeometry geometry, long seed) {
+        return new Annealing(geometry, new SplittableRandom(seed), false);
+    }
+
+    /**
+     * One run of parallel tempering: a ladder of replicas, the shortest tour they have found, and the number of rounds
+     * run so far (which sets the temperatures).
+     */
+    private final class Annealing implements IslandSearch {
+        /**
+         * The positions of the nodes.
+         */
+        private final NodeGeometry geometry;
+
+        /**
+         * The nearest candidates of each node (null if there are too few nodes to anneal).
+         */
+        private final CandidateLists candidateLists;
+
+        /**
+         * The mean nearest neighbour distance, the unit the temperatures are given in.
+         */
+        private final double scale;
+
+        /**
+         * The replicas, coldest first.
+         */
+        private final List<Replica> replicas = new ArrayList<>();
+
+        /**
+         * One task per replica that anneals it for a round.
+         */
+        private final List<Callable<Void>> tasks = new ArrayList<>();
+
+        /**
+         * The random number generator used for the exchanges.
+         */
+        private final SplittableRandom exchangeRandom;
+
+        /**
+         * Whether the replicas are annealed in parallel on the @code{executorService} (or in turn on the caller).
+         */
+        private final boolean parallel;
+
+        /**
+         * The shortest tour found.
+         */
+        private int[] best;
+
+        /**
+         * The length of the shortest tour found.
+         */
+        private double bestLength;
+
+        /**
+         * The number of rounds run so far.
+         */
+        private int round = 0;
+
+        /**
+         * Constructs a new @code{Annealing}, with every replica starting from a tour built by the
+         * @code{initialConstructor}.
+         * @param geometry The positions of the nodes.
+         * @param seeds The generator the seeds of the replicas and the exchanges are drawn from.
+         * @param parallel Whether the replicas are annealed in parallel on the @code{executorService}.
+         */
+        private Annealing(NodeGeometry geometry, SplittableRandom seeds, boolean parallel) {
+            int numNodes = geometry.getNumNodes();
+            this.geometry = geometry;
+            this.parallel = parallel;
+            this.exchangeRandom = new SplittableRandom(seeds.nextLong());
+            this.best = initialConstructor.construct(geometry);
+            this.bestLength = geometry.tourLength(best);
+            if (numNodes < MAX_SEGMENT_LENGTH + 3) {
+                // Too few nodes for an Or-opt move to have anywhere to go (and any tour of 3 is optimal).
+                this.candidateLists = null;
+                this.scale = 1;
+                return;
+            }
+            this.candidateLists = CandidateLists.fromGeometry(geometry, Math.min(candidateListSize, numNodes - 1));
+            this.scale = meanNearestDistance(geometry, candidateLists);
+            long movesPerRound = (long) sweepsPerRound * numNodes;
+            for (int r = 0; r < numReplicas; r++) {
+                Replica replica = new Replica(Tour.create(best), bestLength, seeds.nextLong());
+                replicas.add(replica);
+                tasks.add(() -> {
+                    anneal(replica, movesPerRound, geometry, candidateLists);
+                    return null;
+                });
+            }
+        }
+
+        /**
+         * Runs rounds of annealing, each followed by an exchange between neighbouring replicas.
+         * @param numIterations The number of rounds to run.
+         */
+        @Override
+        public void run(int numIterations) {
+            if (candidateLists == null) {
+                return;
+            }
+            for (int i = 0; i < numIterations; i++, round++) {
+                double progress = numRounds == 1 ? 1 : Math.min(1, (double) round / (numRounds - 1));
+                double coldest = scale * startTemperature * Math.pow(endTemperature / startTemperature, progress);
+                for (int r = 0; r < replicas.size(); r++) {
+                    replicas.get(r).temperature = coldest * Math.pow(temperatureRatio, r);
+                }
+                if (parallel) {
+                    runAll(tasks);
+                } else {
+                    for (Replica replica : replicas) {
+                        anneal(replica, (long) sweepsPerRound * geometry.getNumNodes(), geometry, candidateLists);
+                    }
+                }
+                for (Replica replica : replicas) {
+                    int[] tour = replica.tour.toArray();
+                    replica.length = geometry.tourLength(tour); // Clears the rounding errors of the summed deltas.
+                    if (replica.length < bestLength) {
+                        bestLength = replica.length;
+                        best = tour;
+                    }
+                }
+                exchange(replicas, round % 2, exchangeRandom);
+            }
+        }
+
+        /**
+         * Returns the shortest tour found.
+         * @return tour The indices of the nodes of the tour, in order.
+         */
+        @Override
+        public int[] getBestTour() {
+            return best.clone();
+        }
+
+        /**
+         * Returns the length of the shortest tour found.
+         * @return length The length of the tour.
+         */
+        @Override
+        public double getBestLength() {
+            return bestLength;
+        }
+
+        /**
+         * Gives the coldest replica a tour from another island if it is shorter than its own.
+         * @param tour The indices of the nodes of the tour, in order.
+         * @param length The length of the tour.
+         */
+        @Override
+        public void immigrate(int[] tour, double length) {
+            if (length < bestLength) {
+                best = tour.clone();
+                bestLength = length;
+            }
+            if (!replicas.isEmpty() && length < replicas.get(0).length) {
+                replicas.get(0).tour = Tour.create(tour);
+                replicas.get(0).length = length;
+            }
+        }
+    }
+
+    /**
+     * Runs a batch of tasks on the @code{executorService} and waits for them all to finish.
+     * @param tasks The tasks.
+     */
+    private void runAll(List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> future : executorService.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while annealing.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A replica failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Offers each pair of neighbouring replicas on the ladder (starting from the coldest or the next) the chance to
+     * swap tours, which they do with probability min(1, exp((1/T1 - 1/T2)(L1 - L2))).
+     * @param replicas The replicas, coldest first.
+     * @param first The colder replica of the first pair (0 or 1, alternated so every pair gets its turn).
+     * @param random The random number generator used for the exchanges.
+     */
+    private static void exchange(List<Replica> replicas, int first, SplittableRandom random) {
+        for (int r = first; r + 1 < replicas.size(); r += 2) {
+            Replica colder = replicas.get(r);
+            Replica hotter = replicas.get(r + 1);
+            double exponent = (1 / colder.temperature - 1 / hotter.temperature) * (colder.length - hotter.length);
+            if (exponent >= 0 || random.nextDouble() < Math.exp(exponent)) {
+                Tour tour = colder.tour;
+                colder.tour = hotter.tour;
+                hotter.tour = tour;
+                double length = colder.length;
+                colder.length = hotter.length;
+                hotter.length = length;
+            }
+        }
+    }
+
+    /**
+     * Runs the Metropolis algorithm on a replica at its temperature, trying random 2-opt and Or-opt moves between
+     * nodes and their candidates.
+     * @param replica The replica to anneal.
+     * @param numMoves The number of moves to try.
+     * @param geometry The positions of the nodes.
+     * @param candidateLists The nearest candidates of each node.
+     */
+    private static void anneal(Replica replica, long numMoves, NodeGeometry geometry,
+                               CandidateLists candidateLists) {
+        Tour tour = replica.tour;
+        SplittableRandom random = replica.random;
+        double temperature = replica.temperature;
+        int[] candidates = candidateLists.getCandidates();
+        int k = candidateLists.getK();
+        int numNodes = geometry.getNumNodes();
+        double length = replica.length;
+        for (long move = 0; move < numMoves; move++) {
+            int a = random.nextInt(numNodes);
+            int c = candidates[a * k + random.nextInt(k)];
+            if (random.nextBoolean()) {
+                // 2-opt: a an ... c cn becomes a c ... an cn.
+                int an = tour.next(a);
+                int cn = tour.next(c);
+                if (c == an || cn == a) {
+                    continue;
+                }
+                double delta = geometry.distance(a, c) + geometry.distance(an, cn)
+                        - geometry.distance(a, an) - geometry.distance(c, cn);
+                if (accept(delta, temperature, random)) {
+                    tour.flip(an, c);
+                    length += delta;
+                }
+            } else {
+                // Or-opt: the segment a..s2 moves to between c and its successor, whichever way round is shorter.
+                int s2 = a;
+                for (int i = random.nextInt(MAX_SEGMENT_LENGTH); i > 0; i--) {
+                    s2 = tour.next(s2);
+                }
+                int p = tour.prev(a);
+                int n = tour.next(s2);
+                if (c == p || tour.between(a, c, s2)) {
+                    continue; // The segment is already there, or c is part of it.
+                }
+                int cn = tour.next(c);
+                double base = geometry.distance(p, n) - geometry.distance(p, a) - geometry.distance(s2, n)
+                        - geometry.distance(c, cn);
+                double forward = base + geometry.distance(c, a) + geometry.distance(s2, cn);
+                double reversed = base + geometry.distance(c, s2) + geometry.distance(a, cn);
+                double delta = Math.min(forward, reversed);
+                if (accept(delta, temperature, random)) {
+                    OrOptImprover.moveSegment(a, s2, c, forward <= reversed, tour);
+                    length += delta;
+                }
+            }
+        }
+        replica.length = length;
+    }
+
+    /**
+     * Decides whether to accept a move by the Metropolis criterion.
+     * @param delta The change in tour length the move would make.
+     * @param temperature The temperature.
+     * @param random The random number generator to use.
+     * @return accept True if the move should be made.
+     */
+    private static boolean accept(double delta, double temperature, SplittableRandom random) {
+        return delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature);
+    }
+
+    /**
+     * Returns the mean distance from each node to its nearest neighbour, the unit temperatures are given in.
+     * @param geometry The positions of the nodes.
+     * @param candidateLists The nearest candidates of each node.
+     * @return distance The mean nearest neighbour distance (1 if every node is on top of its neighbour).
+     */
+    private static double meanNearestDistance(NodeGeometry geometry, CandidateLists candidateLists) {
+        double total = 0;
+        for (int i = 0; i < geometry.getNumNodes(); i++) {
+            total += geometry.distance(i, candidateLists.get(i, 0));
+        }
+        return total > 0 ? total / geometry.getNumNodes() : 1;
+    }
+
+    /**
+     * The state of one replica: its tour, the tour's length, its current temperature and its random number generator.
+     * Only the replica's own thread touches it during a round.
+     */
+    private static final class Replica {
+        /**
+         * The replica's tour.
+         */
+        private Tour tour;
+
+        /**
+         * The length of the replica's tour.
+         */
+        private double length;
+
+        /**
+         * The temperature the replica is annealed at this round.
+         */
+        private double temperature;
+
+        /**
+         * The replica's random number generator.
+         */
+        private final SplittableRandom random;
+
+        /**
+         * Constructs a new @code{Replica}.
+         * @param tour The replica's starting tour.
+         * @param length The length of the starting tour.
+         * @param seed The seed of the replica's random number generator.
+         */
+        private Replica(Tour tour, double length, long seed) {
+            this.tour = tour;
+            this.length = length;
+            this.random = new SplittableRandom(seed);
+        }
+    }
+
+    /**
+     * Sets the @code{graph} attribute to a new value.
+     * @param graph The graph to assign the StaticSolver's @code{graph} attribute.
+     */
+    @Override
+    public void setGraph(StaticGraph graph) {
+        RepeatedFunctions.validateGraph(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
+     */
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{initialConstructor} attribute.
+     * @return initialConstructor The value of the @code{initialConstructor} attribute.
+     */
+    public TourConstructor getInitialConstructor() {
+        return initialConstructor;
+    }
+
+    /**
+     * Sets the @code{initialConstructor} attribute to a new value.
+     * @param initialConstructor The new value to assign the @code{initialConstructor} attribute.
+     */
+    public void setInitialConstructor(TourConstructor initialConstructor) {
+        this.initialConstructor = initialConstructor;
+    }
+
+    /**
+     * Returns the value of the @code{numReplicas} attribute.
+     * @return numReplicas The value of the @code{numReplicas} attribute.
+     */
+    public int getNumReplicas() {
+        return numReplicas;
+    }
+
+    /**
+     * Sets the @code{numReplicas} attribute to a new value.
+     * @param numReplicas The new value to assign the @code{numReplicas} attribute (at least 1).
+     */
+    public void setNumReplicas(int numReplicas) {
+        this.numReplicas = Math.max(1, numReplicas);
+    }
+
+    /**
+     * Returns the value of the @code{numRounds} attribute.
+     * @return numRounds The value of the @code{numRounds} attribute.
+     */
+    public int getNumRounds() {
+        return numRounds;
+    }
+
+    /**
+     * Sets the @code{numRounds} attribute to a new value.
+     * @param numRounds The new value to assign the @code{numRounds} attribute (at least 1).
+     */
+    public void setNumRounds(int numRounds) {
+        this.numRounds = Math.max(1, numRounds);
+    }
+
+    /**
+     * Returns the value of the @code{sweepsPerRound} attribute.
+     * @return sweepsPerRound The value of the @code{sweepsPerRound} attribute.
+     */
+    public int getSweepsPerRound() {
+        return sweepsPerRound;
+    }
+
+    /**
+     * Sets the @code{sweepsPerRound} attribute to a new value.
+     * @param sweepsPerRound The new value to assign the @code{sweepsPerRound} attribute (at least 1).
+     */
+    public void setSweepsPerRound(int sweepsPerRound) {
+        this.sweepsPerRound = Math.max(1, sweepsPerRound);
+    }
+
+    /**
+     * Returns the value of the @code{startTemperature} attribute.
+     * @return startTemperature The value of the @code{startTemperature} attribute.
+     */
+    public double getStartTemperature() {
+        return startTemperature;
+    }
+
+    /**
+     * Sets the @code{startTemperature} attribute to a new value.
+     * @param startTemperature The new value to assign the @code{startTemperature} attribute.
+     */
+    public void setStartTemperature(double startTemperature) {
+        this.startTemperature = startTemperature;
+    }
+
+    /**
+     * Returns the value of the @code{endTemperature} attribute.
+     * @return endTemperature The value of the @code{endTemperature} attribute.
+     */
+    public double getEndTemperature() {
+        return endTemperature;
+    }
+
+    /**
+     * Sets the @code{endTemperature} attribute to a new value.
+     * @param endTemperature The new value to assign the @code{endTemperature} attribute.
+     */
+    public void setEndTemperature(double endTemperature) {
+        this.endTemperature = endTemperature;
+    }
+
+    /**
+     * Returns the value of the @code{temperatureRatio} attribute.
+     * @return temperatureRatio The value of the @code{temperatureRatio} attribute.
+     */
+    public double getTemperatureRatio() {
+        return temperatureRatio;
+    }
+
+    /**
+     * Sets the @code{temperatureRatio} attribute to a new value.
+     * @param temperatureRatio The new value to assign the @code{temperatureRatio} attribute (at least 1).
+     */
+    public void setTemperatureRatio(double temperatureRatio) {
+        this.temperatureRatio = Math.max(1, temperatureRatio);
+    }
+
+    /**
+     * Returns the value of the @code{candidateListSize} attribute.
+     * @return candidateListSize The value of the @code{candidateListSize} attribute.
+     */
+    public int getCandidateListSize() {
+        return candidateListSize;
+    }
+
+    /**
+     * Sets the @code{candidateListSize} attribute to a new value.
+     * @param candidateListSize The new value to assign the @code{candidateListSize} attribute (at least 1).
+     */
+    public void setCandidateListSize(int candidateListSize) {
+        this.candidateListSize = Math.max(1, candidateListSize);
+    }
+
+    /**
+     * Returns the value of the @code{timeLimit} attribute.
+     * @return timeLimit The value of the @code{timeLimit} attribute.
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * Sets the @code{timeLimit} attribute to a new value.
+     * @param timeLimit The new value to assign the @code{timeLimit} attribute, in milliseconds (0 for no limit).
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = Math.max(0, timeLimit);
+    }
+
+    /**
+     * Returns the value of the @code{seed} attribute.
+     * @return seed The value of the @code{seed} attribute.
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the @code{seed} attribute to a new value.
+     * @param seed The new value to assign the @code{seed} attribute (null for unseeded runs).
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the value of the @code{executorService} attribute.
+     * @return executorService The value of the @code{executorService} attribute.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Sets the @code{executorService} attribute to a new value.
+     * @param executorService The new value to assign the @code{executorService} attribute.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+}
@@ -0,0 +1,203 @@
+package com.alike.solvers;
+
+import com.alike.customexceptions.EdgeSuperimpositionException;
+import com.alike.customexceptions.EdgeToSelfException;
+import com.alike.graphsystem.Edge;
+import com.alike.graphsystem.EdgeContainer;
+import com.alike.graphsystem.StaticGraph;
+import com.alike.solution_helpers.HilbertCurve;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.RadixSort;
+import com.alike.solution_helpers.RepeatedFunctions;
+import com.alike.solution_helpers.SpaceFillingCurve;
+import com.alike.solvertestsuite.Fail;
+import com.alike.solvertestsuite.Solution;
+import com.alike.solvertestsuite.SolverOutput;
+import com.alike.time.Stopwatch;
+
+/**
+ * Solves a TSP by visiting the nodes in the order a @code{SpaceFillingCurve} passes them. Unlike the
+ * @code{HilbertFractalCurveSolver}, the curve is laid over the bounding box of the graph's own nodes rather than the
+ * canvas, so the graph can have any extent. The bounding box is scaled (keeping its aspect ratio) onto a grid of
+ * 2^precision squares along each side, each node's index along the curve is calculated directly and the nodes are
+ * radix sorted by it, so a solve is O(n).
+ * @author alike
+ */
+public class SpaceFillingCurveSolver implements StaticSolver {
+    /**
+     * The largest precision that can be used.
+     */
+    public static final int MAX_PRECISION = 24;
+
+    /**
+     * The graph which we are to solve.
+     */
+    private StaticGraph graph;
+
+    /**
+     * The curve used to order the nodes.
+     */
+    private SpaceFillingCurve curve;
+
+    /**
+     * The order of the curve, i.e. the bounding box is divided into 2^precision squares along each side.
+     */
+    private int precision = 16;
+
+    /**
+     * Constructs a new @code{SpaceFillingCurveSolver} that orders the nodes along a Hilbert curve.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     */
+    public SpaceFillingCurveSolver(StaticGraph graph) {
+        this(graph, new HilbertCurve());
+    }
+
+    /**
+     * Constructs a new @code{SpaceFillingCurveSolver}.
+     * @param graph The graph the solver will solve when @code{runSolution} is called.
+     * @param curve The curve used to order the nodes.
+     */
+    public SpaceFillingCurveSolver(StaticGraph graph, SpaceFillingCurve curve) {
+        setGraph(graph);
+        setCurve(curve);
+    }
+
+    /**
+     * Constructs a new @code{SpaceFillingCurveSolver} without a graph, so one can be set at a later time.
+     * @param curve The curve used to order the nodes.
+     */
+    public SpaceFillingCurveSolver(SpaceFillingCurve curve) {
+        setCurve(curve);
+    }
+
+    /**
+     * Constructs a route through the graph in the @code{graph} attribute by following the curve.
+     * @param delayPerStep Time to wait between adding edges to the graphs edge container (so we can see it drawn).
+     * @return output The results of the solution attempt.
+     */
+    @Override
+    public SolverOutput runSolution(int delayPerStep) {
+        try {
+            Stopwatch stopwatch = new Stopwatch();
+            stopwatch.start();
+            NodeGeometry geometry = new NodeGeometry(graph);
+            constructRoute(geometry, getNodesOrdered(geometry), delayPerStep);
+            return new Solution(graph, graph.getEdgeContainer().getTotalLength(), stopwatch.getTimeNs());
+        } catch (Exception e) {
+            return new Fail(e, graph);
+        } catch (Error e) {
+            return new Fail(e, graph);
+        }
+    }
+
+    /**
+     * Returns the indices of the nodes in the order the curve visits them.
+     * @param geometry The positions of the nodes.
+     * @return tour The indices of the nodes of the geometry, in curve order.
+     */
+    public int[] getNodesOrdered(NodeGeometry geometry) {
+        int numNodes = geometry.getNumNodes();
+        int indexBits = RadixSort.bitsFor(numNodes);
+        // The curve index goes in the high bits of each key and the node index in the low bits, so both must fit.
+        int order = precision;
+        while (order > 1 && curve.getIndexBits(order) + indexBits > 63) {
+            order--;
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < numNodes; i++) {
+            minX = Math.min(minX, geometry.getX(i));
+            minY = Math.min(minY, geometry.getY(i));
+            maxX = Math.max(maxX, geometry.getX(i));
+            maxY = Math.max(maxY, geometry.getY(i));
+        }
+        int side = 1 << order;
+        double extent = Math.max(maxX - minX, maxY - minY);
+        double scale = extent > 0 ? side / extent : 0;
+        long[] keys = new long[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            int x = Math.min(side - 1, (int) ((geometry.getX(i) - minX) * scale));
+            int y = Math.min(side - 1, (int) ((geometry.getY(i) - minY) * scale));
+            keys[i] = (curve.index(x, y, order) << indexBits) | i;
+        }
+        RadixSort.sort(keys);
+        int[] tour = new int[numNodes];
+        long indexMask = (1L << indexBits) - 1;
+        for (int i = 0; i < numNodes; i++) {
+            tour[i] = (int) (keys[i] & indexMask);
+        }
+        return tour;
+    }
+
+    /**
+     * Replaces the edge container of the graph with the edges of a tour.
+     * @param geometry The positions of the nodes.
+     * @param tour The indices of the nodes of the tour, in order.
+     * @param delayPerStep The time to wait after each edge addition (so we can see it draw if we want).
+     * @throws EdgeToSelfException Thrown if the tour visits a node twice in a row.
+     * @throws EdgeSuperimpositionException Thrown if the tour uses an edge twice.
+     */
+    private void constructRoute(NodeGeometry geometry, int[] tour, int delayPerStep)
+            throws EdgeToSelfException, EdgeSuperimpositionException {
+        if (delayPerStep <= 0) { // Nothing to watch, so build the whole container at once.
+            graph.setEdgeContainer(geometry.toEdgeContainer(tour));
+            return;
+        }
+        EdgeContainer edgeContainer = graph.getEdgeContainer();
+        edgeContainer.clear();
+        for (int i = 0; i < tour.length; i++) {
+            edgeContainer.add(new Edge(geometry.getNode(tour[i]), geometry.getNode(tour[(i + 1) % tour.length])));
+            RepeatedFunctions.sleep(delayPerStep);
+        }
+    }
+
+    /**
+     * Sets the @code{graph} attribute to a new value.
+     * @param graph The graph to assign the StaticSolver's @code{graph} attribute.
+     */
+    @Override
+    public void setGraph(StaticGraph graph) {
+        RepeatedFunctions.validateGraph(graph);
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the value of the @code{graph} attribute.
+     * @return graph The value of the @code{graph} attribute.
+     */
+    public StaticGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the value of the @code{curve} attribute.
+     * @return curve The value of the @code{curve} attribute.
+     */
+    public SpaceFillingCurve getCurve() {
+        return curve;
+    }
+
+    /**
+     * Sets the @code{curve} attribute to a new value.
+     * @param curve The new value to assign the @code{curve} attribute.
+     */
+    public void setCurve(SpaceFillingCurve curve) {
+        this.curve = curve;
+    }
+
+    /**
+     * Returns the value of the @code{precision} attribute.
+     * @return precision The value of the @code{precision} attribute.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Sets the @code{precision} attribute to a new value.
+     * @param precision The new value to assign the @code{precision} attribute (1 to @code{MAX_PRECISION}).
+     */
+    public void setPrecision(int precision) {
+        this.precision = Math.max(1, Math.min(MAX_PRECISION, precision));
+    }
+}
@@ -15,6 +15,12 @@ public class DynamicSolution implements SolverOutput {
      */
     private long avgSolveTime;
 
+    /**
+     * How far the average length is above a lower bound on the optimal route length of the graph's starting positions,
+     * as a percentage (null if unknown). Since the nodes move this is an estimate rather than a guarantee.
+     */
+    private Double optimalityGap;
+
     /**
      * Initialises a new @code{DynamicSolution} object.
      * @param averageLength The average route length of all the solutions yielded by a @code{DynamicSolver}.
@@ -57,6 +63,22 @@ public class DynamicSolution implements SolverOutput {
         this.avgSolveTime = avgSolveTime;
     }
 
+    /**
+     * Returns the value of the @code{optimalityGap} attribute.
+     * @return optimalityGap The value of the @code{optimalityGap} attribute (null if unknown).
+     */
+    public Double getOptimalityGap() {
+        return optimalityGap;
+    }
+
+    /**
+     * Assigns the value of the @code{optimalityGap} attribute.
+     * @param optimalityGap The new value to assign the @code{optimalityGap} attribute.
+     */
+    public void setOptimalityGap(Double optimalityGap) {
+        this.optimalityGap = optimalityGap;
+    }
+
     /**
      * Returns whether this @code{SolverOutput} object is of type @code{Fail}.
      * @return false This object is not a @code{Fail}.
@@ -72,7 +94,11 @@ public class DynamicSolution implements SolverOutput {
      */
     @Override
     public String toString() {
-        return "Averaged " + getAvgLength() + " in " + getAvgSolveTime() + "ns";
+        String string = "Averaged " + getAvgLength() + " in " + getAvgSolveTime() + "ns";
+        if (getOptimalityGap() != null) {
+            string += ", about " + getOptimalityGap() + "% above optimal";
+        }
+        return string;
     }
 
     /**
@@ -4,10 +4,15 @@ import com.alike.customexceptions.NodeSuperimpositionException;
 import com.alike.graphsystem.DynamicGraph;
 import com.alike.solvers.DynamicSolver;
 import com.alike.read_write.GraphReader;
+import com.alike.solution_helpers.HeldKarpBound;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.RepeatedFunctions;
 import com.alike.time.Stopwatch;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Class used to test and compare dynamic solvers against one another.
@@ -20,10 +25,29 @@ public class DynamicTestSuite {
     private Stopwatch stopwatch;
 
     /**
-     * Initialises a new @code{DynamicTestSuite} object.
+     * Computes the lower bounds the solutions' optimality gaps are estimated against.
+     */
+    private HeldKarpBound lowerBound = new HeldKarpBound();
+
+    /**
+     * The executor service the lower bounds are computed on while the solver runs.
+     */
+    private ExecutorService boundExecutor;
+
+    /**
+     * Initialises a new @code{DynamicTestSuite} object. Lower bounds are computed on a background thread of their own.
      */
     public DynamicTestSuite() {
+        this(RepeatedFunctions.newDaemonExecutor("dynamic-test-suite-bound"));
+    }
+
+    /**
+     * Initialises a new @code{DynamicTestSuite} object.
+     * @param boundExecutor The executor service the lower bounds are computed on while the solver runs.
+     */
+    public DynamicTestSuite(ExecutorService boundExecutor) {
         setStopwatch(new Stopwatch());
+        setBoundExecutor(boundExecutor);
     }
 
     /**
@@ -48,9 +72,14 @@ public class DynamicTestSuite {
                 break;
             }
             solver.setGraph(testGraph); // Set the solver's dynamic graph, so it can solve it
+            // Bound the route through the starting positions on a spare core while the solver runs.
+            NodeGeometry geometry = new NodeGeometry(testGraph.getUnderlyingGraph());
+            Future<Double> bound = boundExecutor.submit(() -> lowerBound.compute(geometry));
             stopwatch.start(); // Start the watch
             DynamicSolution ds = solver.calculateSolutions(numSolves, delayPerSolve);
-            results.add(new DynamicTestResult(ds, stopwatch.getTimeNs(), testNumber));
+            long timeNs = stopwatch.getTimeNs(); // Read before waiting for the bound, which is not part of the test.
+            ds.setOptimalityGap(HeldKarpBound.gapPercentage(bound, ds.getAvgLength()));
+            results.add(new DynamicTestResult(ds, timeNs, testNumber));
             System.out.println(testNumber + " : Completed.");
             stopwatch.clear();
             testNumber++;
@@ -59,6 +88,38 @@ public class DynamicTestSuite {
         return new DynamicTestSuiteResult(results, numSolves, delayPerSolve, nodeSpeed, randomMovement, velocityMovement);
     }
 
+    /**
+     * Returns the value of the @code{lowerBound} attribute.
+     * @return lowerBound The value of the @code{lowerBound} attribute.
+     */
+    public HeldKarpBound getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Assigns the value of the @code{lowerBound} attribute.
+     * @param lowerBound The new value to assign the @code{lowerBound} attribute.
+     */
+    public void setLowerBound(HeldKarpBound lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    /**
+     * Returns the value of the @code{boundExecutor} attribute.
+     * @return boundExecutor The value of the @code{boundExecutor} attribute.
+     */
+    public ExecutorService getBoundExecutor() {
+        return boundExecutor;
+    }
+
+    /**
+     * Assigns the value of the @code{boundExecutor} attribute.
+     * @param boundExecutor The new value to assign the @code{boundExecutor} attribute.
+     */
+    public void setBoundExecutor(ExecutorService boundExecutor) {
+        this.boundExecutor = boundExecutor;
+    }
+
     /**
      * Assigns the value of the @code{stopwatch} attribute.
      * @param sw The new value to assign the @code{stopwatch} attribute.
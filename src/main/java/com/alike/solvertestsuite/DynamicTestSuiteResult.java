@@ -174,4 +174,20 @@ public class DynamicTestSuiteResult {
         }
         return total/results.size();
     }
+
+    /**
+     * Returns the average of the optimality gap estimates of the results that have one.
+     * @return avg The average optimality gap as a percentage, or null if no result has one.
+     */
+    public Double getAverageOptimalityGap() {
+        double total = 0;
+        int count = 0;
+        for (DynamicTestResult r : results) {
+            if (r.getSol().getOptimalityGap() != null) {
+                total += r.getSol().getOptimalityGap();
+                count++;
+            }
+        }
+        return count == 0 ? null : total/count;
+    }
 }
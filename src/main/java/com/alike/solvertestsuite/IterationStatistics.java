@@ -0,0 +1,130 @@
+package com.alike.solvertestsuite;
+
+/**
+ * Used to record information about a single iteration (one colony of ants) of an @code{AntColonyOptimisationSolver}.
+ * @author alike
+ */
+public class IterationStatistics {
+    /**
+     * The number of the iteration within its solve (starting from 0).
+     */
+    private final int iteration;
+
+    /**
+     * The number of ants sent during the iteration.
+     */
+    private final int numAnts;
+
+    /**
+     * The length of the shortest route found during the iteration.
+     */
+    private final double bestLength;
+
+    /**
+     * The mean length of the routes found during the iteration.
+     */
+    private final double meanLength;
+
+    /**
+     * The length of the longest route found during the iteration.
+     */
+    private final double worstLength;
+
+    /**
+     * The length of the shortest route found so far in the solve (including this iteration).
+     */
+    private final double bestLengthSoFar;
+
+    /**
+     * The time taken to complete the iteration (ns).
+     */
+    private final long executionTime;
+
+    /**
+     * Constructs a new @code{IterationStatistics} object.
+     * @param iteration The number of the iteration within its solve.
+     * @param numAnts The number of ants sent during the iteration.
+     * @param bestLength The length of the shortest route found during the iteration.
+     * @param meanLength The mean length of the routes found during the iteration.
+     * @param worstLength The length of the longest route found during the iteration.
+     * @param bestLengthSoFar The length of the shortest route found so far in the solve.
+     * @param executionTime The time taken to complete the iteration (ns).
+     */
+    public IterationStatistics(int iteration, int numAnts, double bestLength, double meanLength, double worstLength,
+                               double bestLengthSoFar, long executionTime) {
+        this.iteration = iteration;
+        this.numAnts = numAnts;
+        this.bestLength = bestLength;
+        this.meanLength = meanLength;
+        this.worstLength = worstLength;
+        this.bestLengthSoFar = bestLengthSoFar;
+        this.executionTime = executionTime;
+    }
+
+    /**
+     * Returns the value of the @code{iteration} attribute.
+     * @return iteration The value of the @code{iteration} attribute.
+     */
+    public int getIteration() {
+        return iteration;
+    }
+
+    /**
+     * Returns the value of the @code{numAnts} attribute.
+     * @return numAnts The value of the @code{numAnts} attribute.
+     */
+    public int getNumAnts() {
+        return numAnts;
+    }
+
+    /**
+     * Returns the value of the @code{bestLength} attribute.
+     * @return bestLength The value of the @code{bestLength} attribute.
+     */
+    public double getBestLength() {
+        return bestLength;
+    }
+
+    /**
+     * Returns the value of the @code{meanLength} attribute.
+     * @return meanLength The value of the @code{meanLength} attribute.
+     */
+    public double getMeanLength() {
+        return meanLength;
+    }
+
+    /**
+     * Returns the value of the @code{worstLength} attribute.
+     * @return worstLength The value of the @code{worstLength} attribute.
+     */
+    public double getWorstLength() {
+        return worstLength;
+    }
+
+    /**
+     * Returns the value of the @code{bestLengthSoFar} attribute.
+     * @return bestLengthSoFar The value of the @code{bestLengthSoFar} attribute.
+     */
+    public double getBestLengthSoFar() {
+        return bestLengthSoFar;
+    }
+
+    /**
+     * Returns the value of the @code{executionTime} attribute.
+     * @return executionTime The value of the @code{executionTime} attribute.
+     */
+    public long getExecutionTime() {
+        return executionTime;
+    }
+
+    /**
+     * Returns a string representation of this object and the information in it.
+     * @return string This object as a string.
+     */
+    @Override
+    public String toString() {
+        return "Iteration " + getIteration() + " (" + getNumAnts() + " ants): best " + getBestLength() + ", mean "
+                + getMeanLength() + ", worst " + getWorstLength() + ", best so far " + getBestLengthSoFar() + " in "
+                + getExecutionTime() + "ns";
+    }
+}
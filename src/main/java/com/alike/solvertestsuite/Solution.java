@@ -21,6 +21,17 @@ public class Solution implements SolverOutput {
      */
     private Long executionTime;
 
+    /**
+     * How far the route is above a lower bound on the optimal route length, as a percentage (null if unknown).
+     */
+    private Double optimalityGap;
+
+    /**
+     * Whether the @code{optimalityGap} was measured against a true lower bound, so the route is at most that far above
+     * optimal; otherwise the gap is an estimate.
+     */
+    private boolean optimalityGapExact = true;
+
     /**
      * Constructs a new test result object.
      * @param g The graph solved.
@@ -81,6 +92,38 @@ public class Solution implements SolverOutput {
         this.executionTime = executionTime;
     }
 
+    /**
+     * Returns the value of the @code{optimalityGap} attribute.
+     * @return optimalityGap The value of the @code{optimalityGap} attribute (null if unknown).
+     */
+    public Double getOptimalityGap() {
+        return optimalityGap;
+    }
+
+    /**
+     * Sets the value of the @code{optimalityGap} attribute to a new value.
+     * @param optimalityGap The new value to assign to the @code{optimalityGap} attribute.
+     */
+    public void setOptimalityGap(Double optimalityGap) {
+        this.optimalityGap = optimalityGap;
+    }
+
+    /**
+     * Returns the value of the @code{optimalityGapExact} attribute.
+     * @return optimalityGapExact The value of the @code{optimalityGapExact} attribute.
+     */
+    public boolean isOptimalityGapExact() {
+        return optimalityGapExact;
+    }
+
+    /**
+     * Sets the value of the @code{optimalityGapExact} attribute to a new value.
+     * @param optimalityGapExact The new value to assign to the @code{optimalityGapExact} attribute.
+     */
+    public void setOptimalityGapExact(boolean optimalityGapExact) {
+        this.optimalityGapExact = optimalityGapExact;
+    }
+
     /**
      * Used to turn this solution object into a string to be represented in console.
      * @return string The solution object as a string.
@@ -88,7 +131,11 @@ public class Solution implements SolverOutput {
     @Override
     public String toString() {
         // Convert from ns to s is divide by 1bil
-        return getRouteLength() + " units long. Found in " + getExecutionTime() + "ns";
+        String string = getRouteLength() + " units long. Found in " + getExecutionTime() + "ns";
+        if (getOptimalityGap() != null) {
+            string += (isOptimalityGapExact() ? ", at most " : ", about ") + getOptimalityGap() + "% above optimal";
+        }
+        return string;
     }
 
     /**
@@ -3,12 +3,20 @@ package com.alike.solvertestsuite;
 import com.alike.customexceptions.CoordinateListException;
 import com.alike.customexceptions.NodeSuperimpositionException;
 import com.alike.read_write.CoordinateListFileReader;
+import com.alike.solution_helpers.HeldKarpBound;
+import com.alike.solution_helpers.NodeGeometry;
+import com.alike.solution_helpers.RepeatedFunctions;
 import com.alike.solvers.StaticSolver;
 import com.alike.graphsystem.NodeContainer;
 import com.alike.graphsystem.StaticGraph;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Class used to test Static travelling salesman solutions against a set of pre-constructed graph problems.
@@ -17,6 +25,12 @@ import java.util.ArrayList;
  */
 public class StaticTestSuite {
 
+    /**
+     * The lower bounds of every graph tested so far by any suite, keyed by the number of bound iterations and the
+     * graph's storage format, so that the same file graphs are only ever bounded once.
+     */
+    private static final Map<String, Future<Double>> BOUNDS = new ConcurrentHashMap<>();
+
     /**
      * The reader object we'll be using to obtain the test graphs.
      */
@@ -40,19 +54,42 @@ public class StaticTestSuite {
     private int testNumber = 0;
 
     /**
-     * Used to create an instance of the StaticTestSuite class.
+     * Computes the lower bounds the solutions' optimality gaps are measured against.
+     */
+    private HeldKarpBound lowerBound = new HeldKarpBound();
+
+    /**
+     * The executor service the lower bounds are computed on while the solver runs.
+     */
+    private ExecutorService boundExecutor;
+
+    /**
+     * Used to create an instance of the StaticTestSuite class. Lower bounds are computed on a background thread of
+     * their own.
      * @param solver The solver object we will be testing.
      */
     public StaticTestSuite(StaticSolver solver) {
+        this(solver, RepeatedFunctions.newDaemonExecutor("static-test-suite-bound"));
+    }
+
+    /**
+     * Used to create an instance of the StaticTestSuite class.
+     * @param solver The solver object we will be testing.
+     * @param boundExecutor The executor service the lower bounds are computed on while the solver runs.
+     */
+    public StaticTestSuite(StaticSolver solver, ExecutorService boundExecutor) {
         setSolver(solver);
+        setBoundExecutor(boundExecutor);
     }
 
     /**
-     * Executes the test.
+     * Executes the test. The lower bounds are computed in the background while the solver runs and are only waited
+     * for once every graph has been solved, when the solutions' optimality gaps are filled in.
      * @return testSuiteResult A new @code{TestSuiteResult} object containing the information about the test.
      */
     public TestSuiteResult runTest() {
         ArrayList<TestResult> testResults = new ArrayList<>();
+        Map<Solution, Future<Double>> pendingGaps = new LinkedHashMap<>();
         while (reader.hasRemainingLines()) {
             testNumber++;
             try {
@@ -61,8 +98,18 @@ public class StaticTestSuite {
                 StaticGraph graph = new StaticGraph(nC);
                 currentGraph = graph;
                 solver.setGraph(graph);
+                // Bound the optimal route length on a spare core while the solver runs (unless already bounded).
+                Future<Double> bound = BOUNDS.computeIfAbsent(lowerBound.getMaxIterations() + ":"
+                        + graph.toStorageFormat(','), key -> {
+                    NodeGeometry geometry = new NodeGeometry(graph);
+                    return boundExecutor.submit(() -> lowerBound.compute(geometry));
+                });
                 // Try to find a solution for the current graph using the solver; outputs: Solution||Fail
                 SolverOutput s = solver.runSolution(0);
+                if (s instanceof Solution solution) {
+                    solution.setOptimalityGapExact(HeldKarpBound.isExact(graph.getNumNodes()));
+                    pendingGaps.put(solution, bound);
+                }
                 testResults.add(new TestResult(s, testNumber));
                 currentGraph = null; // Reset the graph to null (in the case we are running this object b2b) & destroys.
             } catch (IOException | NodeSuperimpositionException e) { // Thrown during file reading or graph creation.
@@ -74,9 +121,45 @@ public class StaticTestSuite {
                 } // Otherwise, nothing went wrong - we can ignore the null pointer.
             }
         }
+        for (Map.Entry<Solution, Future<Double>> pending : pendingGaps.entrySet()) {
+            Solution solution = pending.getKey();
+            solution.setOptimalityGap(HeldKarpBound.gapPercentage(pending.getValue(), solution.getRouteLength()));
+        }
         return new TestSuiteResult(testResults);
     }
 
+    /**
+     * Returns the value of the @code{lowerBound} attribute.
+     * @return lowerBound The value of the @code{lowerBound} attribute.
+     */
+    public HeldKarpBound getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Sets the value of the @code{lowerBound} attribute to a new value.
+     * @param lowerBound The new value to assign to the @code{lowerBound} attribute.
+     */
+    public void setLowerBound(HeldKarpBound lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    /**
+     * Returns the value of the @code{boundExecutor} attribute.
+     * @return boundExecutor The value of the @code{boundExecutor} attribute.
+     */
+    public ExecutorService getBoundExecutor() {
+        return boundExecutor;
+    }
+
+    /**
+     * Sets the value of the @code{boundExecutor} attribute to a new value.
+     * @param boundExecutor The new value to assign to the @code{boundExecutor} attribute.
+     */
+    public void setBoundExecutor(ExecutorService boundExecutor) {
+        this.boundExecutor = boundExecutor;
+    }
+
     /**
      * Sets the value of the @code{solver} attribute to a new value.
      * @param solver The new value to assign to the @code{solver} attribute.